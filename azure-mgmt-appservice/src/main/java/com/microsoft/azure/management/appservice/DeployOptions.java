@@ -14,6 +14,9 @@ public class DeployOptions {
     private String path;
     private Boolean restartSite;
     private Boolean cleanDeployment;
+    private DeployProgressListener progressListener;
+    private long chunkSizeInBytes;
+    private int chunkUploadConcurrency;
 
     /**
      * @return the path for deploy
@@ -74,4 +77,59 @@ public class DeployOptions {
         this.cleanDeployment = cleanDeployment;
         return this;
     }
+
+    /**
+     * @return the listener notified of the upload progress
+     */
+    public DeployProgressListener progressListener() {
+        return progressListener;
+    }
+
+    /**
+     * Specifies a listener to be notified of the number of bytes sent while the artifact is uploaded.
+     *
+     * @param progressListener the listener notified of the upload progress
+     * @return the DeployOptions object
+     */
+    public DeployOptions withProgressListener(DeployProgressListener progressListener) {
+        this.progressListener = progressListener;
+        return this;
+    }
+
+    /**
+     * @return the size in bytes of the chunks the file is split into, 0 if the file is uploaded in a single request
+     */
+    public long chunkSizeInBytes() {
+        return chunkSizeInBytes;
+    }
+
+    /**
+     * @return the maximum number of chunks uploaded concurrently
+     */
+    public int chunkUploadConcurrency() {
+        return chunkUploadConcurrency;
+    }
+
+    /**
+     * Specifies to upload the file in chunks.
+     *
+     * Chunks are uploaded concurrently and retried individually, then joined on the site.
+     * Chunked upload applies to {@code type=static}, {@code type=lib} and {@code type=script} with a {@code path}
+     * made of letters, digits, spaces, '.', '-', '_' and '/', when neither restart nor clean deployment is requested.
+     * Other deployments fall back to a single request. In particular {@code type=zip}, {@code type=war},
+     * {@code type=jar}, {@code type=ear} and {@code type=startup} are always uploaded in a single request, since
+     * the site unpacks or installs them on receipt rather than storing them at a path the chunks can be joined into.
+     *
+     * @param chunkSizeInBytes the size in bytes of each chunk
+     * @param chunkUploadConcurrency the maximum number of chunks uploaded concurrently
+     * @return the DeployOptions object
+     */
+    public DeployOptions withChunkedUpload(long chunkSizeInBytes, int chunkUploadConcurrency) {
+        if (chunkSizeInBytes <= 0 || chunkUploadConcurrency <= 0) {
+            throw new IllegalArgumentException("Chunk size and concurrency must be positive.");
+        }
+        this.chunkSizeInBytes = chunkSizeInBytes;
+        this.chunkUploadConcurrency = chunkUploadConcurrency;
+        return this;
+    }
 }
@@ -0,0 +1,20 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice;
+
+/**
+ * A listener notified of the progress of an artifact upload to the Kudu service.
+ */
+public interface DeployProgressListener {
+    /**
+     * Called after a chunk of the artifact has been sent.
+     *
+     * @param bytesSent the number of bytes sent so far in the current attempt
+     * @param totalBytes the size of the artifact, or -1 if it is not known
+     */
+    void onProgress(long bytesSent, long totalBytes);
+}
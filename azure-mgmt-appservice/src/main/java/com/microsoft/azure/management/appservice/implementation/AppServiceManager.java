@@ -70,7 +70,7 @@ public final class AppServiceManager extends Manager<AppServiceManager, WebSiteM
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), credentials.domain(), subscriptionId);
     }
 
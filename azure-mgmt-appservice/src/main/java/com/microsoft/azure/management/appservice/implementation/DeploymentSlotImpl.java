@@ -12,12 +12,8 @@ import com.microsoft.azure.management.appservice.DeployType;
 import com.microsoft.azure.management.appservice.DeploymentSlot;
 import com.microsoft.azure.management.appservice.WebApp;
 import rx.Completable;
-import rx.exceptions.Exceptions;
-import rx.functions.Action0;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.Objects;
 
@@ -75,21 +71,7 @@ class DeploymentSlotImpl
 
     @Override
     public Completable warDeployAsync(File warFile, String appName) {
-        try {
-            final InputStream is = new FileInputStream(warFile);
-            return warDeployAsync(new FileInputStream(warFile), appName).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
-        }
+        return kuduClient.warDeployAsync(warFile, appName);
     }
 
     @Override
@@ -124,21 +106,7 @@ class DeploymentSlotImpl
 
     @Override
     public Completable zipDeployAsync(File zipFile) {
-        try {
-            final InputStream is = new FileInputStream(zipFile);
-            return zipDeployAsync(new FileInputStream(zipFile)).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
-        }
+        return kuduClient.zipDeployAsync(zipFile).concatWith(stopAsync()).concatWith(startAsync());
     }
 
 
@@ -159,22 +127,12 @@ class DeploymentSlotImpl
 
     @Override
     public Completable deployAsync(DeployType type, File file, DeployOptions deployOptions) {
+        Objects.requireNonNull(type);
         Objects.requireNonNull(file);
-        try {
-            final InputStream is = new FileInputStream(file);
-            return deployAsync(type, new FileInputStream(file), deployOptions).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
+        if (deployOptions == null) {
+            deployOptions = new DeployOptions();
         }
+        return kuduClient.deployAsync(type, file, deployOptions);
     }
 
     @Override
@@ -184,7 +142,7 @@ class DeploymentSlotImpl
 
     @Override
     public Completable deployAsync(DeployType type, InputStream file) {
-        return kuduClient.deployAsync(type, file, null, null, null);
+        return kuduClient.deployAsync(type, file, null, null, null, null);
     }
 
     @Override
@@ -199,6 +157,6 @@ class DeploymentSlotImpl
         if (deployOptions == null) {
             deployOptions = new DeployOptions();
         }
-        return kuduClient.deployAsync(type, file, deployOptions.path(), deployOptions.restartSite(), deployOptions.cleanDeployment());
+        return kuduClient.deployAsync(type, file, deployOptions.path(), deployOptions.restartSite(), deployOptions.cleanDeployment(), deployOptions.progressListener());
     }
 }
@@ -22,6 +22,7 @@ import com.microsoft.azure.management.appservice.SkuName;
 import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
 import com.microsoft.azure.management.storage.StorageAccount;
 import com.microsoft.azure.management.storage.StorageAccountKey;
 import com.microsoft.azure.management.storage.StorageAccountSkuType;
@@ -40,14 +41,11 @@ import retrofit2.http.Path;
 import retrofit2.http.Query;
 import rx.Completable;
 import rx.Observable;
-import rx.exceptions.Exceptions;
 import rx.functions.Action0;
 import rx.functions.Func1;
 import rx.functions.Func2;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
@@ -101,12 +99,12 @@ class FunctionAppImpl
             if (defaultHostName == null) {
                 defaultHostName = new HttpUrl.Builder().host(defaultHostName()).scheme("http").build();
             }
-            functionService = manager().restClient().newBuilder()
+            functionService = Utils.newDerivedRestClientBuilder(manager().restClient())
                     .withBaseUrl(defaultHostName.toString())
                     .withCredentials(new FunctionCredentials(this))
                     .build()
                     .retrofit().create(FunctionService.class);
-            functionServiceViaKey = manager().restClient().newBuilder()
+            functionServiceViaKey = Utils.newDerivedRestClientBuilder(manager().restClient())
                     .withBaseUrl(defaultHostName.toString())
                     .build()
                     .retrofit().create(FunctionServiceViaKey.class);
@@ -188,7 +186,7 @@ class FunctionAppImpl
                 .first().zipWith(cachedAppServicePlanObservable, new Func2<StorageAccountKey, AppServicePlan, Observable<Indexable>>() {
                     @Override
                     public Observable<Indexable> call(StorageAccountKey storageAccountKey, AppServicePlan appServicePlan) {
-                        String connectionString = com.microsoft.azure.management.resources.fluentcore.utils.Utils.getStorageConnectionString(
+                        String connectionString = Utils.getStorageConnectionString(
                                 storageAccountToSet.name(), storageAccountKey.value(), manager().restClient());
                         addAppSettingIfNotModified(SETTING_WEB_JOBS_STORAGE, connectionString);
                         addAppSettingIfNotModified(SETTING_WEB_JOBS_DASHBOARD, connectionString);
@@ -611,21 +609,7 @@ class FunctionAppImpl
 
     @Override
     public Completable zipDeployAsync(File zipFile) {
-        try {
-            final InputStream is = new FileInputStream(zipFile);
-            return zipDeployAsync(new FileInputStream(zipFile)).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
-        }
+        return kuduClient.zipDeployAsync(zipFile);
     }
 
     @Override
@@ -6,26 +6,33 @@
 
 package com.microsoft.azure.management.appservice.implementation;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Joiner;
-import com.google.common.io.ByteStreams;
 import com.google.common.reflect.TypeToken;
 import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.appservice.DeployOptions;
+import com.microsoft.azure.management.appservice.DeployProgressListener;
 import com.microsoft.azure.management.appservice.DeployType;
+import com.microsoft.azure.management.appservice.OperatingSystem;
 import com.microsoft.azure.management.appservice.WebAppBase;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
 import com.microsoft.rest.RestClient;
 import com.microsoft.rest.RestException;
 import com.microsoft.rest.ServiceResponse;
 import com.microsoft.rest.ServiceResponseBuilder;
 import com.microsoft.rest.protocol.ResponseBuilder;
-import okhttp3.MediaType;
 import okhttp3.RequestBody;
 import okhttp3.ResponseBody;
 import okio.BufferedSource;
 import retrofit2.Response;
 import retrofit2.http.Body;
+import retrofit2.http.DELETE;
 import retrofit2.http.GET;
 import retrofit2.http.Headers;
 import retrofit2.http.POST;
+import retrofit2.http.PUT;
+import retrofit2.http.Path;
 import retrofit2.http.Query;
 import retrofit2.http.Streaming;
 import rx.Completable;
@@ -37,19 +44,39 @@ import rx.functions.Action1;
 import rx.functions.Func1;
 import rx.functions.Func2;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.SocketTimeoutException;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 /**
  * A client which interacts with Kudu service.
  */
 class KuduClient {
+    // staging directory for chunked uploads, relative to the home directory of the site
+    private static final String CHUNK_STAGING_DIRECTORY = "data/azure-sdk-chunks/";
+    // the target path of a chunked upload is part of the shell command joining the chunks, so it is limited to
+    // characters that no shell of the site interprets inside quotes
+    private static final Pattern CHUNKED_DEPLOY_PATH = Pattern.compile("[A-Za-z0-9 ._/-]+");
+    // only the deploy types which store the file as is can be joined from chunks, archives such as zip and war are
+    // unpacked on receipt and are always uploaded in a single request
+    private static final Map<DeployType, String> CHUNKED_DEPLOY_DIRECTORIES = new HashMap<>();
+    static {
+        CHUNKED_DEPLOY_DIRECTORIES.put(DeployType.STATIC, "site/wwwroot/");
+        CHUNKED_DEPLOY_DIRECTORIES.put(DeployType.JAR_LIB, "site/libs/");
+        CHUNKED_DEPLOY_DIRECTORIES.put(DeployType.SCRIPT, "site/scripts/");
+    }
+
     private final RestClient restClient;
     private final KuduService service;
+    private final boolean isLinux;
 
     KuduClient(WebAppBase webAppBase) {
         if (webAppBase.defaultHostName() == null) {
@@ -60,13 +87,14 @@ class KuduClient {
                 .replace("https://", "");
         String[] parts = host.split("\\.", 2);
         host = Joiner.on('.').join(parts[0], "scm", parts[1]);
-        restClient = webAppBase.manager().restClient().newBuilder()
+        restClient = Utils.newDerivedRestClientBuilder(webAppBase.manager().restClient())
                 .withBaseUrl("https://" + host)
                 .withConnectionTimeout(3, TimeUnit.MINUTES)
                 .withReadTimeout(3, TimeUnit.MINUTES)
                 .build();
         service = restClient
                 .retrofit().create(KuduService.class);
+        isLinux = webAppBase.operatingSystem() == OperatingSystem.LINUX;
     }
 
     private interface KuduService {
@@ -110,6 +138,33 @@ class KuduClient {
         @Headers({ "x-ms-logging-context: com.microsoft.azure.management.appservice.WebApps settings" })
         @GET("api/settings")
         Observable<Response<ResponseBody>> settings();
+
+        @Headers({ "Content-Type: application/octet-stream", "If-Match: *", "x-ms-logging-context: com.microsoft.azure.management.appservice.WebApps uploadChunk", "x-ms-body-logging: false" })
+        @PUT("api/vfs/{path}")
+        Observable<Response<ResponseBody>> uploadFile(@Path(value = "path", encoded = true) String path, @Body RequestBody file);
+
+        @Headers({ "If-Match: *", "x-ms-logging-context: com.microsoft.azure.management.appservice.WebApps deleteChunks" })
+        @DELETE("api/vfs/{path}/")
+        Observable<Response<ResponseBody>> deleteDirectory(@Path(value = "path", encoded = true) String path, @Query("recursive") Boolean recursive);
+
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.appservice.WebApps command" })
+        @POST("api/command")
+        Observable<Response<ResponseBody>> command(@Body KuduCommand command);
+    }
+
+    /**
+     * A command to run on the site through Kudu.
+     */
+    private static final class KuduCommand {
+        @JsonProperty("command")
+        private final String command;
+        @JsonProperty("dir")
+        private final String dir;
+
+        private KuduCommand(String command, String dir) {
+            this.command = command;
+            this.dir = dir;
+        }
     }
 
     Observable<String> streamApplicationLogsAsync() {
@@ -184,36 +239,203 @@ class KuduClient {
     }
 
     Completable warDeployAsync(InputStream warFile, String appName) {
-        try {
-            RequestBody body = RequestBody.create(MediaType.parse("application/octet-stream"), ByteStreams.toByteArray(warFile));
-            Observable<ServiceResponse<Void>> response =
-                    retryOnError(handleResponse(service.warDeploy(body, appName)));
-            return response.toCompletable();
-        } catch (IOException e) {
-            return Completable.error(e);
-        }
+        return warDeployAsync(StreamingRequestBody.fromInputStream(warFile, null), appName);
+    }
+
+    Completable warDeployAsync(File warFile, String appName) {
+        return warDeployAsync(StreamingRequestBody.fromFile(warFile, null), appName);
+    }
+
+    private Completable warDeployAsync(StreamingRequestBody body, String appName) {
+        return retryOnError(body, handleResponse(service.warDeploy(body, appName))).toCompletable();
     }
 
     Completable zipDeployAsync(InputStream zipFile) {
-        try {
-            RequestBody body = RequestBody.create(MediaType.parse("application/octet-stream"), ByteStreams.toByteArray(zipFile));
-            Observable<ServiceResponse<Void>> response =
-                    retryOnError(handleResponse(service.zipDeploy(body)));
-            return response.toCompletable();
-        } catch (IOException e) {
-            return Completable.error(e);
+        return zipDeployAsync(StreamingRequestBody.fromInputStream(zipFile, null));
+    }
+
+    Completable zipDeployAsync(File zipFile) {
+        return zipDeployAsync(StreamingRequestBody.fromFile(zipFile, null));
+    }
+
+    private Completable zipDeployAsync(StreamingRequestBody body) {
+        return retryOnError(body, handleResponse(service.zipDeploy(body))).toCompletable();
+    }
+
+    Completable deployAsync(DeployType type, InputStream file, String path, Boolean restart, Boolean clean, DeployProgressListener progressListener) {
+        return deployAsync(type, StreamingRequestBody.fromInputStream(file, progressListener), path, restart, clean);
+    }
+
+    Completable deployAsync(final DeployType type, final File file, final DeployOptions deployOptions) {
+        final Completable singleRequest = deployAsync(type, StreamingRequestBody.fromFile(file, deployOptions.progressListener()),
+                deployOptions.path(), deployOptions.restartSite(), deployOptions.cleanDeployment());
+        if (!canDeployInChunks(type, file, deployOptions)) {
+            return singleRequest;
         }
+        return deployInChunksAsync(type, file, deployOptions)
+                .onErrorResumeNext(new Func1<Throwable, Completable>() {
+                    @Override
+                    public Completable call(Throwable throwable) {
+                        if (throwable instanceof ChunkedUploadNotSupportedException) {
+                            return singleRequest;
+                        }
+                        return Completable.error(throwable);
+                    }
+                });
+    }
+
+    private static boolean canDeployInChunks(DeployType type, File file, DeployOptions deployOptions) {
+        return deployOptions.chunkSizeInBytes() > 0
+                && file.length() > deployOptions.chunkSizeInBytes()
+                && CHUNKED_DEPLOY_DIRECTORIES.containsKey(type)
+                && isChunkedDeployPath(deployOptions.path())
+                && deployOptions.restartSite() == null
+                && deployOptions.cleanDeployment() == null;
     }
 
-    Completable deployAsync(DeployType type, InputStream file, String path, Boolean restart, Boolean clean) {
-        try {
-            RequestBody body = RequestBody.create(MediaType.parse("application/octet-stream"), ByteStreams.toByteArray(file));
-            Observable<ServiceResponse<Void>> response =
-                    retryOnError(handleResponse(service.deploy(body, type, path, restart, clean)));
-            return response.toCompletable();
-        } catch (IOException e) {
-            return Completable.error(e);
+    private static boolean isChunkedDeployPath(String path) {
+        if (path == null || !CHUNKED_DEPLOY_PATH.matcher(path).matches()) {
+            return false;
+        }
+        for (String segment : path.split("/")) {
+            if (segment.equals("..")) {
+                return false;
+            }
         }
+        return true;
+    }
+
+    /**
+     * Uploads the file in chunks to a staging directory on the site, then joins the chunks into the target path.
+     */
+    private Completable deployInChunksAsync(DeployType type, final File file, DeployOptions deployOptions) {
+        final long chunkSize = deployOptions.chunkSizeInBytes();
+        final long fileLength = file.length();
+        final int chunkCount = (int) ((fileLength + chunkSize - 1) / chunkSize);
+        final String stagingDirectory = CHUNK_STAGING_DIRECTORY + UUID.randomUUID().toString();
+        final String target = CHUNKED_DEPLOY_DIRECTORIES.get(type) + deployOptions.path().replaceFirst("^/+", "");
+        final DeployProgressListener progressListener = deployOptions.progressListener();
+        final AtomicLong bytesSent = new AtomicLong();
+
+        Completable upload = Observable.range(0, chunkCount)
+                .flatMap(new Func1<Integer, Observable<ServiceResponse<Void>>>() {
+                    @Override
+                    public Observable<ServiceResponse<Void>> call(Integer index) {
+                        final long offset = index * chunkSize;
+                        final long length = Math.min(chunkSize, fileLength - offset);
+                        final long[] chunkBytesSent = new long[1];
+                        StreamingRequestBody body = StreamingRequestBody.fromFileRange(file, offset, length, new DeployProgressListener() {
+                            @Override
+                            public void onProgress(long sent, long totalBytes) {
+                                // a retried chunk starts over, only count the bytes past what was already counted
+                                long total = bytesSent.addAndGet(Math.max(0, sent - chunkBytesSent[0]));
+                                chunkBytesSent[0] = Math.max(chunkBytesSent[0], sent);
+                                if (progressListener != null) {
+                                    progressListener.onProgress(total, fileLength);
+                                }
+                            }
+                        });
+                        String chunkName = String.format("%s/chunk-%05d", stagingDirectory, index);
+                        // the calls of the service are synchronous, subscribe on the scheduler to upload in parallel
+                        return retryChunkOnError(handleResponse(service.uploadFile(chunkName, body)))
+                                .subscribeOn(SdkContext.getRxScheduler());
+                    }
+                }, deployOptions.chunkUploadConcurrency())
+                .onErrorResumeNext(new Func1<Throwable, Observable<ServiceResponse<Void>>>() {
+                    @Override
+                    public Observable<ServiceResponse<Void>> call(Throwable throwable) {
+                        if (throwable instanceof RestException && ((RestException) throwable).response() != null) {
+                            int code = ((RestException) throwable).response().code();
+                            if (code == 404 || code == 405) {
+                                // the site does not expose the virtual file system
+                                return Observable.error(new ChunkedUploadNotSupportedException(throwable));
+                            }
+                        }
+                        return Observable.error(throwable);
+                    }
+                })
+                .toCompletable();
+
+        // chunk names are zero padded, so the shell joins them in order
+        String joinCommand = isLinux
+                ? String.format("mkdir -p \"$(dirname '../../../%1$s')\" && cat chunk-* > '../../../%1$s'", target)
+                : String.format("(if not exist \"..\\..\\..\\%1$s\\..\" mkdir \"..\\..\\..\\%1$s\\..\") & copy /b /y chunk-* \"..\\..\\..\\%1$s\"",
+                    target.replace('/', '\\'));
+        Completable join = runCommandAsync(joinCommand, stagingDirectory);
+        final Completable cleanUp = handleResponse(service.deleteDirectory(stagingDirectory, true))
+                .toCompletable()
+                .onErrorComplete();
+        return upload.andThen(join)
+                .onErrorResumeNext(new Func1<Throwable, Completable>() {
+                    @Override
+                    public Completable call(Throwable throwable) {
+                        return cleanUp.andThen(Completable.error(throwable));
+                    }
+                })
+                .andThen(cleanUp);
+    }
+
+    private Completable runCommandAsync(String command, String directory) {
+        return handleResponse(service.command(new KuduCommand(command, directory)))
+                .flatMap(new Func1<ServiceResponse<Void>, Observable<Void>>() {
+                    @Override
+                    public Observable<Void> call(ServiceResponse<Void> response) {
+                        try {
+                            ResponseBody body = response.response().body();
+                            Map<String, Object> result = body == null ? null : restClient.serializerAdapter().<Map<String, Object>>deserialize(
+                                    body.string(), new TypeToken<Map<String, Object>>() { }.getType());
+                            Object exitCode = result == null ? null : result.get("ExitCode");
+                            if (exitCode instanceof Number && ((Number) exitCode).intValue() != 0) {
+                                return Observable.error(new RestException(
+                                        "Failed to join uploaded chunks: " + result.get("Error"), response.response()));
+                            }
+                            return Observable.empty();
+                        } catch (IOException e) {
+                            return Observable.error(e);
+                        }
+                    }
+                }).toCompletable();
+    }
+
+    private <T> Observable<T> retryChunkOnError(Observable<T> observable) {
+        final int retryCount = 5 + 1;   // retryCount is 5, last 1 is guard
+        return observable.retryWhen(new Func1<Observable<? extends Throwable>, Observable<?>>() {
+            @Override
+            public Observable<?> call(Observable<? extends Throwable> observable) {
+                return observable.zipWith(Observable.range(1, retryCount), new Func2<Throwable, Integer, Integer>() {
+                    @Override
+                    public Integer call(Throwable throwable, Integer integer) {
+                        if (integer < retryCount
+                                && (throwable instanceof IOException
+                                || (throwable instanceof RestException
+                                && ((RestException) throwable).response() != null
+                                && ((RestException) throwable).response().code() >= 500))) {
+                            return integer;
+                        } else {
+                            throw Exceptions.propagate(throwable);
+                        }
+                    }
+                }).flatMap(new Func1<Integer, Observable<?>>() {
+                    @Override
+                    public Observable<?> call(Integer i) {
+                        return Observable.timer(i, TimeUnit.SECONDS);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Signals that the site does not accept chunked uploads.
+     */
+    private static final class ChunkedUploadNotSupportedException extends RuntimeException {
+        private ChunkedUploadNotSupportedException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private Completable deployAsync(DeployType type, StreamingRequestBody body, String path, Boolean restart, Boolean clean) {
+        return retryOnError(body, handleResponse(service.deploy(body, type, path, restart, clean))).toCompletable();
     }
 
     Observable<Map<String, String>> settings() {
@@ -273,6 +495,11 @@ class KuduClient {
         });
     }
 
+    private <T> Observable<T> retryOnError(StreamingRequestBody body, Observable<T> observable) {
+        // an input stream cannot be sent again, so the request cannot be retried
+        return body.isRepeatable() ? retryOnError(observable) : observable;
+    }
+
     private <T> Observable<T> retryOnError(Observable<T> observable) {
         final int retryCount = 5 + 1;   // retryCount is 5, last 1 is guard
         return observable.retryWhen(new Func1<Observable<? extends Throwable>, Observable<?>>() {
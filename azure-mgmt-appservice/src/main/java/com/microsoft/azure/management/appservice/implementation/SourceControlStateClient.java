@@ -0,0 +1,83 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.reflect.TypeToken;
+import com.microsoft.azure.management.appservice.DefaultErrorResponseException;
+import com.microsoft.rest.serializer.JsonFlatten;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
+import retrofit2.http.Query;
+import retrofit2.http.Url;
+import rx.Observable;
+import rx.functions.Func1;
+
+/**
+ * Reads the provisioning state of the binding of a source control to an app, which the generated
+ * {@link SiteSourceControlInner} does not model, kept out of the generated clients so that it survives their
+ * regeneration.
+ */
+final class SourceControlStateClient {
+    private final SourceControlStateService service;
+    private final WebSiteManagementClientImpl client;
+
+    SourceControlStateClient(WebSiteManagementClientImpl client) {
+        this.service = client.restClient().retrofit().create(SourceControlStateService.class);
+        this.client = client;
+    }
+
+    /**
+     * The get operation of the source control of an app or a slot, addressed by the id of the source control.
+     */
+    interface SourceControlStateService {
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.appservice.WebApps getSourceControlState" })
+        @GET
+        Observable<Response<ResponseBody>> get(@Url String sourceControlId, @Query("api-version") String apiVersion, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+    }
+
+    /**
+     * Gets the provisioning state of the binding of a source control.
+     *
+     * @param sourceControlId the id of the source control
+     * @return the observable to the provisioning state, null if the service did not report it
+     */
+    Observable<String> getProvisioningStateAsync(String sourceControlId) {
+        if (sourceControlId == null) {
+            throw new IllegalArgumentException("Parameter sourceControlId is required and cannot be null.");
+        }
+        return service.get(sourceControlId, client.apiVersion(), client.acceptLanguage(), client.userAgent())
+                .flatMap(new Func1<Response<ResponseBody>, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(Response<ResponseBody> response) {
+                        try {
+                            SourceControlState state = client.restClient().responseBuilderFactory()
+                                    .<SourceControlState, DefaultErrorResponseException>newInstance(client.serializerAdapter())
+                                    .register(200, new TypeToken<SourceControlState>() { }.getType())
+                                    .registerError(DefaultErrorResponseException.class)
+                                    .build(response)
+                                    .body();
+                            return Observable.just(state == null ? null : state.provisioningState);
+                        } catch (Throwable t) {
+                            return Observable.error(t);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * The part of the source control of an app holding the state of its binding.
+     */
+    @JsonFlatten
+    static final class SourceControlState {
+        @JsonProperty(value = "properties.provisioningState", access = JsonProperty.Access.WRITE_ONLY)
+        private String provisioningState;
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.appservice.DeployProgressListener;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A request body which streams an artifact in chunks instead of holding it in memory.
+ * <p>
+ * A body created from a file, or from a range of a file, re-opens the file on every write, so the
+ * request can be retried.
+ * A body created from an input stream can only be written once.
+ */
+final class StreamingRequestBody extends RequestBody {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+    private static final long CHUNK_SIZE = 64 * 1024;
+
+    private final File file;
+    private final long offset;
+    private final long length;
+    private final InputStream inputStream;
+    private final DeployProgressListener progressListener;
+    private final AtomicBoolean consumed = new AtomicBoolean();
+
+    private StreamingRequestBody(File file, long offset, long length, InputStream inputStream, DeployProgressListener progressListener) {
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.inputStream = inputStream;
+        this.progressListener = progressListener;
+    }
+
+    static StreamingRequestBody fromFile(File file, DeployProgressListener progressListener) {
+        return new StreamingRequestBody(file, 0, -1, null, progressListener);
+    }
+
+    static StreamingRequestBody fromFileRange(File file, long offset, long length, DeployProgressListener progressListener) {
+        return new StreamingRequestBody(file, offset, length, null, progressListener);
+    }
+
+    static StreamingRequestBody fromInputStream(InputStream inputStream, DeployProgressListener progressListener) {
+        return new StreamingRequestBody(null, 0, -1, inputStream, progressListener);
+    }
+
+    /**
+     * @return true if the body can be written more than once
+     */
+    boolean isRepeatable() {
+        return file != null;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return OCTET_STREAM;
+    }
+
+    @Override
+    public long contentLength() {
+        if (file == null) {
+            return -1;
+        }
+        return length >= 0 ? length : file.length();
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        if (file == null && !consumed.compareAndSet(false, true)) {
+            throw new IOException("The artifact input stream has already been sent and cannot be sent again.");
+        }
+        final long totalBytes = contentLength();
+        Source source = file != null ? openFile() : Okio.source(inputStream);
+        try {
+            // Okio moves segments between the source and the sink, the artifact is never buffered as a whole
+            Buffer buffer = sink.buffer();
+            long bytesSent = 0;
+            long read;
+            while ((totalBytes < 0 || bytesSent < totalBytes)
+                    && (read = source.read(buffer, totalBytes < 0 ? CHUNK_SIZE : Math.min(CHUNK_SIZE, totalBytes - bytesSent))) != -1) {
+                sink.emitCompleteSegments();
+                bytesSent += read;
+                if (progressListener != null) {
+                    progressListener.onProgress(bytesSent, totalBytes);
+                }
+            }
+            sink.flush();
+        } finally {
+            if (file != null) {
+                source.close();
+            }
+        }
+    }
+
+    private Source openFile() throws IOException {
+        FileInputStream fileInputStream = new FileInputStream(file);
+        try {
+            fileInputStream.getChannel().position(offset);
+        } catch (IOException e) {
+            fileInputStream.close();
+            throw e;
+        }
+        return Okio.source(fileInputStream);
+    }
+}
@@ -52,7 +52,7 @@ import com.microsoft.azure.management.resources.fluentcore.dag.FunctionalTaskIte
 import com.microsoft.azure.management.resources.fluentcore.dag.IndexableTaskItem;
 import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
-import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import com.microsoft.azure.management.resources.fluentcore.utils.PollingWaiter;
 import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
 import com.microsoft.rest.RestException;
 import org.joda.time.DateTime;
@@ -61,6 +61,7 @@ import rx.Observable;
 import rx.Subscription;
 import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Func0;
 import rx.functions.Func1;
 import rx.functions.Func2;
 import rx.functions.FuncN;
@@ -78,7 +79,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The implementation for WebAppBase.
@@ -107,6 +108,12 @@ abstract class WebAppBaseImpl<
         put(AzureEnvironment.AZURE_US_GOVERNMENT, "azurewebsites.us");
     }};
 
+    // polls the binding of a new source control, which takes from seconds to a few minutes to settle
+    private static final PollingWaiter SOURCE_CONTROL_WAITER = new PollingWaiter()
+            .withInitialDelay(1, TimeUnit.SECONDS)
+            .withMaxDelay(15, TimeUnit.SECONDS)
+            .withTimeout(5, TimeUnit.MINUTES);
+
     SiteConfigResourceInner siteConfig;
     KuduClient kuduClient;
 
@@ -1166,16 +1173,10 @@ abstract class WebAppBaseImpl<
                         return createOrUpdateSourceControl(sourceControl.inner());
                     }
                 })
-                .delay(new Func1<SiteSourceControlInner, Observable<Long>>() {
+                .flatMap(new Func1<SiteSourceControlInner, Observable<SiteSourceControlInner>>() {
                     @Override
-                    public Observable<Long> call(SiteSourceControlInner siteSourceControlInner) {
-                        return Observable.fromCallable(new Callable<Long>() {
-                            @Override
-                            public Long call() throws Exception {
-                                SdkContext.sleep(30000);
-                                return 30000L;
-                            }
-                        });
+                    public Observable<SiteSourceControlInner> call(SiteSourceControlInner siteSourceControlInner) {
+                        return waitForSourceControlAsync(siteSourceControlInner);
                     }
                 })
                 .map(new Func1<SiteSourceControlInner, Indexable>() {
@@ -1186,6 +1187,45 @@ abstract class WebAppBaseImpl<
                 });
     }
 
+    /**
+     * Waits for the binding of the source control to the app to be active, polling the provisioning state of the
+     * source control until it is final.
+     *
+     * @param siteSourceControlInner the source control as returned by its creation
+     * @return an observable emitting the source control once its binding is active, or an error if the binding
+     * failed, was canceled or did not settle in time
+     */
+    private Observable<SiteSourceControlInner> waitForSourceControlAsync(
+            final SiteSourceControlInner siteSourceControlInner) {
+        if (siteSourceControlInner == null || siteSourceControlInner.id() == null) {
+            return Observable.just(siteSourceControlInner);
+        }
+        final SourceControlStateClient stateClient = new SourceControlStateClient(manager().inner());
+        return SOURCE_CONTROL_WAITER.waitUntilAsync(new Func0<Observable<String>>() {
+            @Override
+            public Observable<String> call() {
+                return stateClient.getProvisioningStateAsync(siteSourceControlInner.id());
+            }
+        }, new Func1<String, Boolean>() {
+            @Override
+            public Boolean call(String state) {
+                // a state not reported yet is not final
+                return "Succeeded".equalsIgnoreCase(state)
+                        || "Failed".equalsIgnoreCase(state)
+                        || "Canceled".equalsIgnoreCase(state);
+            }
+        }).flatMap(new Func1<String, Observable<SiteSourceControlInner>>() {
+            @Override
+            public Observable<SiteSourceControlInner> call(String state) {
+                if (!"Succeeded".equalsIgnoreCase(state)) {
+                    return Observable.error(new IllegalStateException(
+                            "The binding of the source control to the app ended in the state " + state));
+                }
+                return Observable.just(siteSourceControlInner);
+            }
+        });
+    }
+
     Observable<Indexable> submitSourceControlToDelete() {
         if (!sourceControlToDelete) {
             return Observable.just((Indexable) this);
@@ -20,13 +20,9 @@ import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import rx.Completable;
 import rx.Observable;
-import rx.exceptions.Exceptions;
-import rx.functions.Action0;
 import rx.functions.Func1;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Objects;
@@ -189,21 +185,7 @@ class WebAppImpl
 
     @Override
     public Completable warDeployAsync(File warFile, String appName) {
-        try {
-            final InputStream is = new FileInputStream(warFile);
-            return warDeployAsync(new FileInputStream(warFile), appName).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
-        }
+        return kuduClient.warDeployAsync(warFile, appName);
     }
 
     @Override
@@ -222,21 +204,7 @@ class WebAppImpl
 
     @Override
     public Completable zipDeployAsync(File zipFile) {
-        try {
-            final InputStream is = new FileInputStream(zipFile);
-            return zipDeployAsync(new FileInputStream(zipFile)).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
-        }
+        return kuduClient.zipDeployAsync(zipFile).concatWith(WebAppImpl.this.stopAsync()).concatWith(WebAppImpl.this.startAsync());
     }
 
     @Override
@@ -271,22 +239,12 @@ class WebAppImpl
 
     @Override
     public Completable deployAsync(DeployType type, File file, DeployOptions deployOptions) {
+        Objects.requireNonNull(type);
         Objects.requireNonNull(file);
-        try {
-            final InputStream is = new FileInputStream(file);
-            return deployAsync(type, new FileInputStream(file), deployOptions).doAfterTerminate(new Action0() {
-                @Override
-                public void call() {
-                    try {
-                        is.close();
-                    } catch (IOException e) {
-                        Exceptions.propagate(e);
-                    }
-                }
-            });
-        } catch (IOException e) {
-            return Completable.error(e);
+        if (deployOptions == null) {
+            deployOptions = new DeployOptions();
         }
+        return kuduClient.deployAsync(type, file, deployOptions);
     }
 
     @Override
@@ -296,7 +254,7 @@ class WebAppImpl
 
     @Override
     public Completable deployAsync(DeployType type, InputStream file) {
-        return kuduClient.deployAsync(type, file, null, null, null);
+        return kuduClient.deployAsync(type, file, null, null, null, null);
     }
 
     @Override
@@ -311,7 +269,7 @@ class WebAppImpl
         if (deployOptions == null) {
             deployOptions = new DeployOptions();
         }
-        return kuduClient.deployAsync(type, file, deployOptions.path(), deployOptions.restartSite(), deployOptions.cleanDeployment());
+        return kuduClient.deployAsync(type, file, deployOptions.path(), deployOptions.restartSite(), deployOptions.cleanDeployment(), deployOptions.progressListener());
     }
 
     @Override
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.appservice.WebAppBase;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Scheduler;
+import rx.functions.Action1;
+import rx.schedulers.TestScheduler;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SourceControlReadinessTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String SITE_ID = "/subscriptions/" + SUBSCRIPTION_ID
+            + "/resourceGroups/rg/providers/Microsoft.Web/sites/contoso";
+    private static final String SITE_JSON = "{\"id\":\"" + SITE_ID + "\",\"name\":\"contoso\","
+            + "\"type\":\"Microsoft.Web/sites\",\"kind\":\"app\",\"location\":\"westus\","
+            + "\"properties\":{\"defaultHostName\":\"contoso.azurewebsites.net\",\"state\":\"Running\"}}";
+
+    @Test
+    public void canReturnOnceSourceControlIsActive() {
+        FakeSite site = new FakeSite(2, "InProgress", "Succeeded");
+
+        long start = System.nanoTime();
+        update(site).apply();
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+
+        // the binding is polled until it succeeds rather than waited for a fixed 30 seconds
+        Assert.assertTrue(site.sourceControlReads.get() > 2);
+        Assert.assertTrue("took " + elapsedSeconds + " seconds", elapsedSeconds < 20);
+    }
+
+    @Test
+    public void canFailOnceSourceControlFails() {
+        // the binding is created in its final state, without a long running operation to report its failure
+        FakeSite site = new FakeSite(0, "InProgress", "Failed");
+        try {
+            update(site).apply();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith("Failed"));
+        }
+    }
+
+    @Test
+    public void canWaitForStateNotReportedYet() {
+        FakeSite site = new FakeSite(2, null, "Succeeded");
+
+        update(site).apply();
+
+        // a binding without a provisioning state is polled rather than taken as settled
+        Assert.assertEquals(3, site.sourceControlReads.get());
+    }
+
+    @Test
+    public void canTimeOutWhileSourceControlIsPending() {
+        // the creation reports no state, so the pending binding is left to the waiter rather than the long
+        // running operation of the creation
+        FakeSite site = new FakeSite(Integer.MAX_VALUE, null, "Succeeded");
+        WebAppBase.Update<WebApp> update = update(site);
+        Scheduler rxScheduler = SdkContext.getRxScheduler();
+        TestScheduler scheduler = new TestScheduler();
+        SdkContext.setRxScheduler(scheduler);
+        try {
+            final AtomicReference<Throwable> error = new AtomicReference<>();
+            update.applyAsync().subscribe(new Action1<Object>() {
+                @Override
+                public void call(Object webApp) {
+                }
+            }, new Action1<Throwable>() {
+                @Override
+                public void call(Throwable throwable) {
+                    error.set(throwable);
+                }
+            });
+
+            scheduler.advanceTimeBy(4, TimeUnit.MINUTES);
+            Assert.assertNull(error.get());
+            scheduler.advanceTimeBy(2, TimeUnit.MINUTES);
+            Assert.assertTrue(String.valueOf(error.get()), error.get() instanceof TimeoutException);
+        } finally {
+            SdkContext.setRxScheduler(rxScheduler);
+        }
+    }
+
+    private static WebAppBase.Update<WebApp> update(FakeSite site) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(site)
+                .build();
+        WebApp webApp = AppServiceManager.authenticate(restClient, "tenant", SUBSCRIPTION_ID)
+                .webApps().getById(SITE_ID);
+        return webApp.update()
+                .defineSourceControl()
+                    .withPublicGitRepository("https://github.com/contoso/site")
+                    .withBranch("master")
+                    .attach();
+    }
+
+    /**
+     * Answers the requests for the web app, with a source control binding pending for a number of reads
+     * before reaching its final state; a null pending state is left out of the response.
+     */
+    private static final class FakeSite implements Interceptor {
+        private final int readsPending;
+        private final String pendingState;
+        private final String finalState;
+        private final AtomicInteger sourceControlReads = new AtomicInteger();
+
+        private FakeSite(int readsPending, String pendingState, String finalState) {
+            this.readsPending = readsPending;
+            this.pendingState = pendingState;
+            this.finalState = finalState;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String path = request.url().encodedPath();
+            if (path.endsWith("/sourcecontrols/web")) {
+                boolean pending = "PUT".equals(request.method()) && readsPending > 0
+                        || sourceControlReads.incrementAndGet() <= readsPending;
+                String state = pending ? pendingState : finalState;
+                return respond(request, "{\"id\":\"" + SITE_ID + "/sourcecontrols/web\",\"properties\":"
+                        + "{\"repoUrl\":\"https://github.com/contoso/site\",\"branch\":\"master\""
+                        + (state == null ? "" : ",\"provisioningState\":\"" + state + "\"") + "}}");
+            }
+            return respond(request, path.equalsIgnoreCase(SITE_ID) ? SITE_JSON : "{}");
+        }
+
+        private static Response respond(Request request, String json) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .header("Retry-After", "0")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+    }
+}
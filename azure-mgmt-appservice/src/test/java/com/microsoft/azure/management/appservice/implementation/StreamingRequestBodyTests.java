@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.appservice.implementation;
+
+import com.microsoft.azure.management.appservice.DeployProgressListener;
+import okio.Buffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+public class StreamingRequestBodyTests {
+
+    @Test
+    public void canStreamFileRepeatedly() throws Exception {
+        byte[] content = new byte[300 * 1024];
+        new Random().nextBytes(content);
+        File file = File.createTempFile("artifact", ".zip");
+        file.deleteOnExit();
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(content);
+        }
+
+        final long[] lastProgress = new long[2];
+        StreamingRequestBody body = StreamingRequestBody.fromFile(file, new DeployProgressListener() {
+            @Override
+            public void onProgress(long bytesSent, long totalBytes) {
+                lastProgress[0] = bytesSent;
+                lastProgress[1] = totalBytes;
+            }
+        });
+        Assert.assertTrue(body.isRepeatable());
+        Assert.assertEquals(content.length, body.contentLength());
+
+        // a retry re-opens the file
+        for (int i = 0; i < 2; i++) {
+            Buffer sink = new Buffer();
+            body.writeTo(sink);
+            Assert.assertTrue(Arrays.equals(content, sink.readByteArray()));
+            Assert.assertEquals(content.length, lastProgress[0]);
+            Assert.assertEquals(content.length, lastProgress[1]);
+        }
+    }
+
+    @Test
+    public void canStreamFileRange() throws Exception {
+        byte[] content = new byte[200 * 1024];
+        new Random().nextBytes(content);
+        File file = File.createTempFile("artifact", ".jar");
+        file.deleteOnExit();
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(content);
+        }
+
+        long offset = 70 * 1024 + 3;
+        long length = 90 * 1024;
+        StreamingRequestBody body = StreamingRequestBody.fromFileRange(file, offset, length, null);
+        Assert.assertTrue(body.isRepeatable());
+        Assert.assertEquals(length, body.contentLength());
+
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        Assert.assertTrue(Arrays.equals(Arrays.copyOfRange(content, (int) offset, (int) (offset + length)), sink.readByteArray()));
+    }
+
+    @Test
+    public void canStreamInputStreamOnce() throws Exception {
+        byte[] content = "zip content".getBytes("UTF-8");
+        StreamingRequestBody body = StreamingRequestBody.fromInputStream(new ByteArrayInputStream(content), null);
+        Assert.assertFalse(body.isRepeatable());
+        Assert.assertEquals(-1, body.contentLength());
+
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        Assert.assertTrue(Arrays.equals(content, sink.readByteArray()));
+        try {
+            body.writeTo(new Buffer());
+            Assert.fail();
+        } catch (IOException e) {
+            // expected, the input stream has been consumed
+        }
+    }
+}
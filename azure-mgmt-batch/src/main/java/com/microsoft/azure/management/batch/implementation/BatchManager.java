@@ -59,7 +59,7 @@ public class BatchManager extends Manager<BatchManager, BatchManagementClientImp
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), subscriptionId);
     }
 
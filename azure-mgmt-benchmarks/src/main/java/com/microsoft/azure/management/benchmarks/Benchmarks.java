@@ -0,0 +1,41 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the JMH command line, writing the results as JSON to jmh-result.json unless another
+ * result format or file is given, so that runs on different commits can be compared with {@link ResultComparison}.
+ */
+public final class Benchmarks {
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Main entry point.
+     *
+     * @param args the JMH command line arguments, e.g. "ResourceId -f 1 -prof gc"
+     * @throws Exception if the benchmarks fail
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-h") && !arguments.contains("-l")) {
+            arguments.add("-rf");
+            arguments.add("json");
+            if (!arguments.contains("-rff")) {
+                arguments.add("-rff");
+                arguments.add(DEFAULT_RESULT_FILE);
+            }
+        }
+        org.openjdk.jmh.Main.main(arguments.toArray(new String[arguments.size()]));
+    }
+}
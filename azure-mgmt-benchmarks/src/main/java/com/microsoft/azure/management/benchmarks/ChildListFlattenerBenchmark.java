@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.compute.VirtualMachineOffer;
+import com.microsoft.azure.management.compute.VirtualMachinePublisher;
+import com.microsoft.azure.management.compute.VirtualMachinePublishers;
+import com.microsoft.azure.management.compute.implementation.ComputeManager;
+import com.microsoft.azure.management.resources.fluentcore.utils.ChildListFlattener;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lists the offers of all the virtual machine image publishers of a region, flattened with
+ * {@link ChildListFlattener}, loading the offers of each publisher when it is reached and ahead of the caller. The
+ * marketplace is simulated in process and answers each request after a delay standing for the service latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChildListFlattenerBenchmark {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+
+    /**
+     * The number of publishers.
+     */
+    @Param({"100"})
+    public int publisherCount;
+
+    /**
+     * The number of offers per publisher.
+     */
+    @Param({"10"})
+    public int offerCount;
+
+    /**
+     * The time to answer a request, in milliseconds.
+     */
+    @Param({"20"})
+    public int latencyMillis;
+
+    /**
+     * The number of offer lists loaded ahead, 0 to load each one when it is reached.
+     */
+    @Param({"0", "4", "16"})
+    public int lookahead;
+
+    private VirtualMachinePublishers publishers;
+
+    /**
+     * Creates the client of the simulated marketplace.
+     */
+    @Setup
+    public void setup() {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withCredentials(new AzureTokenCredentials(AzureEnvironment.AZURE, null) {
+                    @Override
+                    public String getToken(String resource) {
+                        return "token";
+                    }
+                })
+                .withInterceptor(new FakeMarketplace(this.publisherCount, this.offerCount, this.latencyMillis))
+                .build();
+        this.publishers = ComputeManager.authenticate(restClient, SUBSCRIPTION_ID).virtualMachineImages().publishers();
+    }
+
+    /**
+     * Lists the offers of all the publishers.
+     *
+     * @param blackhole the sink of the offers
+     */
+    @Benchmark
+    public void listOffers(Blackhole blackhole) {
+        PagedList<VirtualMachineOffer> offers = new ChildListFlattener<>(this.publishers.listByRegion("westus"),
+                new ChildListFlattener.ChildListLoader<VirtualMachinePublisher, VirtualMachineOffer>() {
+                    @Override
+                    public PagedList<VirtualMachineOffer> loadList(VirtualMachinePublisher publisher) {
+                        return publisher.offers().list();
+                    }
+                }, this.lookahead).flatten();
+        for (VirtualMachineOffer offer : offers) {
+            blackhole.consume(offer.name());
+        }
+    }
+
+    /**
+     * Answers the listings of publishers and offers after a delay.
+     */
+    private static final class FakeMarketplace implements Interceptor {
+        private final String publishersJson;
+        private final String offersJson;
+        private final int latencyMillis;
+
+        private FakeMarketplace(int publisherCount, int offerCount, int latencyMillis) {
+            this.publishersJson = names("publisher", publisherCount);
+            this.offersJson = names("offer", offerCount);
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            try {
+                Thread.sleep(this.latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            String json = request.url().encodedPath().endsWith("/offers") ? this.offersJson : this.publishersJson;
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+
+        private static String names(String prefix, int count) {
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < count; i++) {
+                json.append(i > 0 ? "," : "")
+                        .append("{\"name\":\"").append(prefix).append(i).append("\",\"location\":\"westus\"}");
+            }
+            return json.append(']').toString();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.compute.implementation.ComputeManagementClientImpl;
+import com.microsoft.azure.management.compute.implementation.VirtualMachineScaleSetInner;
+import com.microsoft.azure.management.compute.implementation.VirtualMachineScaleSetsInner;
+import com.microsoft.azure.management.resources.core.RecordedData;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
+import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistrationInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerRateLimiter;
+import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.RetryCallAdapterFactory;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gets a virtual machine scale set replayed from a session record, through a bare REST client and through the
+ * client of the managers: credentials, provider registration, throttling and the retrying call adapter. The
+ * difference is the overhead of the chain per call.
+ * <p>
+ * The REST client runs the interceptors it adds itself for credentials, user agent and retries after the custom
+ * ones, so past the replay; the credentials are applied ahead of the replay instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterceptorChainBenchmark {
+    private static final String BASE_URL = "https://management.azure.com/";
+
+    /**
+     * The client, "bare" or "manager".
+     */
+    @Param({"bare", "manager"})
+    public String chain;
+
+    private VirtualMachineScaleSetsInner client;
+    private String resourceGroupName;
+    private String name;
+
+    /**
+     * Builds the client.
+     *
+     * @throws IOException if the session record cannot be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        RecordedData recordedData = SessionRecordReplayInterceptor.read("azure-mgmt-compute",
+                "canCreateVirtualMachineScaleSet");
+        List<String> bodies = SessionRecordReplayInterceptor.responseBodies(recordedData, "GET",
+                ".*/providers/Microsoft\\.Compute/virtualMachineScaleSets/[^/?]+\\?.*");
+        ResourceId id = ResourceId.fromString(new AzureJacksonAdapter()
+                .<VirtualMachineScaleSetInner>deserialize(bodies.get(0), VirtualMachineScaleSetInner.class).id());
+        this.resourceGroupName = id.resourceGroupName();
+        this.name = id.name();
+
+        SessionRecordReplayInterceptor replay = new SessionRecordReplayInterceptor(recordedData);
+        RestClient restClient;
+        if ("manager".equals(this.chain)) {
+            // as built by the managers, with the replay as the last interceptor in place of the network
+            AzureTokenCredentials credentials = new AzureTokenCredentials(AzureEnvironment.AZURE, null) {
+                @Override
+                public String getToken(String resource) {
+                    return "token";
+                }
+            };
+            OkHttpClient.Builder httpClientBuilder = new OkHttpClient.Builder();
+            credentials.applyCredentialsFilter(httpClientBuilder);
+            restClient = new RestClient.Builder(httpClientBuilder,
+                    new Retrofit.Builder().addCallAdapterFactory(new RetryCallAdapterFactory()))
+                    .withSerializerAdapter(new AzureJacksonAdapter())
+                    .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                    .withBaseUrl(BASE_URL)
+                    .withInterceptor(new ProviderRegistrationInterceptor(credentials))
+                    .withInterceptor(new ResourceManagerThrottlingInterceptor(
+                            new ResourceManagerRateLimiter(Integer.MAX_VALUE, Integer.MAX_VALUE), false))
+                    .withInterceptor(replay)
+                    .build();
+        } else {
+            restClient = new RestClient.Builder()
+                    .withSerializerAdapter(new AzureJacksonAdapter())
+                    .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                    .withBaseUrl(BASE_URL)
+                    .withInterceptor(replay)
+                    .build();
+        }
+        this.client = new ComputeManagementClientImpl(restClient)
+                .withSubscriptionId("00000000-0000-0000-0000-000000000000")
+                .virtualMachineScaleSets();
+    }
+
+    /**
+     * Gets the scale set.
+     *
+     * @return the scale set
+     */
+    @Benchmark
+    public VirtualMachineScaleSetInner get() {
+        return this.client.getByResourceGroup(this.resourceGroupName, this.name);
+    }
+}
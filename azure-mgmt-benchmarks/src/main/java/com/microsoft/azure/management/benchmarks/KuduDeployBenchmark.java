@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.appservice.DeployOptions;
+import com.microsoft.azure.management.appservice.DeployType;
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azure.management.appservice.implementation.AppServiceManager;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deploys a file to a web app through Kudu in a single request and in chunks uploaded in parallel. The web app and
+ * Kudu are simulated in process; Kudu reads the uploaded bytes at a limited bandwidth per request, standing for the
+ * throughput of one connection to the site.
+ * <p>
+ * The peak heap usage of each iteration is reported as the "peakHeapMegabytes" secondary result, to check that
+ * neither upload buffers the file; run with "-prof gc" for the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class KuduDeployBenchmark {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String SITE_ID = "/subscriptions/" + SUBSCRIPTION_ID
+            + "/resourceGroups/rg/providers/Microsoft.Web/sites/contoso";
+    private static final String SITE_JSON = "{\"id\":\"" + SITE_ID + "\",\"name\":\"contoso\","
+            + "\"type\":\"Microsoft.Web/sites\",\"kind\":\"app\",\"location\":\"westus\","
+            + "\"properties\":{\"defaultHostName\":\"contoso.azurewebsites.net\",\"state\":\"Running\"}}";
+
+    /**
+     * The size of the deployed file, in megabytes.
+     */
+    @Param({"64"})
+    public int fileSizeMegabytes;
+
+    /**
+     * The bandwidth of one request to Kudu, in megabytes per second; 0 for unlimited.
+     */
+    @Param({"0", "50"})
+    public int bandwidthMegabytesPerSecond;
+
+    /**
+     * The upload, "single" or "chunked".
+     */
+    @Param({"single", "chunked"})
+    public String upload;
+
+    private File file;
+    private WebApp webApp;
+    private DeployOptions options;
+
+    /**
+     * Writes the file and gets the web app.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.file = File.createTempFile("deploy", ".bin");
+        byte[] buffer = new byte[1024 * 1024];
+        Random random = new Random(this.fileSizeMegabytes);
+        try (OutputStream outputStream = new FileOutputStream(this.file)) {
+            for (int i = 0; i < this.fileSizeMegabytes; i++) {
+                random.nextBytes(buffer);
+                outputStream.write(buffer);
+            }
+        }
+
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(new FakeSite(this.bandwidthMegabytesPerSecond * 1024L * 1024L))
+                .build();
+        this.webApp = AppServiceManager.authenticate(restClient, "tenant", SUBSCRIPTION_ID).webApps().getById(SITE_ID);
+        this.options = new DeployOptions().withPath("app/deploy.bin");
+        if ("chunked".equals(this.upload)) {
+            this.options.withChunkedUpload(8L * 1024 * 1024, 4);
+        }
+    }
+
+    /**
+     * Deletes the file.
+     */
+    @TearDown
+    public void tearDown() {
+        if (!this.file.delete()) {
+            this.file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Deploys the file.
+     *
+     * @param heap the counters of the heap usage
+     */
+    @Benchmark
+    public void deploy(HeapCounters heap) {
+        this.webApp.deploy(DeployType.STATIC, this.file, this.options);
+        heap.recordPeakUsage();
+    }
+
+    /**
+     * The peak heap usage of an iteration, reported by JMH next to the deploy time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounters {
+        /**
+         * The peak heap usage of the iteration, in megabytes.
+         */
+        public long peakHeapMegabytes;
+
+        /**
+         * Resets the peak heap usage before an iteration.
+         */
+        @Setup(Level.Iteration)
+        public void resetPeakUsage() {
+            System.gc();
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                pool.resetPeakUsage();
+            }
+            this.peakHeapMegabytes = 0;
+        }
+
+        private void recordPeakUsage() {
+            long peak = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) {
+                    peak += pool.getPeakUsage().getUsed();
+                }
+            }
+            this.peakHeapMegabytes = Math.max(this.peakHeapMegabytes, peak >> 20);
+        }
+    }
+
+    /**
+     * Answers the requests to Resource Manager for the web app and consumes the uploads to Kudu.
+     */
+    private static final class FakeSite implements Interceptor {
+        private final long bytesPerSecond;
+
+        private FakeSite(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            if (request.url().host().contains(".scm.")) {
+                if (request.body() != null) {
+                    ThrottledSink sink = new ThrottledSink(this.bytesPerSecond);
+                    BufferedSink bufferedSink = Okio.buffer(sink);
+                    request.body().writeTo(bufferedSink);
+                    bufferedSink.flush();
+                }
+                return respond(request, "{\"ExitCode\":0}");
+            }
+            String path = request.url().encodedPath();
+            return respond(request, path.equalsIgnoreCase(SITE_ID) ? SITE_JSON : "{}");
+        }
+
+        private static Response respond(Request request, String json) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+    }
+
+    /**
+     * Discards the bytes written to it, no faster than a given rate.
+     */
+    private static final class ThrottledSink implements Sink {
+        private final long bytesPerSecond;
+        private final long start = System.nanoTime();
+        private long written;
+
+        private ThrottledSink(long bytesPerSecond) {
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public void write(okio.Buffer source, long byteCount) throws IOException {
+            source.skip(byteCount);
+            this.written += byteCount;
+            if (this.bytesPerSecond > 0) {
+                long due = TimeUnit.SECONDS.toNanos(this.written) / this.bytesPerSecond;
+                long elapsed = System.nanoTime() - this.start;
+                if (due > elapsed) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(due - elapsed);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public okio.Timeout timeout() {
+            return okio.Timeout.NONE;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.management.network.NetworkAddressPlan;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plans addresses in a fragmented 10.0.0.0/8 address space with {@link NetworkAddressPlan}: every other /24 of the
+ * first blocks is allocated, so that a free range has to be searched for among many allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkAddressPlanBenchmark {
+    private static final List<String> ADDRESS_SPACES = Collections.singletonList("10.0.0.0/8");
+
+    /**
+     * The number of allocated subnets.
+     */
+    @Param({"1000", "30000"})
+    public int allocations;
+
+    private NetworkAddressPlan plan;
+    private Random random;
+
+    /**
+     * Allocates the subnets.
+     */
+    @Setup
+    public void setup() {
+        this.plan = allocatedPlan(this.allocations);
+        this.random = new Random(this.allocations);
+    }
+
+    private static NetworkAddressPlan allocatedPlan(int allocations) {
+        NetworkAddressPlan plan = NetworkAddressPlan.forAddressSpaces(ADDRESS_SPACES);
+        for (int i = 0; i < allocations; i++) {
+            int block = 2 * i;
+            plan.reserve("10." + (block >> 8) + "." + (block & 0xFF) + ".0/24");
+        }
+        return plan;
+    }
+
+    /**
+     * Creates the plan and allocates the subnets.
+     *
+     * @return the plan
+     */
+    @Benchmark
+    public NetworkAddressPlan allocate() {
+        return allocatedPlan(this.allocations);
+    }
+
+    /**
+     * Finds the first free /24, in the gaps between the allocations.
+     *
+     * @return the range
+     */
+    @Benchmark
+    public String nextAvailableCidr24() {
+        return this.plan.nextAvailableCidr(24);
+    }
+
+    /**
+     * Finds the first free /16, past the allocations.
+     *
+     * @return the range
+     */
+    @Benchmark
+    public String nextAvailableCidr16() {
+        return this.plan.nextAvailableCidr(16);
+    }
+
+    /**
+     * Checks whether a random /28 is free.
+     *
+     * @return whether the range is free
+     */
+    @Benchmark
+    public boolean isAvailable() {
+        int address = this.random.nextInt(1 << 24) & ~0xF;
+        return this.plan.isAvailable("10." + (address >> 16) + "." + ((address >> 8) & 0xFF) + "." + (address & 0xFF)
+                + "/28");
+    }
+
+    /**
+     * Lists the free ranges.
+     *
+     * @return the ranges
+     */
+    @Benchmark
+    public List<String> availableRanges() {
+        return this.plan.availableRanges();
+    }
+}
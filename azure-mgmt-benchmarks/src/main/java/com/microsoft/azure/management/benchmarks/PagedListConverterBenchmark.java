@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.Page;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.management.resources.fluentcore.utils.PagedListConverter;
+import com.microsoft.rest.RestException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import rx.Observable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts paged lists with {@link PagedListConverter} and iterates the converted items, with and without
+ * prefetching pages. The pages are in memory; an optional delay per page stands for the service latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagedListConverterBenchmark {
+    /**
+     * The number of pages of the list.
+     */
+    @Param({"100"})
+    public int pageCount;
+
+    /**
+     * The number of items per page.
+     */
+    @Param({"100"})
+    public int pageSize;
+
+    /**
+     * The time to fetch a page, in milliseconds.
+     */
+    @Param({"0", "2"})
+    public int pageLatencyMillis;
+
+    private List<List<String>> pages;
+    private PagedListConverter<String, Integer> converter;
+
+    /**
+     * Generates the pages.
+     */
+    @Setup
+    public void setup() {
+        this.pages = new ArrayList<>();
+        for (int i = 0; i < this.pageCount; i++) {
+            List<String> items = new ArrayList<>();
+            for (int j = 0; j < this.pageSize; j++) {
+                items.add("/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Compute/disks/disk" + i + "-" + j);
+            }
+            this.pages.add(items);
+        }
+        this.converter = new PagedListConverter<String, Integer>() {
+            @Override
+            public Observable<Integer> typeConvertAsync(String item) {
+                return Observable.just(item.length());
+            }
+        };
+    }
+
+    /**
+     * Converts the list without prefetching and iterates all items.
+     *
+     * @param blackhole the sink of the items
+     */
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (Integer item : this.converter.convert(newList())) {
+            blackhole.consume(item);
+        }
+    }
+
+    /**
+     * Converts the list prefetching two pages and iterates all items.
+     *
+     * @param blackhole the sink of the items
+     */
+    @Benchmark
+    public void convertWithPrefetch(Blackhole blackhole) {
+        for (Integer item : this.converter.convert(newList(), 2)) {
+            blackhole.consume(item);
+        }
+    }
+
+    private PagedList<String> newList() {
+        return new PagedList<String>(new ListPage(this.pages, 0)) {
+            @Override
+            public Page<String> nextPage(String nextPageLink) throws RestException, IOException {
+                if (pageLatencyMillis > 0) {
+                    try {
+                        Thread.sleep(pageLatencyMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException(e);
+                    }
+                }
+                return new ListPage(pages, Integer.parseInt(nextPageLink));
+            }
+        };
+    }
+
+    /**
+     * A page of the in-memory list, linked to the next by its index.
+     */
+    private static final class ListPage implements Page<String> {
+        private final List<String> items;
+        private final String nextPageLink;
+
+        private ListPage(List<List<String>> pages, int index) {
+            this.items = pages.get(index);
+            this.nextPageLink = index + 1 < pages.size() ? String.valueOf(index + 1) : null;
+        }
+
+        @Override
+        public String nextPageLink() {
+            return this.nextPageLink;
+        }
+
+        @Override
+        public List<String> items() {
+            return this.items;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses resource ids with {@link ResourceId} and the {@link ResourceUtils} helpers.
+ * <p>
+ * The ids are nested resources, e.g. subnets of virtual networks. With fewer distinct ids than the capacity of the
+ * cache of parsed ids, the parse results are reused; with more, every parse misses the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceIdBenchmark {
+    /**
+     * The number of distinct ids parsed in turn.
+     */
+    @Param({"64", "100000"})
+    public int distinctIds;
+
+    private String[] ids;
+    private int next;
+    private int constructed;
+
+    /**
+     * Generates the ids.
+     */
+    @Setup
+    public void setup() {
+        this.ids = new String[this.distinctIds];
+        for (int i = 0; i < this.distinctIds; i++) {
+            this.ids[i] = "/subscriptions/00000000-0000-0000-0000-" + String.format("%012d", i % 16)
+                    + "/resourceGroups/rg" + (i % 97)
+                    + "/providers/Microsoft.Network/virtualNetworks/vnet" + i
+                    + "/subnets/subnet" + (i % 7);
+        }
+    }
+
+    private String nextId() {
+        String id = this.ids[this.next];
+        this.next = this.next + 1 == this.ids.length ? 0 : this.next + 1;
+        return id;
+    }
+
+    /**
+     * Parses an id and reads all its parts.
+     *
+     * @param blackhole the sink of the results
+     */
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        ResourceId resourceId = ResourceId.fromString(nextId());
+        blackhole.consume(resourceId.subscriptionId());
+        blackhole.consume(resourceId.resourceGroupName());
+        blackhole.consume(resourceId.providerNamespace());
+        blackhole.consume(resourceId.fullResourceType());
+        blackhole.consume(resourceId.name());
+        blackhole.consume(resourceId.parent().name());
+    }
+
+    /**
+     * Reads the parts of an id with the {@link ResourceUtils} helpers, as the fluent implementations do.
+     *
+     * @param blackhole the sink of the results
+     */
+    @Benchmark
+    public void resourceUtils(Blackhole blackhole) {
+        String id = nextId();
+        blackhole.consume(ResourceUtils.subscriptionFromResourceId(id));
+        blackhole.consume(ResourceUtils.groupFromResourceId(id));
+        blackhole.consume(ResourceUtils.resourceProviderFromResourceId(id));
+        blackhole.consume(ResourceUtils.resourceTypeFromResourceId(id));
+        blackhole.consume(ResourceUtils.nameFromResourceId(id));
+        blackhole.consume(ResourceUtils.parentResourceIdFromResourceId(id));
+        blackhole.consume(ResourceUtils.extractFromResourceId(id, "virtualNetworks"));
+    }
+
+    /**
+     * Builds an id from its parts.
+     *
+     * @return the id
+     */
+    @Benchmark
+    public String constructResourceId() {
+        return ResourceUtils.constructResourceId("00000000-0000-0000-0000-000000000000", "rg",
+                "Microsoft.Network", "subnets", "subnet" + (this.constructed++ & 7), "virtualNetworks/vnet");
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH result files in JSON format, e.g. of the same benchmarks run on two commits.
+ * <p>
+ * Prints for each benchmark and parameters the score of both runs and their ratio. For throughput modes a ratio
+ * above 1 is an improvement, for time modes a ratio below 1 is.
+ */
+public final class ResultComparison {
+    private ResultComparison() {
+    }
+
+    /**
+     * Main entry point.
+     *
+     * @param args the baseline result file and the current result file
+     * @throws IOException if a result file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: ResultComparison <baseline jmh-result.json> <current jmh-result.json>");
+            System.exit(1);
+        }
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        System.out.println(String.format(Locale.ROOT, "%-90s %15s %15s %8s  %s",
+                "Benchmark", "Baseline", "Current", "Ratio", "Unit"));
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode metric = entry.getValue().get("primaryMetric");
+            double score = metric.get("score").asDouble();
+            JsonNode baselineResult = baseline.get(entry.getKey());
+            if (baselineResult == null) {
+                System.out.println(String.format(Locale.ROOT, "%-90s %15s %15.3f %8s  %s",
+                        entry.getKey(), "-", score, "-", metric.get("scoreUnit").asText()));
+                continue;
+            }
+            double baselineScore = baselineResult.get("primaryMetric").get("score").asDouble();
+            System.out.println(String.format(Locale.ROOT, "%-90s %15.3f %15.3f %8.3f  %s",
+                    entry.getKey(), baselineScore, score, score / baselineScore, metric.get("scoreUnit").asText()));
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.println(String.format(Locale.ROOT, "%-90s %15s", key, "removed"));
+            }
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.get("benchmark").asText())
+                    .append(" [").append(result.get("mode").asText()).append(']');
+            JsonNode params = result.get("params");
+            if (params != null) {
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+                }
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.management.appservice.implementation.SiteInner;
+import com.microsoft.azure.management.compute.implementation.VirtualMachineScaleSetInner;
+import com.microsoft.azure.management.resources.core.RecordedData;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes and serializes large inner models with the serializer of the clients, from the responses of the
+ * session records of the compute and app service tests.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final int LIST_SIZE = 100;
+
+    /**
+     * The model, a virtual machine scale set or a web app.
+     */
+    @Param({"VirtualMachineScaleSet", "Site"})
+    public String model;
+
+    private AzureJacksonAdapter serializer;
+    private Class<?> modelClass;
+    private Type listType;
+    private String json;
+    private String listJson;
+    private Object deserialized;
+
+    /**
+     * Picks the largest recorded response of the model.
+     *
+     * @throws IOException if the session record cannot be read
+     */
+    @Setup
+    public void setup() throws IOException {
+        List<String> bodies;
+        if ("Site".equals(this.model)) {
+            this.modelClass = SiteInner.class;
+            RecordedData recordedData = SessionRecordReplayInterceptor.read("azure-mgmt-appservice", "canCRUDWebApp");
+            bodies = SessionRecordReplayInterceptor.responseBodies(recordedData, "GET",
+                    ".*/providers/Microsoft\\.Web/sites/[^/?]+\\?.*");
+        } else {
+            this.modelClass = VirtualMachineScaleSetInner.class;
+            RecordedData recordedData = SessionRecordReplayInterceptor.read("azure-mgmt-compute",
+                    "canCreateVirtualMachineScaleSet");
+            bodies = SessionRecordReplayInterceptor.responseBodies(recordedData, "GET",
+                    ".*/providers/Microsoft\\.Compute/virtualMachineScaleSets/[^/?]+\\?.*");
+        }
+        if (bodies.isEmpty()) {
+            throw new IllegalStateException("No recorded response for " + this.model);
+        }
+        this.json = bodies.get(0);
+        for (String body : bodies) {
+            if (body.length() > this.json.length()) {
+                this.json = body;
+            }
+        }
+        StringBuilder list = new StringBuilder("[");
+        for (int i = 0; i < LIST_SIZE; i++) {
+            list.append(i == 0 ? "" : ",").append(this.json);
+        }
+        this.listJson = list.append(']').toString();
+
+        this.serializer = new AzureJacksonAdapter();
+        this.listType = this.serializer.serializer().getTypeFactory().constructCollectionType(List.class,
+                this.modelClass);
+        this.deserialized = this.serializer.deserialize(this.json, this.modelClass);
+    }
+
+    /**
+     * Deserializes a response.
+     *
+     * @return the model
+     * @throws IOException if the response cannot be deserialized
+     */
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return this.serializer.deserialize(this.json, this.modelClass);
+    }
+
+    /**
+     * Deserializes a list of {@value #LIST_SIZE} models.
+     *
+     * @return the models
+     * @throws IOException if the list cannot be deserialized
+     */
+    @Benchmark
+    public Object deserializeList() throws IOException {
+        return this.serializer.deserialize(this.listJson, this.listType);
+    }
+
+    /**
+     * Serializes a model, as for a request body.
+     *
+     * @return the JSON
+     * @throws IOException if the model cannot be serialized
+     */
+    @Benchmark
+    public String serialize() throws IOException {
+        return this.serializer.serialize(this.deserialized);
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.management.resources.core.NetworkCallRecord;
+import com.microsoft.azure.management.resources.core.RecordedData;
+import com.microsoft.azure.management.resources.core.SessionRecordFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads large session records in the JSON, compact and compressed compact formats, as the playback of a test does.
+ * Run with "-prof gc" to compare the allocations of the formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class SessionRecordLoadBenchmark {
+    /**
+     * The session record, as module/test.
+     */
+    @Param({"azure-mgmt-monitor/canListEventsAndMetrics", "azure-mgmt-compute/canCreateVirtualMachineScaleSetWithEMSI"})
+    public String record;
+
+    /**
+     * The format, as the file extension.
+     */
+    @Param({SessionRecordFormat.JSON_EXTENSION, SessionRecordFormat.COMPACT_EXTENSION,
+            SessionRecordFormat.COMPACT_GZIP_EXTENSION})
+    public String format;
+
+    private File file;
+    private boolean converted;
+
+    /**
+     * Converts the JSON record to the format in a temporary file.
+     *
+     * @throws IOException if the record cannot be converted
+     */
+    @Setup
+    public void setup() throws IOException {
+        String[] parts = this.record.split("/");
+        File json = SessionRecordReplayInterceptor.recordFile(parts[0], parts[1], SessionRecordFormat.JSON_EXTENSION);
+        if (SessionRecordFormat.JSON_EXTENSION.equals(this.format)) {
+            this.file = json;
+        } else {
+            this.file = File.createTempFile(parts[1], this.format);
+            this.converted = true;
+            SessionRecordFormat.write(SessionRecordFormat.read(json), this.file);
+        }
+    }
+
+    /**
+     * Deletes the converted record.
+     */
+    @TearDown
+    public void tearDown() {
+        if (this.converted && !this.file.delete()) {
+            this.file.deleteOnExit();
+        }
+    }
+
+    /**
+     * Loads the record.
+     *
+     * @return the recorded data
+     * @throws IOException if the record cannot be read
+     */
+    @Benchmark
+    public RecordedData load() throws IOException {
+        return SessionRecordFormat.read(this.file);
+    }
+
+    /**
+     * Loads the record and plays back every record, decoding its response body.
+     *
+     * @param blackhole the sink of the bodies
+     * @throws IOException if the record cannot be read
+     */
+    @Benchmark
+    public void loadAndPlayBack(Blackhole blackhole) throws IOException {
+        for (NetworkCallRecord networkCallRecord : SessionRecordFormat.read(this.file).getNetworkCallRecords()) {
+            blackhole.consume(networkCallRecord.body());
+        }
+    }
+}
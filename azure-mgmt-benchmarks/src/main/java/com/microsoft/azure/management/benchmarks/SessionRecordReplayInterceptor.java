@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.management.resources.core.NetworkCallRecord;
+import com.microsoft.azure.management.resources.core.RecordedData;
+import com.microsoft.azure.management.resources.core.SessionRecordFormat;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serves requests from a session record without going to the network, like the playback of the tests but in
+ * process: the interceptor answers every request itself, so it must be the last interceptor of the client.
+ * <p>
+ * Requests are matched by method, path and query, ignoring the host and the api-version, since the clients may
+ * have moved to newer API versions than the recording. The records of a request are replayed in
+ * turn and start over once all were served, so that a benchmark can repeat a recorded call indefinitely.
+ * Unrecorded requests get a 404 response.
+ */
+public final class SessionRecordReplayInterceptor implements Interceptor {
+    /**
+     * The system property giving the directory of the repository, used to find the session records of the modules.
+     */
+    public static final String RECORDS_ROOT_PROPERTY = "azure.benchmarks.root";
+    private static final String DEFAULT_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final List<String> SKIPPED_HEADERS = Arrays.asList(
+            "statuscode", "body", "content-length", "transfer-encoding", "content-encoding");
+
+    private final Map<String, Replay> replays = new HashMap<>();
+
+    /**
+     * Creates an interceptor replaying the records of a session record.
+     *
+     * @param recordedData the session record
+     */
+    public SessionRecordReplayInterceptor(RecordedData recordedData) {
+        for (NetworkCallRecord record : recordedData.getNetworkCallRecords()) {
+            String key = key(record.Method, URI.create(record.Uri));
+            Replay replay = this.replays.get(key);
+            if (replay == null) {
+                replay = new Replay();
+                this.replays.put(key, replay);
+            }
+            replay.add(record);
+        }
+    }
+
+    /**
+     * Locates the session record of a test of a module of the repository. The repository is given by the
+     * {@value #RECORDS_ROOT_PROPERTY} system property, otherwise the current directory or its parent is used.
+     *
+     * @param module the module, e.g. "azure-mgmt-compute"
+     * @param testName the test, e.g. "canCreateVirtualMachineScaleSet"
+     * @param extension the record format, see {@link SessionRecordFormat}
+     * @return the session record file
+     * @throws IOException if the session record cannot be found
+     */
+    public static File recordFile(String module, String testName, String extension) throws IOException {
+        String relativePath = module + "/src/test/resources/session-records/" + testName + extension;
+        String root = System.getProperty(RECORDS_ROOT_PROPERTY);
+        for (String candidate : root != null ? new String[] {root} : new String[] {".", ".."}) {
+            File file = new File(candidate, relativePath);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        throw new IOException("Cannot find " + relativePath + ", set the system property " + RECORDS_ROOT_PROPERTY
+                + " to the directory of the repository");
+    }
+
+    /**
+     * Reads the session record of a test of a module of the repository.
+     *
+     * @param module the module, e.g. "azure-mgmt-compute"
+     * @param testName the test, e.g. "canCreateVirtualMachineScaleSet"
+     * @return the recorded data
+     * @throws IOException if the session record cannot be read
+     */
+    public static RecordedData read(String module, String testName) throws IOException {
+        return SessionRecordFormat.read(recordFile(module, testName, SessionRecordFormat.JSON_EXTENSION));
+    }
+
+    /**
+     * Gets the response bodies of the records of a session record matching a method and a URL pattern.
+     *
+     * @param recordedData the session record
+     * @param method the HTTP method, e.g. "GET"
+     * @param uriRegex the regular expression the URI of the records must match
+     * @return the response bodies, in record order
+     */
+    public static List<String> responseBodies(RecordedData recordedData, String method, String uriRegex) {
+        List<String> bodies = new ArrayList<>();
+        for (NetworkCallRecord record : recordedData.getNetworkCallRecords()) {
+            String body = record.body();
+            if (method.equalsIgnoreCase(record.Method) && record.Uri.matches(uriRegex)
+                    && "200".equals(record.Response.get("StatusCode")) && body != null && !body.isEmpty()) {
+                bodies.add(body);
+            }
+        }
+        return bodies;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Replay replay = this.replays.get(key(request.method(), request.url().uri()));
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1);
+        if (replay == null) {
+            return builder.code(404).message("Not Found")
+                    .body(ResponseBody.create(MediaType.parse(DEFAULT_CONTENT_TYPE),
+                            "{\"error\":{\"code\":\"NotRecorded\",\"message\":\"" + request.url().encodedPath()
+                                    + "\"}}"))
+                    .build();
+        }
+        NetworkCallRecord record = replay.next();
+        builder.code(Integer.parseInt(record.Response.get("StatusCode"))).message("-");
+        for (Map.Entry<String, String> header : record.Response.entrySet()) {
+            if (!SKIPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                builder.addHeader(header.getKey(), header.getValue());
+            }
+        }
+        String body = record.body();
+        byte[] content = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        String contentType = record.Response.get("content-type");
+        builder.body(ResponseBody.create(MediaType.parse(contentType == null ? DEFAULT_CONTENT_TYPE : contentType),
+                content));
+        builder.addHeader("Content-Length", String.valueOf(content.length));
+        return builder.build();
+    }
+
+    private static String key(String method, URI uri) {
+        StringBuilder key = new StringBuilder(method.toUpperCase(Locale.ROOT)).append(' ').append(uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            for (String parameter : uri.getRawQuery().split("&")) {
+                if (!parameter.startsWith("api-version=")) {
+                    key.append('&').append(parameter);
+                }
+            }
+        }
+        return key.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The records of a request, replayed in turn.
+     */
+    private static final class Replay {
+        private final List<NetworkCallRecord> records = new ArrayList<>();
+        private final AtomicInteger next = new AtomicInteger();
+
+        private void add(NetworkCallRecord record) {
+            this.records.add(record);
+        }
+
+        private NetworkCallRecord next() {
+            return this.records.get((this.next.getAndIncrement() & Integer.MAX_VALUE) % this.records.size());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.benchmarks;
+
+import com.microsoft.azure.management.resources.fluentcore.dag.BoundedTaskGroupScheduler;
+import com.microsoft.azure.management.resources.fluentcore.dag.IndexableTaskItem;
+import com.microsoft.azure.management.resources.fluentcore.dag.TaskGroup;
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and invokes large synthetic task graphs with {@link TaskGroup}.
+ * <p>
+ * The graph has layers of tasks; each task depends on a few tasks of the previous layer, and a root task depends on
+ * the whole last layer, like a deployment of many resources sharing networks and storage. The tasks complete at
+ * once, so the benchmark measures the graph bookkeeping and the scheduling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskGroupBenchmark {
+    /**
+     * The number of layers of the graph.
+     */
+    @Param({"10"})
+    public int layers;
+
+    /**
+     * The number of tasks per layer.
+     */
+    @Param({"10", "100"})
+    public int width;
+
+    /**
+     * The number of dependencies of each task on the previous layer.
+     */
+    @Param({"3"})
+    public int fanIn;
+
+    /**
+     * Builds the graph.
+     *
+     * @return the root task
+     */
+    @Benchmark
+    public IndexableTaskItem build() {
+        return buildGraph();
+    }
+
+    /**
+     * Builds and invokes the graph.
+     *
+     * @return the result of the root task
+     */
+    @Benchmark
+    public Indexable buildAndInvoke() {
+        TaskGroup taskGroup = buildGraph().taskGroup();
+        return taskGroup.invokeAsync(taskGroup.newInvocationContext()).toBlocking().last();
+    }
+
+    /**
+     * Builds and invokes the graph with a bounded scheduler.
+     *
+     * @return the result of the root task
+     */
+    @Benchmark
+    public Indexable buildAndInvokeBounded() {
+        TaskGroup taskGroup = buildGraph().taskGroup();
+        return taskGroup.invokeAsync(taskGroup.newInvocationContext()
+                .withScheduler(new BoundedTaskGroupScheduler(16))).toBlocking().last();
+    }
+
+    private IndexableTaskItem buildGraph() {
+        Random random = new Random(this.width);
+        List<SyntheticTask> previous = new ArrayList<>();
+        for (int layer = 0; layer < this.layers; layer++) {
+            List<SyntheticTask> current = new ArrayList<>(this.width);
+            for (int i = 0; i < this.width; i++) {
+                SyntheticTask task = new SyntheticTask("task-" + layer + "-" + i);
+                for (int j = 0; j < Math.min(this.fanIn, previous.size()); j++) {
+                    task.dependOn(previous.get(random.nextInt(previous.size())));
+                }
+                current.add(task);
+            }
+            previous = current;
+        }
+        SyntheticTask root = new SyntheticTask("root");
+        for (SyntheticTask task : previous) {
+            root.dependOn(task);
+        }
+        return root;
+    }
+
+    /**
+     * A task completing at once with itself as result.
+     */
+    private static final class SyntheticTask extends IndexableTaskItem {
+        private SyntheticTask(String key) {
+            super(key);
+        }
+
+        private void dependOn(SyntheticTask dependency) {
+            if (!taskGroup().dependsOn(dependency.taskGroup())) {
+                addDependency(dependency);
+            }
+        }
+
+        @Override
+        protected Observable<Indexable> invokeTaskAsync(TaskGroup.InvocationContext context) {
+            return Observable.<Indexable>just(this);
+        }
+    }
+}
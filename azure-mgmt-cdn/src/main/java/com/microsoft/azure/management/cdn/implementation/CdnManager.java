@@ -49,7 +49,7 @@ public final class CdnManager extends Manager<CdnManager, CdnManagementClientImp
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), subscriptionId);
     }
 
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import com.microsoft.azure.management.resources.fluentcore.arm.AvailabilityZoneId;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import org.joda.time.DateTime;
+
+import java.util.List;
+
+/**
+ * An in-memory snapshot of the compute SKUs available to the subscription, indexed by region, resource type,
+ * availability zone and virtual machine capabilities, as returned by {@link ComputeSkus#getCatalog()}.
+ * <p>
+ * A catalog is queried without calling Azure. Its lists are unmodifiable.
+ */
+@Fluent
+@Beta(SinceVersion.V1_42_0)
+public interface ComputeSkuCatalog {
+    /**
+     * @return the time the SKUs of the catalog were listed
+     */
+    DateTime loadedTime();
+
+    /**
+     * @return all the skus
+     */
+    List<ComputeSku> list();
+
+    /**
+     * Lists the skus available in the given region.
+     *
+     * @param region the region
+     * @return the skus
+     */
+    List<ComputeSku> listByRegion(Region region);
+
+    /**
+     * Lists the skus with the given resource type.
+     *
+     * @param resourceType the compute resource type
+     * @return the skus
+     */
+    List<ComputeSku> listByResourceType(ComputeResourceType resourceType);
+
+    /**
+     * Lists the skus with the given resource type available in the given region.
+     *
+     * @param region the region
+     * @param resourceType the compute resource type
+     * @return the skus
+     */
+    List<ComputeSku> listByRegionAndResourceType(Region region, ComputeResourceType resourceType);
+
+    /**
+     * Gets a sku by name.
+     *
+     * @param region the region
+     * @param resourceType the compute resource type
+     * @param name the name of the sku
+     * @return the sku, or null if there is no sku with the name and resource type in the region
+     */
+    ComputeSku getByName(Region region, ComputeResourceType resourceType, ComputeSkuName name);
+
+    /**
+     * Lists the skus with the given resource type that the subscription can deploy in the given region, or in
+     * the given availability zone of the region; skus restricted in the region or in the zone are excluded.
+     *
+     * @param region the region
+     * @param resourceType the compute resource type
+     * @param availabilityZone the availability zone, null for the region
+     * @return the skus
+     */
+    List<ComputeSku> listDeployable(Region region, ComputeResourceType resourceType,
+                                    AvailabilityZoneId availabilityZone);
+
+    /**
+     * Lists the virtual machine sizes that the subscription can deploy in the given region, or in the given
+     * availability zone of the region, with at least the given capabilities.
+     *
+     * @param region the region
+     * @param availabilityZone the availability zone, null for the region
+     * @param minVCPUs the minimum number of virtual CPUs
+     * @param minMemoryGB the minimum memory, in gigabytes
+     * @param acceleratedNetworking true to list the sizes supporting accelerated networking only
+     * @return the virtual machine skus, sorted by number of virtual CPUs
+     */
+    List<ComputeSku> listVirtualMachineSizes(Region region, AvailabilityZoneId availabilityZone,
+                                             int minVCPUs, double minMemoryGB, boolean acceleratedNetworking);
+}
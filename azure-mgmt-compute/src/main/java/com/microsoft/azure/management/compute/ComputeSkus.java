@@ -7,6 +7,8 @@
 package com.microsoft.azure.management.compute;
 
 import com.microsoft.azure.PagedList;
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.compute.implementation.ComputeManager;
 import com.microsoft.azure.management.compute.implementation.ResourceSkusInner;
@@ -15,6 +17,7 @@ import com.microsoft.azure.management.resources.fluentcore.arm.models.HasManager
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListingByRegion;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import org.joda.time.Period;
 import rx.Observable;
 
 
@@ -28,7 +31,7 @@ public interface ComputeSkus
         HasInner<ResourceSkusInner>,
         HasManager<ComputeManager> {
     /**
-     * Lists all the skus with the specified resource type.
+     * Lists all the skus with the specified resource type, from the catalog returned by {@link #getCatalog()}.
      *
      * @param resourceType the compute resource type
      * @return the skus list
@@ -36,7 +39,7 @@ public interface ComputeSkus
     PagedList<ComputeSku> listByResourceType(ComputeResourceType resourceType);
 
     /**
-     * Lists all the skus with the specified resource type.
+     * Lists all the skus with the specified resource type, from the catalog returned by {@link #getCatalogAsync()}.
      *
      * @param resourceType the compute resource type
      * @return an observable that emits skus
@@ -44,7 +47,8 @@ public interface ComputeSkus
     Observable<ComputeSku> listByResourceTypeAsync(ComputeResourceType resourceType);
 
     /**
-     * Lists all the skus with the specified resource type in the given region.
+     * Lists all the skus with the specified resource type in the given region, from the catalog returned by
+     * {@link #getCatalog()}.
      *
      * @param region the region
      * @param resourceType the resource type
@@ -53,11 +57,43 @@ public interface ComputeSkus
     PagedList<ComputeSku> listbyRegionAndResourceType(Region region, ComputeResourceType resourceType);
 
     /**
-     * Lists all the skus with the specified resource type in the given region.
+     * Lists all the skus with the specified resource type in the given region, from the catalog returned by
+     * {@link #getCatalogAsync()}.
      *
      * @param region the region
      * @param resourceType the resource type
      * @return an observable that emits skus
      */
     Observable<ComputeSku> listbyRegionAndResourceTypeAsync(Region region, ComputeResourceType resourceType);
+
+    /**
+     * Sets how long the catalog returned by {@link #getCatalog()} is used before the skus are listed again;
+     * the default is one hour.
+     *
+     * @param timeToLive the time to live of the catalog
+     * @return the entry point to compute service SKUs
+     */
+    @Beta(SinceVersion.V1_42_0)
+    ComputeSkus withCatalogTimeToLive(Period timeToLive);
+
+    /**
+     * Gets the indexed catalog of all the skus, listing them only when no catalog was loaded yet or when the
+     * loaded one is older than its time to live.
+     * <p>
+     * Once the catalog is older than half its time to live, the skus are listed again in the background while
+     * the loaded catalog keeps being returned, so the callers do not wait on a steady flow of calls.
+     *
+     * @return the catalog of the skus
+     */
+    @Beta(SinceVersion.V1_42_0)
+    ComputeSkuCatalog getCatalog();
+
+    /**
+     * Gets the indexed catalog of all the skus, listing them only when no catalog was loaded yet or when the
+     * loaded one is older than its time to live.
+     *
+     * @return an observable that emits the catalog of the skus
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Observable<ComputeSkuCatalog> getCatalogAsync();
 }
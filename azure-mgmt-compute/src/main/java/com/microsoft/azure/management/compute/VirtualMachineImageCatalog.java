@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.apigeneration.Fluent;
+import org.joda.time.DateTime;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * A local catalog of the virtual machine images of a region: the versions of the SKUs of the offers of all
+ * publishers, as crawled by {@link VirtualMachineImages#crawlCatalog(String, VirtualMachineImageCrawlOptions)}.
+ * <p>
+ * A catalog is queried without calling Azure, and can be saved to a file and loaded again with
+ * {@link VirtualMachineImages#loadCatalog(File)}.
+ */
+@Fluent
+@Beta(SinceVersion.V1_42_0)
+public interface VirtualMachineImageCatalog {
+    /**
+     * @return the name of the region of the images
+     */
+    String regionName();
+
+    /**
+     * @return the time the crawl of the catalog started
+     */
+    DateTime crawledTime();
+
+    /**
+     * @return the number of image versions in the catalog
+     */
+    int size();
+
+    /**
+     * @return the names of the publishers, sorted
+     */
+    List<String> publisherNames();
+
+    /**
+     * Lists the image versions of the SKUs matching the given name prefixes, compared ignoring case.
+     *
+     * @param publisherPrefix the prefix of the publisher names, null or empty for all publishers
+     * @param offerPrefix the prefix of the offer names, null or empty for all offers
+     * @param skuPrefix the prefix of the SKU names, null or empty for all SKUs
+     * @return the references to the image versions, sorted by publisher, offer and SKU
+     */
+    List<ImageReference> listImages(String publisherPrefix, String offerPrefix, String skuPrefix);
+
+    /**
+     * Gets the branches of the tree that failed to crawl: the publishers whose offers could not be listed, as
+     * "publisher", and the offers whose SKUs or versions could not be listed, as "publisher/offer".
+     * <p>
+     * A failed branch keeps its content from the catalog refreshed, if any, and is missing otherwise. A missing
+     * branch is crawled again by the next refresh.
+     *
+     * @return the failed branches, sorted; empty if the crawl is complete
+     */
+    List<String> failedBranches();
+
+    /**
+     * Saves the catalog to a file, replacing it.
+     *
+     * @param file the file
+     */
+    void saveTo(File file);
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import org.joda.time.Period;
+
+/**
+ * The settings of a crawl of the virtual machine images of a region,
+ * see {@link VirtualMachineImages#crawlCatalog(String, VirtualMachineImageCrawlOptions)}.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class VirtualMachineImageCrawlOptions {
+    private int maxConcurrency = 16;
+    private Period maxOfferAge = Period.days(7);
+
+    /**
+     * Specifies the maximum number of calls made at the same time, 16 by default.
+     *
+     * @param maxConcurrency the maximum number of concurrent calls
+     * @return the options
+     */
+    public VirtualMachineImageCrawlOptions withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Specifies how long the SKUs and versions of an offer crawled before are reused when a catalog is
+     * refreshed, 7 days by default. Offers crawled longer ago, and offers new to the catalog, are crawled again.
+     *
+     * @param maxOfferAge the maximum age of the offers kept from the catalog
+     * @return the options
+     */
+    public VirtualMachineImageCrawlOptions withMaxOfferAge(Period maxOfferAge) {
+        if (maxOfferAge == null) {
+            throw new IllegalArgumentException("maxOfferAge must not be null");
+        }
+        this.maxOfferAge = maxOfferAge;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of concurrent calls
+     */
+    public int maxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @return the maximum age of the offers kept from the catalog when it is refreshed
+     */
+    public Period maxOfferAge() {
+        return this.maxOfferAge;
+    }
+}
@@ -5,9 +5,14 @@
  */
 package com.microsoft.azure.management.compute;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListingByRegion;
+import rx.Observable;
+
+import java.io.File;
 
 /**
  *  Entry point to virtual machine image management API.
@@ -43,4 +48,65 @@ public interface VirtualMachineImages extends
      * @return entry point to virtual machine image publishers
      */
     VirtualMachinePublishers publishers();
+
+    /**
+     * Crawls the versions of the SKUs of the offers of all publishers in a region into a local catalog.
+     * <p>
+     * Unlike {@link #listByRegion(String)}, which loads the publishers, offers, SKUs and versions one call after
+     * the other, the crawl makes several calls at a time, and it reads the image versions only, not the details
+     * of each image.
+     *
+     * @param regionName the name of the region
+     * @param options the settings of the crawl, null for the defaults
+     * @return the catalog
+     */
+    @Beta(SinceVersion.V1_42_0)
+    VirtualMachineImageCatalog crawlCatalog(String regionName, VirtualMachineImageCrawlOptions options);
+
+    /**
+     * Crawls the versions of the SKUs of the offers of all publishers in a region into a local catalog
+     * asynchronously.
+     *
+     * @param regionName the name of the region
+     * @param options the settings of the crawl, null for the defaults
+     * @return an observable emitting the catalog
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Observable<VirtualMachineImageCatalog> crawlCatalogAsync(String regionName,
+                                                             VirtualMachineImageCrawlOptions options);
+
+    /**
+     * Refreshes a catalog crawled before.
+     * <p>
+     * The publishers and offers of the region are listed again. Offers gone from the region are dropped, and only
+     * new offers and offers crawled longer ago than {@link VirtualMachineImageCrawlOptions#maxOfferAge()} have
+     * their SKUs and versions crawled again.
+     *
+     * @param catalog the catalog to refresh
+     * @param options the settings of the crawl, null for the defaults
+     * @return the refreshed catalog
+     */
+    @Beta(SinceVersion.V1_42_0)
+    VirtualMachineImageCatalog refreshCatalog(VirtualMachineImageCatalog catalog,
+                                              VirtualMachineImageCrawlOptions options);
+
+    /**
+     * Refreshes a catalog crawled before asynchronously.
+     *
+     * @param catalog the catalog to refresh
+     * @param options the settings of the crawl, null for the defaults
+     * @return an observable emitting the refreshed catalog
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Observable<VirtualMachineImageCatalog> refreshCatalogAsync(VirtualMachineImageCatalog catalog,
+                                                               VirtualMachineImageCrawlOptions options);
+
+    /**
+     * Loads a catalog saved with {@link VirtualMachineImageCatalog#saveTo(File)}.
+     *
+     * @param file the file of the catalog
+     * @return the catalog
+     */
+    @Beta(SinceVersion.V1_42_0)
+    VirtualMachineImageCatalog loadCatalog(File file);
 }
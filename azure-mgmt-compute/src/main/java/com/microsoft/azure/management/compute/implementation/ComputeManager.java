@@ -81,7 +81,7 @@ public final class ComputeManager extends Manager<ComputeManager, ComputeManagem
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), subscriptionId);
     }
 
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.compute.ComputeResourceType;
+import com.microsoft.azure.management.compute.ComputeSku;
+import com.microsoft.azure.management.compute.ComputeSkuCatalog;
+import com.microsoft.azure.management.compute.ComputeSkuName;
+import com.microsoft.azure.management.compute.ResourceSkuCapabilities;
+import com.microsoft.azure.management.compute.ResourceSkuLocationInfo;
+import com.microsoft.azure.management.compute.ResourceSkuRestrictionInfo;
+import com.microsoft.azure.management.compute.ResourceSkuRestrictions;
+import com.microsoft.azure.management.compute.ResourceSkuRestrictionsType;
+import com.microsoft.azure.management.resources.fluentcore.arm.AvailabilityZoneId;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The implementation for {@link ComputeSkuCatalog}.
+ * <p>
+ * The indexes are built once, when the catalog is created: the skus by region, by resource type, by region and
+ * resource type and by name, the skus deployable by region, resource type and zone, and the deployable virtual
+ * machine sizes by region and zone, sorted by number of virtual CPUs. A sku is deployable in a region unless a
+ * location restriction names the region, and in a zone of the region if the region lists the zone for the sku and
+ * no zone restriction of the region names it.
+ */
+@LangDefinition
+final class ComputeSkuCatalogImpl implements ComputeSkuCatalog {
+    private static final String VCPUS_CAPABILITY = "vCPUs";
+    private static final String MEMORY_CAPABILITY = "MemoryGB";
+    private static final String ACCELERATED_NETWORKING_CAPABILITY = "AcceleratedNetworkingEnabled";
+    // the zone part of the keys of the regional entries of the zone indexes
+    private static final String NO_ZONE = "";
+
+    private final DateTime loadedTime;
+    private final List<ComputeSku> skus;
+    private final Map<String, List<ComputeSku>> byRegion = new HashMap<>();
+    private final Map<String, List<ComputeSku>> byResourceType = new HashMap<>();
+    private final Map<String, List<ComputeSku>> byRegionAndResourceType = new HashMap<>();
+    private final Map<String, ComputeSku> byName = new HashMap<>();
+    private final Map<String, List<ComputeSku>> deployable = new HashMap<>();
+    private final Map<String, TreeMap<Integer, List<VirtualMachineSize>>> virtualMachineSizes = new HashMap<>();
+
+    ComputeSkuCatalogImpl(DateTime loadedTime, Collection<ComputeSku> skus) {
+        this.loadedTime = loadedTime;
+        this.skus = Collections.unmodifiableList(new ArrayList<>(skus));
+        for (ComputeSku sku : this.skus) {
+            index(sku);
+        }
+    }
+
+    @Override
+    public DateTime loadedTime() {
+        return this.loadedTime;
+    }
+
+    @Override
+    public List<ComputeSku> list() {
+        return this.skus;
+    }
+
+    @Override
+    public List<ComputeSku> listByRegion(Region region) {
+        return get(this.byRegion, key(region.name()));
+    }
+
+    @Override
+    public List<ComputeSku> listByResourceType(ComputeResourceType resourceType) {
+        return get(this.byResourceType, key(resourceType.toString()));
+    }
+
+    @Override
+    public List<ComputeSku> listByRegionAndResourceType(Region region, ComputeResourceType resourceType) {
+        return get(this.byRegionAndResourceType, key(region.name(), resourceType.toString()));
+    }
+
+    @Override
+    public ComputeSku getByName(Region region, ComputeResourceType resourceType, ComputeSkuName name) {
+        return this.byName.get(key(region.name(), resourceType.toString(), name.toString()));
+    }
+
+    @Override
+    public List<ComputeSku> listDeployable(Region region, ComputeResourceType resourceType,
+                                           AvailabilityZoneId availabilityZone) {
+        return get(this.deployable, key(region.name(), resourceType.toString(), zone(availabilityZone)));
+    }
+
+    @Override
+    public List<ComputeSku> listVirtualMachineSizes(Region region, AvailabilityZoneId availabilityZone,
+                                                    int minVCPUs, double minMemoryGB, boolean acceleratedNetworking) {
+        TreeMap<Integer, List<VirtualMachineSize>> sizes =
+                this.virtualMachineSizes.get(key(region.name(), zone(availabilityZone)));
+        if (sizes == null) {
+            return Collections.emptyList();
+        }
+        List<ComputeSku> skus = new ArrayList<>();
+        for (List<VirtualMachineSize> sizesWithVCPUs : sizes.tailMap(minVCPUs, true).values()) {
+            for (VirtualMachineSize size : sizesWithVCPUs) {
+                if (size.memoryGB >= minMemoryGB && (!acceleratedNetworking || size.acceleratedNetworking)) {
+                    skus.add(size.sku);
+                }
+            }
+        }
+        return Collections.unmodifiableList(skus);
+    }
+
+    private void index(ComputeSku sku) {
+        ResourceSkuInner inner = sku.inner();
+        if (inner.resourceType() == null) {
+            return;
+        }
+        String resourceType = inner.resourceType();
+        add(this.byResourceType, key(resourceType), sku);
+        VirtualMachineSize virtualMachineSize = ComputeResourceType.VIRTUALMACHINES.toString()
+                .equalsIgnoreCase(resourceType) ? new VirtualMachineSize(sku) : null;
+        if (inner.locations() == null) {
+            return;
+        }
+        for (String location : inner.locations()) {
+            String region = Region.fromName(location).name();
+            add(this.byRegion, key(region), sku);
+            add(this.byRegionAndResourceType, key(region, resourceType), sku);
+            if (inner.name() != null) {
+                this.byName.put(key(region, resourceType, inner.name()), sku);
+            }
+            if (isRestricted(inner, region, null)) {
+                continue;
+            }
+            add(this.deployable, key(region, resourceType, NO_ZONE), sku);
+            addVirtualMachineSize(key(region, NO_ZONE), virtualMachineSize);
+            for (String zone : zones(inner, region)) {
+                if (!isRestricted(inner, region, zone)) {
+                    add(this.deployable, key(region, resourceType, zone), sku);
+                    addVirtualMachineSize(key(region, zone), virtualMachineSize);
+                }
+            }
+        }
+    }
+
+    private void addVirtualMachineSize(String key, VirtualMachineSize size) {
+        if (size == null) {
+            return;
+        }
+        TreeMap<Integer, List<VirtualMachineSize>> sizes = this.virtualMachineSizes.get(key);
+        if (sizes == null) {
+            sizes = new TreeMap<>();
+            this.virtualMachineSizes.put(key, sizes);
+        }
+        List<VirtualMachineSize> sizesWithVCPUs = sizes.get(size.vCPUs);
+        if (sizesWithVCPUs == null) {
+            sizesWithVCPUs = new ArrayList<>();
+            sizes.put(size.vCPUs, sizesWithVCPUs);
+        }
+        sizesWithVCPUs.add(size);
+    }
+
+    /**
+     * @return the zones of the region in which the sku is offered
+     */
+    private static List<String> zones(ResourceSkuInner inner, String region) {
+        List<String> zones = new ArrayList<>();
+        if (inner.locationInfo() != null) {
+            for (ResourceSkuLocationInfo info : inner.locationInfo()) {
+                if (info.location() != null && region.equals(Region.fromName(info.location()).name())
+                        && info.zones() != null) {
+                    zones.addAll(info.zones());
+                }
+            }
+        }
+        return zones;
+    }
+
+    /**
+     * Checks whether the subscription cannot deploy the sku in a region, or in a zone of the region.
+     *
+     * @param inner the sku
+     * @param region the name of the region
+     * @param zone the zone, null to check the region
+     * @return true if the sku is restricted
+     */
+    private static boolean isRestricted(ResourceSkuInner inner, String region, String zone) {
+        if (inner.restrictions() == null) {
+            return false;
+        }
+        for (ResourceSkuRestrictions restriction : inner.restrictions()) {
+            ResourceSkuRestrictionInfo info = restriction.restrictionInfo();
+            boolean inRegion = containsRegion(restriction.values(), region)
+                    || (info != null && containsRegion(info.locations(), region));
+            if (!inRegion) {
+                continue;
+            }
+            if (restriction.type() == ResourceSkuRestrictionsType.LOCATION) {
+                return true;
+            }
+            if (restriction.type() == ResourceSkuRestrictionsType.ZONE && zone != null
+                    && info != null && info.zones() != null && info.zones().contains(zone)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsRegion(List<String> locations, String region) {
+        if (locations != null) {
+            for (String location : locations) {
+                if (location != null && region.equals(Region.fromName(location).name())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static <T> void add(Map<String, List<T>> index, String key, T value) {
+        List<T> values = index.get(key);
+        if (values == null) {
+            values = new ArrayList<>();
+            index.put(key, values);
+        }
+        values.add(value);
+    }
+
+    private static List<ComputeSku> get(Map<String, List<ComputeSku>> index, String key) {
+        List<ComputeSku> skus = index.get(key);
+        return skus == null
+                ? Collections.<ComputeSku>emptyList()
+                : Collections.unmodifiableList(skus);
+    }
+
+    private static String zone(AvailabilityZoneId availabilityZone) {
+        return availabilityZone == null ? NO_ZONE : availabilityZone.toString();
+    }
+
+    private static String key(String... parts) {
+        StringBuilder key = new StringBuilder();
+        for (String part : parts) {
+            key.append(key.length() > 0 ? "/" : "").append(part.toLowerCase(Locale.ROOT));
+        }
+        return key.toString();
+    }
+
+    /**
+     * A virtual machine sku with the capabilities it is queried by.
+     */
+    private static final class VirtualMachineSize {
+        private final ComputeSku sku;
+        private final int vCPUs;
+        private final double memoryGB;
+        private final boolean acceleratedNetworking;
+
+        private VirtualMachineSize(ComputeSku sku) {
+            int vCPUs = 0;
+            double memoryGB = 0;
+            boolean acceleratedNetworking = false;
+            for (ResourceSkuCapabilities capability : sku.capabilities()) {
+                if (capability.name() == null || capability.value() == null) {
+                    continue;
+                }
+                try {
+                    if (capability.name().equalsIgnoreCase(VCPUS_CAPABILITY)) {
+                        vCPUs = Integer.parseInt(capability.value());
+                    } else if (capability.name().equalsIgnoreCase(MEMORY_CAPABILITY)) {
+                        memoryGB = Double.parseDouble(capability.value());
+                    } else if (capability.name().equalsIgnoreCase(ACCELERATED_NETWORKING_CAPABILITY)) {
+                        acceleratedNetworking = Boolean.parseBoolean(capability.value());
+                    }
+                } catch (NumberFormatException e) {
+                    // a capability that is not a number is left out of the queries
+                }
+            }
+            this.sku = sku;
+            this.vCPUs = vCPUs;
+            this.memoryGB = memoryGB;
+            this.acceleratedNetworking = acceleratedNetworking;
+        }
+    }
+}
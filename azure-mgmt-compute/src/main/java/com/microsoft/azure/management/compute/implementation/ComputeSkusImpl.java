@@ -12,11 +12,17 @@ import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.compute.ComputeResourceType;
 import com.microsoft.azure.management.compute.ComputeSku;
+import com.microsoft.azure.management.compute.ComputeSkuCatalog;
 import com.microsoft.azure.management.compute.ComputeSkus;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.ReadableWrappersImpl;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.rest.RestException;
+import org.joda.time.DateTime;
+import org.joda.time.Period;
 import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
 import rx.functions.Func1;
 
 import java.io.IOException;
@@ -32,6 +38,10 @@ final class ComputeSkusImpl
         implements
         ComputeSkus {
     private final ComputeManager manager;
+    private volatile Period catalogTimeToLive = Period.hours(1);
+    private volatile ComputeSkuCatalog catalog;
+    // the listing of the skus in progress for a new catalog, null if none
+    private Observable<ComputeSkuCatalog> loadingCatalog;
 
     ComputeSkusImpl(ComputeManager computeManager) {
         this.manager = computeManager;
@@ -69,11 +79,11 @@ final class ComputeSkusImpl
 
     @Override
     public Observable<ComputeSku> listByRegionAsync(final Region region) {
-        return this.listAsync()
-                .filter(new Func1<ComputeSku, Boolean>() {
+        return this.getCatalogAsync()
+                .flatMapIterable(new Func1<ComputeSkuCatalog, Iterable<ComputeSku>>() {
                     @Override
-                    public Boolean call(ComputeSku computeSku) {
-                        return computeSku.regions() != null && computeSku.regions().contains(region);
+                    public Iterable<ComputeSku> call(ComputeSkuCatalog catalog) {
+                        return catalog.listByRegion(region);
                     }
                 });
     }
@@ -95,11 +105,11 @@ final class ComputeSkusImpl
 
     @Override
     public Observable<ComputeSku> listByResourceTypeAsync(final ComputeResourceType resourceType) {
-        return this.listAsync()
-                .filter(new Func1<ComputeSku, Boolean>() {
+        return this.getCatalogAsync()
+                .flatMapIterable(new Func1<ComputeSkuCatalog, Iterable<ComputeSku>>() {
                     @Override
-                    public Boolean call(ComputeSku computeSku) {
-                        return computeSku.resourceType() != null && computeSku.resourceType().equals(resourceType);
+                    public Iterable<ComputeSku> call(ComputeSkuCatalog catalog) {
+                        return catalog.listByResourceType(resourceType);
                     }
                 });
     }
@@ -111,18 +121,88 @@ final class ComputeSkusImpl
 
     @Override
     public Observable<ComputeSku> listbyRegionAndResourceTypeAsync(final Region region, final ComputeResourceType resourceType) {
-        return this.listAsync()
-                .filter(new Func1<ComputeSku, Boolean>() {
+        return this.getCatalogAsync()
+                .flatMapIterable(new Func1<ComputeSkuCatalog, Iterable<ComputeSku>>() {
                     @Override
-                    public Boolean call(ComputeSku computeSku) {
-                        return computeSku.resourceType() != null
-                                && computeSku.resourceType().equals(resourceType)
-                                && computeSku.regions() != null
-                                && computeSku.regions().contains(region);
+                    public Iterable<ComputeSku> call(ComputeSkuCatalog catalog) {
+                        return catalog.listByRegionAndResourceType(region, resourceType);
                     }
                 });
     }
 
+    @Override
+    public ComputeSkus withCatalogTimeToLive(Period timeToLive) {
+        this.catalogTimeToLive = timeToLive;
+        return this;
+    }
+
+    @Override
+    public ComputeSkuCatalog getCatalog() {
+        return getCatalogAsync().toBlocking().last();
+    }
+
+    @Override
+    public Observable<ComputeSkuCatalog> getCatalogAsync() {
+        final ComputeSkuCatalog current = this.catalog;
+        if (current != null) {
+            long loadedMillis = current.loadedTime().getMillis();
+            long expiresMillis = current.loadedTime().plus(this.catalogTimeToLive).getMillis();
+            long nowMillis = DateTime.now().getMillis();
+            if (nowMillis < expiresMillis) {
+                if (nowMillis >= loadedMillis + (expiresMillis - loadedMillis) / 2) {
+                    // refresh ahead of the expiry, a failure keeps the current catalog until it expires
+                    loadCatalogAsync().subscribe(new Subscriber<ComputeSkuCatalog>() {
+                        @Override
+                        public void onCompleted() {
+                        }
+
+                        @Override
+                        public void onError(Throwable throwable) {
+                        }
+
+                        @Override
+                        public void onNext(ComputeSkuCatalog loaded) {
+                        }
+                    });
+                }
+                return Observable.just(current);
+            }
+        }
+        return loadCatalogAsync();
+    }
+
+    /**
+     * Lists the skus into a new catalog, or joins the listing in progress.
+     *
+     * @return an observable that emits the new catalog
+     */
+    private synchronized Observable<ComputeSkuCatalog> loadCatalogAsync() {
+        if (this.loadingCatalog == null) {
+            this.loadingCatalog = this.listAsync()
+                    .subscribeOn(SdkContext.getRxScheduler())
+                    .toList()
+                    .map(new Func1<List<ComputeSku>, ComputeSkuCatalog>() {
+                        @Override
+                        public ComputeSkuCatalog call(List<ComputeSku> skus) {
+                            // the time to live counts from when the listing completed
+                            ComputeSkuCatalog loaded = new ComputeSkuCatalogImpl(DateTime.now(), skus);
+                            catalog = loaded;
+                            return loaded;
+                        }
+                    })
+                    .doOnTerminate(new Action0() {
+                        @Override
+                        public void call() {
+                            synchronized (ComputeSkusImpl.this) {
+                                loadingCatalog = null;
+                            }
+                        }
+                    })
+                    .cache();
+        }
+        return this.loadingCatalog;
+    }
+
     /**
      * Util function to block on an observable and turn that to a paged list with one page.
      *
@@ -14,6 +14,7 @@ import com.microsoft.azure.management.compute.VirtualMachineExtensionImages;
 import com.microsoft.azure.management.compute.VirtualMachinePublisher;
 import com.microsoft.azure.management.compute.VirtualMachinePublishers;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.management.resources.fluentcore.utils.ChildListFlattener;
 import com.microsoft.azure.management.resources.fluentcore.utils.PagedListConverter;
 import rx.Observable;
 import rx.functions.Func1;
@@ -24,6 +25,8 @@ import rx.functions.Func1;
 @LangDefinition
 class VirtualMachineExtensionImagesImpl
         implements VirtualMachineExtensionImages {
+    // the number of child lists, e.g. the offers of the next publishers, loaded while the current one is iterated
+    private static final int CHILD_LIST_LOOKAHEAD = 4;
     private final VirtualMachinePublishers publishers;
 
     VirtualMachineExtensionImagesImpl(VirtualMachinePublishers publishers) {
@@ -45,7 +48,7 @@ class VirtualMachineExtensionImagesImpl
                     public PagedList<VirtualMachineExtensionImageType> loadList(VirtualMachinePublisher publisher)  {
                         return publisher.extensionTypes().list();
                     }
-                }).flatten();
+                }, CHILD_LIST_LOOKAHEAD).flatten();
 
         PagedList<VirtualMachineExtensionImageVersion> extensionTypeVersions =
                 new ChildListFlattener<>(extensionTypes, new ChildListFlattener.ChildListLoader<VirtualMachineExtensionImageType, VirtualMachineExtensionImageVersion>() {
@@ -53,7 +56,7 @@ class VirtualMachineExtensionImagesImpl
                     public PagedList<VirtualMachineExtensionImageVersion> loadList(VirtualMachineExtensionImageType type)  {
                         return type.versions().list();
                     }
-                }).flatten();
+                }, CHILD_LIST_LOOKAHEAD).flatten();
 
         PagedListConverter<VirtualMachineExtensionImageVersion, VirtualMachineExtensionImage> converter =
                 new PagedListConverter<VirtualMachineExtensionImageVersion, VirtualMachineExtensionImage>() {
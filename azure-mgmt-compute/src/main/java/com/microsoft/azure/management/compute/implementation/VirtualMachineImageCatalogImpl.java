@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.compute.ImageReference;
+import com.microsoft.azure.management.compute.VirtualMachineImageCatalog;
+import org.joda.time.DateTime;
+import rx.exceptions.Exceptions;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The implementation for {@link VirtualMachineImageCatalog}.
+ * <p>
+ * The catalog file is a gzipped sequence of the offers sorted by publisher and offer name, each with its crawl
+ * time and its SKUs sorted by name with their versions, followed by the branches that failed to crawl. It starts
+ * with a magic number and a format version, and files of other versions are rejected rather than misread.
+ */
+@LangDefinition
+final class VirtualMachineImageCatalogImpl implements VirtualMachineImageCatalog {
+    private static final int MAGIC = 0x564d4943;
+    private static final int FORMAT_VERSION = 1;
+
+    private final String regionName;
+    private final DateTime crawledTime;
+    private final TreeMap<String, Offer> offers = new TreeMap<>();
+    private final List<String> failedBranches;
+    private final int size;
+
+    VirtualMachineImageCatalogImpl(String regionName, DateTime crawledTime, Collection<Offer> offers,
+                                   Collection<String> failedBranches) {
+        this.regionName = regionName;
+        this.crawledTime = crawledTime;
+        this.failedBranches = Collections.unmodifiableList(new ArrayList<>(failedBranches));
+        int size = 0;
+        for (Offer offer : offers) {
+            this.offers.put(key(offer.publisherName, offer.name), offer);
+            for (String[] versions : offer.versions) {
+                size += versions.length;
+            }
+        }
+        this.size = size;
+    }
+
+    @Override
+    public String regionName() {
+        return this.regionName;
+    }
+
+    @Override
+    public DateTime crawledTime() {
+        return this.crawledTime;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public List<String> publisherNames() {
+        List<String> names = new ArrayList<>();
+        for (Offer offer : this.offers.values()) {
+            if (names.isEmpty() || !names.get(names.size() - 1).equals(offer.publisherName)) {
+                names.add(offer.publisherName);
+            }
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    @Override
+    public List<ImageReference> listImages(String publisherPrefix, String offerPrefix, String skuPrefix) {
+        String publisher = lowerCase(publisherPrefix);
+        String offerName = lowerCase(offerPrefix);
+        String sku = lowerCase(skuPrefix);
+        // the offers are sorted by publisher, so the publishers matching the prefix are a range of them
+        SortedMap<String, Offer> candidates = publisher.isEmpty()
+                ? this.offers
+                : this.offers.subMap(publisher, publisher + Character.MAX_VALUE);
+        List<ImageReference> images = new ArrayList<>();
+        for (Offer offer : candidates.values()) {
+            if (!offer.name.toLowerCase(Locale.ROOT).startsWith(offerName)) {
+                continue;
+            }
+            for (int i = 0; i < offer.skuNames.length; i++) {
+                if (!offer.skuNames[i].toLowerCase(Locale.ROOT).startsWith(sku)) {
+                    continue;
+                }
+                for (String version : offer.versions[i]) {
+                    images.add(new ImageReference()
+                            .withPublisher(offer.publisherName)
+                            .withOffer(offer.name)
+                            .withSku(offer.skuNames[i])
+                            .withVersion(version));
+                }
+            }
+        }
+        return images;
+    }
+
+    @Override
+    public List<String> failedBranches() {
+        return this.failedBranches;
+    }
+
+    @Override
+    public void saveTo(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try {
+            File temporary = File.createTempFile(file.getName(), ".tmp", directory);
+            try {
+                try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                        new GZIPOutputStream(new FileOutputStream(temporary))))) {
+                    write(output);
+                }
+                // readers of the file see either the previous or the new catalog
+                try {
+                    Files.move(temporary.toPath(), file.toPath(),
+                            StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary.toPath());
+            }
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
+    /**
+     * Loads a catalog saved to a file.
+     *
+     * @param file the file
+     * @return the catalog
+     * @throws IOException if the file cannot be read or is not a catalog
+     */
+    static VirtualMachineImageCatalogImpl load(File file) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new FileInputStream(file))))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(file + " is not a virtual machine image catalog");
+            }
+            int formatVersion = input.readInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(file + " is a virtual machine image catalog of unsupported format version "
+                        + formatVersion);
+            }
+            String regionName = input.readUTF();
+            DateTime crawledTime = new DateTime(input.readLong());
+            int offerCount = input.readInt();
+            List<Offer> offers = new ArrayList<>(offerCount);
+            for (int i = 0; i < offerCount; i++) {
+                String publisherName = input.readUTF();
+                String offerName = input.readUTF();
+                long offerCrawledMillis = input.readLong();
+                String[] skuNames = new String[input.readInt()];
+                String[][] versions = new String[skuNames.length][];
+                for (int j = 0; j < skuNames.length; j++) {
+                    skuNames[j] = input.readUTF();
+                    versions[j] = new String[input.readInt()];
+                    for (int k = 0; k < versions[j].length; k++) {
+                        versions[j][k] = input.readUTF();
+                    }
+                }
+                offers.add(new Offer(publisherName, offerName, offerCrawledMillis, skuNames, versions));
+            }
+            int failedBranchCount = input.readInt();
+            List<String> failedBranches = new ArrayList<>(failedBranchCount);
+            for (int i = 0; i < failedBranchCount; i++) {
+                failedBranches.add(input.readUTF());
+            }
+            return new VirtualMachineImageCatalogImpl(regionName, crawledTime, offers, failedBranches);
+        }
+    }
+
+    /**
+     * Gets an offer crawled before.
+     *
+     * @param publisherName the name of the publisher
+     * @param offerName the name of the offer
+     * @return the offer, or null if it is not in the catalog
+     */
+    Offer offer(String publisherName, String offerName) {
+        return this.offers.get(key(publisherName, offerName));
+    }
+
+    /**
+     * Gets the offers of a publisher crawled before.
+     *
+     * @param publisherName the name of the publisher
+     * @return the offers of the publisher in the catalog
+     */
+    Collection<Offer> offersOf(String publisherName) {
+        String prefix = key(publisherName, "");
+        return this.offers.subMap(prefix, prefix + Character.MAX_VALUE).values();
+    }
+
+    private void write(DataOutputStream output) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeInt(FORMAT_VERSION);
+        output.writeUTF(this.regionName);
+        output.writeLong(this.crawledTime.getMillis());
+        output.writeInt(this.offers.size());
+        for (Offer offer : this.offers.values()) {
+            output.writeUTF(offer.publisherName);
+            output.writeUTF(offer.name);
+            output.writeLong(offer.crawledMillis);
+            output.writeInt(offer.skuNames.length);
+            for (int i = 0; i < offer.skuNames.length; i++) {
+                output.writeUTF(offer.skuNames[i]);
+                output.writeInt(offer.versions[i].length);
+                for (String version : offer.versions[i]) {
+                    output.writeUTF(version);
+                }
+            }
+        }
+        output.writeInt(this.failedBranches.size());
+        for (String failedBranch : this.failedBranches) {
+            output.writeUTF(failedBranch);
+        }
+    }
+
+    private static String key(String publisherName, String offerName) {
+        return publisherName.toLowerCase(Locale.ROOT) + "/" + offerName.toLowerCase(Locale.ROOT);
+    }
+
+    private static String lowerCase(String prefix) {
+        return prefix == null ? "" : prefix.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An offer with the versions of its SKUs, the branch of the catalog crawled at once.
+     */
+    static final class Offer {
+        private final String publisherName;
+        private final String name;
+        private final long crawledMillis;
+        private final String[] skuNames;
+        private final String[][] versions;
+
+        /**
+         * Creates Offer.
+         *
+         * @param publisherName the name of the publisher
+         * @param name the name of the offer
+         * @param crawledMillis the time the offer was crawled
+         * @param skuVersions the versions by SKU name, sorted by name
+         */
+        Offer(String publisherName, String name, long crawledMillis, TreeMap<String, List<String>> skuVersions) {
+            this(publisherName, name, crawledMillis,
+                    skuVersions.keySet().toArray(new String[skuVersions.size()]),
+                    toArrays(skuVersions.values()));
+        }
+
+        private Offer(String publisherName, String name, long crawledMillis, String[] skuNames, String[][] versions) {
+            this.publisherName = publisherName;
+            this.name = name;
+            this.crawledMillis = crawledMillis;
+            this.skuNames = skuNames;
+            this.versions = versions;
+        }
+
+        /**
+         * @return the time the offer was crawled, in milliseconds since the epoch
+         */
+        long crawledMillis() {
+            return this.crawledMillis;
+        }
+
+        private static String[][] toArrays(Collection<List<String>> lists) {
+            String[][] arrays = new String[lists.size()][];
+            int i = 0;
+            for (List<String> list : lists) {
+                arrays[i++] = list.toArray(new String[list.size()]);
+            }
+            return arrays;
+        }
+    }
+}
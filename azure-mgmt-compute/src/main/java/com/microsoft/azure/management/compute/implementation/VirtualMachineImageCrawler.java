@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.management.compute.VirtualMachineImageCatalog;
+import com.microsoft.azure.management.compute.VirtualMachineImageCrawlOptions;
+import org.joda.time.DateTime;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crawls the publisher, offer, SKU and version tree of the virtual machine images of a region into a catalog.
+ * <p>
+ * The calls of a crawl run on a thread pool of its own, sized to the maximum concurrency, so the concurrency is
+ * bounded across all levels of the tree. When a previous catalog is refreshed, the publishers and their offers
+ * are listed again, offers gone from the region are dropped, and only new offers and offers crawled longer ago
+ * than the maximum offer age have their SKUs and versions crawled; the others are taken from the catalog. A
+ * branch that fails to crawl keeps its previous content, if any, and is reported by the catalog.
+ */
+class VirtualMachineImageCrawler {
+    private static final AtomicInteger CRAWL_COUNTER = new AtomicInteger();
+
+    private final VirtualMachineImagesInner client;
+    private final String regionName;
+    private final VirtualMachineImageCrawlOptions options;
+
+    /**
+     * Creates VirtualMachineImageCrawler.
+     *
+     * @param client the client of the virtual machine images
+     * @param regionName the name of the region
+     * @param options the settings of the crawl, null for the defaults
+     */
+    VirtualMachineImageCrawler(VirtualMachineImagesInner client, String regionName,
+                               VirtualMachineImageCrawlOptions options) {
+        this.client = client;
+        this.regionName = regionName;
+        this.options = options == null ? new VirtualMachineImageCrawlOptions() : options;
+    }
+
+    /**
+     * Crawls the images of the region.
+     *
+     * @param previous the catalog to refresh, null to crawl the whole tree
+     * @return an observable emitting the catalog
+     */
+    Observable<VirtualMachineImageCatalog> crawlAsync(final VirtualMachineImageCatalogImpl previous) {
+        return Observable.using(
+                new Func0<ExecutorService>() {
+                    @Override
+                    public ExecutorService call() {
+                        return Executors.newFixedThreadPool(options.maxConcurrency(), threadFactory());
+                    }
+                },
+                new Func1<ExecutorService, Observable<VirtualMachineImageCatalog>>() {
+                    @Override
+                    public Observable<VirtualMachineImageCatalog> call(ExecutorService executor) {
+                        return crawlAsync(previous, Schedulers.from(executor));
+                    }
+                },
+                new Action1<ExecutorService>() {
+                    @Override
+                    public void call(ExecutorService executor) {
+                        executor.shutdown();
+                    }
+                });
+    }
+
+    private Observable<VirtualMachineImageCatalog> crawlAsync(final VirtualMachineImageCatalogImpl previous,
+                                                              final Scheduler scheduler) {
+        final DateTime crawledTime = DateTime.now();
+        final long freshAfterMillis = crawledTime.minus(options.maxOfferAge()).getMillis();
+        final int maxConcurrency = options.maxConcurrency();
+        final Set<String> failedBranches = new ConcurrentSkipListSet<>();
+        return client.listPublishersAsync(regionName)
+                .subscribeOn(scheduler)
+                .concatMap(new Func1<List<VirtualMachineImageResourceInner>, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(List<VirtualMachineImageResourceInner> publishers) {
+                        return Observable.from(names(publishers));
+                    }
+                })
+                .flatMap(new Func1<String, Observable<VirtualMachineImageCatalogImpl.Offer>>() {
+                    @Override
+                    public Observable<VirtualMachineImageCatalogImpl.Offer> call(final String publisherName) {
+                        return crawlPublisherAsync(publisherName, previous, crawledTime, freshAfterMillis,
+                                failedBranches, scheduler);
+                    }
+                }, maxConcurrency)
+                .toList()
+                .map(new Func1<List<VirtualMachineImageCatalogImpl.Offer>, VirtualMachineImageCatalog>() {
+                    @Override
+                    public VirtualMachineImageCatalog call(List<VirtualMachineImageCatalogImpl.Offer> offers) {
+                        return new VirtualMachineImageCatalogImpl(regionName, crawledTime, offers, failedBranches);
+                    }
+                });
+    }
+
+    private Observable<VirtualMachineImageCatalogImpl.Offer> crawlPublisherAsync(
+            final String publisherName,
+            final VirtualMachineImageCatalogImpl previous,
+            final DateTime crawledTime,
+            final long freshAfterMillis,
+            final Set<String> failedBranches,
+            final Scheduler scheduler) {
+        return client.listOffersAsync(regionName, publisherName)
+                .subscribeOn(scheduler)
+                .concatMap(new Func1<List<VirtualMachineImageResourceInner>, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(List<VirtualMachineImageResourceInner> offers) {
+                        return Observable.from(names(offers));
+                    }
+                })
+                .flatMap(new Func1<String, Observable<VirtualMachineImageCatalogImpl.Offer>>() {
+                    @Override
+                    public Observable<VirtualMachineImageCatalogImpl.Offer> call(String offerName) {
+                        VirtualMachineImageCatalogImpl.Offer known = previous == null
+                                ? null
+                                : previous.offer(publisherName, offerName);
+                        if (known != null && known.crawledMillis() >= freshAfterMillis) {
+                            return Observable.just(known);
+                        }
+                        return crawlOfferAsync(publisherName, offerName, known, crawledTime, failedBranches,
+                                scheduler);
+                    }
+                }, options.maxConcurrency())
+                .onErrorResumeNext(new Func1<Throwable, Observable<VirtualMachineImageCatalogImpl.Offer>>() {
+                    @Override
+                    public Observable<VirtualMachineImageCatalogImpl.Offer> call(Throwable throwable) {
+                        failedBranches.add(publisherName);
+                        Collection<VirtualMachineImageCatalogImpl.Offer> known = previous == null
+                                ? Collections.<VirtualMachineImageCatalogImpl.Offer>emptyList()
+                                : previous.offersOf(publisherName);
+                        return Observable.from(new ArrayList<>(known));
+                    }
+                });
+    }
+
+    private Observable<VirtualMachineImageCatalogImpl.Offer> crawlOfferAsync(
+            final String publisherName,
+            final String offerName,
+            final VirtualMachineImageCatalogImpl.Offer known,
+            final DateTime crawledTime,
+            final Set<String> failedBranches,
+            final Scheduler scheduler) {
+        return client.listSkusAsync(regionName, publisherName, offerName)
+                .subscribeOn(scheduler)
+                .concatMap(new Func1<List<VirtualMachineImageResourceInner>, Observable<String>>() {
+                    @Override
+                    public Observable<String> call(List<VirtualMachineImageResourceInner> skus) {
+                        return Observable.from(names(skus));
+                    }
+                })
+                .flatMap(new Func1<String, Observable<Map.Entry<String, List<String>>>>() {
+                    @Override
+                    public Observable<Map.Entry<String, List<String>>> call(final String skuName) {
+                        return client.listAsync(regionName, publisherName, offerName, skuName)
+                                .subscribeOn(scheduler)
+                                .map(new Func1<List<VirtualMachineImageResourceInner>,
+                                        Map.Entry<String, List<String>>>() {
+                                    @Override
+                                    public Map.Entry<String, List<String>> call(
+                                            List<VirtualMachineImageResourceInner> versions) {
+                                        return new AbstractMap.SimpleImmutableEntry<>(skuName, names(versions));
+                                    }
+                                });
+                    }
+                }, options.maxConcurrency())
+                .toList()
+                .map(new Func1<List<Map.Entry<String, List<String>>>, VirtualMachineImageCatalogImpl.Offer>() {
+                    @Override
+                    public VirtualMachineImageCatalogImpl.Offer call(List<Map.Entry<String, List<String>>> skus) {
+                        TreeMap<String, List<String>> skuVersions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                        for (Map.Entry<String, List<String>> sku : skus) {
+                            skuVersions.put(sku.getKey(), sku.getValue());
+                        }
+                        return new VirtualMachineImageCatalogImpl.Offer(publisherName, offerName,
+                                crawledTime.getMillis(), skuVersions);
+                    }
+                })
+                .onErrorResumeNext(new Func1<Throwable, Observable<VirtualMachineImageCatalogImpl.Offer>>() {
+                    @Override
+                    public Observable<VirtualMachineImageCatalogImpl.Offer> call(Throwable throwable) {
+                        failedBranches.add(publisherName + "/" + offerName);
+                        return known == null
+                                ? Observable.<VirtualMachineImageCatalogImpl.Offer>empty()
+                                : Observable.just(known);
+                    }
+                });
+    }
+
+    private static List<String> names(List<VirtualMachineImageResourceInner> resources) {
+        List<String> names = new ArrayList<>();
+        if (resources != null) {
+            for (VirtualMachineImageResourceInner resource : resources) {
+                names.add(resource.name());
+            }
+        }
+        return names;
+    }
+
+    private static ThreadFactory threadFactory() {
+        final String prefix = "vm-image-crawler-" + CRAWL_COUNTER.incrementAndGet() + "-";
+        final AtomicInteger threadCounter = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, prefix + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
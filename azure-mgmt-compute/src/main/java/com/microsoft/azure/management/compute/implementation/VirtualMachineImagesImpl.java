@@ -8,15 +8,21 @@ package com.microsoft.azure.management.compute.implementation;
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.compute.VirtualMachineImage;
+import com.microsoft.azure.management.compute.VirtualMachineImageCatalog;
+import com.microsoft.azure.management.compute.VirtualMachineImageCrawlOptions;
 import com.microsoft.azure.management.compute.VirtualMachineImages;
 import com.microsoft.azure.management.compute.VirtualMachineOffer;
 import com.microsoft.azure.management.compute.VirtualMachinePublisher;
 import com.microsoft.azure.management.compute.VirtualMachinePublishers;
 import com.microsoft.azure.management.compute.VirtualMachineSku;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.management.resources.fluentcore.utils.ChildListFlattener;
 import rx.Observable;
+import rx.exceptions.Exceptions;
 import rx.functions.Func1;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 /**
@@ -25,6 +31,8 @@ import java.util.List;
 @LangDefinition
 class VirtualMachineImagesImpl
         implements VirtualMachineImages {
+    // the number of child lists, e.g. the offers of the next publishers, loaded while the current one is iterated
+    private static final int CHILD_LIST_LOOKAHEAD = 4;
     private final VirtualMachinePublishers publishers;
     private final VirtualMachineImagesInner client;
 
@@ -82,7 +90,7 @@ class VirtualMachineImagesImpl
                     public PagedList<VirtualMachineOffer> loadList(VirtualMachinePublisher publisher)  {
                         return publisher.offers().list();
                     }
-                }).flatten();
+                }, CHILD_LIST_LOOKAHEAD).flatten();
 
         PagedList<VirtualMachineSku> skus =
                 new ChildListFlattener<>(offers, new ChildListFlattener.ChildListLoader<VirtualMachineOffer, VirtualMachineSku>() {
@@ -90,7 +98,7 @@ class VirtualMachineImagesImpl
                     public PagedList<VirtualMachineSku> loadList(VirtualMachineOffer offer)  {
                         return offer.skus().list();
                     }
-                }).flatten();
+                }, CHILD_LIST_LOOKAHEAD).flatten();
 
         PagedList<VirtualMachineImage> images =
                 new ChildListFlattener<>(skus, new ChildListFlattener.ChildListLoader<VirtualMachineSku, VirtualMachineImage>() {
@@ -98,7 +106,7 @@ class VirtualMachineImagesImpl
                     public PagedList<VirtualMachineImage> loadList(VirtualMachineSku sku)  {
                         return sku.images().list();
                     }
-                }).flatten();
+                }, CHILD_LIST_LOOKAHEAD).flatten();
 
         return images;
     }
@@ -134,4 +142,34 @@ class VirtualMachineImagesImpl
         return this.publishers;
     }
 
+    @Override
+    public VirtualMachineImageCatalog crawlCatalog(String regionName, VirtualMachineImageCrawlOptions options) {
+        return crawlCatalogAsync(regionName, options).toBlocking().last();
+    }
+
+    @Override
+    public Observable<VirtualMachineImageCatalog> crawlCatalogAsync(String regionName, VirtualMachineImageCrawlOptions options) {
+        return new VirtualMachineImageCrawler(this.client, regionName, options).crawlAsync(null);
+    }
+
+    @Override
+    public VirtualMachineImageCatalog refreshCatalog(VirtualMachineImageCatalog catalog, VirtualMachineImageCrawlOptions options) {
+        return refreshCatalogAsync(catalog, options).toBlocking().last();
+    }
+
+    @Override
+    public Observable<VirtualMachineImageCatalog> refreshCatalogAsync(VirtualMachineImageCatalog catalog, VirtualMachineImageCrawlOptions options) {
+        return new VirtualMachineImageCrawler(this.client, catalog.regionName(), options)
+                .crawlAsync((VirtualMachineImageCatalogImpl) catalog);
+    }
+
+    @Override
+    public VirtualMachineImageCatalog loadCatalog(File file) {
+        try {
+            return VirtualMachineImageCatalogImpl.load(file);
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.compute.ComputeResourceType;
+import com.microsoft.azure.management.compute.ComputeSku;
+import com.microsoft.azure.management.compute.ComputeSkuCatalog;
+import com.microsoft.azure.management.compute.ComputeSkuName;
+import com.microsoft.azure.management.compute.ComputeSkus;
+import com.microsoft.azure.management.resources.fluentcore.arm.AvailabilityZoneId;
+import com.microsoft.azure.management.resources.fluentcore.arm.Region;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.joda.time.Period;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ComputeSkuCatalogTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String SKUS_JSON = "{\"value\":["
+            // deployable in eastus zones 1 to 3, restricted in zone 2
+            + vm("Standard_D2s_v3", 2, "8", true, "eastus", "[\"1\",\"2\",\"3\"]",
+                    "[{\"type\":\"Zone\",\"values\":[\"eastus\"],\"restrictionInfo\":"
+                            + "{\"locations\":[\"eastus\"],\"zones\":[\"2\"]},"
+                            + "\"reasonCode\":\"NotAvailableForSubscription\"}]")
+            + "," + vm("Standard_D4s_v3", 4, "16", true, "eastus", "[\"1\",\"2\",\"3\"]", "[]")
+            + "," + vm("Standard_B1s", 1, "1", false, "eastus", "[]", "[]")
+            // restricted in the whole region
+            + "," + vm("Standard_M128s", 128, "2048", true, "eastus", "[\"1\"]",
+                    "[{\"type\":\"Location\",\"values\":[\"eastus\"],\"restrictionInfo\":"
+                            + "{\"locations\":[\"eastus\"]},\"reasonCode\":\"QuotaId\"}]")
+            + "," + vm("Standard_D2s_v3", 2, "8", true, "westus", "[]", "[]")
+            + ",{\"resourceType\":\"disks\",\"name\":\"Premium_LRS\",\"tier\":\"Premium\",\"locations\":[\"eastus\"],"
+            + "\"locationInfo\":[{\"location\":\"eastus\",\"zones\":[\"1\"]}],\"capabilities\":[],\"restrictions\":[]}"
+            + "]}";
+
+    @Test
+    public void canQueryCatalog() {
+        FakeSkus fakeSkus = new FakeSkus();
+        ComputeSkuCatalog catalog = skus(fakeSkus).getCatalog();
+
+        Assert.assertEquals(6, catalog.list().size());
+        Assert.assertEquals(5, catalog.listByRegion(Region.US_EAST).size());
+        Assert.assertEquals(5, catalog.listByResourceType(ComputeResourceType.VIRTUALMACHINES).size());
+        Assert.assertEquals(1, catalog.listByRegionAndResourceType(Region.US_EAST, ComputeResourceType.DISKS).size());
+        Assert.assertEquals(0, catalog.listByRegion(Region.EUROPE_WEST).size());
+        Assert.assertNotNull(catalog.getByName(Region.US_WEST, ComputeResourceType.VIRTUALMACHINES,
+                ComputeSkuName.fromString("standard_d2s_v3")));
+        Assert.assertNull(catalog.getByName(Region.US_WEST, ComputeResourceType.VIRTUALMACHINES,
+                ComputeSkuName.fromString("Standard_B1s")));
+
+        Assert.assertEquals("[Standard_D2s_v3, Standard_D4s_v3, Standard_B1s]",
+                names(catalog.listDeployable(Region.US_EAST, ComputeResourceType.VIRTUALMACHINES, null)));
+        Assert.assertEquals("[Standard_D4s_v3]",
+                names(catalog.listDeployable(Region.US_EAST, ComputeResourceType.VIRTUALMACHINES,
+                        AvailabilityZoneId.ZONE_2)));
+        Assert.assertEquals("[Standard_D2s_v3, Standard_D4s_v3]",
+                names(catalog.listDeployable(Region.US_EAST, ComputeResourceType.VIRTUALMACHINES,
+                        AvailabilityZoneId.ZONE_3)));
+
+        Assert.assertEquals("[Standard_B1s, Standard_D2s_v3, Standard_D4s_v3]",
+                names(catalog.listVirtualMachineSizes(Region.US_EAST, null, 0, 0, false)));
+        Assert.assertEquals("[Standard_D2s_v3, Standard_D4s_v3]",
+                names(catalog.listVirtualMachineSizes(Region.US_EAST, null, 2, 4, true)));
+        Assert.assertEquals("[Standard_D4s_v3]",
+                names(catalog.listVirtualMachineSizes(Region.US_EAST, AvailabilityZoneId.ZONE_2, 2, 0, true)));
+        Assert.assertEquals("[]",
+                names(catalog.listVirtualMachineSizes(Region.US_EAST, null, 8, 0, false)));
+    }
+
+    @Test
+    public void canListSkusFromCatalog() {
+        FakeSkus fakeSkus = new FakeSkus();
+        ComputeSkus skus = skus(fakeSkus);
+
+        Assert.assertEquals(5, skus.listByRegion(Region.US_EAST).size());
+        Assert.assertEquals(5, skus.listByResourceType(ComputeResourceType.VIRTUALMACHINES).size());
+        Assert.assertEquals(1, skus.listbyRegionAndResourceType(Region.US_EAST, ComputeResourceType.DISKS).size());
+        Assert.assertEquals(0, skus.listByRegion(Region.EUROPE_WEST).size());
+        // the filtered listings share one listing of the skus
+        Assert.assertEquals(1, fakeSkus.requestCount.get());
+    }
+
+    @Test
+    public void canCacheAndRefreshCatalog() throws Exception {
+        FakeSkus fakeSkus = new FakeSkus();
+        ComputeSkus skus = skus(fakeSkus).withCatalogTimeToLive(Period.seconds(2));
+
+        ComputeSkuCatalog catalog = skus.getCatalog();
+        Assert.assertSame(catalog, skus.getCatalog());
+        Assert.assertEquals(1, fakeSkus.requestCount.get());
+
+        // past half the time to live, the loaded catalog is returned while a new one is loaded
+        Thread.sleep(1200);
+        Assert.assertSame(catalog, skus.getCatalog());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (skus.getCatalog() == catalog && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assert.assertNotSame(catalog, skus.getCatalog());
+        Assert.assertEquals(2, fakeSkus.requestCount.get());
+
+        // past the time to live, the callers wait for a new catalog
+        catalog = skus.getCatalog();
+        Thread.sleep(2100);
+        Assert.assertNotSame(catalog, skus.getCatalog());
+        Assert.assertEquals(3, fakeSkus.requestCount.get());
+    }
+
+    private static ComputeSkus skus(FakeSkus fakeSkus) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withCredentials(new AzureTokenCredentials(AzureEnvironment.AZURE, null) {
+                    @Override
+                    public String getToken(String resource) {
+                        return "token";
+                    }
+                })
+                .withInterceptor(fakeSkus)
+                .build();
+        return ComputeManager.authenticate(restClient, SUBSCRIPTION_ID).computeSkus();
+    }
+
+    private static String vm(String name, int vCPUs, String memoryGB, boolean acceleratedNetworking,
+                             String location, String zones, String restrictions) {
+        return "{\"resourceType\":\"virtualMachines\",\"name\":\"" + name + "\",\"tier\":\"Standard\","
+                + "\"locations\":[\"" + location + "\"],"
+                + "\"locationInfo\":[{\"location\":\"" + location + "\",\"zones\":" + zones + "}],"
+                + "\"capabilities\":[{\"name\":\"vCPUs\",\"value\":\"" + vCPUs + "\"},"
+                + "{\"name\":\"MemoryGB\",\"value\":\"" + memoryGB + "\"},"
+                + "{\"name\":\"AcceleratedNetworkingEnabled\",\"value\":\"" + (acceleratedNetworking ? "True" : "False")
+                + "\"}],\"restrictions\":" + restrictions + "}";
+    }
+
+    private static String names(List<ComputeSku> skus) {
+        List<String> names = new ArrayList<>();
+        for (ComputeSku sku : skus) {
+            names.add(sku.name().toString());
+        }
+        return names.toString();
+    }
+
+    /**
+     * Serves the list of skus and counts the requests.
+     */
+    private static class FakeSkus implements Interceptor {
+        private final AtomicInteger requestCount = new AtomicInteger();
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            requestCount.incrementAndGet();
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), SKUS_JSON))
+                    .build();
+        }
+    }
+}
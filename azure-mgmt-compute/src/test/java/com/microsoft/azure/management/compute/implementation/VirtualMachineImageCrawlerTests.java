@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.compute.implementation;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.compute.ImageReference;
+import com.microsoft.azure.management.compute.VirtualMachineImageCatalog;
+import com.microsoft.azure.management.compute.VirtualMachineImageCrawlOptions;
+import com.microsoft.azure.management.compute.VirtualMachineImages;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.joda.time.Period;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+public class VirtualMachineImageCrawlerTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void canCrawlAndQueryCatalog() throws Exception {
+        FakeMarketplace marketplace = marketplace();
+        VirtualMachineImages images = images(marketplace);
+
+        VirtualMachineImageCatalog catalog = images.crawlCatalog("westus",
+                new VirtualMachineImageCrawlOptions().withMaxConcurrency(4));
+
+        Assert.assertEquals("westus", catalog.regionName());
+        Assert.assertEquals(7, catalog.size());
+        Assert.assertEquals("[Canonical, CanonicalLabs, MicrosoftWindowsServer]", catalog.publisherNames().toString());
+        Assert.assertTrue(catalog.failedBranches().isEmpty());
+        // one call for the publishers, one per publisher, one per offer and one per SKU
+        Assert.assertEquals(1 + 3 + 4 + 5, marketplace.requestCount.get());
+        Assert.assertTrue(marketplace.maxConcurrentRequests.get() > 1);
+        Assert.assertTrue(marketplace.maxConcurrentRequests.get() <= 4);
+
+        Assert.assertEquals("[Canonical/UbuntuServer/18.04-LTS/18.04.201901220, "
+                + "Canonical/UbuntuServer/18.04-LTS/18.04.201902190, "
+                + "Canonical/UbuntuServer/18_04-lts-gen2/18.04.202001010, "
+                + "CanonicalLabs/UbuntuServer/18.04-DAILY-LTS/18.04.201904020]",
+                toString(catalog.listImages("canonical", "ubuntu", "18")));
+        Assert.assertEquals(1, catalog.listImages("Canonical", "UbuntuServer", "16.04").size());
+        Assert.assertEquals(2, catalog.listImages("MicrosoftWindowsServer", null, null).size());
+        Assert.assertEquals(0, catalog.listImages("Contoso", null, null).size());
+
+        File file = folder.newFile("westus.catalog");
+        catalog.saveTo(file);
+        VirtualMachineImageCatalog loaded = images.loadCatalog(file);
+        Assert.assertEquals(catalog.regionName(), loaded.regionName());
+        Assert.assertEquals(catalog.crawledTime(), loaded.crawledTime());
+        Assert.assertEquals(toString(catalog.listImages(null, null, null)),
+                toString(loaded.listImages(null, null, null)));
+    }
+
+    @Test
+    public void canRefreshChangedOffersOnly() throws Exception {
+        FakeMarketplace marketplace = marketplace();
+        VirtualMachineImages images = images(marketplace);
+        VirtualMachineImageCatalog catalog = images.crawlCatalog("westus", null);
+
+        // an offer is added and another one removed
+        marketplace.put("MicrosoftWindowsServer/WindowsServerSemiAnnual/Datacenter-Core-1809/1809.0.20190115");
+        marketplace.remove("CanonicalLabs/UbuntuServer");
+        marketplace.requestCount.set(0);
+        VirtualMachineImageCatalog refreshed = images.refreshCatalog(catalog, null);
+
+        Assert.assertEquals(7, refreshed.size());
+        Assert.assertEquals("[Canonical, MicrosoftWindowsServer]", refreshed.publisherNames().toString());
+        Assert.assertEquals(1, refreshed.listImages("MicrosoftWindowsServer", "WindowsServerSemi", null).size());
+        // the publishers and offers are listed again, only the new offer is crawled
+        Assert.assertEquals(1 + 2 + 1 + 1, marketplace.requestCount.get());
+
+        // offers older than the maximum age are crawled again
+        marketplace.requestCount.set(0);
+        images.refreshCatalog(refreshed, new VirtualMachineImageCrawlOptions().withMaxOfferAge(Period.ZERO));
+        Assert.assertEquals(1 + 2 + 3 + 6, marketplace.requestCount.get());
+    }
+
+    @Test
+    public void canKeepBranchesFailingToRefresh() throws Exception {
+        FakeMarketplace marketplace = marketplace();
+        VirtualMachineImages images = images(marketplace);
+        VirtualMachineImageCatalog catalog = images.crawlCatalog("westus", null);
+
+        marketplace.failingPath = "/offers/WindowsServer/skus";
+        VirtualMachineImageCatalog refreshed = images.refreshCatalog(catalog,
+                new VirtualMachineImageCrawlOptions().withMaxOfferAge(Period.ZERO));
+
+        Assert.assertEquals(catalog.size(), refreshed.size());
+        Assert.assertEquals(2, refreshed.listImages("MicrosoftWindowsServer", null, null).size());
+        Assert.assertEquals("[MicrosoftWindowsServer/WindowsServer]", refreshed.failedBranches().toString());
+    }
+
+    @Test
+    public void canReportBranchesFailingToCrawl() throws Exception {
+        FakeMarketplace marketplace = marketplace();
+        VirtualMachineImages images = images(marketplace);
+
+        marketplace.failingPath = "/publishers/CanonicalLabs/artifacttypes/vmimage/offers";
+        VirtualMachineImageCatalog catalog = images.crawlCatalog("westus", null);
+        Assert.assertEquals(6, catalog.size());
+        Assert.assertEquals("[CanonicalLabs]", catalog.failedBranches().toString());
+
+        File file = folder.newFile("westus.catalog");
+        catalog.saveTo(file);
+        Assert.assertEquals("[CanonicalLabs]", images.loadCatalog(file).failedBranches().toString());
+
+        // the missing branch is crawled by the next refresh
+        marketplace.failingPath = null;
+        VirtualMachineImageCatalog refreshed = images.refreshCatalog(catalog, null);
+        Assert.assertEquals(7, refreshed.size());
+        Assert.assertTrue(refreshed.failedBranches().isEmpty());
+    }
+
+    @Test
+    public void cannotLoadOtherFiles() throws Exception {
+        File file = folder.newFile("not-a-catalog");
+        GZIPOutputStream output = new GZIPOutputStream(new FileOutputStream(file));
+        output.write(new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        output.close();
+        try {
+            images(marketplace()).loadCatalog(file);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    private static VirtualMachineImages images(FakeMarketplace marketplace) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withCredentials(new AzureTokenCredentials(AzureEnvironment.AZURE, null) {
+                    @Override
+                    public String getToken(String resource) {
+                        return "token";
+                    }
+                })
+                .withInterceptor(marketplace)
+                .build();
+        return ComputeManager.authenticate(restClient, SUBSCRIPTION_ID).virtualMachineImages();
+    }
+
+    private static FakeMarketplace marketplace() {
+        FakeMarketplace marketplace = new FakeMarketplace();
+        marketplace.put("Canonical/UbuntuServer/16.04-LTS/16.04.201901140");
+        marketplace.put("Canonical/UbuntuServer/18.04-LTS/18.04.201901220");
+        marketplace.put("Canonical/UbuntuServer/18.04-LTS/18.04.201902190");
+        marketplace.put("Canonical/UbuntuServer/18_04-lts-gen2/18.04.202001010");
+        marketplace.put("CanonicalLabs/UbuntuServer/18.04-DAILY-LTS/18.04.201904020");
+        marketplace.put("MicrosoftWindowsServer/WindowsServer/2016-Datacenter/2016.127.20190115");
+        marketplace.put("MicrosoftWindowsServer/WindowsServer/2019-Datacenter/2019.0.20190115");
+        return marketplace;
+    }
+
+    private static String toString(List<ImageReference> images) {
+        List<String> names = new ArrayList<>();
+        for (ImageReference image : images) {
+            names.add(image.publisher() + "/" + image.offer() + "/" + image.sku() + "/" + image.version());
+        }
+        return names.toString();
+    }
+
+    /**
+     * Serves the publishers, offers, SKUs and versions of virtual machine images from a tree of names.
+     */
+    private static class FakeMarketplace implements Interceptor {
+        private final Map<String, Object> root = new TreeMap<>();
+        private final AtomicInteger requestCount = new AtomicInteger();
+        private final AtomicInteger concurrentRequests = new AtomicInteger();
+        private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+        private volatile String failingPath;
+
+        @SuppressWarnings("unchecked")
+        synchronized void put(String path) {
+            Map<String, Object> node = root;
+            for (String name : path.split("/")) {
+                if (!node.containsKey(name)) {
+                    node.put(name, new TreeMap<String, Object>());
+                }
+                node = (Map<String, Object>) node.get(name);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized void remove(String path) {
+            String[] names = path.split("/");
+            Map<String, Object> node = root;
+            for (int i = 0; i < names.length - 1; i++) {
+                node = (Map<String, Object>) node.get(names[i]);
+            }
+            node.remove(names[names.length - 1]);
+            if (node.isEmpty()) {
+                root.remove(names[0]);
+            }
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            requestCount.incrementAndGet();
+            int concurrent = concurrentRequests.incrementAndGet();
+            try {
+                synchronized (maxConcurrentRequests) {
+                    maxConcurrentRequests.set(Math.max(maxConcurrentRequests.get(), concurrent));
+                }
+                // give the other calls of the crawl the time to start
+                Thread.sleep(20);
+                String path = request.url().encodedPath();
+                if (failingPath != null && path.endsWith(failingPath)) {
+                    return respond(request, 500, "{\"error\":{\"code\":\"InternalError\",\"message\":\"failed\"}}");
+                }
+                return respond(request, 200, list(path));
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            } finally {
+                concurrentRequests.decrementAndGet();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private synchronized String list(String path) {
+            // .../publishers[/{publisher}/artifacttypes/vmimage/offers[/{offer}/skus[/{sku}/versions]]]
+            String[] segments = path.substring(path.indexOf("/publishers") + 1).split("/");
+            Map<String, Object> node = root;
+            for (int i = 0; i + 1 < segments.length; i++) {
+                if (segments[i].matches("publishers|offers|skus")) {
+                    node = (Map<String, Object>) node.get(segments[i + 1]);
+                }
+            }
+            StringBuilder json = new StringBuilder("[");
+            for (String name : node.keySet()) {
+                json.append(json.length() > 1 ? "," : "")
+                        .append("{\"name\":\"").append(name).append("\",\"location\":\"westus\"}");
+            }
+            return json.append(']').toString();
+        }
+
+        private static Response respond(Request request, int code, String json) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message(String.valueOf(code))
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+    }
+}
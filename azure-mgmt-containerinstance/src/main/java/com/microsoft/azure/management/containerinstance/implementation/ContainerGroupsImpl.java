@@ -166,24 +166,12 @@ public class ContainerGroupsImpl
     }
 
     @Override
-    public final PagedList<ContainerGroup> list() {
-        final PagedListConverter<ContainerGroupInner, ContainerGroup> converter = new PagedListConverter<ContainerGroupInner, ContainerGroup>() {
+    protected PagedListConverter<ContainerGroupInner, ContainerGroup> listConverter() {
+        return new PagedListConverter<ContainerGroupInner, ContainerGroup>() {
             @Override
             public Observable<ContainerGroup> typeConvertAsync(ContainerGroupInner inner) {
                 return wrapModel(inner).refreshAsync();
             }
         };
-        return converter.convert(this.inner().list());
-    }
-
-    @Override
-    public PagedList<ContainerGroup> listByResourceGroup(String resourceGroupName) {
-        final PagedListConverter<ContainerGroupInner, ContainerGroup> converter = new PagedListConverter<ContainerGroupInner, ContainerGroup>() {
-            @Override
-            public Observable<ContainerGroup> typeConvertAsync(ContainerGroupInner inner) {
-                return wrapModel(inner).refreshAsync();
-            }
-        };
-        return converter.convert(this.inner().listByResourceGroup(resourceGroupName));
     }
 }
@@ -58,7 +58,7 @@ public final class ContainerInstanceManager extends Manager<ContainerInstanceMan
             .withSerializerAdapter(new AzureJacksonAdapter())
             .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
             .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-            .withInterceptor(new ResourceManagerThrottlingInterceptor())
+            .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
             .build(), subscriptionId);
     }
 
@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.containerinstance.implementation;
+
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.containerinstance.ContainerGroup;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ContainerGroupsListingTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String GROUPS_URL = "https://management.azure.com/subscriptions/" + SUBSCRIPTION_ID
+            + "/providers/Microsoft.ContainerInstance/containerGroups";
+
+    @Test
+    public void canRefreshListedGroupsWithAndWithoutPrefetch() {
+        FakeContainerGroups fakeGroups = new FakeContainerGroups();
+        ContainerGroupsImpl containerGroups = containerGroups(fakeGroups);
+
+        assertRefreshed(containerGroups.list());
+        assertRefreshed(containerGroups.list(1));
+        assertRefreshed(containerGroups.listByResourceGroup("rg"));
+        assertRefreshed(containerGroups.listByResourceGroup("rg", 1));
+        // each of the three groups is read once per listing
+        Assert.assertEquals(4 * 3, fakeGroups.groupReads.get());
+    }
+
+    private static void assertRefreshed(PagedList<ContainerGroup> groups) {
+        Assert.assertEquals(3, groups.size());
+        for (ContainerGroup group : groups) {
+            Assert.assertEquals("Succeeded", group.provisioningState());
+        }
+    }
+
+    private static ContainerGroupsImpl containerGroups(FakeContainerGroups fakeGroups) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withCredentials(new AzureTokenCredentials(AzureEnvironment.AZURE, "tenant") {
+                    @Override
+                    public String getToken(String resource) {
+                        return "token";
+                    }
+                })
+                .withInterceptor(fakeGroups)
+                .build();
+        return (ContainerGroupsImpl) ContainerInstanceManager.authenticate(restClient, SUBSCRIPTION_ID).containerGroups();
+    }
+
+    private static String groupJson(String name, String provisioningState) {
+        return "{\"id\":\"/subscriptions/" + SUBSCRIPTION_ID + "/resourceGroups/rg/providers/"
+                + "Microsoft.ContainerInstance/containerGroups/" + name + "\",\"name\":\"" + name
+                + "\",\"type\":\"Microsoft.ContainerInstance/containerGroups\",\"location\":\"westus\","
+                + "\"properties\":{\"provisioningState\":\"" + provisioningState + "\",\"osType\":\"Linux\","
+                + "\"containers\":[]}}";
+    }
+
+    /**
+     * Serves two pages of listed container groups, in an unrefreshed state, and the refreshed groups.
+     */
+    private static class FakeContainerGroups implements Interceptor {
+        private final AtomicInteger groupReads = new AtomicInteger();
+
+        @Override
+        public Response intercept(Chain chain) {
+            Request request = chain.request();
+            String path = request.url().encodedPath();
+            String json;
+            if (path.endsWith("/containerGroups")) {
+                json = "2".equals(request.url().queryParameter("page"))
+                        ? "{\"value\":[" + groupJson("cg3", "Listed") + "]}"
+                        : "{\"value\":[" + groupJson("cg1", "Listed") + "," + groupJson("cg2", "Listed")
+                                + "],\"nextLink\":\"" + GROUPS_URL + "?page=2\"}";
+            } else {
+                groupReads.incrementAndGet();
+                json = groupJson(path.substring(path.lastIndexOf('/') + 1), "Succeeded");
+            }
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+    }
+}
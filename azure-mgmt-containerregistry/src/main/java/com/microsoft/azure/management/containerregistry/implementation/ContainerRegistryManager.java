@@ -57,7 +57,7 @@ public final class ContainerRegistryManager extends Manager<ContainerRegistryMan
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), subscriptionId);
     }
 
@@ -27,8 +27,10 @@ import com.microsoft.azure.management.cosmosdb.SqlDatabase;
 import com.microsoft.azure.management.cosmosdb.VirtualNetworkRule;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.GroupableResourceImpl;
+import com.microsoft.azure.management.resources.fluentcore.utils.PollingWaiter;
 import rx.Completable;
 import rx.Observable;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
 import java.util.ArrayList;
@@ -39,6 +41,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The implementation for CosmosDBAccount.
@@ -54,9 +57,14 @@ class CosmosDBAccountImpl
         implements CosmosDBAccount,
         CosmosDBAccount.Definition,
         CosmosDBAccount.Update {
+    // the account and its locations take minutes to provision, poll them less and less often
+    private static final PollingWaiter PROVISIONING_WAITER = new PollingWaiter()
+            .withInitialDelay(5, TimeUnit.SECONDS)
+            .withMaxDelay(30, TimeUnit.SECONDS);
     private List<FailoverPolicy> failoverPolicies;
     private boolean hasFailoverPolicyChanges;
-    private final int maxDelayDueToMissingFailovers = 60 * 10;
+    // about ten minutes of the backoff of the provisioning waiter, bounded by polls rather than the clock
+    private final int maxPollsDueToMissingFailovers = 24;
     private Map<String, VirtualNetworkRule> virtualNetworkRulesMap;
     private PrivateEndpointConnectionsImpl privateEndpointConnections;
 
@@ -577,8 +585,6 @@ class CosmosDBAccountImpl
 
     private Observable<CosmosDBAccount> doDatabaseUpdateCreate() {
         final CosmosDBAccountImpl self = this;
-        final List<Integer> data = new ArrayList<Integer>();
-        data.add(0);
 
         Observable<DatabaseAccountGetResultsInner> request = null;
         HasLocations locationParameters = null;
@@ -610,25 +616,22 @@ class CosmosDBAccountImpl
                     public Observable<? extends CosmosDBAccount> call(DatabaseAccountGetResultsInner databaseAccountInner) {
                         self.failoverPolicies.clear();
                         self.hasFailoverPolicyChanges = false;
-                        return manager().databaseAccounts().getByResourceGroupAsync(
-                                resourceGroupName(),
-                                name()
-                        ).repeatWhen(new Func1<Observable<? extends java.lang.Void>, Observable<?>>() {
+                        final AtomicInteger pollCount = new AtomicInteger();
+                        return PROVISIONING_WAITER.waitUntilAsync(new Func0<Observable<CosmosDBAccount>>() {
                             @Override
-                            public Observable<?> call(Observable<? extends Void> observable) {
-                                data.set(0, data.get(0) + 5);
-                                return observable.delay(5, TimeUnit.SECONDS);
+                            public Observable<CosmosDBAccount> call() {
+                                return manager().databaseAccounts().getByResourceGroupAsync(
+                                        resourceGroupName(),
+                                        name());
                             }
-                        })
-                        .filter(new Func1<CosmosDBAccount, Boolean>() {
+                        }, new Func1<CosmosDBAccount, Boolean>() {
                             @Override
                             public Boolean call(CosmosDBAccount databaseAccount) {
-                                if (maxDelayDueToMissingFailovers > data.get(0)
+                                if (pollCount.incrementAndGet() < maxPollsDueToMissingFailovers
                                         && (databaseAccount.id() == null
                                         || databaseAccount.id().length() == 0
                                         || finalLocationParameters.locations().size()
                                         > databaseAccount.inner().failoverPolicies().size())) {
-                                    data.set(0, data.get(0) + 5);
                                     return false;
                                 }
 
@@ -642,13 +645,15 @@ class CosmosDBAccountImpl
                                 } else {
                                     return false;
                                 }
-
-                                self.setInner(databaseAccount.inner());
                                 return true;
                             }
-                        })
-                        .first();
-
+                        }).map(new Func1<CosmosDBAccount, CosmosDBAccount>() {
+                            @Override
+                            public CosmosDBAccount call(CosmosDBAccount databaseAccount) {
+                                self.setInner(databaseAccount.inner());
+                                return databaseAccount;
+                            }
+                        });
                     }
                 });
     }
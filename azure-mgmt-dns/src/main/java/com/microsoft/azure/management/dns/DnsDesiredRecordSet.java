@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.dns;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.dns.implementation.RecordSetInner;
+
+/**
+ * The desired state of a record set, used to synchronize the record sets of a DNS zone,
+ * see {@link DnsZone#synchronizeRecordSets(java.util.Collection, DnsZoneSyncOptions)}.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class DnsDesiredRecordSet {
+    private final String name;
+    private final RecordType recordType;
+    private final RecordSetInner content;
+
+    /**
+     * Creates DnsDesiredRecordSet.
+     *
+     * @param name the name of the record set relative to the zone, "@" for the apex of the zone
+     * @param recordType the type of the records
+     * @param content the time to live, the metadata and the records of the type; a null time to live or null
+     *                metadata keep the values of an existing record set
+     */
+    public DnsDesiredRecordSet(String name, RecordType recordType, RecordSetInner content) {
+        if (name == null || recordType == null || content == null) {
+            throw new IllegalArgumentException("name, recordType and content are required");
+        }
+        this.name = name;
+        this.recordType = recordType;
+        this.content = content;
+    }
+
+    /**
+     * @return the name of the record set relative to the zone
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * @return the type of the records
+     */
+    public RecordType recordType() {
+        return this.recordType;
+    }
+
+    /**
+     * @return the time to live, the metadata and the records
+     */
+    public RecordSetInner content() {
+        return this.content;
+    }
+
+    @Override
+    public String toString() {
+        return this.name + " " + this.recordType;
+    }
+}
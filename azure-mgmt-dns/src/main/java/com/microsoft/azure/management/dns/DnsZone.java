@@ -17,7 +17,9 @@ import com.microsoft.azure.management.resources.fluentcore.model.Appliable;
 import com.microsoft.azure.management.resources.fluentcore.model.Creatable;
 import com.microsoft.azure.management.resources.fluentcore.model.Refreshable;
 import com.microsoft.azure.management.resources.fluentcore.model.Updatable;
+import rx.Observable;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -149,6 +151,35 @@ public interface DnsZone extends
      */
     SoaRecordSet getSoaRecordSet();
 
+    /**
+     * Brings the record sets of this zone to the desired state.
+     * <p>
+     * The record sets of the zone are read page by page and compared with the desired state; only the record
+     * sets that differ are written, several at a time, with conditional writes guarded by their ETag. The SOA
+     * record set and the NS record set of the apex are managed by Azure and left untouched.
+     *
+     * @param desiredRecordSets the desired record sets, e.g. read from a zone file with {@link DnsZoneFile}
+     * @param options the settings of the synchronization, null for the default settings
+     * @return the summary of the changes
+     */
+    @Method
+    @Beta(Beta.SinceVersion.V1_42_0)
+    DnsZoneSyncResult synchronizeRecordSets(Collection<DnsDesiredRecordSet> desiredRecordSets,
+                                            DnsZoneSyncOptions options);
+
+    /**
+     * Brings the record sets of this zone to the desired state asynchronously,
+     * see {@link #synchronizeRecordSets(Collection, DnsZoneSyncOptions)}.
+     *
+     * @param desiredRecordSets the desired record sets
+     * @param options the settings of the synchronization, null for the default settings
+     * @return an observable emitting the summary of the changes
+     */
+    @Method
+    @Beta(Beta.SinceVersion.V1_42_0)
+    Observable<DnsZoneSyncResult> synchronizeRecordSetsAsync(Collection<DnsDesiredRecordSet> desiredRecordSets,
+                                                            DnsZoneSyncOptions options);
+
     /**
      * The entirety of the DNS zone definition.
      */
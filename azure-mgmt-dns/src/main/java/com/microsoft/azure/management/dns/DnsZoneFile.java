@@ -0,0 +1,346 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.dns;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+import com.microsoft.azure.management.dns.implementation.RecordSetInner;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads record sets from a zone file in the master file format of RFC 1035.
+ * <p>
+ * Supports the $ORIGIN and $TTL directives, relative and absolute names, "@", omitted owners, TTLs and classes,
+ * parentheses, quoted strings and comments, and the A, AAAA, CAA, CNAME, MX, NS, PTR, SRV and TXT types. SOA
+ * records are skipped since Azure manages them. Records of the same name and type form one record set, with the
+ * time to live of its first record.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class DnsZoneFile {
+    private static final long DEFAULT_TTL = 3600;
+
+    private DnsZoneFile() {
+    }
+
+    /**
+     * Parses a zone file.
+     *
+     * @param zoneFile the content of the zone file
+     * @param origin the name of the zone, e.g. "contoso.com"
+     * @return the record sets of the zone file, in the order of their first record
+     */
+    public static List<DnsDesiredRecordSet> parse(String zoneFile, String origin) {
+        String zoneOrigin = absolute(origin, null);
+        String currentOrigin = zoneOrigin;
+        Long defaultTtl = null;
+        long lastTtl = DEFAULT_TTL;
+        String lastOwner = null;
+        Map<String, DnsDesiredRecordSet> recordSets = new LinkedHashMap<>();
+
+        int lineNumber = 0;
+        List<String> tokens = new ArrayList<>();
+        boolean ownerOmitted = false;
+        int depth = 0;
+        int entryLine = 0;
+        for (String line : zoneFile.split("\r?\n", -1)) {
+            lineNumber++;
+            if (depth == 0) {
+                tokens.clear();
+                ownerOmitted = !line.isEmpty() && Character.isWhitespace(line.charAt(0));
+                entryLine = lineNumber;
+            }
+            depth = tokenize(line, tokens, depth, lineNumber);
+            if (depth > 0 || tokens.isEmpty()) {
+                continue;
+            }
+            try {
+                String first = tokens.get(0);
+                if (!ownerOmitted && first.startsWith("$")) {
+                    String directive = first.toUpperCase(Locale.ROOT);
+                    if ("$ORIGIN".equals(directive) && tokens.size() > 1) {
+                        currentOrigin = absolute(tokens.get(1), currentOrigin);
+                    } else if ("$TTL".equals(directive) && tokens.size() > 1) {
+                        defaultTtl = parseTtl(tokens.get(1));
+                    } else {
+                        throw new IllegalArgumentException("unsupported directive " + first);
+                    }
+                    continue;
+                }
+                int index = 0;
+                String owner;
+                if (ownerOmitted) {
+                    if (lastOwner == null) {
+                        throw new IllegalArgumentException("missing owner name");
+                    }
+                    owner = lastOwner;
+                } else {
+                    owner = absolute(first, currentOrigin);
+                    index++;
+                }
+                lastOwner = owner;
+
+                Long ttl = null;
+                while (index < tokens.size()) {
+                    String token = tokens.get(index);
+                    if (isClass(token)) {
+                        index++;
+                    } else if (ttl == null && Character.isDigit(token.charAt(0))) {
+                        ttl = parseTtl(token);
+                        index++;
+                    } else {
+                        break;
+                    }
+                }
+                if (index >= tokens.size()) {
+                    throw new IllegalArgumentException("missing record type");
+                }
+                String type = tokens.get(index++).toUpperCase(Locale.ROOT);
+                List<String> rdata = tokens.subList(index, tokens.size());
+                if (ttl == null) {
+                    ttl = defaultTtl != null ? defaultTtl : lastTtl;
+                }
+                lastTtl = ttl;
+                if ("SOA".equals(type)) {
+                    continue;
+                }
+                RecordType recordType = RecordType.fromString(type);
+                if (recordType == null) {
+                    throw new IllegalArgumentException("unsupported record type " + type);
+                }
+                String name = relative(owner, zoneOrigin);
+                String key = name.toLowerCase(Locale.ROOT) + " " + recordType;
+                DnsDesiredRecordSet recordSet = recordSets.get(key);
+                if (recordSet == null) {
+                    recordSet = new DnsDesiredRecordSet(name, recordType, new RecordSetInner().withTTL(ttl));
+                    recordSets.put(key, recordSet);
+                }
+                addRecord(recordSet.content(), recordType, rdata, currentOrigin);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid zone file entry at line " + entryLine + ": "
+                        + e.getMessage(), e);
+            }
+        }
+        if (depth > 0) {
+            throw new IllegalArgumentException("Invalid zone file entry at line " + entryLine
+                    + ": unbalanced parentheses");
+        }
+        return new ArrayList<>(recordSets.values());
+    }
+
+    private static void addRecord(RecordSetInner recordSet, RecordType recordType, List<String> rdata, String origin) {
+        switch (recordType) {
+            case A:
+                requireFields(rdata, 1);
+                if (recordSet.aRecords() == null) {
+                    recordSet.withARecords(new ArrayList<ARecord>());
+                }
+                recordSet.aRecords().add(new ARecord().withIpv4Address(rdata.get(0)));
+                break;
+            case AAAA:
+                requireFields(rdata, 1);
+                if (recordSet.aaaaRecords() == null) {
+                    recordSet.withAaaaRecords(new ArrayList<AaaaRecord>());
+                }
+                recordSet.aaaaRecords().add(new AaaaRecord().withIpv6Address(rdata.get(0)));
+                break;
+            case CAA:
+                requireFields(rdata, 3);
+                if (recordSet.caaRecords() == null) {
+                    recordSet.withCaaRecords(new ArrayList<CaaRecord>());
+                }
+                recordSet.caaRecords().add(new CaaRecord()
+                        .withFlags(Integer.parseInt(rdata.get(0)))
+                        .withTag(rdata.get(1))
+                        .withValue(rdata.get(2)));
+                break;
+            case CNAME:
+                requireFields(rdata, 1);
+                if (recordSet.cnameRecord() != null) {
+                    throw new IllegalArgumentException("more than one CNAME record for a name");
+                }
+                recordSet.withCnameRecord(new CnameRecord().withCname(target(rdata.get(0), origin)));
+                break;
+            case MX:
+                requireFields(rdata, 2);
+                if (recordSet.mxRecords() == null) {
+                    recordSet.withMxRecords(new ArrayList<MxRecord>());
+                }
+                recordSet.mxRecords().add(new MxRecord()
+                        .withPreference(Integer.parseInt(rdata.get(0)))
+                        .withExchange(target(rdata.get(1), origin)));
+                break;
+            case NS:
+                requireFields(rdata, 1);
+                if (recordSet.nsRecords() == null) {
+                    recordSet.withNsRecords(new ArrayList<NsRecord>());
+                }
+                recordSet.nsRecords().add(new NsRecord().withNsdname(target(rdata.get(0), origin)));
+                break;
+            case PTR:
+                requireFields(rdata, 1);
+                if (recordSet.ptrRecords() == null) {
+                    recordSet.withPtrRecords(new ArrayList<PtrRecord>());
+                }
+                recordSet.ptrRecords().add(new PtrRecord().withPtrdname(target(rdata.get(0), origin)));
+                break;
+            case SRV:
+                requireFields(rdata, 4);
+                if (recordSet.srvRecords() == null) {
+                    recordSet.withSrvRecords(new ArrayList<SrvRecord>());
+                }
+                recordSet.srvRecords().add(new SrvRecord()
+                        .withPriority(Integer.parseInt(rdata.get(0)))
+                        .withWeight(Integer.parseInt(rdata.get(1)))
+                        .withPort(Integer.parseInt(rdata.get(2)))
+                        .withTarget(target(rdata.get(3), origin)));
+                break;
+            case TXT:
+                requireFields(rdata, 1);
+                if (recordSet.txtRecords() == null) {
+                    recordSet.withTxtRecords(new ArrayList<TxtRecord>());
+                }
+                recordSet.txtRecords().add(new TxtRecord().withValue(new ArrayList<>(rdata)));
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported record type " + recordType);
+        }
+    }
+
+    /**
+     * Splits a line into tokens, continuing an entry spanning several lines within parentheses.
+     *
+     * @return the depth of parentheses at the end of the line
+     */
+    private static int tokenize(String line, List<String> tokens, int depth, int lineNumber) {
+        int i = 0;
+        int length = line.length();
+        while (i < length) {
+            char c = line.charAt(i);
+            if (c == ';') {
+                break;
+            } else if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                depth++;
+                i++;
+            } else if (c == ')') {
+                if (depth == 0) {
+                    throw new IllegalArgumentException("Invalid zone file entry at line " + lineNumber
+                            + ": unbalanced parentheses");
+                }
+                depth--;
+                i++;
+            } else if (c == '"') {
+                StringBuilder token = new StringBuilder();
+                i++;
+                while (i < length && line.charAt(i) != '"') {
+                    if (line.charAt(i) == '\\' && i + 1 < length) {
+                        i++;
+                    }
+                    token.append(line.charAt(i++));
+                }
+                if (i >= length) {
+                    throw new IllegalArgumentException("Invalid zone file entry at line " + lineNumber
+                            + ": unterminated quoted string");
+                }
+                i++;
+                tokens.add(token.toString());
+            } else {
+                int start = i;
+                while (i < length && !Character.isWhitespace(line.charAt(i))
+                        && "();\"".indexOf(line.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(line.substring(start, i));
+            }
+        }
+        return depth;
+    }
+
+    private static void requireFields(List<String> rdata, int count) {
+        if (rdata.size() < count) {
+            throw new IllegalArgumentException("expected " + count + " data fields, found " + rdata.size());
+        }
+    }
+
+    private static boolean isClass(String token) {
+        return "IN".equalsIgnoreCase(token) || "CH".equalsIgnoreCase(token) || "HS".equalsIgnoreCase(token);
+    }
+
+    private static long parseTtl(String token) {
+        long ttl = 0;
+        long value = 0;
+        boolean hasDigits = false;
+        for (char c : token.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isDigit(c)) {
+                value = value * 10 + (c - '0');
+                hasDigits = true;
+                continue;
+            }
+            if (!hasDigits) {
+                throw new IllegalArgumentException("invalid TTL " + token);
+            }
+            switch (c) {
+                case 's':
+                    ttl += value;
+                    break;
+                case 'm':
+                    ttl += value * 60;
+                    break;
+                case 'h':
+                    ttl += value * 3600;
+                    break;
+                case 'd':
+                    ttl += value * 86400;
+                    break;
+                case 'w':
+                    ttl += value * 604800;
+                    break;
+                default:
+                    throw new IllegalArgumentException("invalid TTL " + token);
+            }
+            value = 0;
+            hasDigits = false;
+        }
+        return ttl + value;
+    }
+
+    private static String absolute(String name, String origin) {
+        if ("@".equals(name)) {
+            if (origin == null) {
+                throw new IllegalArgumentException("no origin for @");
+            }
+            return origin;
+        }
+        if (name.endsWith(".")) {
+            return name;
+        }
+        return origin == null || origin.equals(".") ? name + "." : name + "." + origin;
+    }
+
+    private static String relative(String name, String zoneOrigin) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        String lowerOrigin = zoneOrigin.toLowerCase(Locale.ROOT);
+        if (lowerName.equals(lowerOrigin)) {
+            return "@";
+        }
+        if (!lowerName.endsWith("." + lowerOrigin)) {
+            throw new IllegalArgumentException(name + " is outside of the zone " + zoneOrigin);
+        }
+        return name.substring(0, name.length() - zoneOrigin.length() - 1);
+    }
+
+    private static String target(String name, String origin) {
+        String absoluteName = absolute(name, origin);
+        return absoluteName.length() > 1 ? absoluteName.substring(0, absoluteName.length() - 1) : absoluteName;
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.dns;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+
+/**
+ * The settings of a synchronization of the record sets of a DNS zone,
+ * see {@link DnsZone#synchronizeRecordSets(java.util.Collection, DnsZoneSyncOptions)}.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class DnsZoneSyncOptions {
+    private int maxConcurrency = 16;
+    private int pageSize = 1000;
+    private int maxConflictRetries = 3;
+    private boolean deleteUnmatched = true;
+    private boolean dryRun;
+
+    /**
+     * Specifies the maximum number of record sets written at the same time, 16 by default.
+     *
+     * @param maxConcurrency the maximum number of concurrent writes
+     * @return the options
+     */
+    public DnsZoneSyncOptions withMaxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+        return this;
+    }
+
+    /**
+     * Specifies the number of record sets read per page of the zone, 1000 by default.
+     *
+     * @param pageSize the page size
+     * @return the options
+     */
+    public DnsZoneSyncOptions withPageSize(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Specifies how many times a write rejected because the record set changed since it was read is retried
+     * against the current record set, 3 by default.
+     *
+     * @param maxConflictRetries the maximum number of retries per record set
+     * @return the options
+     */
+    public DnsZoneSyncOptions withMaxConflictRetries(int maxConflictRetries) {
+        if (maxConflictRetries < 0) {
+            throw new IllegalArgumentException("maxConflictRetries must not be negative");
+        }
+        this.maxConflictRetries = maxConflictRetries;
+        return this;
+    }
+
+    /**
+     * Specifies that record sets of the zone missing from the desired state are kept. By default they are deleted.
+     *
+     * @return the options
+     */
+    public DnsZoneSyncOptions withoutDeletingUnmatchedRecordSets() {
+        this.deleteUnmatched = false;
+        return this;
+    }
+
+    /**
+     * Specifies that the changes are computed and reported but not applied.
+     *
+     * @return the options
+     */
+    public DnsZoneSyncOptions withDryRun() {
+        this.dryRun = true;
+        return this;
+    }
+
+    /**
+     * @return the maximum number of concurrent writes
+     */
+    public int maxConcurrency() {
+        return this.maxConcurrency;
+    }
+
+    /**
+     * @return the number of record sets read per page
+     */
+    public int pageSize() {
+        return this.pageSize;
+    }
+
+    /**
+     * @return the maximum number of retries of a conflicting write
+     */
+    public int maxConflictRetries() {
+        return this.maxConflictRetries;
+    }
+
+    /**
+     * @return true if record sets missing from the desired state are deleted
+     */
+    public boolean deleteUnmatched() {
+        return this.deleteUnmatched;
+    }
+
+    /**
+     * @return true if the changes are not applied
+     */
+    public boolean dryRun() {
+        return this.dryRun;
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.dns;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The summary of a synchronization of the record sets of a DNS zone,
+ * see {@link DnsZone#synchronizeRecordSets(java.util.Collection, DnsZoneSyncOptions)}.
+ * <p>
+ * Record sets are identified as "name TYPE", e.g. "www A".
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class DnsZoneSyncResult {
+    private final List<String> created;
+    private final List<String> updated;
+    private final List<String> deleted;
+    private final int unchangedCount;
+    private final int conflictRetryCount;
+    private final Map<String, Throwable> failures;
+    private final boolean dryRun;
+
+    /**
+     * Creates DnsZoneSyncResult.
+     *
+     * @param created the record sets created
+     * @param updated the record sets updated
+     * @param deleted the record sets deleted
+     * @param unchangedCount the number of record sets already in the desired state
+     * @param conflictRetryCount the number of writes retried because a record set changed since it was read
+     * @param failures the errors of the record sets that could not be written
+     * @param dryRun true if the changes were not applied
+     */
+    public DnsZoneSyncResult(List<String> created, List<String> updated, List<String> deleted, int unchangedCount,
+                             int conflictRetryCount, Map<String, Throwable> failures, boolean dryRun) {
+        this.created = Collections.unmodifiableList(created);
+        this.updated = Collections.unmodifiableList(updated);
+        this.deleted = Collections.unmodifiableList(deleted);
+        this.unchangedCount = unchangedCount;
+        this.conflictRetryCount = conflictRetryCount;
+        this.failures = Collections.unmodifiableMap(failures);
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * @return the record sets created, or to create in a dry run
+     */
+    public List<String> created() {
+        return this.created;
+    }
+
+    /**
+     * @return the record sets updated, or to update in a dry run
+     */
+    public List<String> updated() {
+        return this.updated;
+    }
+
+    /**
+     * @return the record sets deleted, or to delete in a dry run
+     */
+    public List<String> deleted() {
+        return this.deleted;
+    }
+
+    /**
+     * @return the number of record sets already in the desired state
+     */
+    public int unchangedCount() {
+        return this.unchangedCount;
+    }
+
+    /**
+     * @return the number of writes retried because a record set changed since it was read
+     */
+    public int conflictRetryCount() {
+        return this.conflictRetryCount;
+    }
+
+    /**
+     * @return the errors of the record sets that could not be written
+     */
+    public Map<String, Throwable> failures() {
+        return this.failures;
+    }
+
+    /**
+     * @return true if the changes were computed but not applied
+     */
+    public boolean isDryRun() {
+        return this.dryRun;
+    }
+
+    @Override
+    public String toString() {
+        return (this.dryRun ? "dry run: " : "")
+                + this.created.size() + " created, "
+                + this.updated.size() + " updated, "
+                + this.deleted.size() + " deleted, "
+                + this.unchangedCount + " unchanged, "
+                + this.conflictRetryCount + " conflicts retried, "
+                + this.failures.size() + " failed";
+    }
+}
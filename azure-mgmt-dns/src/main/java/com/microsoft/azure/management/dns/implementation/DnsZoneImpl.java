@@ -11,8 +11,11 @@ import com.microsoft.azure.management.dns.ARecordSets;
 import com.microsoft.azure.management.dns.AaaaRecordSets;
 import com.microsoft.azure.management.dns.CNameRecordSets;
 import com.microsoft.azure.management.dns.CaaRecordSets;
+import com.microsoft.azure.management.dns.DnsDesiredRecordSet;
 import com.microsoft.azure.management.dns.DnsRecordSet;
 import com.microsoft.azure.management.dns.DnsZone;
+import com.microsoft.azure.management.dns.DnsZoneSyncOptions;
+import com.microsoft.azure.management.dns.DnsZoneSyncResult;
 import com.microsoft.azure.management.dns.MXRecordSets;
 import com.microsoft.azure.management.dns.NSRecordSets;
 import com.microsoft.azure.management.dns.PtrRecordSets;
@@ -31,6 +34,7 @@ import rx.functions.Func0;
 import rx.functions.Func1;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -194,6 +198,24 @@ public class DnsZoneImpl
         return new SoaRecordSetImpl(inner.name(), this, inner);
     }
 
+    @Override
+    public DnsZoneSyncResult synchronizeRecordSets(Collection<DnsDesiredRecordSet> desiredRecordSets,
+                                                   DnsZoneSyncOptions options) {
+        return this.synchronizeRecordSetsAsync(desiredRecordSets, options).toBlocking().last();
+    }
+
+    @Override
+    public Observable<DnsZoneSyncResult> synchronizeRecordSetsAsync(
+            final Collection<DnsDesiredRecordSet> desiredRecordSets, final DnsZoneSyncOptions options) {
+        return Observable.defer(new Func0<Observable<DnsZoneSyncResult>>() {
+            @Override
+            public Observable<DnsZoneSyncResult> call() {
+                return new DnsZoneSynchronizer(manager().inner().recordSets(), resourceGroupName(), name(), options)
+                        .synchronizeAsync(desiredRecordSets);
+            }
+        });
+    }
+
     // Setters
 
     @Override
@@ -0,0 +1,411 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.dns.implementation;
+
+import com.microsoft.azure.CloudException;
+import com.microsoft.azure.Page;
+import com.microsoft.azure.management.dns.ARecord;
+import com.microsoft.azure.management.dns.AaaaRecord;
+import com.microsoft.azure.management.dns.CaaRecord;
+import com.microsoft.azure.management.dns.DnsDesiredRecordSet;
+import com.microsoft.azure.management.dns.DnsZoneSyncOptions;
+import com.microsoft.azure.management.dns.DnsZoneSyncResult;
+import com.microsoft.azure.management.dns.MxRecord;
+import com.microsoft.azure.management.dns.NsRecord;
+import com.microsoft.azure.management.dns.PtrRecord;
+import com.microsoft.azure.management.dns.RecordType;
+import com.microsoft.azure.management.dns.SrvRecord;
+import com.microsoft.azure.management.dns.TxtRecord;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Brings the record sets of a DNS zone to a desired state.
+ * <p>
+ * The record sets of the zone are streamed page by page and compared with the desired state as they arrive, so
+ * that updates start while the zone is still being read. Creates and deletes follow once the whole zone is read.
+ * Every write is conditional: creates require the record set not to exist, updates and deletes require the ETag
+ * read. A write rejected because the record set changed is retried against the current record set.
+ * <p>
+ * The SOA record set and the NS record set of the apex are managed by Azure and are never written.
+ */
+final class DnsZoneSynchronizer {
+    private static final int PRECONDITION_FAILED = 412;
+    private static final int NOT_FOUND = 404;
+    private static final String APEX = "@";
+
+    private final RecordSetsInner client;
+    private final String resourceGroupName;
+    private final String zoneName;
+    private final DnsZoneSyncOptions options;
+
+    private final List<String> created = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> updated = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> deleted = Collections.synchronizedList(new ArrayList<String>());
+    private final AtomicInteger unchangedCount = new AtomicInteger();
+    private final AtomicInteger conflictRetryCount = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Map.Entry<String, Throwable>> failures = new ConcurrentLinkedQueue<>();
+
+    DnsZoneSynchronizer(RecordSetsInner client, String resourceGroupName, String zoneName,
+                        DnsZoneSyncOptions options) {
+        this.client = client;
+        this.resourceGroupName = resourceGroupName;
+        this.zoneName = zoneName;
+        this.options = options == null ? new DnsZoneSyncOptions() : options;
+    }
+
+    Observable<DnsZoneSyncResult> synchronizeAsync(Collection<DnsDesiredRecordSet> desiredRecordSets) {
+        // the desired record sets not seen yet in the zone, by key
+        final Map<String, DnsDesiredRecordSet> pending = new LinkedHashMap<>();
+        for (DnsDesiredRecordSet desired : desiredRecordSets) {
+            if (!isManagedByAzure(desired.name(), desired.recordType())) {
+                pending.put(keyOf(desired.name(), desired.recordType()), desired);
+            }
+        }
+        final List<Change> deletes = new ArrayList<>();
+
+        Observable<Change> updates = client
+                .listByDnsZoneAsync(resourceGroupName, zoneName, options.pageSize(), null)
+                .concatMap(new Func1<Page<RecordSetInner>, Observable<RecordSetInner>>() {
+                    @Override
+                    public Observable<RecordSetInner> call(Page<RecordSetInner> page) {
+                        return Observable.from(page.items());
+                    }
+                })
+                .concatMap(new Func1<RecordSetInner, Observable<Change>>() {
+                    @Override
+                    public Observable<Change> call(RecordSetInner existing) {
+                        RecordType recordType = recordTypeOf(existing);
+                        if (recordType == null || isManagedByAzure(existing.name(), recordType)) {
+                            return Observable.empty();
+                        }
+                        DnsDesiredRecordSet desired = pending.remove(keyOf(existing.name(), recordType));
+                        if (desired == null) {
+                            if (options.deleteUnmatched()) {
+                                deletes.add(new Change(existing.name(), recordType, null, existing));
+                            }
+                            return Observable.empty();
+                        }
+                        Change change = new Change(desired.name(), recordType, desired, existing);
+                        if (isInDesiredState(desired, existing)) {
+                            unchangedCount.incrementAndGet();
+                            return Observable.empty();
+                        }
+                        return Observable.just(change);
+                    }
+                });
+        Observable<Change> createsAndDeletes = Observable.defer(new Func0<Observable<Change>>() {
+            @Override
+            public Observable<Change> call() {
+                List<Change> changes = new ArrayList<>(deletes);
+                for (DnsDesiredRecordSet desired : pending.values()) {
+                    changes.add(new Change(desired.name(), desired.recordType(), desired, null));
+                }
+                return Observable.from(changes);
+            }
+        });
+
+        return updates.concatWith(createsAndDeletes)
+                .flatMap(new Func1<Change, Observable<Void>>() {
+                    @Override
+                    public Observable<Void> call(Change change) {
+                        return applyAsync(change, 0);
+                    }
+                }, options.maxConcurrency())
+                .toList()
+                .map(new Func1<List<Void>, DnsZoneSyncResult>() {
+                    @Override
+                    public DnsZoneSyncResult call(List<Void> ignored) {
+                        Map<String, Throwable> failed = new LinkedHashMap<>();
+                        for (Map.Entry<String, Throwable> failure : failures) {
+                            failed.put(failure.getKey(), failure.getValue());
+                        }
+                        return new DnsZoneSyncResult(new ArrayList<>(created), new ArrayList<>(updated),
+                                new ArrayList<>(deleted), unchangedCount.get(), conflictRetryCount.get(), failed,
+                                options.dryRun());
+                    }
+                });
+    }
+
+    private Observable<Void> applyAsync(final Change change, final int attempt) {
+        final String id = change.name + " " + change.recordType;
+        final List<String> outcome;
+        Observable<?> write;
+        if (change.desired == null) {
+            outcome = deleted;
+            write = options.dryRun()
+                    ? Observable.just(true)
+                    : client.deleteAsync(resourceGroupName, zoneName, change.name, change.recordType,
+                            change.existing.etag());
+        } else if (change.existing == null) {
+            outcome = created;
+            write = options.dryRun()
+                    ? Observable.just(true)
+                    : client.createOrUpdateAsync(resourceGroupName, zoneName, change.name, change.recordType,
+                            payloadOf(change.desired, null), null, "*");
+        } else {
+            outcome = updated;
+            write = options.dryRun()
+                    ? Observable.just(true)
+                    : client.createOrUpdateAsync(resourceGroupName, zoneName, change.name, change.recordType,
+                            payloadOf(change.desired, change.existing), change.existing.etag(), null);
+        }
+        return write
+                .toList()
+                .map(new Func1<Object, Void>() {
+                    @Override
+                    public Void call(Object ignored) {
+                        outcome.add(id);
+                        return null;
+                    }
+                })
+                .onErrorResumeNext(new Func1<Throwable, Observable<Void>>() {
+                    @Override
+                    public Observable<Void> call(Throwable throwable) {
+                        if (statusCodeOf(throwable) == PRECONDITION_FAILED
+                                && attempt < options.maxConflictRetries()) {
+                            conflictRetryCount.incrementAndGet();
+                            return retryAsync(change, attempt + 1);
+                        }
+                        failures.add(new AbstractMap.SimpleImmutableEntry<>(id, throwable));
+                        return Observable.just(null);
+                    }
+                });
+    }
+
+    /**
+     * Reads the record set again and applies the change to its current state.
+     */
+    private Observable<Void> retryAsync(final Change change, final int attempt) {
+        return client.getAsync(resourceGroupName, zoneName, change.name, change.recordType)
+                .onErrorResumeNext(new Func1<Throwable, Observable<RecordSetInner>>() {
+                    @Override
+                    public Observable<RecordSetInner> call(Throwable throwable) {
+                        return statusCodeOf(throwable) == NOT_FOUND
+                                ? Observable.<RecordSetInner>just(null)
+                                : Observable.<RecordSetInner>error(throwable);
+                    }
+                })
+                .flatMap(new Func1<RecordSetInner, Observable<Void>>() {
+                    @Override
+                    public Observable<Void> call(RecordSetInner current) {
+                        if (change.desired == null && current == null) {
+                            // deleted by someone else
+                            deleted.add(change.name + " " + change.recordType);
+                            return Observable.just(null);
+                        }
+                        if (change.desired != null && current != null && isInDesiredState(change.desired, current)) {
+                            unchangedCount.incrementAndGet();
+                            return Observable.just(null);
+                        }
+                        return applyAsync(new Change(change.name, change.recordType, change.desired, current),
+                                attempt);
+                    }
+                });
+    }
+
+    private static RecordSetInner payloadOf(DnsDesiredRecordSet desired, RecordSetInner existing) {
+        RecordSetInner content = desired.content();
+        RecordSetInner payload = new RecordSetInner().withTTL(content.tTL()).withMetadata(content.metadata());
+        if (existing != null && content.tTL() == null) {
+            payload.withTTL(existing.tTL());
+        }
+        if (existing != null && content.metadata() == null) {
+            payload.withMetadata(existing.metadata());
+        }
+        switch (desired.recordType()) {
+            case A:
+                return payload.withARecords(content.aRecords());
+            case AAAA:
+                return payload.withAaaaRecords(content.aaaaRecords());
+            case CAA:
+                return payload.withCaaRecords(content.caaRecords());
+            case CNAME:
+                return payload.withCnameRecord(content.cnameRecord());
+            case MX:
+                return payload.withMxRecords(content.mxRecords());
+            case NS:
+                return payload.withNsRecords(content.nsRecords());
+            case PTR:
+                return payload.withPtrRecords(content.ptrRecords());
+            case SRV:
+                return payload.withSrvRecords(content.srvRecords());
+            case TXT:
+                return payload.withTxtRecords(content.txtRecords());
+            default:
+                return payload;
+        }
+    }
+
+    /**
+     * @return true if the existing record set has the desired records, time to live and metadata; a null time to
+     * live or null metadata in the desired state match any value
+     */
+    static boolean isInDesiredState(DnsDesiredRecordSet desired, RecordSetInner existing) {
+        RecordSetInner content = desired.content();
+        if (content.tTL() != null && !content.tTL().equals(existing.tTL())) {
+            return false;
+        }
+        if (content.metadata() != null && !new TreeMap<>(content.metadata()).equals(
+                existing.metadata() == null ? new TreeMap<String, String>() : new TreeMap<>(existing.metadata()))) {
+            return false;
+        }
+        return canonicalRecords(desired.recordType(), content)
+                .equals(canonicalRecords(desired.recordType(), existing));
+    }
+
+    /**
+     * @return the records of the type as sorted strings, so that record sets can be compared regardless of the
+     * order of their records and of the case and trailing dot of domain names
+     */
+    static List<String> canonicalRecords(RecordType recordType, RecordSetInner recordSet) {
+        List<String> records = new ArrayList<>();
+        switch (recordType) {
+            case A:
+                if (recordSet.aRecords() != null) {
+                    for (ARecord record : recordSet.aRecords()) {
+                        records.add(record.ipv4Address());
+                    }
+                }
+                break;
+            case AAAA:
+                if (recordSet.aaaaRecords() != null) {
+                    for (AaaaRecord record : recordSet.aaaaRecords()) {
+                        records.add(record.ipv6Address() == null
+                                ? null
+                                : record.ipv6Address().toLowerCase(Locale.ROOT));
+                    }
+                }
+                break;
+            case CAA:
+                if (recordSet.caaRecords() != null) {
+                    for (CaaRecord record : recordSet.caaRecords()) {
+                        records.add(record.flags() + " " + record.tag() + " " + record.value());
+                    }
+                }
+                break;
+            case CNAME:
+                if (recordSet.cnameRecord() != null) {
+                    records.add(domainName(recordSet.cnameRecord().cname()));
+                }
+                break;
+            case MX:
+                if (recordSet.mxRecords() != null) {
+                    for (MxRecord record : recordSet.mxRecords()) {
+                        records.add(record.preference() + " " + domainName(record.exchange()));
+                    }
+                }
+                break;
+            case NS:
+                if (recordSet.nsRecords() != null) {
+                    for (NsRecord record : recordSet.nsRecords()) {
+                        records.add(domainName(record.nsdname()));
+                    }
+                }
+                break;
+            case PTR:
+                if (recordSet.ptrRecords() != null) {
+                    for (PtrRecord record : recordSet.ptrRecords()) {
+                        records.add(domainName(record.ptrdname()));
+                    }
+                }
+                break;
+            case SRV:
+                if (recordSet.srvRecords() != null) {
+                    for (SrvRecord record : recordSet.srvRecords()) {
+                        records.add(record.priority() + " " + record.weight() + " " + record.port() + " "
+                                + domainName(record.target()));
+                    }
+                }
+                break;
+            case TXT:
+                if (recordSet.txtRecords() != null) {
+                    for (TxtRecord record : recordSet.txtRecords()) {
+                        StringBuilder value = new StringBuilder();
+                        if (record.value() != null) {
+                            for (String part : record.value()) {
+                                value.append(part).append('\u0000');
+                            }
+                        }
+                        records.add(value.toString());
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        Collections.sort(records, new Comparator<String>() {
+            @Override
+            public int compare(String left, String right) {
+                return String.valueOf(left).compareTo(String.valueOf(right));
+            }
+        });
+        return records;
+    }
+
+    private static String domainName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        return lowerName.endsWith(".") ? lowerName.substring(0, lowerName.length() - 1) : lowerName;
+    }
+
+    private static RecordType recordTypeOf(RecordSetInner recordSet) {
+        if (recordSet.type() == null) {
+            return null;
+        }
+        String[] parts = recordSet.type().split("/");
+        return RecordType.fromString(parts[parts.length - 1]);
+    }
+
+    private static boolean isManagedByAzure(String name, RecordType recordType) {
+        return recordType == RecordType.SOA || (recordType == RecordType.NS && APEX.equals(name));
+    }
+
+    private static String keyOf(String name, RecordType recordType) {
+        return name.toLowerCase(Locale.ROOT) + " " + recordType;
+    }
+
+    private static int statusCodeOf(Throwable throwable) {
+        if (throwable instanceof CloudException && ((CloudException) throwable).response() != null) {
+            return ((CloudException) throwable).response().code();
+        }
+        return -1;
+    }
+
+    /**
+     * A record set to create (no existing state), to delete (no desired state) or to update.
+     */
+    private static final class Change {
+        private final String name;
+        private final RecordType recordType;
+        private final DnsDesiredRecordSet desired;
+        private final RecordSetInner existing;
+
+        private Change(String name, RecordType recordType, DnsDesiredRecordSet desired, RecordSetInner existing) {
+            this.name = name;
+            this.recordType = recordType;
+            this.desired = desired;
+            this.existing = existing;
+        }
+    }
+}
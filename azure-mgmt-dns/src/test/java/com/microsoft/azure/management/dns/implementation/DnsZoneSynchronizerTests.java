@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.dns.implementation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.dns.DnsDesiredRecordSet;
+import com.microsoft.azure.management.dns.DnsZoneFile;
+import com.microsoft.azure.management.dns.DnsZoneSyncOptions;
+import com.microsoft.azure.management.dns.DnsZoneSyncResult;
+import com.microsoft.azure.management.dns.RecordType;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class DnsZoneSynchronizerTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String ZONE_PATH = "/subscriptions/" + SUBSCRIPTION_ID
+            + "/resourceGroups/rg/providers/Microsoft.Network/dnsZones/contoso.com";
+    private static final String ZONE_FILE = "$ORIGIN contoso.com.\n"
+            + "$TTL 1h\n"
+            + "@     IN SOA ns1.contoso.com. admin.contoso.com. ( 1 3600 300\n"
+            + "                 2419200 300 ) ; managed by Azure\n"
+            + "      IN NS  ns1-01.azure-dns.com.\n"
+            + "      IN TXT \"v=spf1 -all\"\n"
+            + "www   300 IN A 10.0.0.2\n"
+            + "          IN A 10.0.0.1\n"
+            + "mail  IN MX  10 mx1\n"
+            + "      IN MX  20 mx2.contoso.com.\n"
+            + "_sip._tcp IN SRV 10 60 5060 sip\n";
+
+    @Test
+    public void canParseZoneFile() {
+        List<DnsDesiredRecordSet> recordSets = DnsZoneFile.parse(ZONE_FILE, "contoso.com");
+        Assert.assertEquals("[@ NS, @ TXT, www A, mail MX, _sip._tcp SRV]", recordSets.toString());
+        Assert.assertEquals(3600L, (long) recordSets.get(1).content().tTL());
+        Assert.assertEquals(Arrays.asList("v=spf1 -all"), recordSets.get(1).content().txtRecords().get(0).value());
+        Assert.assertEquals(300L, (long) recordSets.get(2).content().tTL());
+        Assert.assertEquals(2, recordSets.get(2).content().aRecords().size());
+        Assert.assertEquals("mx1.contoso.com", recordSets.get(3).content().mxRecords().get(0).exchange());
+        Assert.assertEquals("mx2.contoso.com", recordSets.get(3).content().mxRecords().get(1).exchange());
+        Assert.assertEquals("sip.contoso.com", recordSets.get(4).content().srvRecords().get(0).target());
+
+        try {
+            DnsZoneFile.parse("www IN A 10.0.0.1\nftp IN BOGUS x\n", "contoso.com");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("line 2"));
+        }
+    }
+
+    @Test
+    public void canSynchronizeZone() {
+        FakeZone zone = initialZone();
+        DnsZoneSyncResult result = synchronizer(zone, new DnsZoneSyncOptions().withPageSize(2))
+                .synchronizeAsync(DnsZoneFile.parse(ZONE_FILE, "contoso.com")).toBlocking().last();
+
+        Assert.assertEquals(Arrays.asList("www A"), result.updated());
+        Assert.assertEquals(Arrays.asList("old CNAME"), result.deleted());
+        Assert.assertEquals(2, result.created().size());
+        Assert.assertTrue(result.created().containsAll(Arrays.asList("mail MX", "_sip._tcp SRV")));
+        Assert.assertEquals(1, result.unchangedCount());
+        Assert.assertEquals(0, result.failures().size());
+        Assert.assertEquals(3, zone.listPages.get());
+        Assert.assertEquals(4, zone.writes.get());
+
+        // the apex NS and SOA record sets are managed by Azure
+        Assert.assertEquals("[A/www, MX/mail, NS/@, SOA/@, SRV/_sip._tcp, TXT/@]", zone.recordSets.keySet().toString());
+        Assert.assertTrue(zone.recordSets.get("NS/@").contains("ns1-01.azure-dns.com"));
+        Assert.assertTrue(zone.recordSets.get("A/www").contains("10.0.0.2"));
+
+        // a second synchronization finds the zone in the desired state
+        zone.writes.set(0);
+        result = synchronizer(zone, null)
+                .synchronizeAsync(DnsZoneFile.parse(ZONE_FILE, "contoso.com")).toBlocking().last();
+        Assert.assertEquals(0, zone.writes.get());
+        Assert.assertEquals(4, result.unchangedCount());
+    }
+
+    @Test
+    public void canRetryConflictingWrite() {
+        FakeZone zone = initialZone();
+        zone.changeBeforeWrite = "A/www";
+        DnsZoneSyncResult result = synchronizer(zone, new DnsZoneSyncOptions().withoutDeletingUnmatchedRecordSets())
+                .synchronizeAsync(DnsZoneFile.parse(ZONE_FILE, "contoso.com")).toBlocking().last();
+
+        Assert.assertEquals(1, result.conflictRetryCount());
+        Assert.assertEquals(Arrays.asList("www A"), result.updated());
+        Assert.assertEquals(0, result.deleted().size());
+        Assert.assertTrue(zone.recordSets.containsKey("CNAME/old"));
+        Assert.assertTrue(zone.recordSets.get("A/www").contains("10.0.0.2"));
+    }
+
+    @Test
+    public void canDryRun() {
+        FakeZone zone = initialZone();
+        DnsZoneSyncResult result = synchronizer(zone, new DnsZoneSyncOptions().withDryRun())
+                .synchronizeAsync(DnsZoneFile.parse(ZONE_FILE, "contoso.com")).toBlocking().last();
+
+        Assert.assertTrue(result.isDryRun());
+        Assert.assertEquals(Arrays.asList("www A"), result.updated());
+        Assert.assertEquals(Arrays.asList("old CNAME"), result.deleted());
+        Assert.assertEquals(2, result.created().size());
+        Assert.assertEquals(0, zone.writes.get());
+    }
+
+    private static DnsZoneSynchronizer synchronizer(FakeZone zone, DnsZoneSyncOptions options) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(zone)
+                .build();
+        return new DnsZoneSynchronizer(DnsZoneManager.authenticate(restClient, SUBSCRIPTION_ID).inner().recordSets(),
+                "rg", "contoso.com", options);
+    }
+
+    private static FakeZone initialZone() {
+        FakeZone zone = new FakeZone();
+        zone.recordSets.put("SOA/@", "{\"TTL\":3600,\"SOARecord\":{\"host\":\"ns1-01.azure-dns.com.\"}}");
+        zone.recordSets.put("NS/@", "{\"TTL\":172800,\"NSRecords\":[{\"nsdname\":\"ns1-01.azure-dns.com.\"}]}");
+        zone.recordSets.put("TXT/@", "{\"TTL\":3600,\"TXTRecords\":[{\"value\":[\"v=spf1 -all\"]}]}");
+        zone.recordSets.put("A/www", "{\"TTL\":300,\"ARecords\":[{\"ipv4Address\":\"10.0.0.1\"}]}");
+        zone.recordSets.put("CNAME/old", "{\"TTL\":300,\"CNAMERecord\":{\"cname\":\"legacy.contoso.com\"}}");
+        return zone;
+    }
+
+    /**
+     * An in-memory zone serving the record set operations with ETag checks.
+     */
+    private static class FakeZone implements Interceptor {
+        private static final ObjectMapper MAPPER = new ObjectMapper();
+
+        private final Map<String, String> recordSets = new TreeMap<>();
+        private final Map<String, String> etags = new TreeMap<>();
+        private final AtomicInteger listPages = new AtomicInteger();
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicInteger etagCounter = new AtomicInteger();
+        private String changeBeforeWrite;
+
+        @Override
+        public synchronized Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            String path = request.url().encodedPath().substring(ZONE_PATH.length() + 1);
+            if ("recordsets".equals(path)) {
+                listPages.incrementAndGet();
+                String skip = request.url().queryParameter("skip");
+                int top = Integer.parseInt(request.url().queryParameter("$top"));
+                return list(request, skip == null ? 0 : Integer.parseInt(skip), top);
+            }
+            String etag = etagOf(path);
+            if ("GET".equals(request.method())) {
+                return etag == null ? error(request, 404) : respond(request, 200, recordSetJson(path));
+            }
+            writes.incrementAndGet();
+            if (path.equals(changeBeforeWrite)) {
+                // someone else changes the record set between the read and the write
+                changeBeforeWrite = null;
+                etags.put(path, newEtag());
+            }
+            String ifMatch = request.header("If-Match");
+            String ifNoneMatch = request.header("If-None-Match");
+            if ((ifMatch != null && !ifMatch.equals(etagOf(path))) || (ifNoneMatch != null && etag != null)) {
+                return error(request, 412);
+            }
+            if ("DELETE".equals(request.method())) {
+                recordSets.remove(path);
+                etags.remove(path);
+                return respond(request, 200, "");
+            }
+            Buffer body = new Buffer();
+            request.body().writeTo(body);
+            JsonNode properties = MAPPER.readTree(body.readUtf8()).get("properties");
+            recordSets.put(path, properties.toString());
+            etags.put(path, newEtag());
+            return respond(request, 200, recordSetJson(path));
+        }
+
+        private Response list(Request request, int skip, int top) {
+            List<String> keys = new ArrayList<>(recordSets.keySet());
+            StringBuilder json = new StringBuilder("{\"value\":[");
+            for (int i = skip; i < Math.min(skip + top, keys.size()); i++) {
+                json.append(i > skip ? "," : "").append(recordSetJson(keys.get(i)));
+            }
+            json.append(']');
+            if (skip + top < keys.size()) {
+                json.append(",\"nextLink\":\"").append(request.url().newBuilder()
+                        .setQueryParameter("skip", String.valueOf(skip + top)).build()).append('"');
+            }
+            return respond(request, 200, json.append('}').toString());
+        }
+
+        private String recordSetJson(String path) {
+            String[] parts = path.split("/");
+            return "{\"id\":\"" + ZONE_PATH + "/" + path + "\",\"name\":\"" + parts[1]
+                    + "\",\"type\":\"Microsoft.Network/dnszones/" + parts[0] + "\",\"etag\":\"" + etagOf(path)
+                    + "\",\"properties\":" + recordSets.get(path) + "}";
+        }
+
+        private String etagOf(String path) {
+            if (!recordSets.containsKey(path)) {
+                return null;
+            }
+            if (!etags.containsKey(path)) {
+                etags.put(path, newEtag());
+            }
+            return etags.get(path);
+        }
+
+        private String newEtag() {
+            return "etag-" + etagCounter.incrementAndGet();
+        }
+
+        private static Response error(Request request, int code) {
+            return respond(request, code, "{\"error\":{\"code\":\"" + (code == 404 ? "NotFound" : "PreconditionFailed")
+                    + "\",\"message\":\"status " + code + "\"}}");
+        }
+
+        private static Response respond(Request request, int code, String json) {
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message(String.valueOf(code))
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.microsoft.azure.management.resources.fluentcore.arm.implementation.Az
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
 import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistrationInterceptor;
 import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.RestClient;
 import com.microsoft.rest.interceptors.RequestIdHeaderInterceptor;
@@ -59,7 +60,7 @@ public final class GraphRbacManager implements HasInner<GraphRbacManagementClien
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), credentials.domain());
     }
 
@@ -113,7 +114,7 @@ public final class GraphRbacManager implements HasInner<GraphRbacManagementClien
             graphEndpoint = ((AzureTokenCredentials) restClient.credentials()).environment().graphEndpoint();
         }
         this.graphRbacManagementClient = new GraphRbacManagementClientImpl(
-                restClient.newBuilder().withBaseUrl(graphEndpoint).build()).withTenantID(tenantId);
+                Utils.newDerivedRestClientBuilder(restClient).withBaseUrl(graphEndpoint).build()).withTenantID(tenantId);
         this.authorizationManagementClient = new AuthorizationManagementClientImpl(restClient);
         this.tenantId = tenantId;
     }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.keyvault;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The settings of the read-through cache of {@link Secrets} and {@link Keys}.
+ * <p>
+ * Reads by name are cached for the time to live; reads pinned to a version never change and are cached until
+ * evicted. Names that do not exist are cached for the negative time to live. With refresh-ahead, a read of an
+ * entry close to expiry returns the cached value and reloads it in the background.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class KeyVaultCachePolicy {
+    private long timeToLiveInMillis = TimeUnit.MINUTES.toMillis(5);
+    private long negativeTimeToLiveInMillis = TimeUnit.SECONDS.toMillis(30);
+    private int maximumSize = 1000;
+    private double refreshAheadFactor;
+
+    /**
+     * Specifies how long a value read by name is served from the cache, 5 minutes by default.
+     *
+     * @param timeToLive the time to live
+     * @param unit the unit of the time to live
+     * @return the policy
+     */
+    public KeyVaultCachePolicy withTimeToLive(long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("timeToLive must be positive");
+        }
+        this.timeToLiveInMillis = unit.toMillis(timeToLive);
+        return this;
+    }
+
+    /**
+     * Specifies how long a name that was not found is remembered as missing, 30 seconds by default.
+     * Zero disables negative caching.
+     *
+     * @param negativeTimeToLive the time to live of a missing name
+     * @param unit the unit of the time to live
+     * @return the policy
+     */
+    public KeyVaultCachePolicy withNegativeTimeToLive(long negativeTimeToLive, TimeUnit unit) {
+        if (negativeTimeToLive < 0) {
+            throw new IllegalArgumentException("negativeTimeToLive must not be negative");
+        }
+        this.negativeTimeToLiveInMillis = unit.toMillis(negativeTimeToLive);
+        return this;
+    }
+
+    /**
+     * Specifies the maximum number of entries, the least recently used entry is evicted beyond it.
+     * 1000 by default.
+     *
+     * @param maximumSize the maximum number of entries
+     * @return the policy
+     */
+    public KeyVaultCachePolicy withMaximumSize(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * Specifies that a value read after the given fraction of its time to live is reloaded in the background,
+     * e.g. 0.8 reloads values read in the last fifth of their life. Disabled by default.
+     *
+     * @param refreshAheadFactor the fraction of the time to live after which values are reloaded, between 0
+     *                           and 1 exclusive
+     * @return the policy
+     */
+    public KeyVaultCachePolicy withRefreshAhead(double refreshAheadFactor) {
+        if (refreshAheadFactor <= 0 || refreshAheadFactor >= 1) {
+            throw new IllegalArgumentException("refreshAheadFactor must be between 0 and 1 exclusive");
+        }
+        this.refreshAheadFactor = refreshAheadFactor;
+        return this;
+    }
+
+    /**
+     * @return the time to live of a value read by name in milliseconds
+     */
+    public long timeToLiveInMillis() {
+        return this.timeToLiveInMillis;
+    }
+
+    /**
+     * @return the time to live of a missing name in milliseconds, 0 if missing names are not cached
+     */
+    public long negativeTimeToLiveInMillis() {
+        return this.negativeTimeToLiveInMillis;
+    }
+
+    /**
+     * @return the maximum number of entries
+     */
+    public int maximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * @return the fraction of the time to live after which a value read is reloaded in the background,
+     * 0 if refresh-ahead is disabled
+     */
+    public double refreshAheadFactor() {
+        return this.refreshAheadFactor;
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.keyvault;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+
+/**
+ * A snapshot of the counters of the read-through cache of {@link Secrets} or {@link Keys}.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class KeyVaultCacheStatistics {
+    private final long hitCount;
+    private final long negativeHitCount;
+    private final long missCount;
+    private final long loadFailureCount;
+    private final long refreshCount;
+    private final long evictionCount;
+    private final int size;
+
+    /**
+     * Creates KeyVaultCacheStatistics.
+     *
+     * @param hitCount the number of reads served from the cache
+     * @param negativeHitCount the number of reads of a missing name served from the cache
+     * @param missCount the number of reads sent to the vault
+     * @param loadFailureCount the number of reads sent to the vault that failed
+     * @param refreshCount the number of values reloaded in the background
+     * @param evictionCount the number of entries evicted because the cache was full
+     * @param size the number of entries
+     */
+    public KeyVaultCacheStatistics(long hitCount, long negativeHitCount, long missCount, long loadFailureCount,
+                                   long refreshCount, long evictionCount, int size) {
+        this.hitCount = hitCount;
+        this.negativeHitCount = negativeHitCount;
+        this.missCount = missCount;
+        this.loadFailureCount = loadFailureCount;
+        this.refreshCount = refreshCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+    }
+
+    /**
+     * @return the number of reads served from the cache, including reads of missing names
+     */
+    public long hitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return the number of reads of a missing name served from the cache
+     */
+    public long negativeHitCount() {
+        return this.negativeHitCount;
+    }
+
+    /**
+     * @return the number of reads sent to the vault; concurrent reads of the same name share one request
+     * and count as one miss each
+     */
+    public long missCount() {
+        return this.missCount;
+    }
+
+    /**
+     * @return the number of reads sent to the vault that failed, including names that were not found
+     */
+    public long loadFailureCount() {
+        return this.loadFailureCount;
+    }
+
+    /**
+     * @return the number of values reloaded in the background before they expired
+     */
+    public long refreshCount() {
+        return this.refreshCount;
+    }
+
+    /**
+     * @return the number of entries evicted because the cache was full
+     */
+    public long evictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the fraction of reads served from the cache, 0 if there was no read
+     */
+    public double hitRate() {
+        long requests = this.hitCount + this.missCount;
+        return requests == 0 ? 0 : (double) this.hitCount / requests;
+    }
+}
@@ -56,4 +56,27 @@ public interface Keys extends
      * @return the key restored from the backup
      */
     Observable<Key> restoreAsync(byte[] backup);
+
+    /**
+     * Enables a read-through cache of the keys read by name and by name and version.
+     *
+     * @param policy the settings of the cache
+     * @return the keys collection, reading through the cache
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Keys withCaching(KeyVaultCachePolicy policy);
+
+    /**
+     * Disables the read-through cache and drops its entries.
+     *
+     * @return the keys collection, reading from the vault
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Keys withoutCaching();
+
+    /**
+     * @return the counters of the read-through cache, null if caching is disabled
+     */
+    @Beta(SinceVersion.V1_42_0)
+    KeyVaultCacheStatistics cacheStatistics();
 }
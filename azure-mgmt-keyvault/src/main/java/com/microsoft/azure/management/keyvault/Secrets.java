@@ -42,4 +42,27 @@ public interface Secrets extends
      * @return the secret
      */
     Observable<Secret> getByNameAndVersionAsync(String name, String version);
+
+    /**
+     * Enables a read-through cache of the secrets read by name and by name and version.
+     *
+     * @param policy the settings of the cache
+     * @return the secrets collection, reading through the cache
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Secrets withCaching(KeyVaultCachePolicy policy);
+
+    /**
+     * Disables the read-through cache and drops its entries.
+     *
+     * @return the secrets collection, reading from the vault
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Secrets withoutCaching();
+
+    /**
+     * @return the counters of the read-through cache, null if caching is disabled
+     */
+    @Beta(SinceVersion.V1_42_0)
+    KeyVaultCacheStatistics cacheStatistics();
 }
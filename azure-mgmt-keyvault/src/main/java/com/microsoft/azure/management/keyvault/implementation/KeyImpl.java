@@ -332,6 +332,7 @@ class KeyImpl
                                 public void call() {
                                     createKeyRequest = null;
                                     updateKeyRequest = new UpdateKeyRequest.Builder(vault.vaultUri(), name());
+                                    invalidateCachedKey();
                                 }
                             });
                 } else {
@@ -342,6 +343,7 @@ class KeyImpl
                                 public void call() {
                                     importKeyRequest = null;
                                     updateKeyRequest = new UpdateKeyRequest.Builder(vault.vaultUri(), name());
+                                    invalidateCachedKey();
                                 }
                             });
                 }
@@ -371,6 +373,7 @@ class KeyImpl
                 createKeyRequest = null;
                 importKeyRequest = null;
                 updateKeyRequest = new UpdateKeyRequest.Builder(vault.vaultUri(), name());
+                invalidateCachedKey();
             }
         });
     }
@@ -427,4 +430,12 @@ class KeyImpl
         createKeyRequest.withKeySize(size);
         return this;
     }
+    /**
+     * Drops the cached reads of this key after it changed.
+     */
+    private void invalidateCachedKey() {
+        if (vault.keys() instanceof KeysImpl) {
+            ((KeysImpl) vault.keys()).invalidate(name());
+        }
+    }
 }
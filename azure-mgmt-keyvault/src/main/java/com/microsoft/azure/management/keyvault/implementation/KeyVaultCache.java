@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.keyvault.implementation;
+
+import com.microsoft.azure.keyvault.models.KeyVaultErrorException;
+import com.microsoft.azure.management.keyvault.KeyVaultCachePolicy;
+import com.microsoft.azure.management.keyvault.KeyVaultCacheStatistics;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A read-through cache of the bundles of a vault's secrets or keys, see {@link KeyVaultCachePolicy}.
+ * <p>
+ * Concurrent reads of an entry that is missing or expired share a single request to the vault.
+ *
+ * @param <T> the type of the bundles
+ */
+final class KeyVaultCache<T> {
+    private static final Observer<Object> IGNORE = new Observer<Object>() {
+        @Override
+        public void onCompleted() {
+        }
+
+        @Override
+        public void onError(Throwable e) {
+            // a failed refresh leaves the current value in place until it expires
+        }
+
+        @Override
+        public void onNext(Object o) {
+        }
+    };
+
+    private final KeyVaultCachePolicy policy;
+    // guarded by itself; iterates from the least to the most recently used entry
+    private final Map<String, Entry<T>> entries;
+    private final ConcurrentMap<String, Observable<T>> loads = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong negativeHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong loadFailureCount = new AtomicLong();
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    KeyVaultCache(final KeyVaultCachePolicy policy) {
+        this.policy = policy;
+        this.entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                if (size() > policy.maximumSize()) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Reads an entry through the cache.
+     *
+     * @param name the name of the secret or key
+     * @param version the version, null for the current version
+     * @param loader reads the bundle from the vault on the subscribing thread
+     * @return an observable emitting the bundle
+     */
+    Observable<T> getAsync(String name, final String version, final Func0<T> loader) {
+        final String key = version == null
+                ? name.toLowerCase(Locale.ROOT)
+                : name.toLowerCase(Locale.ROOT) + "/" + version.toLowerCase(Locale.ROOT);
+        return Observable.defer(new Func0<Observable<T>>() {
+            @Override
+            public Observable<T> call() {
+                long now = System.nanoTime();
+                Entry<T> entry;
+                synchronized (entries) {
+                    entry = entries.get(key);
+                    if (entry != null && entry.isExpired(now)) {
+                        entries.remove(key);
+                        entry = null;
+                    }
+                }
+                if (entry == null) {
+                    missCount.incrementAndGet();
+                    return load(key, version != null, loader);
+                }
+                hitCount.incrementAndGet();
+                if (entry.error != null) {
+                    negativeHitCount.incrementAndGet();
+                    return Observable.error(entry.error);
+                }
+                if (entry.shouldRefresh(now) && !loads.containsKey(key)) {
+                    refreshCount.incrementAndGet();
+                    load(key, false, loader).subscribeOn(SdkContext.getRxScheduler()).subscribe(IGNORE);
+                }
+                return Observable.just(entry.value);
+            }
+        });
+    }
+
+    /**
+     * Removes the cached entries of a name, so that the next read goes to the vault. The loads of the name in
+     * flight still complete for their readers, but do not cache what they read.
+     *
+     * @param name the name of the secret or key
+     */
+    void invalidate(String name) {
+        String key = name.toLowerCase(Locale.ROOT);
+        String versionPrefix = key + "/";
+        synchronized (entries) {
+            Iterator<String> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                String entryKey = keys.next();
+                if (entryKey.equals(key) || entryKey.startsWith(versionPrefix)) {
+                    keys.remove();
+                }
+            }
+            keys = loads.keySet().iterator();
+            while (keys.hasNext()) {
+                String loadKey = keys.next();
+                if (loadKey.equals(key) || loadKey.startsWith(versionPrefix)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a snapshot of the counters of the cache
+     */
+    KeyVaultCacheStatistics statistics() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new KeyVaultCacheStatistics(hitCount.get(), negativeHitCount.get(), missCount.get(),
+                loadFailureCount.get(), refreshCount.get(), evictionCount.get(), size);
+    }
+
+    private Observable<T> load(final String key, final boolean pinned, final Func0<T> loader) {
+        Observable<T> load = loads.get(key);
+        if (load != null) {
+            return load;
+        }
+        final Observable<?>[] self = new Observable<?>[1];
+        Observable<T> newLoad = Observable
+                .defer(new Func0<Observable<T>>() {
+                    @Override
+                    public Observable<T> call() {
+                        return Observable.just(loader.call());
+                    }
+                })
+                .doOnNext(new Action1<T>() {
+                    @Override
+                    public void call(T value) {
+                        put(key, self[0], new Entry<T>(value, null, pinned ? -1 : policy.timeToLiveInMillis(),
+                                policy.refreshAheadFactor()));
+                    }
+                })
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        loadFailureCount.incrementAndGet();
+                        if (policy.negativeTimeToLiveInMillis() > 0 && isNotFound(throwable)) {
+                            put(key, self[0],
+                                    new Entry<T>(null, throwable, policy.negativeTimeToLiveInMillis(), 0));
+                        }
+                    }
+                })
+                .doOnTerminate(new Action0() {
+                    @Override
+                    public void call() {
+                        loads.remove(key, self[0]);
+                    }
+                })
+                .cache();
+        self[0] = newLoad;
+        load = loads.putIfAbsent(key, newLoad);
+        return load == null ? newLoad : load;
+    }
+
+    private void put(String key, Observable<?> load, Entry<T> entry) {
+        synchronized (entries) {
+            // a load dropped by invalidate() may have read the value before the change that invalidated it
+            if (loads.get(key) == load) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    private static boolean isNotFound(Throwable throwable) {
+        return throwable instanceof KeyVaultErrorException
+                && ((KeyVaultErrorException) throwable).response() != null
+                && ((KeyVaultErrorException) throwable).response().code() == 404;
+    }
+
+    /**
+     * A cached bundle, or the error of a name that was not found.
+     *
+     * @param <T> the type of the bundle
+     */
+    private static final class Entry<T> {
+        private final T value;
+        private final Throwable error;
+        private final long expiresAt;
+        private final long refreshAt;
+        private final boolean expires;
+        private final boolean refreshes;
+
+        /**
+         * Creates Entry.
+         *
+         * @param value the bundle
+         * @param error the error of a name that was not found
+         * @param timeToLiveInMillis the time to live, negative if the entry does not expire
+         * @param refreshAheadFactor the fraction of the time to live after which the entry is reloaded on read
+         */
+        private Entry(T value, Throwable error, long timeToLiveInMillis, double refreshAheadFactor) {
+            long now = System.nanoTime();
+            long timeToLiveInNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveInMillis);
+            this.value = value;
+            this.error = error;
+            this.expires = timeToLiveInMillis >= 0;
+            this.expiresAt = now + timeToLiveInNanos;
+            this.refreshes = this.expires && refreshAheadFactor > 0;
+            this.refreshAt = now + (long) (timeToLiveInNanos * refreshAheadFactor);
+        }
+
+        private boolean isExpired(long now) {
+            return this.expires && now - this.expiresAt >= 0;
+        }
+
+        private boolean shouldRefresh(long now) {
+            return this.refreshes && now - this.refreshAt >= 0;
+        }
+    }
+}
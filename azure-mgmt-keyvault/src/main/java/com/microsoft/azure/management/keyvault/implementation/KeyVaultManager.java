@@ -9,6 +9,7 @@ package com.microsoft.azure.management.keyvault.implementation;
 import com.microsoft.azure.AzureEnvironment;
 import com.microsoft.azure.AzureResponseBuilder;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.keyvault.KeyVaultClient;
 import com.microsoft.azure.management.graphrbac.implementation.GraphRbacManager;
 import com.microsoft.azure.management.keyvault.Vaults;
 import com.microsoft.azure.management.resources.fluentcore.arm.AzureConfigurable;
@@ -16,6 +17,7 @@ import com.microsoft.azure.management.resources.fluentcore.arm.implementation.Az
 import com.microsoft.azure.management.resources.fluentcore.arm.implementation.Manager;
 import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistrationInterceptor;
 import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.Utils;
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.RestClient;
 
@@ -29,6 +31,8 @@ public final class KeyVaultManager extends Manager<KeyVaultManager, KeyVaultMana
     private Vaults vaults;
     // Variables
     private final String tenantId;
+    // The data plane client shared by all the vaults, the vault URL is a parameter of each call
+    private volatile KeyVaultClient keyVaultClient;
 
     /**
      * Get a Configurable instance that can be used to create KeyVaultManager with optional configuration.
@@ -53,7 +57,7 @@ public final class KeyVaultManager extends Manager<KeyVaultManager, KeyVaultMana
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), credentials.domain(), subscriptionId);
     }
 
@@ -116,4 +120,29 @@ public final class KeyVaultManager extends Manager<KeyVaultManager, KeyVaultMana
         }
         return vaults;
     }
+
+    /**
+     * Gets the client for Key Vault data plane calls, created on first use. It shares the connection pool
+     * and dispatcher of the management client.
+     *
+     * @return the KeyVault data plane client
+     */
+    KeyVaultClient keyVaultClient() {
+        if (keyVaultClient == null) {
+            synchronized (this) {
+                if (keyVaultClient == null) {
+                    keyVaultClient = new KeyVaultClient(
+                            Utils.newDerivedRestClientBuilder(inner().restClient()).withBaseUrl("https://{vaultBaseUrl}").build());
+                }
+            }
+        }
+        return keyVaultClient;
+    }
+
+    /**
+     * @return whether the data plane client has been created
+     */
+    boolean isKeyVaultClientCreated() {
+        return keyVaultClient != null;
+    }
 }
@@ -14,14 +14,19 @@ import com.microsoft.azure.keyvault.models.KeyBundle;
 import com.microsoft.azure.keyvault.models.KeyItem;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.keyvault.Key;
+import com.microsoft.azure.management.keyvault.KeyVaultCachePolicy;
+import com.microsoft.azure.management.keyvault.KeyVaultCacheStatistics;
 import com.microsoft.azure.management.keyvault.Keys;
 import com.microsoft.azure.management.keyvault.Vault;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.CreatableWrappersImpl;
 import com.microsoft.azure.management.resources.fluentcore.utils.PagedListConverter;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import rx.Completable;
 import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func0;
 import rx.functions.Func1;
 
 /**
@@ -36,6 +41,7 @@ class KeysImpl
         implements Keys {
     private final KeyVaultClient inner;
     private final Vault vault;
+    private volatile KeyVaultCache<KeyBundle> cache;
 
     private final Func1<KeyItem, Observable<Key>> converter = new Func1<KeyItem, Observable<Key>>() {
         @Override
@@ -112,8 +118,14 @@ class KeysImpl
 
     @Override
     public Completable deleteByIdAsync(String id) {
-        KeyIdentifier identifier = new KeyIdentifier(id);
-        return Completable.fromFuture(inner.deleteKeyAsync(identifier.vault(), identifier.name(), null));
+        final KeyIdentifier identifier = new KeyIdentifier(id);
+        return Completable.fromFuture(inner.deleteKeyAsync(identifier.vault(), identifier.name(), null))
+                .doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        invalidate(identifier.name());
+                    }
+                });
     }
 
     @Override
@@ -138,11 +150,19 @@ class KeysImpl
 
     @Override
     public Key getByNameAndVersion(String name, String version) {
+        KeyVaultCache<KeyBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapModel(getCachedAsync(currentCache, name, version).toBlocking().single());
+        }
         return wrapModel(inner.getKey(vault.vaultUri(), name, version));
     }
 
     @Override
     public Observable<Key> getByNameAndVersionAsync(final String name, final String version) {
+        KeyVaultCache<KeyBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapCachedAsync(getCachedAsync(currentCache, name, version));
+        }
         return new KeyVaultFutures.ServiceFutureConverter<KeyBundle, Key>() {
 
             @Override
@@ -179,6 +199,10 @@ class KeysImpl
 
     @Override
     public Observable<Key> getByNameAsync(final String name) {
+        KeyVaultCache<KeyBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapCachedAsync(getCachedAsync(currentCache, name, null));
+        }
         return new KeyVaultFutures.ServiceFutureConverter<KeyBundle, Key>() {
 
             @Override
@@ -195,6 +219,63 @@ class KeysImpl
 
     @Override
     public Key getByName(String name) {
+        KeyVaultCache<KeyBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapModel(getCachedAsync(currentCache, name, null).toBlocking().single());
+        }
         return wrapModel(inner.getKey(vault.vaultUri(), name));
     }
+
+    @Override
+    public Keys withCaching(KeyVaultCachePolicy policy) {
+        this.cache = new KeyVaultCache<>(policy);
+        return this;
+    }
+
+    @Override
+    public Keys withoutCaching() {
+        this.cache = null;
+        return this;
+    }
+
+    @Override
+    public KeyVaultCacheStatistics cacheStatistics() {
+        KeyVaultCache<KeyBundle> currentCache = this.cache;
+        return currentCache == null ? null : currentCache.statistics();
+    }
+
+    /**
+     * Drops the cached keys of a name after it changed.
+     *
+     * @param name the name of the key
+     */
+    void invalidate(String name) {
+        KeyVaultCache<KeyBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            currentCache.invalidate(name);
+        }
+    }
+
+    private Observable<KeyBundle> getCachedAsync(KeyVaultCache<KeyBundle> currentCache,
+                                                final String name, final String version) {
+        return currentCache.getAsync(name, version, new Func0<KeyBundle>() {
+            @Override
+            public KeyBundle call() {
+                return version == null
+                        ? inner.getKey(vault.vaultUri(), name)
+                        : inner.getKey(vault.vaultUri(), name, version);
+            }
+        });
+    }
+
+    private Observable<Key> wrapCachedAsync(Observable<KeyBundle> bundle) {
+        return bundle
+                .subscribeOn(SdkContext.getRxScheduler())
+                .map(new Func1<KeyBundle, Key>() {
+                    @Override
+                    public Key call(KeyBundle bundle) {
+                        return wrapModel(bundle);
+                    }
+                });
+    }
 }
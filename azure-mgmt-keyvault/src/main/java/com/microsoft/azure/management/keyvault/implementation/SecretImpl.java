@@ -185,6 +185,7 @@ class SecretImpl
                     public void call() {
                         setSecretRequest = null;
                         updateSecretRequest = new UpdateSecretRequest.Builder(vault.vaultUri(), name());
+                        invalidateCachedSecret();
                     }
                 });
     }
@@ -210,6 +211,7 @@ class SecretImpl
             public void call() {
                 setSecretRequest = null;
                 updateSecretRequest = new UpdateSecretRequest.Builder(vault.vaultUri(), name());
+                invalidateCachedSecret();
             }
         });
     }
@@ -239,4 +241,12 @@ class SecretImpl
         updateSecretRequest.withContentType(contentType);
         return this;
     }
+    /**
+     * Drops the cached reads of this secret after it changed.
+     */
+    private void invalidateCachedSecret() {
+        if (vault.secrets() instanceof SecretsImpl) {
+            ((SecretsImpl) vault.secrets()).invalidate(name());
+        }
+    }
 }
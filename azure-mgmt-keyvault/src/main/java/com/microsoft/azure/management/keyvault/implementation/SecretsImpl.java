@@ -13,16 +13,22 @@ import com.microsoft.azure.keyvault.SecretIdentifier;
 import com.microsoft.azure.keyvault.models.SecretBundle;
 import com.microsoft.azure.keyvault.models.SecretItem;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.keyvault.KeyVaultCachePolicy;
+import com.microsoft.azure.management.keyvault.KeyVaultCacheStatistics;
 import com.microsoft.azure.management.keyvault.Secret;
 import com.microsoft.azure.management.keyvault.Secrets;
 import com.microsoft.azure.management.keyvault.Vault;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.CreatableWrappersImpl;
 import com.microsoft.azure.management.resources.fluentcore.utils.PagedListConverter;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.rest.ServiceCallback;
 import com.microsoft.rest.ServiceFuture;
 import com.microsoft.rest.protocol.SerializerAdapter;
 import rx.Completable;
 import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func0;
+import rx.functions.Func1;
 
 import java.io.IOException;
 
@@ -38,6 +44,7 @@ class SecretsImpl
         implements Secrets {
     private final KeyVaultClient inner;
     private final Vault vault;
+    private volatile KeyVaultCache<SecretBundle> cache;
 
     private final PagedListConverter<SecretItem, Secret> itemConverter = new PagedListConverter<SecretItem, Secret>() {
         @Override
@@ -109,8 +116,14 @@ class SecretsImpl
 
     @Override
     public Completable deleteByIdAsync(String id) {
-        SecretIdentifier identifier = new SecretIdentifier(id);
-        return Completable.fromFuture(inner.deleteSecretAsync(identifier.vault(), identifier.name(), null));
+        final SecretIdentifier identifier = new SecretIdentifier(id);
+        return Completable.fromFuture(inner.deleteSecretAsync(identifier.vault(), identifier.name(), null))
+                .doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        invalidate(identifier.name());
+                    }
+                });
     }
 
     @Override
@@ -135,6 +148,10 @@ class SecretsImpl
 
     @Override
     public Observable<Secret> getByNameAsync(final String name) {
+        KeyVaultCache<SecretBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapCachedAsync(getCachedAsync(currentCache, name, null));
+        }
         return new KeyVaultFutures.ServiceFutureConverter<SecretBundle, Secret>() {
 
             @Override
@@ -143,24 +160,36 @@ class SecretsImpl
             }
 
             @Override
-            Secret wrapModel(SecretBundle o) {
-                return null;
+            Secret wrapModel(SecretBundle secretBundle) {
+                return SecretsImpl.this.wrapModel(secretBundle);
             }
         }.toObservable();
     }
 
     @Override
     public Secret getByName(String name) {
+        KeyVaultCache<SecretBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapModel(getCachedAsync(currentCache, name, null).toBlocking().single());
+        }
         return wrapModel(inner.getSecret(vault.vaultUri(), name));
     }
 
     @Override
     public Secret getByNameAndVersion(String name, String version) {
+        KeyVaultCache<SecretBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapModel(getCachedAsync(currentCache, name, version).toBlocking().single());
+        }
         return wrapModel(inner.getSecret(vault.vaultUri(), name, version));
     }
 
     @Override
     public Observable<Secret> getByNameAndVersionAsync(final String name, final String version) {
+        KeyVaultCache<SecretBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            return wrapCachedAsync(getCachedAsync(currentCache, name, version));
+        }
         return new KeyVaultFutures.ServiceFutureConverter<SecretBundle, Secret>() {
 
             @Override
@@ -169,9 +198,62 @@ class SecretsImpl
             }
 
             @Override
-            Secret wrapModel(SecretBundle o) {
-                return null;
+            Secret wrapModel(SecretBundle secretBundle) {
+                return SecretsImpl.this.wrapModel(secretBundle);
             }
         }.toObservable();
     }
+
+    @Override
+    public Secrets withCaching(KeyVaultCachePolicy policy) {
+        this.cache = new KeyVaultCache<>(policy);
+        return this;
+    }
+
+    @Override
+    public Secrets withoutCaching() {
+        this.cache = null;
+        return this;
+    }
+
+    @Override
+    public KeyVaultCacheStatistics cacheStatistics() {
+        KeyVaultCache<SecretBundle> currentCache = this.cache;
+        return currentCache == null ? null : currentCache.statistics();
+    }
+
+    /**
+     * Drops the cached secrets of a name after it changed.
+     *
+     * @param name the name of the secret
+     */
+    void invalidate(String name) {
+        KeyVaultCache<SecretBundle> currentCache = this.cache;
+        if (currentCache != null) {
+            currentCache.invalidate(name);
+        }
+    }
+
+    private Observable<SecretBundle> getCachedAsync(KeyVaultCache<SecretBundle> currentCache,
+                                                final String name, final String version) {
+        return currentCache.getAsync(name, version, new Func0<SecretBundle>() {
+            @Override
+            public SecretBundle call() {
+                return version == null
+                        ? inner.getSecret(vault.vaultUri(), name)
+                        : inner.getSecret(vault.vaultUri(), name, version);
+            }
+        });
+    }
+
+    private Observable<Secret> wrapCachedAsync(Observable<SecretBundle> bundle) {
+        return bundle
+                .subscribeOn(SdkContext.getRxScheduler())
+                .map(new Func1<SecretBundle, Secret>() {
+                    @Override
+                    public Secret call(SecretBundle bundle) {
+                        return wrapModel(bundle);
+                    }
+                });
+    }
 }
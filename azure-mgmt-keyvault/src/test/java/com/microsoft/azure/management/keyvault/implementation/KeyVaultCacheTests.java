@@ -0,0 +1,250 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.keyvault.implementation;
+
+import com.microsoft.azure.keyvault.models.KeyVaultErrorException;
+import com.microsoft.azure.management.keyvault.KeyVaultCachePolicy;
+import com.microsoft.azure.management.keyvault.KeyVaultCacheStatistics;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+import retrofit2.Response;
+import rx.functions.Func0;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class KeyVaultCacheTests {
+    @Test
+    public void canCacheUntilExpiry() throws Exception {
+        KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy()
+                .withTimeToLive(200, TimeUnit.MILLISECONDS));
+        CountingLoader loader = new CountingLoader("value");
+
+        Assert.assertEquals("value", read(cache, "secret1", null, loader));
+        Assert.assertEquals("value", read(cache, "SECRET1", null, loader));
+        Assert.assertEquals(1, loader.count.get());
+
+        Thread.sleep(300);
+        Assert.assertEquals("value", read(cache, "secret1", null, loader));
+        Assert.assertEquals(2, loader.count.get());
+
+        KeyVaultCacheStatistics statistics = cache.statistics();
+        Assert.assertEquals(1, statistics.hitCount());
+        Assert.assertEquals(2, statistics.missCount());
+        Assert.assertEquals(1, statistics.size());
+    }
+
+    @Test
+    public void canCacheVersionPinnedReadsUntilEvicted() throws Exception {
+        KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy()
+                .withTimeToLive(50, TimeUnit.MILLISECONDS));
+        CountingLoader loader = new CountingLoader("value");
+
+        read(cache, "secret1", "version1", loader);
+        Thread.sleep(100);
+        read(cache, "secret1", "version1", loader);
+        Assert.assertEquals(1, loader.count.get());
+
+        // a change of the secret drops its pinned versions too
+        cache.invalidate("secret1");
+        read(cache, "secret1", "version1", loader);
+        Assert.assertEquals(2, loader.count.get());
+    }
+
+    @Test
+    public void canEvictLeastRecentlyUsed() {
+        KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy().withMaximumSize(2));
+        CountingLoader loader = new CountingLoader("value");
+
+        read(cache, "a", null, loader);
+        read(cache, "b", null, loader);
+        read(cache, "a", null, loader);
+        read(cache, "c", null, loader);
+        Assert.assertEquals(3, loader.count.get());
+
+        read(cache, "a", null, loader);
+        Assert.assertEquals(3, loader.count.get());
+        read(cache, "b", null, loader);
+        Assert.assertEquals(4, loader.count.get());
+        Assert.assertEquals(2, cache.statistics().evictionCount());
+    }
+
+    @Test
+    public void canCacheNotFound() {
+        KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy());
+        final AtomicInteger count = new AtomicInteger();
+        final int[] code = {404};
+        Func0<String> loader = new Func0<String>() {
+            @Override
+            public String call() {
+                count.incrementAndGet();
+                throw new KeyVaultErrorException("failed",
+                        Response.<ResponseBody>error(code[0], ResponseBody.create(MediaType.parse("application/json"), "{}")));
+            }
+        };
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                read(cache, "missing", null, loader);
+                Assert.fail();
+            } catch (KeyVaultErrorException e) {
+                Assert.assertEquals(404, e.response().code());
+            }
+        }
+        Assert.assertEquals(1, count.get());
+        Assert.assertEquals(1, cache.statistics().negativeHitCount());
+
+        // other failures are not cached
+        code[0] = 500;
+        for (int i = 0; i < 2; i++) {
+            try {
+                read(cache, "failing", null, loader);
+                Assert.fail();
+            } catch (KeyVaultErrorException e) {
+                Assert.assertEquals(500, e.response().code());
+            }
+        }
+        Assert.assertEquals(3, count.get());
+        Assert.assertEquals(3, cache.statistics().loadFailureCount());
+    }
+
+    @Test
+    public void canShareInFlightReads() throws Exception {
+        final KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy());
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger count = new AtomicInteger();
+        final Func0<String> loader = new Func0<String>() {
+            @Override
+            public String call() {
+                count.incrementAndGet();
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "value";
+            }
+        };
+
+        final List<String> results = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    String value = read(cache, "secret1", null, loader);
+                    synchronized (results) {
+                        results.add(value);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+            }
+        }
+        Thread.sleep(100);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+
+        Assert.assertEquals(5, results.size());
+        Assert.assertEquals(1, count.get());
+    }
+
+    @Test
+    public void canDropInFlightReadsOnInvalidate() throws Exception {
+        final KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy());
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final String[] value = {"old"};
+        final Func0<String> loader = new Func0<String>() {
+            @Override
+            public String call() {
+                String read = value[0];
+                loading.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return read;
+            }
+        };
+
+        final List<String> results = new ArrayList<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                results.add(read(cache, "secret1", null, loader));
+            }
+        });
+        thread.start();
+        Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        // the secret changes while the read is in flight
+        value[0] = "new";
+        cache.invalidate("secret1");
+        release.countDown();
+        thread.join(5000);
+
+        Assert.assertEquals("[old]", results.toString());
+        Assert.assertEquals("new", read(cache, "secret1", null, loader));
+    }
+
+    @Test
+    public void canRefreshAhead() throws Exception {
+        KeyVaultCache<String> cache = new KeyVaultCache<>(new KeyVaultCachePolicy()
+                .withTimeToLive(400, TimeUnit.MILLISECONDS)
+                .withRefreshAhead(0.5));
+        CountingLoader loader = new CountingLoader("value");
+
+        read(cache, "secret1", null, loader);
+        Thread.sleep(250);
+        // served from the cache, and reloaded in the background
+        Assert.assertEquals("value", read(cache, "secret1", null, loader));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loader.count.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(2, loader.count.get());
+        Assert.assertEquals(1, cache.statistics().refreshCount());
+
+        // the reloaded value lives a full time to live from the refresh
+        Thread.sleep(250);
+        read(cache, "secret1", null, loader);
+        Assert.assertEquals(1, cache.statistics().missCount());
+    }
+
+    private static String read(KeyVaultCache<String> cache, String name, String version, Func0<String> loader) {
+        return cache.getAsync(name, version, loader).toBlocking().single();
+    }
+
+    private static class CountingLoader implements Func0<String> {
+        private final AtomicInteger count = new AtomicInteger();
+        private final String value;
+
+        CountingLoader(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String call() {
+            count.incrementAndGet();
+            return value;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.keyvault.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.keyvault.Vault;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class KeyVaultManagerTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String TENANT_ID = "11111111-1111-1111-1111-111111111111";
+    private static final int VAULT_COUNT = 200;
+
+    @Test
+    public void canShareDataPlaneClientAcrossVaults() {
+        KeyVaultManager manager = KeyVaultManager.authenticate(restClient(vaultListJson()), TENANT_ID, SUBSCRIPTION_ID);
+
+        List<Vault> vaults = new ArrayList<>();
+        for (Vault vault : manager.vaults().listByResourceGroup("rg")) {
+            vaults.add(vault);
+        }
+
+        Assert.assertEquals(VAULT_COUNT, vaults.size());
+        // listing the vaults does not create the data plane client
+        Assert.assertFalse(manager.isKeyVaultClientCreated());
+
+        // one client is shared by the manager and all its vaults
+        Assert.assertNotNull(manager.keyVaultClient());
+        Assert.assertSame(manager.keyVaultClient(), manager.keyVaultClient());
+        Assert.assertNotNull(vaults.get(0).secrets());
+        Assert.assertSame(manager.keyVaultClient(), vaults.get(0).client());
+        Assert.assertSame(vaults.get(0).client(), vaults.get(VAULT_COUNT - 1).client());
+    }
+
+    private static RestClient restClient(final String responseJson) {
+        return new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) {
+                        return new Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(200)
+                                .message("OK")
+                                .body(ResponseBody.create(MediaType.parse("application/json"), responseJson))
+                                .build();
+                    }
+                })
+                .build();
+    }
+
+    private static String vaultListJson() {
+        StringBuilder json = new StringBuilder("{\"value\":[");
+        for (int i = 0; i < VAULT_COUNT; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"/subscriptions/").append(SUBSCRIPTION_ID)
+                    .append("/resourceGroups/rg/providers/Microsoft.KeyVault/vaults/vault").append(i)
+                    .append("\",\"name\":\"vault").append(i)
+                    .append("\",\"type\":\"Microsoft.KeyVault/vaults\",\"location\":\"westus\",")
+                    .append("\"properties\":{\"vaultUri\":\"https://vault").append(i)
+                    .append(".vault.azure.net/\",\"tenantId\":\"").append(TENANT_ID)
+                    .append("\",\"sku\":{\"family\":\"A\",\"name\":\"standard\"},\"accessPolicies\":[]}}");
+        }
+        return json.append("]}").toString();
+    }
+}
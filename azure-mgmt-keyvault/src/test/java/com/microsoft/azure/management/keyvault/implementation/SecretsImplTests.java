@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.keyvault.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.keyvault.KeyVaultCachePolicy;
+import com.microsoft.azure.management.keyvault.Secret;
+import com.microsoft.azure.management.keyvault.Secrets;
+import com.microsoft.azure.management.keyvault.Vault;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SecretsImplTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String TENANT_ID = "11111111-1111-1111-1111-111111111111";
+
+    @Test
+    public void canGetSecretAsyncWithAndWithoutCaching() {
+        Vault vault = KeyVaultManager.authenticate(restClient(), TENANT_ID, SUBSCRIPTION_ID)
+                .vaults().listByResourceGroup("rg").get(0);
+        Secrets secrets = vault.secrets();
+
+        // the async reads used to emit null rather than the secret when not cached
+        assertSecret(secrets.getByNameAsync("secret1").toBlocking().single());
+        assertSecret(secrets.getByNameAndVersionAsync("secret1", "version1").toBlocking().single());
+
+        secrets.withCaching(new KeyVaultCachePolicy());
+        assertSecret(secrets.getByNameAsync("secret1").toBlocking().single());
+        assertSecret(secrets.getByNameAndVersionAsync("secret1", "version1").toBlocking().single());
+    }
+
+    private static void assertSecret(Secret secret) {
+        Assert.assertNotNull(secret);
+        Assert.assertEquals("secret-value", secret.value());
+    }
+
+    private static RestClient restClient() {
+        return new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) {
+                        String json = chain.request().url().encodedPath().contains("/secrets/")
+                                ? "{\"id\":\"https://vault1.vault.azure.net/secrets/secret1/version1\","
+                                        + "\"value\":\"secret-value\"}"
+                                : "{\"value\":[{\"id\":\"/subscriptions/" + SUBSCRIPTION_ID
+                                        + "/resourceGroups/rg/providers/Microsoft.KeyVault/vaults/vault1\","
+                                        + "\"name\":\"vault1\",\"type\":\"Microsoft.KeyVault/vaults\","
+                                        + "\"location\":\"westus\",\"properties\":{"
+                                        + "\"vaultUri\":\"https://vault1.vault.azure.net/\",\"tenantId\":\""
+                                        + TENANT_ID + "\",\"sku\":{\"family\":\"A\",\"name\":\"standard\"},"
+                                        + "\"accessPolicies\":[]}}]}";
+                        return new Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(200)
+                                .message("OK")
+                                .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                                .build();
+                    }
+                })
+                .build();
+    }
+}
@@ -8,7 +8,6 @@ package com.microsoft.azure.management.monitor.implementation;
 
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
-import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import com.microsoft.azure.management.monitor.EventDataPropertyName;
@@ -36,6 +35,7 @@ class ActivityLogsImpl
         ActivityLogs.ActivityLogsQueryDefinition {
 
     private final MonitorManager myManager;
+    private final ActivityLogsStreamingClient streamingClient;
     private DateTime queryStartTime;
     private DateTime queryEndTime;
     private TreeSet<String> responsePropertySelector;
@@ -44,6 +44,7 @@ class ActivityLogsImpl
 
     ActivityLogsImpl(final MonitorManager monitorManager) {
         this.myManager = monitorManager;
+        this.streamingClient = new ActivityLogsStreamingClient(monitorManager.inner());
         this.responsePropertySelector = new TreeSet<>();
         this.filterString = "";
         this.filterForTenant = false;
@@ -195,33 +196,21 @@ class ActivityLogsImpl
     }
 
     private Observable<EventData> listEventDataAsync(String filter) {
-        return this.inner().listAsync(filter, createPropertyFilter())
-                .flatMap(new Func1<Page<EventDataInner>, Observable<EventData>>() {
+        return this.streamingClient.listAsync(filter, createPropertyFilter())
+                .map(new Func1<EventDataInner, EventData>() {
                     @Override
-                    public Observable<EventData> call(Page<EventDataInner> eventDataInnerPage) {
-                        return Observable.from(eventDataInnerPage.items())
-                                .map(new Func1<EventDataInner, EventData>() {
-                                    @Override
-                                    public EventData call(EventDataInner eventDataInner) {
-                                        return new EventDataImpl(eventDataInner);
-                                    }
-                                });
+                    public EventData call(EventDataInner eventDataInner) {
+                        return new EventDataImpl(eventDataInner);
                     }
                 });
     }
 
     private Observable<EventData> listEventDataForTenantAsync(String filter) {
-        return this.manager().inner().tenantActivityLogs().listAsync(filter, createPropertyFilter())
-                .flatMap(new Func1<Page<EventDataInner>, Observable<EventData>>() {
+        return this.streamingClient.listForTenantAsync(filter, createPropertyFilter())
+                .map(new Func1<EventDataInner, EventData>() {
                     @Override
-                    public Observable<EventData> call(Page<EventDataInner> eventDataInnerPage) {
-                        return Observable.from(eventDataInnerPage.items())
-                                .map(new Func1<EventDataInner, EventData>() {
-                                    @Override
-                                    public EventData call(EventDataInner eventDataInner) {
-                                        return new EventDataImpl(eventDataInner);
-                                    }
-                                });
+                    public EventData call(EventDataInner eventDataInner) {
+                        return new EventDataImpl(eventDataInner);
                     }
                 });
     }
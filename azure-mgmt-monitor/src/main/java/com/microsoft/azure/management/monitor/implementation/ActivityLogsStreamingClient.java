@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.monitor.implementation;
+
+import com.microsoft.azure.management.monitor.ErrorResponseException;
+import com.microsoft.azure.management.resources.fluentcore.utils.StreamingPageReader;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
+import retrofit2.http.Url;
+import rx.Observable;
+import rx.functions.Func1;
+
+/**
+ * Lists the records of {@link ActivityLogsInner} and {@link TenantActivityLogsInner} with the responses parsed
+ * while they are received, kept out of the generated clients so that it survives their regeneration.
+ */
+final class ActivityLogsStreamingClient {
+    private static final String API_VERSION = "2015-04-01";
+
+    private final ActivityLogsStreamingService service;
+    private final MonitorManagementClientImpl client;
+    private final StreamingPageReader<EventDataInner> reader;
+
+    ActivityLogsStreamingClient(MonitorManagementClientImpl client) {
+        this.service = client.restClient().retrofit().create(ActivityLogsStreamingService.class);
+        this.client = client;
+        this.reader = new StreamingPageReader<>(client.restClient(), EventDataInner.class,
+                ErrorResponseException.class);
+    }
+
+    /**
+     * The list operations of ActivityLogs and TenantActivityLogs, with the response bodies left unbuffered.
+     */
+    interface ActivityLogsStreamingService {
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.monitor.ActivityLogs list", "x-ms-body-logging: false" })
+        @GET("subscriptions/{subscriptionId}/providers/microsoft.insights/eventtypes/management/values")
+        @Streaming
+        Observable<Response<ResponseBody>> list(@Path("subscriptionId") String subscriptionId, @Query("api-version") String apiVersion, @Query("$filter") String filter, @Query("$select") String select, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.monitor.TenantActivityLogs list", "x-ms-body-logging: false" })
+        @GET("providers/microsoft.insights/eventtypes/management/values")
+        @Streaming
+        Observable<Response<ResponseBody>> listForTenant(@Query("api-version") String apiVersion, @Query("$filter") String filter, @Query("$select") String select, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.monitor.ActivityLogs listNext", "x-ms-body-logging: false" })
+        @GET
+        @Streaming
+        Observable<Response<ResponseBody>> listNext(@Url String nextUrl, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+    }
+
+    /**
+     * Provides the records from the activity logs, emitting each record as soon as it is read from the response.
+     *
+     * @param filter reduces the set of data collected
+     * @param select used to fetch events with only the given properties
+     * @return the observable to the records
+     */
+    Observable<EventDataInner> listAsync(String filter, String select) {
+        if (client.subscriptionId() == null) {
+            throw new IllegalArgumentException("Parameter this.client.subscriptionId() is required and cannot be null.");
+        }
+        if (filter == null) {
+            throw new IllegalArgumentException("Parameter filter is required and cannot be null.");
+        }
+        return reader.readItemsAsync(service.list(client.subscriptionId(), API_VERSION, filter, select,
+                client.acceptLanguage(), client.userAgent()), listNextPage());
+    }
+
+    /**
+     * Provides the records from the activity logs at the tenant level, emitting each record as soon as it is read
+     * from the response.
+     *
+     * @param filter reduces the set of data collected
+     * @param select used to fetch events with only the given properties
+     * @return the observable to the records
+     */
+    Observable<EventDataInner> listForTenantAsync(String filter, String select) {
+        return reader.readItemsAsync(service.listForTenant(API_VERSION, filter, select,
+                client.acceptLanguage(), client.userAgent()), listNextPage());
+    }
+
+    private Func1<String, Observable<Response<ResponseBody>>> listNextPage() {
+        return new Func1<String, Observable<Response<ResponseBody>>>() {
+            @Override
+            public Observable<Response<ResponseBody>> call(String nextPageLink) {
+                return service.listNext(nextPageLink, client.acceptLanguage(), client.userAgent());
+            }
+        };
+    }
+}
@@ -0,0 +1,450 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A local model of the IPv4 address space of a virtual network or of a subnet, to plan subnets and private IP
+ * addresses without calls to Azure.
+ * <p>
+ * A plan is made of address ranges and of the addresses allocated within them: the subnets of a network, or the
+ * private IP addresses of the network interfaces in a subnet along with the addresses Azure reserves in every
+ * subnet. Both are kept as sorted, merged intervals, so the cost of an operation depends on the number of
+ * allocations and not on the size of the address space. IPv6 prefixes are ignored.
+ * <p>
+ * A plan is a snapshot of the resource it was created from and is not updated by later changes in Azure.
+ * It is not thread-safe.
+ */
+@Beta(SinceVersion.V1_42_0)
+public final class NetworkAddressPlan {
+    // Azure reserves the first four and the last address of every subnet
+    private static final int RESERVED_LEADING_ADDRESSES = 4;
+    private static final int MIN_RESERVING_SUBNET_SIZE = 8;
+
+    private final List<String> addressSpaces;
+    private final Ranges space = new Ranges();
+    private final Ranges allocated = new Ranges();
+
+    private NetworkAddressPlan(Collection<String> addressSpaces) {
+        List<String> ipv4AddressSpaces = new ArrayList<>();
+        if (addressSpaces != null) {
+            for (String addressSpace : addressSpaces) {
+                if (addressSpace != null && addressSpace.indexOf(':') < 0) {
+                    long[] range = parseRange(addressSpace);
+                    this.space.add(range[0], range[1]);
+                    ipv4AddressSpaces.add(addressSpace);
+                }
+            }
+        }
+        this.addressSpaces = Collections.unmodifiableList(ipv4AddressSpaces);
+    }
+
+    /**
+     * Creates a plan of the given address spaces, with nothing allocated.
+     *
+     * @param addressSpaces the address spaces, in the CIDR notation
+     * @return the plan
+     */
+    public static NetworkAddressPlan forAddressSpaces(Collection<String> addressSpaces) {
+        return new NetworkAddressPlan(addressSpaces);
+    }
+
+    /**
+     * Creates a plan of the address spaces of a virtual network, with its subnets allocated.
+     * <p>
+     * The plan is built from the state of the network already in memory, without calls to Azure.
+     *
+     * @param network the virtual network
+     * @return the plan
+     */
+    public static NetworkAddressPlan forNetwork(Network network) {
+        NetworkAddressPlan plan = new NetworkAddressPlan(network.addressSpaces());
+        for (Subnet subnet : network.subnets().values()) {
+            plan.allocate(subnet.addressPrefix());
+        }
+        return plan;
+    }
+
+    /**
+     * Creates a plan of the address prefix of a subnet, with the addresses reserved by Azure and the private IP
+     * addresses of the network interfaces in the subnet allocated.
+     * <p>
+     * Reading the IP configurations of the subnet reads each network interface in it once. Use
+     * {@link #forSubnet(Subnet, Collection)} when the private IP addresses in use are already known.
+     *
+     * @param subnet the subnet
+     * @return the plan
+     */
+    public static NetworkAddressPlan forSubnet(Subnet subnet) {
+        List<String> ipAddresses = new ArrayList<>();
+        for (NicIPConfiguration ipConfiguration : subnet.listNetworkInterfaceIPConfigurations()) {
+            ipAddresses.add(ipConfiguration.privateIPAddress());
+        }
+        return forSubnet(subnet, ipAddresses);
+    }
+
+    /**
+     * Creates a plan of the address prefix of a subnet, with the addresses reserved by Azure and the given
+     * private IP addresses allocated, without calls to Azure.
+     *
+     * @param subnet the subnet
+     * @param allocatedIPAddresses the private IP addresses in use in the subnet
+     * @return the plan
+     */
+    public static NetworkAddressPlan forSubnet(Subnet subnet, Collection<String> allocatedIPAddresses) {
+        NetworkAddressPlan plan = new NetworkAddressPlan(Collections.singletonList(subnet.addressPrefix()));
+        for (int i = 0; i < plan.space.size; i++) {
+            long start = plan.space.starts[i];
+            long end = plan.space.ends[i];
+            if (end - start + 1 >= MIN_RESERVING_SUBNET_SIZE) {
+                plan.allocated.add(start, start + RESERVED_LEADING_ADDRESSES - 1);
+                plan.allocated.add(end, end);
+            }
+        }
+        if (allocatedIPAddresses != null) {
+            for (String ipAddress : allocatedIPAddresses) {
+                plan.allocate(ipAddress);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * @return the IPv4 address spaces of the plan, in the CIDR notation
+     */
+    public List<String> addressSpaces() {
+        return this.addressSpaces;
+    }
+
+    /**
+     * Checks if an address or a range of addresses is within the address spaces of the plan.
+     *
+     * @param cidrOrIPAddress an IP address, or a range of addresses in the CIDR notation
+     * @return true if all the addresses are within the address spaces
+     */
+    public boolean contains(String cidrOrIPAddress) {
+        long[] range = parseRange(cidrOrIPAddress);
+        return this.space.covers(range[0], range[1]);
+    }
+
+    /**
+     * Checks if an address or a range of addresses is within the address spaces of the plan and not allocated.
+     *
+     * @param cidrOrIPAddress an IP address, or a range of addresses in the CIDR notation
+     * @return true if all the addresses are within the address spaces and none is allocated
+     */
+    public boolean isAvailable(String cidrOrIPAddress) {
+        long[] range = parseRange(cidrOrIPAddress);
+        return this.space.covers(range[0], range[1]) && !this.allocated.intersects(range[0], range[1]);
+    }
+
+    /**
+     * Allocates an address or a range of addresses, if available.
+     *
+     * @param cidrOrIPAddress an IP address, or a range of addresses in the CIDR notation
+     * @return true if the addresses were allocated, false if some of them are not available
+     */
+    public boolean reserve(String cidrOrIPAddress) {
+        if (!isAvailable(cidrOrIPAddress)) {
+            return false;
+        }
+        allocate(cidrOrIPAddress);
+        return true;
+    }
+
+    /**
+     * Releases an address or a range of addresses.
+     *
+     * @param cidrOrIPAddress an IP address, or a range of addresses in the CIDR notation
+     */
+    public void release(String cidrOrIPAddress) {
+        long[] range = parseRange(cidrOrIPAddress);
+        this.allocated.remove(range[0], range[1]);
+    }
+
+    /**
+     * Finds the first available range of addresses of the given size, e.g. for the address prefix of a new subnet.
+     * The range is not allocated, see {@link #reserve(String)}.
+     *
+     * @param prefixLength the prefix length of the range, from 0 to 32
+     * @return the range in the CIDR notation, or null if no range of that size is available
+     */
+    public String nextAvailableCidr(int prefixLength) {
+        if (prefixLength < 0 || prefixLength > 32) {
+            throw new IllegalArgumentException("prefixLength must be between 0 and 32");
+        }
+        long blockSize = 1L << (32 - prefixLength);
+        for (long[] free : availableRangeBounds()) {
+            long start = (free[0] + blockSize - 1) & -blockSize;
+            if (start + blockSize - 1 <= free[1]) {
+                return formatAddress(start) + "/" + prefixLength;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the first available address. The address is not allocated, see {@link #reserve(String)}.
+     *
+     * @return the address, or null if no address is available
+     */
+    public String nextAvailableIPAddress() {
+        List<long[]> free = availableRangeBounds();
+        return free.isEmpty() ? null : formatAddress(free.get(0)[0]);
+    }
+
+    /**
+     * Lists available addresses, in ascending order.
+     *
+     * @param maxCount the maximum number of addresses to list
+     * @return the available addresses
+     */
+    public Set<String> availableIPAddresses(int maxCount) {
+        Set<String> ipAddresses = new LinkedHashSet<>();
+        for (long[] free : availableRangeBounds()) {
+            for (long address = free[0]; address <= free[1] && ipAddresses.size() < maxCount; address++) {
+                ipAddresses.add(formatAddress(address));
+            }
+        }
+        return Collections.unmodifiableSet(ipAddresses);
+    }
+
+    /**
+     * @return the number of available addresses
+     */
+    public long availableAddressCount() {
+        long count = 0;
+        for (long[] free : availableRangeBounds()) {
+            count += free[1] - free[0] + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return the available addresses as the smallest list of ranges in the CIDR notation, in ascending order
+     */
+    public List<String> availableRanges() {
+        List<String> cidrs = new ArrayList<>();
+        for (long[] free : availableRangeBounds()) {
+            addCidrs(free[0], free[1], cidrs);
+        }
+        return Collections.unmodifiableList(cidrs);
+    }
+
+    /**
+     * Finds the addresses shared by the address spaces of two plans, e.g. of two networks to peer.
+     *
+     * @param other the other plan
+     * @return the overlapping addresses as the smallest list of ranges in the CIDR notation, empty if the address
+     * spaces do not overlap
+     */
+    public List<String> overlapsWith(NetworkAddressPlan other) {
+        List<String> cidrs = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < this.space.size && j < other.space.size) {
+            long start = Math.max(this.space.starts[i], other.space.starts[j]);
+            long end = Math.min(this.space.ends[i], other.space.ends[j]);
+            if (start <= end) {
+                addCidrs(start, end, cidrs);
+            }
+            if (this.space.ends[i] < other.space.ends[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Collections.unmodifiableList(cidrs);
+    }
+
+    private void allocate(String cidrOrIPAddress) {
+        if (cidrOrIPAddress != null && cidrOrIPAddress.indexOf(':') < 0) {
+            long[] range = parseRange(cidrOrIPAddress);
+            this.allocated.add(range[0], range[1]);
+        }
+    }
+
+    private List<long[]> availableRangeBounds() {
+        List<long[]> free = new ArrayList<>();
+        for (int i = 0; i < this.space.size; i++) {
+            long cursor = this.space.starts[i];
+            long end = this.space.ends[i];
+            for (int j = this.allocated.firstEndingAtOrAfter(cursor);
+                 j < this.allocated.size && this.allocated.starts[j] <= end; j++) {
+                if (this.allocated.starts[j] > cursor) {
+                    free.add(new long[] {cursor, this.allocated.starts[j] - 1});
+                }
+                cursor = this.allocated.ends[j] + 1;
+            }
+            if (cursor <= end) {
+                free.add(new long[] {cursor, end});
+            }
+        }
+        return free;
+    }
+
+    private static void addCidrs(long start, long end, List<String> cidrs) {
+        while (start <= end) {
+            long blockSize = start == 0 ? 1L << 32 : Long.lowestOneBit(start);
+            while (blockSize > end - start + 1) {
+                blockSize >>= 1;
+            }
+            cidrs.add(formatAddress(start) + "/" + (32 - Long.numberOfTrailingZeros(blockSize)));
+            start += blockSize;
+        }
+    }
+
+    private static long[] parseRange(String cidrOrIPAddress) {
+        if (cidrOrIPAddress == null) {
+            throw new IllegalArgumentException("An IP address or a CIDR is required");
+        }
+        int slash = cidrOrIPAddress.indexOf('/');
+        long address = parseAddress(slash < 0 ? cidrOrIPAddress : cidrOrIPAddress.substring(0, slash));
+        int prefixLength = 32;
+        if (slash >= 0) {
+            try {
+                prefixLength = Integer.parseInt(cidrOrIPAddress.substring(slash + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid CIDR: " + cidrOrIPAddress, e);
+            }
+            if (prefixLength < 0 || prefixLength > 32) {
+                throw new IllegalArgumentException("Invalid CIDR: " + cidrOrIPAddress);
+            }
+        }
+        long blockSize = 1L << (32 - prefixLength);
+        long start = address & -blockSize;
+        return new long[] {start, start + blockSize - 1};
+    }
+
+    private static long parseAddress(String ipAddress) {
+        String[] octets = ipAddress.trim().split("\\.", -1);
+        if (octets.length != 4) {
+            throw new IllegalArgumentException("Invalid IPv4 address: " + ipAddress);
+        }
+        long address = 0;
+        for (String octet : octets) {
+            int value;
+            try {
+                value = Integer.parseInt(octet);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid IPv4 address: " + ipAddress, e);
+            }
+            if (value < 0 || value > 255) {
+                throw new IllegalArgumentException("Invalid IPv4 address: " + ipAddress);
+            }
+            address = (address << 8) | value;
+        }
+        return address;
+    }
+
+    private static String formatAddress(long address) {
+        return ((address >> 24) & 0xFF) + "." + ((address >> 16) & 0xFF) + "." + ((address >> 8) & 0xFF) + "."
+                + (address & 0xFF);
+    }
+
+    /**
+     * A set of addresses, as sorted, disjoint and non-adjacent ranges.
+     */
+    private static final class Ranges {
+        private long[] starts = new long[8];
+        private long[] ends = new long[8];
+        private int size;
+
+        /**
+         * @param address an address
+         * @return the index of the first range ending at or after the address, size if there is none
+         */
+        private int firstEndingAtOrAfter(long address) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (ends[middle] < address) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private boolean covers(long start, long end) {
+            int i = firstEndingAtOrAfter(start);
+            return i < size && starts[i] <= start && ends[i] >= end;
+        }
+
+        private boolean intersects(long start, long end) {
+            int i = firstEndingAtOrAfter(start);
+            return i < size && starts[i] <= end;
+        }
+
+        private void add(long start, long end) {
+            // merges with the overlapping and the adjacent ranges
+            int from = firstEndingAtOrAfter(start - 1);
+            int to = from;
+            while (to < size && starts[to] <= end + 1) {
+                start = Math.min(start, starts[to]);
+                end = Math.max(end, ends[to]);
+                to++;
+            }
+            replace(from, to, new long[] {start}, new long[] {end});
+        }
+
+        private void remove(long start, long end) {
+            int from = firstEndingAtOrAfter(start);
+            int to = from;
+            while (to < size && starts[to] <= end) {
+                to++;
+            }
+            if (from == to) {
+                return;
+            }
+            long[] newStarts = new long[2];
+            long[] newEnds = new long[2];
+            int count = 0;
+            if (starts[from] < start) {
+                newStarts[count] = starts[from];
+                newEnds[count++] = start - 1;
+            }
+            if (ends[to - 1] > end) {
+                newStarts[count] = end + 1;
+                newEnds[count++] = ends[to - 1];
+            }
+            long[] keptStarts = new long[count];
+            long[] keptEnds = new long[count];
+            System.arraycopy(newStarts, 0, keptStarts, 0, count);
+            System.arraycopy(newEnds, 0, keptEnds, 0, count);
+            replace(from, to, keptStarts, keptEnds);
+        }
+
+        private void replace(int from, int to, long[] newStarts, long[] newEnds) {
+            int newSize = size - (to - from) + newStarts.length;
+            if (newSize > starts.length) {
+                int capacity = Math.max(newSize, starts.length * 2);
+                long[] grownStarts = new long[capacity];
+                long[] grownEnds = new long[capacity];
+                System.arraycopy(starts, 0, grownStarts, 0, size);
+                System.arraycopy(ends, 0, grownEnds, 0, size);
+                starts = grownStarts;
+                ends = grownEnds;
+            }
+            System.arraycopy(starts, to, starts, from + newStarts.length, size - to);
+            System.arraycopy(ends, to, ends, from + newEnds.length, size - to);
+            System.arraycopy(newStarts, 0, starts, from, newStarts.length);
+            System.arraycopy(newEnds, 0, ends, from, newEnds.length);
+            size = newSize;
+        }
+    }
+}
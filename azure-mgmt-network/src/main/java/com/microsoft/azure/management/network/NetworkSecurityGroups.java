@@ -5,6 +5,8 @@
  */
 package com.microsoft.azure.management.network;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.NetworkSecurityGroupsInner;
@@ -19,6 +21,11 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 
 /**
@@ -37,4 +44,31 @@ public interface NetworkSecurityGroups extends
     SupportsBatchDeletion,
     HasManager<NetworkManager>,
     HasInner<NetworkSecurityGroupsInner> {
+    /**
+     * Lists the subnets associated with each of the given network security groups.
+     * <p>
+     * Each virtual network referenced by the network security groups is read at most once, several at a time.
+     *
+     * @param groups the network security groups
+     * @param knownNetworks virtual networks already read by the caller, used instead of reading them again;
+     *                      may be null
+     * @return the lists of associated subnets by network security group id, in the order of the given network security groups
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Map<String, List<Subnet>> listAssociatedSubnets(Collection<NetworkSecurityGroup> groups, Collection<Network> knownNetworks);
+
+    /**
+     * Lists the subnets associated with each of the given network security groups asynchronously.
+     * <p>
+     * Each virtual network referenced by the network security groups is read at most once, several at a time.
+     *
+     * @param groups the network security groups
+     * @param knownNetworks virtual networks already read by the caller, used instead of reading them again;
+     *                      may be null
+     * @return an observable emitting the lists of associated subnets by network security group id, in the order of the
+     * given network security groups
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Observable<Map<String, List<Subnet>>> listAssociatedSubnetsAsync(Collection<NetworkSecurityGroup> groups,
+                                                                    Collection<Network> knownNetworks);
 }
@@ -5,6 +5,8 @@
  */
 package com.microsoft.azure.management.network;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.network.implementation.NetworkManager;
 import com.microsoft.azure.management.network.implementation.RouteTablesInner;
@@ -19,6 +21,11 @@ import com.microsoft.azure.management.resources.fluentcore.collection.SupportsCr
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsDeletingById;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Entry point to route table management.
@@ -36,4 +43,31 @@ public interface RouteTables extends
     SupportsBatchDeletion,
     HasManager<NetworkManager>,
     HasInner<RouteTablesInner> {
+    /**
+     * Lists the subnets associated with each of the given route tables.
+     * <p>
+     * Each virtual network referenced by the route tables is read at most once, several at a time.
+     *
+     * @param routeTables the route tables
+     * @param knownNetworks virtual networks already read by the caller, used instead of reading them again;
+     *                      may be null
+     * @return the lists of associated subnets by route table id, in the order of the given route tables
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Map<String, List<Subnet>> listAssociatedSubnets(Collection<RouteTable> routeTables, Collection<Network> knownNetworks);
+
+    /**
+     * Lists the subnets associated with each of the given route tables asynchronously.
+     * <p>
+     * Each virtual network referenced by the route tables is read at most once, several at a time.
+     *
+     * @param routeTables the route tables
+     * @param knownNetworks virtual networks already read by the caller, used instead of reading them again;
+     *                      may be null
+     * @return an observable emitting the lists of associated subnets by route table id, in the order of the
+     * given route tables
+     */
+    @Beta(SinceVersion.V1_42_0)
+    Observable<Map<String, List<Subnet>>> listAssociatedSubnetsAsync(Collection<RouteTable> routeTables,
+                                                                    Collection<Network> knownNetworks);
 }
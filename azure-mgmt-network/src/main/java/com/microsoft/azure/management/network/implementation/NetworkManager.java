@@ -42,17 +42,27 @@ import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManager
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.RestClient;
 
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Entry point to Azure network management.
  */
 public final class NetworkManager extends Manager<NetworkManager, NetworkManagementClientImpl> {
+    // the maximum number of parallel reads when resolving the resources referenced by other resources
+    private static final int MAX_CONCURRENT_READS = 8;
 
     // Collections
     private PublicIPAddresses publicIPAddresses;
@@ -97,7 +107,7 @@ public final class NetworkManager extends Manager<NetworkManager, NetworkManagem
                 .withSerializerAdapter(new AzureJacksonAdapter())
                 .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(credentials))
                 .build(), subscriptionId);
     }
 
@@ -346,45 +356,131 @@ public final class NetworkManager extends Manager<NetworkManager, NetworkManagem
 
     // Internal utility function
     List<Subnet> listAssociatedSubnets(List<SubnetInner> subnetRefs) {
-        final Map<String, Network> networks = new HashMap<>();
-        final List<Subnet> subnets = new ArrayList<>();
-
-        if (subnetRefs != null) {
-            for (SubnetInner subnetRef : subnetRefs) {
-                String networkId = ResourceUtils.parentResourceIdFromResourceId(subnetRef.id());
-                Network network = networks.get(networkId.toLowerCase());
-                if (network == null) {
-                    network = this.networks().getById(networkId);
-                    networks.put(networkId.toLowerCase(), network);
-                }
+        return listAssociatedSubnetsAsync(Collections.singletonList(subnetRefs), null).toBlocking().last().get(0);
+    }
 
-                String subnetName = ResourceUtils.nameFromResourceId(subnetRef.id());
-                subnets.add(network.subnets().get(subnetName));
+    // Internal utility function, resolves the subnets referenced by several resources at once, reading each
+    // virtual network at most once and only if it is not among the known networks
+    Observable<List<List<Subnet>>> listAssociatedSubnetsAsync(final List<List<SubnetInner>> subnetRefLists,
+                                                             Collection<Network> knownNetworks) {
+        final Set<String> networkIds = new LinkedHashSet<>();
+        for (List<SubnetInner> subnetRefs : subnetRefLists) {
+            if (subnetRefs != null) {
+                for (SubnetInner subnetRef : subnetRefs) {
+                    networkIds.add(ResourceUtils.parentResourceIdFromResourceId(subnetRef.id()));
+                }
             }
         }
-
-        return Collections.unmodifiableList(subnets);
+        Map<String, Network> networks = new HashMap<>();
+        if (knownNetworks != null) {
+            for (Network network : knownNetworks) {
+                networks.put(network.id().toLowerCase(Locale.ROOT), network);
+            }
+        }
+        return resolveByIdsAsync(networkIds, networks, new Func1<String, Observable<Network>>() {
+            @Override
+            public Observable<Network> call(String id) {
+                return networks().getByIdAsync(id);
+            }
+        }).map(new Func1<Map<String, Network>, List<List<Subnet>>>() {
+            @Override
+            public List<List<Subnet>> call(Map<String, Network> resolved) {
+                List<List<Subnet>> subnetLists = new ArrayList<>(subnetRefLists.size());
+                for (List<SubnetInner> subnetRefs : subnetRefLists) {
+                    final List<Subnet> subnets = new ArrayList<>();
+                    if (subnetRefs != null) {
+                        for (SubnetInner subnetRef : subnetRefs) {
+                            String networkId = ResourceUtils.parentResourceIdFromResourceId(subnetRef.id());
+                            Network network = resolved.get(networkId.toLowerCase(Locale.ROOT));
+                            if (network != null) {
+                                String subnetName = ResourceUtils.nameFromResourceId(subnetRef.id());
+                                subnets.add(network.subnets().get(subnetName));
+                            }
+                        }
+                    }
+                    subnetLists.add(Collections.unmodifiableList(subnets));
+                }
+                return subnetLists;
+            }
+        });
     }
 
     // Internal utility function
-    Collection<ApplicationGatewayBackend> listAssociatedApplicationGatewayBackends(List<ApplicationGatewayBackendAddressPool> backendRefs) {
-        final Map<String, ApplicationGateway> appGateways = new HashMap<>();
-        final List<ApplicationGatewayBackend> backends = new ArrayList<>();
+    Collection<ApplicationGatewayBackend> listAssociatedApplicationGatewayBackends(final List<ApplicationGatewayBackendAddressPool> backendRefs) {
+        final Set<String> appGatewayIds = new LinkedHashSet<>();
+        if (backendRefs != null) {
+            for (ApplicationGatewayBackendAddressPool backendRef : backendRefs) {
+                appGatewayIds.add(ResourceUtils.parentResourceIdFromResourceId(backendRef.id()));
+            }
+        }
+        Map<String, ApplicationGateway> appGateways = resolveByIdsAsync(appGatewayIds,
+                new HashMap<String, ApplicationGateway>(),
+                new Func1<String, Observable<ApplicationGateway>>() {
+                    @Override
+                    public Observable<ApplicationGateway> call(String id) {
+                        return applicationGateways().getByIdAsync(id);
+                    }
+                }).toBlocking().last();
 
+        final List<ApplicationGatewayBackend> backends = new ArrayList<>();
         if (backendRefs != null) {
             for (ApplicationGatewayBackendAddressPool backendRef : backendRefs) {
                 String appGatewayId = ResourceUtils.parentResourceIdFromResourceId(backendRef.id());
-                ApplicationGateway appGateway = appGateways.get(appGatewayId.toLowerCase());
-                if (appGateway == null) {
-                    appGateway = this.applicationGateways().getById(appGatewayId);
-                    appGateways.put(appGatewayId.toLowerCase(), appGateway);
+                ApplicationGateway appGateway = appGateways.get(appGatewayId.toLowerCase(Locale.ROOT));
+                if (appGateway != null) {
+                    String backendName = ResourceUtils.nameFromResourceId(backendRef.id());
+                    backends.add(appGateway.backends().get(backendName));
                 }
-
-                String backendName = ResourceUtils.nameFromResourceId(backendRef.id());
-                backends.add(appGateway.backends().get(backendName));
             }
         }
-
         return Collections.unmodifiableCollection(backends);
     }
+
+    /**
+     * Reads resources by id, at most {@link #MAX_CONCURRENT_READS} at a time, each distinct id once.
+     *
+     * @param ids the ids of the resources
+     * @param resolved the resources already read, by lower case id; receives the resources read
+     * @param getById reads a resource by id
+     * @param <T> the type of the resources
+     * @return an observable emitting the resources by lower case id once they are all read
+     */
+    private static <T> Observable<Map<String, T>> resolveByIdsAsync(Collection<String> ids,
+                                                                  final Map<String, T> resolved,
+                                                                  final Func1<String, Observable<T>> getById) {
+        final Map<String, String> pending = new LinkedHashMap<>();
+        for (String id : ids) {
+            String key = id.toLowerCase(Locale.ROOT);
+            if (!resolved.containsKey(key) && !pending.containsKey(key)) {
+                pending.put(key, id);
+            }
+        }
+        if (pending.isEmpty()) {
+            return Observable.just(resolved);
+        }
+        return Observable.from(pending.entrySet())
+                .flatMap(new Func1<Map.Entry<String, String>, Observable<Map.Entry<String, T>>>() {
+                    @Override
+                    public Observable<Map.Entry<String, T>> call(final Map.Entry<String, String> entry) {
+                        return getById.call(entry.getValue()).map(new Func1<T, Map.Entry<String, T>>() {
+                            @Override
+                            public Map.Entry<String, T> call(T resource) {
+                                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), resource);
+                            }
+                        });
+                    }
+                }, MAX_CONCURRENT_READS)
+                .toList()
+                .map(new Func1<List<Map.Entry<String, T>>, Map<String, T>>() {
+                    @Override
+                    public Map<String, T> call(List<Map.Entry<String, T>> entries) {
+                        for (Map.Entry<String, T> entry : entries) {
+                            if (entry.getValue() != null) {
+                                resolved.put(entry.getKey(), entry.getValue());
+                            }
+                        }
+                        return resolved;
+                    }
+                });
+    }
 }
@@ -104,7 +104,18 @@ class NetworkSecurityGroupImpl
 
     @Override
     public List<Subnet> listAssociatedSubnets() {
-        return this.myManager.listAssociatedSubnets(this.inner().subnets());
+        return this.listAssociatedSubnetsAsync().toBlocking().last();
+    }
+
+    @Override
+    public Observable<List<Subnet>> listAssociatedSubnetsAsync() {
+        return this.myManager.listAssociatedSubnetsAsync(Collections.singletonList(this.inner().subnets()), null)
+                .map(new Func1<List<List<Subnet>>, List<Subnet>>() {
+                    @Override
+                    public List<Subnet> call(List<List<Subnet>> subnetLists) {
+                        return subnetLists.get(0);
+                    }
+                });
     }
 
     // Setters (fluent)
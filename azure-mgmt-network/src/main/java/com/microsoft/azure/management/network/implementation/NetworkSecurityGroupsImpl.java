@@ -6,12 +6,22 @@
 package com.microsoft.azure.management.network.implementation;
 
 import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.Network;
 import com.microsoft.azure.management.network.NetworkInterface;
 import com.microsoft.azure.management.network.NetworkSecurityGroup;
 import com.microsoft.azure.management.network.NetworkSecurityGroups;
+import com.microsoft.azure.management.network.Subnet;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
 import rx.Completable;
+import rx.Observable;
+import rx.functions.Func1;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -54,6 +64,33 @@ class NetworkSecurityGroupsImpl
         return this.deleteInnerAsync(groupName, name);
     }
 
+    @Override
+    public Map<String, List<Subnet>> listAssociatedSubnets(Collection<NetworkSecurityGroup> groups, Collection<Network> knownNetworks) {
+        return this.listAssociatedSubnetsAsync(groups, knownNetworks).toBlocking().last();
+    }
+
+    @Override
+    public Observable<Map<String, List<Subnet>>> listAssociatedSubnetsAsync(Collection<NetworkSecurityGroup> groups,
+                                                                           Collection<Network> knownNetworks) {
+        final List<String> ids = new ArrayList<>(groups.size());
+        final List<List<SubnetInner>> subnetRefLists = new ArrayList<>(groups.size());
+        for (NetworkSecurityGroup item : groups) {
+            ids.add(item.id());
+            subnetRefLists.add(item.inner().subnets());
+        }
+        return this.manager().listAssociatedSubnetsAsync(subnetRefLists, knownNetworks)
+                .map(new Func1<List<List<Subnet>>, Map<String, List<Subnet>>>() {
+                    @Override
+                    public Map<String, List<Subnet>> call(List<List<Subnet>> subnetLists) {
+                        Map<String, List<Subnet>> subnetsById = new LinkedHashMap<>();
+                        for (int i = 0; i < ids.size(); i++) {
+                            subnetsById.put(ids.get(i), subnetLists.get(i));
+                        }
+                        return Collections.unmodifiableMap(subnetsById);
+                    }
+                });
+    }
+
     @Override
     public NetworkSecurityGroupImpl define(String name) {
         return wrapModel(name);
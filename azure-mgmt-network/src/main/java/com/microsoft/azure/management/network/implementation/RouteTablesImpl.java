@@ -6,9 +6,20 @@
 package com.microsoft.azure.management.network.implementation;
 
 import com.microsoft.azure.management.apigeneration.LangDefinition;
+import com.microsoft.azure.management.network.Network;
 import com.microsoft.azure.management.network.RouteTable;
 import com.microsoft.azure.management.network.RouteTables;
+import com.microsoft.azure.management.network.Subnet;
 import com.microsoft.azure.management.resources.fluentcore.arm.collection.implementation.TopLevelModifiableResourcesImpl;
+import rx.Observable;
+import rx.functions.Func1;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  *  Implementation for RouteTables.
@@ -27,6 +38,33 @@ class RouteTablesImpl
         super(networkManager.inner().routeTables(), networkManager);
     }
 
+    @Override
+    public Map<String, List<Subnet>> listAssociatedSubnets(Collection<RouteTable> routeTables, Collection<Network> knownNetworks) {
+        return this.listAssociatedSubnetsAsync(routeTables, knownNetworks).toBlocking().last();
+    }
+
+    @Override
+    public Observable<Map<String, List<Subnet>>> listAssociatedSubnetsAsync(Collection<RouteTable> routeTables,
+                                                                           Collection<Network> knownNetworks) {
+        final List<String> ids = new ArrayList<>(routeTables.size());
+        final List<List<SubnetInner>> subnetRefLists = new ArrayList<>(routeTables.size());
+        for (RouteTable item : routeTables) {
+            ids.add(item.id());
+            subnetRefLists.add(item.inner().subnets());
+        }
+        return this.manager().listAssociatedSubnetsAsync(subnetRefLists, knownNetworks)
+                .map(new Func1<List<List<Subnet>>, Map<String, List<Subnet>>>() {
+                    @Override
+                    public Map<String, List<Subnet>> call(List<List<Subnet>> subnetLists) {
+                        Map<String, List<Subnet>> subnetsById = new LinkedHashMap<>();
+                        for (int i = 0; i < ids.size(); i++) {
+                            subnetsById.put(ids.get(i), subnetLists.get(i));
+                        }
+                        return Collections.unmodifiableMap(subnetsById);
+                    }
+                });
+    }
+
     @Override
     public RouteTableImpl define(String name) {
         return wrapModel(name);
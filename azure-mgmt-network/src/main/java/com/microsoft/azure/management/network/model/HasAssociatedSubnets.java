@@ -7,9 +7,12 @@ package com.microsoft.azure.management.network.model;
 
 import java.util.List;
 
+import com.microsoft.azure.management.apigeneration.Beta;
+import com.microsoft.azure.management.apigeneration.Beta.SinceVersion;
 import com.microsoft.azure.management.apigeneration.Fluent;
 import com.microsoft.azure.management.apigeneration.Method;
 import com.microsoft.azure.management.network.Subnet;
+import rx.Observable;
 
 /**
  * An interface representing a model's ability to reference a list of associated subnets.
@@ -21,4 +24,14 @@ public interface HasAssociatedSubnets  {
      */
     @Method
     List<Subnet> listAssociatedSubnets();
+
+    /**
+     * Lists the subnets associated with this resource asynchronously, reading the referenced virtual networks
+     * in parallel.
+     *
+     * @return an observable emitting the list of subnets associated with this resource
+     */
+    @Method
+    @Beta(SinceVersion.V1_42_0)
+    Observable<List<Subnet>> listAssociatedSubnetsAsync();
 }
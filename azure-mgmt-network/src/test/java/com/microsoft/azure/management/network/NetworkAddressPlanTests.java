@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+package com.microsoft.azure.management.network;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class NetworkAddressPlanTests {
+    @Test
+    public void canPlanSubnets() {
+        NetworkAddressPlan plan = NetworkAddressPlan.forAddressSpaces(Arrays.asList("10.0.0.0/16", "fd00::/48"));
+        Assert.assertEquals(Collections.singletonList("10.0.0.0/16"), plan.addressSpaces());
+
+        Assert.assertTrue(plan.reserve("10.0.1.0/24"));
+        Assert.assertFalse(plan.reserve("10.0.1.128/25"));
+        Assert.assertFalse(plan.reserve("10.1.0.0/24"));
+        Assert.assertEquals("10.0.0.0/24", plan.nextAvailableCidr(24));
+        Assert.assertEquals("10.0.2.0/23", plan.nextAvailableCidr(23));
+        Assert.assertEquals("10.0.0.0/24", plan.nextAvailableCidr(24));
+        Assert.assertTrue(plan.reserve(plan.nextAvailableCidr(24)));
+        Assert.assertEquals("10.0.2.0/24", plan.nextAvailableCidr(24));
+        Assert.assertNull(plan.nextAvailableCidr(15));
+
+        Assert.assertEquals(Arrays.asList("10.0.2.0/23", "10.0.4.0/22", "10.0.8.0/21", "10.0.16.0/20",
+                "10.0.32.0/19", "10.0.64.0/18", "10.0.128.0/17"), plan.availableRanges());
+        Assert.assertEquals(65536 - 512, plan.availableAddressCount());
+
+        plan.release("10.0.1.0/24");
+        Assert.assertEquals("10.0.1.0/24", plan.nextAvailableCidr(24));
+        Assert.assertTrue(plan.contains("10.0.255.255"));
+        Assert.assertFalse(plan.contains("10.1.0.0"));
+    }
+
+    @Test
+    public void canPlanIPAddressesInSubnet() {
+        NetworkAddressPlan plan = NetworkAddressPlan.forAddressSpaces(Collections.singletonList("10.0.0.0/29"));
+        Assert.assertTrue(plan.reserve("10.0.0.0/30"));
+        Assert.assertTrue(plan.reserve("10.0.0.7"));
+        Assert.assertTrue(plan.reserve("10.0.0.5"));
+
+        Assert.assertEquals("10.0.0.4", plan.nextAvailableIPAddress());
+        Assert.assertEquals(Arrays.asList("10.0.0.4", "10.0.0.6"),
+                Arrays.asList(plan.availableIPAddresses(10).toArray()));
+        Assert.assertTrue(plan.isAvailable("10.0.0.6"));
+        Assert.assertFalse(plan.isAvailable("10.0.0.5"));
+        Assert.assertTrue(plan.reserve("10.0.0.4"));
+        Assert.assertTrue(plan.reserve("10.0.0.6"));
+        Assert.assertNull(plan.nextAvailableIPAddress());
+        Assert.assertEquals(0, plan.availableAddressCount());
+    }
+
+    @Test
+    public void canFindOverlappingAddressSpaces() {
+        NetworkAddressPlan hub = NetworkAddressPlan.forAddressSpaces(Arrays.asList("10.0.0.0/16", "192.168.0.0/24"));
+        NetworkAddressPlan spoke = NetworkAddressPlan.forAddressSpaces(Arrays.asList("10.0.128.0/17", "10.1.0.0/16"));
+        NetworkAddressPlan other = NetworkAddressPlan.forAddressSpaces(Collections.singletonList("172.16.0.0/12"));
+
+        Assert.assertEquals(Collections.singletonList("10.0.128.0/17"), hub.overlapsWith(spoke));
+        Assert.assertEquals(Collections.singletonList("10.0.128.0/17"), spoke.overlapsWith(hub));
+        Assert.assertTrue(hub.overlapsWith(other).isEmpty());
+    }
+
+    @Test
+    public void canPlanLargeAddressSpaces() {
+        NetworkAddressPlan plan = NetworkAddressPlan.forAddressSpaces(Collections.singletonList("10.0.0.0/8"));
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertTrue(plan.reserve(plan.nextAvailableCidr(i % 2 == 0 ? 24 : 28)));
+        }
+        Assert.assertEquals((1L << 24) - 5000 * 256 - 5000 * 16, plan.availableAddressCount());
+        Assert.assertEquals("0.0.0.0/0", NetworkAddressPlan.forAddressSpaces(Collections.singletonList("0.0.0.0/0"))
+                .availableRanges().get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotParseInvalidAddress() {
+        NetworkAddressPlan.forAddressSpaces(Collections.singletonList("10.0.0/16"));
+    }
+}
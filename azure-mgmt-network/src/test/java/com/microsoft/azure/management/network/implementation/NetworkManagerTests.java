@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.network.implementation;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.management.network.Network;
+import com.microsoft.azure.management.network.NetworkSecurityGroup;
+import com.microsoft.azure.management.network.Subnet;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class NetworkManagerTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String RESOURCE_GROUP_ID = "/subscriptions/" + SUBSCRIPTION_ID + "/resourceGroups/rg";
+    private static final Pattern NETWORK_PATH = Pattern.compile(".*/virtualNetworks/(vnet\\d+)$");
+    private static final int GROUP_COUNT = 50;
+    private static final int NETWORK_COUNT = 5;
+
+    @Test
+    public void canResolveAssociatedSubnetsOfManyGroups() {
+        final AtomicInteger networkReads = new AtomicInteger();
+        NetworkManager manager = NetworkManager.authenticate(restClient(networkReads), SUBSCRIPTION_ID);
+
+        List<NetworkSecurityGroup> groups = new ArrayList<>();
+        for (NetworkSecurityGroup group : manager.networkSecurityGroups().listByResourceGroup("rg")) {
+            groups.add(group);
+        }
+        Assert.assertEquals(GROUP_COUNT, groups.size());
+
+        Map<String, List<Subnet>> subnets = manager.networkSecurityGroups().listAssociatedSubnets(groups, null);
+        Assert.assertEquals(NETWORK_COUNT, networkReads.get());
+        Assert.assertEquals(GROUP_COUNT, subnets.size());
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            List<Subnet> groupSubnets = subnets.get(groups.get(i).id());
+            Assert.assertEquals(1, groupSubnets.size());
+            Assert.assertEquals("default", groupSubnets.get(0).name());
+            Assert.assertEquals("vnet" + (i % NETWORK_COUNT), groupSubnets.get(0).parent().name());
+        }
+
+        // networks already read by the caller are not read again
+        List<Network> networks = new ArrayList<>();
+        for (List<Subnet> groupSubnets : subnets.values()) {
+            networks.add(groupSubnets.get(0).parent());
+        }
+        networkReads.set(0);
+        Assert.assertEquals(GROUP_COUNT, manager.networkSecurityGroups().listAssociatedSubnets(groups, networks).size());
+        Assert.assertEquals(0, networkReads.get());
+
+        List<Subnet> groupSubnets = groups.get(1).listAssociatedSubnets();
+        Assert.assertEquals(1, networkReads.get());
+        Assert.assertEquals("vnet1", groupSubnets.get(0).parent().name());
+        Assert.assertEquals(Collections.emptyMap(),
+                manager.networkSecurityGroups().listAssociatedSubnets(new ArrayList<NetworkSecurityGroup>(), null));
+    }
+
+    private static RestClient restClient(final AtomicInteger networkReads) {
+        return new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) {
+                        String path = chain.request().url().encodedPath();
+                        String json;
+                        Matcher matcher = NETWORK_PATH.matcher(path);
+                        if (matcher.matches()) {
+                            networkReads.incrementAndGet();
+                            json = networkJson(matcher.group(1));
+                        } else {
+                            json = groupListJson();
+                        }
+                        return new Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(200)
+                                .message("OK")
+                                .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                                .build();
+                    }
+                })
+                .build();
+    }
+
+    private static String networkJson(String name) {
+        String id = RESOURCE_GROUP_ID + "/providers/Microsoft.Network/virtualNetworks/" + name;
+        return "{\"id\":\"" + id + "\",\"name\":\"" + name + "\",\"type\":\"Microsoft.Network/virtualNetworks\","
+                + "\"location\":\"westus\",\"properties\":{\"addressSpace\":{\"addressPrefixes\":[\"10.0.0.0/16\"]},"
+                + "\"subnets\":[{\"id\":\"" + id + "/subnets/default\",\"name\":\"default\","
+                + "\"properties\":{\"addressPrefix\":\"10.0.0.0/24\"}}]}}";
+    }
+
+    private static String groupListJson() {
+        StringBuilder json = new StringBuilder("{\"value\":[");
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(RESOURCE_GROUP_ID)
+                    .append("/providers/Microsoft.Network/networkSecurityGroups/nsg").append(i)
+                    .append("\",\"name\":\"nsg").append(i)
+                    .append("\",\"type\":\"Microsoft.Network/networkSecurityGroups\",\"location\":\"westus\",")
+                    .append("\"properties\":{\"securityRules\":[],\"defaultSecurityRules\":[],\"subnets\":[{\"id\":\"")
+                    .append(RESOURCE_GROUP_ID).append("/providers/Microsoft.Network/virtualNetworks/vnet")
+                    .append(i % NETWORK_COUNT).append("/subnets/default\"}]}}");
+        }
+        return json.append("]}").toString();
+    }
+}
@@ -7,6 +7,7 @@
 package com.microsoft.azure.management.resources.fluentcore.arm;
 
 import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.resources.fluentcore.utils.HttpTransportRegistry;
 import com.microsoft.rest.LogLevel;
 import okhttp3.Authenticator;
 import okhttp3.ConnectionPool;
@@ -142,4 +143,14 @@ public interface AzureConfigurable<T extends AzureConfigurable<T>> {
      * @return the configurable object itself for chaining
      */
     T withProtocols(List<Protocol> protocols);
+
+    /**
+     * Sets the registry of the HTTP transports to share, so that the clients of all managers configured with the
+     * same registry reuse one connection pool and one dispatcher per endpoint and credentials. Takes precedence
+     * over {@link #withConnectionPool(ConnectionPool)} and {@link #withDispatcher(Dispatcher)}.
+     *
+     * @param registry the registry, e.g. {@link HttpTransportRegistry#defaultRegistry()}
+     * @return the configurable object itself for chaining
+     */
+    T withSharedTransport(HttpTransportRegistry registry);
 }
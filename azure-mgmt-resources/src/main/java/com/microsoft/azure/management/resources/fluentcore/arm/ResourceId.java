@@ -8,7 +8,8 @@ package com.microsoft.azure.management.resources.fluentcore.arm;
 
 import com.microsoft.azure.management.apigeneration.LangDefinition;
 import java.security.InvalidParameterException;
-import org.apache.commons.lang3.StringUtils;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Instantiate itself from a resource id, and give easy access to resource information like subscription, resourceGroup,
@@ -16,106 +17,139 @@ import org.apache.commons.lang3.StringUtils;
  */
 @LangDefinition
 public final class ResourceId {
+    /**
+     * The maximum number of parsed ids kept in the cache.
+     */
+    private static final int CACHE_CAPACITY = 4096;
+    /**
+     * The parsed ids by id. Instances are immutable, so a parsed id can be shared by all callers.
+     */
+    private static final Map<String, ResourceId> CACHE = new ConcurrentHashMap<>();
 
-    private String subscriptionId = null;
-    private String resourceGroupName = null;
-    private String name = null;
-    private String providerNamespace = null;
-    private String resourceType = null;
-    private String id = null;
-    private String parentId = null;
+    private static final ResourceId NULL_ID = new ResourceId(null, new int[0]);
+
+    // Format of id:
+    // /subscriptions/<subscriptionId>/resourceGroups/<resourceGroupName>/providers/<providerNamespace>(/<parentResourceType>/<parentName>)*/<resourceType>/<name>
+    //  0             1                2              3                   4         5                                                        N-2            N-1
+    private static final int SUBSCRIPTION_ID_SEGMENT = 1;
+    private static final int RESOURCE_GROUP_SEGMENT = 3;
+    private static final int PROVIDER_NAMESPACE_SEGMENT = 5;
+    private static final int FIRST_RESOURCE_TYPE_SEGMENT = 6;
+    private static final int MIN_SEGMENTS_WITH_PARENT = 10;
+
+    private final String id;
+    /**
+     * The start and end offsets in the id of each segment: segment i spans [bounds[2i], bounds[2i + 1]).
+     */
+    private final int[] bounds;
+    // the values are cut from the id on first use; racing threads cut equal strings
+    private String subscriptionId;
+    private String resourceGroupName;
+    private String name;
+    private String providerNamespace;
+    private String resourceType;
+    private String fullResourceType;
 
     private static String badIdErrorText(String id) {
         return String.format("The specified ID `%s` is not a valid Azure resource ID.", id);
     }
 
-    private ResourceId(final String id) {
+    private ResourceId(final String id, final int[] bounds) {
+        this.id = id;
+        this.bounds = bounds;
+    }
+
+    /**
+     * Returns parsed ResourceId object for a given resource id.
+     * @param id of the resource
+     * @return ResourceId object
+     */
+    public static ResourceId fromString(String id) {
         if (id == null) {
             // Protect against NPEs from null IDs, preserving legacy behavior for null IDs
-            return;
-        } else {
-            // Skip the first '/' if any, and then split using '/'
-            String[] splits = (id.startsWith("/")) ? id.substring(1).split("/") : id.split("/");
-            if (splits.length % 2 == 1) {
-                throw new InvalidParameterException(badIdErrorText(id));
-            }
-
-            // Save the ID itself
-            this.id = id;
-
-            // Format of id:
-            // /subscriptions/<subscriptionId>/resourceGroups/<resourceGroupName>/providers/<providerNamespace>(/<parentResourceType>/<parentName>)*/<resourceType>/<name>
-            //  0             1                2              3                   4         5                                                        N-2            N-1
-
-            // Extract resource type and name
-            if (splits.length < 2) {
-                throw new InvalidParameterException(badIdErrorText(id));
-            } else {
-                this.name = splits[splits.length - 1];
-                this.resourceType = splits[splits.length - 2];
+            return NULL_ID;
+        }
+        ResourceId resourceId = CACHE.get(id);
+        if (resourceId == null) {
+            resourceId = new ResourceId(id, parse(id));
+            if (CACHE.size() >= CACHE_CAPACITY) {
+                // dropping the whole cache is cheaper than tracking usage, the ids in use are parsed again
+                CACHE.clear();
             }
+            CACHE.put(id, resourceId);
+        }
+        return resourceId;
+    }
 
-            // Extract parent ID
-            if (splits.length < 10) {
-                this.parentId = null;
-            } else {
-                String[] parentSplits = new String[splits.length - 2];
-                System.arraycopy(splits, 0, parentSplits, 0, splits.length - 2);
-                this.parentId = "/" + StringUtils.join(parentSplits, "/");
+    /**
+     * Finds the segments of an id in a single pass, without splitting it.
+     * <p>
+     * A leading '/' is skipped and trailing empty segments are ignored. The id must have an even number of
+     * segments and at least two, with "subscriptions", "resourceGroups" and "providers" at their expected
+     * positions if the id is long enough to have them.
+     *
+     * @param id the id
+     * @return the start and end offsets of each segment
+     */
+    private static int[] parse(String id) {
+        final int length = id.length();
+        final int begin = id.startsWith("/") ? 1 : 0;
+        int end = length;
+        while (end > begin && id.charAt(end - 1) == '/') {
+            end--;
+        }
+        int segmentCount = end == begin ? 0 : 1;
+        for (int i = begin; i < end; i++) {
+            if (id.charAt(i) == '/') {
+                segmentCount++;
             }
-
-            for (int i = 0; i < splits.length && i < 6; i++) {
-                switch (i) {
-                case 0:
-                    // Ensure "subscriptions"
-                    if (!splits[i].equalsIgnoreCase("subscriptions")) {
-                        throw new InvalidParameterException(badIdErrorText(id));
-                    }
-                    break;
-                case 1:
-                    // Extract subscription ID
-                    this.subscriptionId = splits[i];
-                    break;
-                case 2:
-                    // Ensure "resourceGroups"
-                    if (!splits[i].equalsIgnoreCase("resourceGroups")) {
-                        throw new InvalidParameterException(badIdErrorText(id));
-                    }
-                    break;
-                case 3:
-                    // Extract resource group name
-                    this.resourceGroupName = splits[i];
-                    break;
-                case 4:
-                    // Ensure "providers"
-                    if (!splits[i].equalsIgnoreCase("providers")) {
-                        throw new InvalidParameterException(badIdErrorText(id));
-                    }
-                    break;
-                case 5:
-                    // Extract provider namespace
-                    this.providerNamespace = splits[i];
-                    break;
-                default:
-                    break;
-                }
+        }
+        if (segmentCount < 2 || segmentCount % 2 == 1) {
+            throw new InvalidParameterException(badIdErrorText(id));
+        }
+        int[] bounds = new int[segmentCount * 2];
+        int start = begin;
+        int segment = 0;
+        for (int i = begin; i <= end; i++) {
+            if (i == end || id.charAt(i) == '/') {
+                bounds[segment * 2] = start;
+                bounds[segment * 2 + 1] = i;
+                segment++;
+                start = i + 1;
             }
         }
+        if (!segmentEquals(id, bounds, 0, "subscriptions")
+                || segmentCount > 2 && !segmentEquals(id, bounds, 2, "resourceGroups")
+                || segmentCount > 4 && !segmentEquals(id, bounds, 4, "providers")) {
+            throw new InvalidParameterException(badIdErrorText(id));
+        }
+        return bounds;
     }
 
-    /**
-     * Returns parsed ResourceId object for a given resource id.
-     * @param id of the resource
-     * @return ResourceId object
-     */
-    public static ResourceId fromString(String id) {
-        return new ResourceId(id);
+    private static boolean segmentEquals(String id, int[] bounds, int segment, String expected) {
+        int start = bounds[segment * 2];
+        int length = bounds[segment * 2 + 1] - start;
+        return length == expected.length() && id.regionMatches(true, start, expected, 0, length);
+    }
+
+    private int segmentCount() {
+        return this.bounds.length / 2;
+    }
+
+    private String segment(int segment) {
+        if (segment >= segmentCount()) {
+            return null;
+        }
+        return this.id.substring(this.bounds[segment * 2], this.bounds[segment * 2 + 1]);
     }
 
     /**
      * @return subscriptionId of the resource.
      */
     public String subscriptionId() {
+        if (this.subscriptionId == null) {
+            this.subscriptionId = segment(SUBSCRIPTION_ID_SEGMENT);
+        }
         return this.subscriptionId;
     }
 
@@ -123,6 +157,9 @@ public final class ResourceId {
      * @return resourceGroupName of the resource.
      */
     public String resourceGroupName() {
+        if (this.resourceGroupName == null) {
+            this.resourceGroupName = segment(RESOURCE_GROUP_SEGMENT);
+        }
         return this.resourceGroupName;
     }
 
@@ -130,6 +167,9 @@ public final class ResourceId {
      * @return name of the resource.
      */
     public String name() {
+        if (this.name == null && this.id != null) {
+            this.name = segment(segmentCount() - 1);
+        }
         return this.name;
     }
 
@@ -137,17 +177,42 @@ public final class ResourceId {
      * @return parent resource id of the resource if any, otherwise null.
      */
     public ResourceId parent() {
-        if (this.id == null || this.parentId == null) {
+        String parentId = parentId();
+        return parentId == null ? null : fromString(parentId);
+    }
+
+    /**
+     * @return the id of the parent resource if any, otherwise null.
+     */
+    String parentId() {
+        if (this.id == null || segmentCount() < MIN_SEGMENTS_WITH_PARENT) {
             return null;
-        } else {
-            return fromString(this.parentId);
         }
+        // the parent id is the id without its last two segments, with a leading '/'
+        int parentEnd = this.bounds[(segmentCount() - 3) * 2 + 1];
+        return this.bounds[0] == 1
+                ? this.id.substring(0, parentEnd)
+                : "/" + this.id.substring(0, parentEnd);
+    }
+
+    /**
+     * @return the path of the resource relative to its provider, e.g. "foos/foo1" or "foos/foo1/bars/bar1",
+     * empty if the id does not go past the provider namespace.
+     */
+    String relativePath() {
+        if (segmentCount() <= FIRST_RESOURCE_TYPE_SEGMENT) {
+            return "";
+        }
+        return this.id.substring(this.bounds[FIRST_RESOURCE_TYPE_SEGMENT * 2]);
     }
 
     /**
      * @return name of the provider.
      */
     public String providerNamespace() {
+        if (this.providerNamespace == null) {
+            this.providerNamespace = segment(PROVIDER_NAMESPACE_SEGMENT);
+        }
         return this.providerNamespace;
     }
 
@@ -155,6 +220,9 @@ public final class ResourceId {
      * @return type of the resource.
      */
     public String resourceType() {
+        if (this.resourceType == null && this.id != null) {
+            this.resourceType = segment(segmentCount() - 2);
+        }
         return this.resourceType;
     }
 
@@ -162,11 +230,19 @@ public final class ResourceId {
      * @return full type of the resource.
      */
     public String fullResourceType() {
-        if (this.parentId == null) {
-            return this.providerNamespace + "/" + this.resourceType;
-        } else {
-            return this.parent().fullResourceType() + "/" + this.resourceType;
+        if (this.fullResourceType == null) {
+            StringBuilder builder = new StringBuilder().append(providerNamespace());
+            if (segmentCount() < MIN_SEGMENTS_WITH_PARENT) {
+                builder.append('/').append(resourceType());
+            } else {
+                // the provider namespace followed by the types of the ancestors and of the resource
+                for (int segment = FIRST_RESOURCE_TYPE_SEGMENT; segment < segmentCount(); segment += 2) {
+                    builder.append('/').append(this.id, this.bounds[segment * 2], this.bounds[segment * 2 + 1]);
+                }
+            }
+            this.fullResourceType = builder.toString();
         }
+        return this.fullResourceType;
     }
 
     /**
@@ -10,8 +10,6 @@ import com.microsoft.azure.management.resources.Provider;
 import com.microsoft.azure.management.resources.ProviderResourceType;
 
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Utility methods for Azure resource IDs.
@@ -64,15 +62,7 @@ public final class ResourceUtils {
      * @return the parent resource ID
      */
     public static String parentResourceIdFromResourceId(String id) {
-        if (id == null) {
-            return null;
-        }
-        ResourceId resourceId = ResourceId.fromString(id);
-        if (resourceId != null && resourceId.parent() != null) {
-            return ResourceId.fromString(id).parent().id();
-        }
-
-        return null;
+        return (id != null) ? ResourceId.fromString(id).parentId() : null;
     }
 
     /**
@@ -106,17 +96,14 @@ public final class ResourceUtils {
         if (id == null) {
             return null;
         }
-        String[] paths = id.split("/providers/" + resourceProviderFromResourceId(id) + "/", 2);
-        if (paths.length == 1) {
-            return "";
-        } else {
-            return paths[1];
-        }
+        return ResourceId.fromString(id).relativePath();
     }
 
     /**
      * Extract information from a resource ID string with the resource type
      * as the identifier.
+     * <p>
+     * The ID does not need to be a complete resource ID, e.g. the path of a request URL works too.
      *
      * @param id the resource ID
      * @param identifier the identifier to match, e.g. "resourceGroups", "storageAccounts"
@@ -126,13 +113,28 @@ public final class ResourceUtils {
         if (id == null || identifier == null) {
             return id;
         }
-        Pattern pattern = Pattern.compile(identifier + "/[-\\w._]+");
-        Matcher matcher = pattern.matcher(id);
-        if (matcher.find()) {
-            return matcher.group().split("/")[1];
-        } else {
-            return null;
+        // the first occurrence of identifier followed by '/' and at least one of [-\w._]
+        int from = 0;
+        int index;
+        while ((index = id.indexOf(identifier, from)) >= 0) {
+            int start = index + identifier.length() + 1;
+            int end = start;
+            if (start <= id.length() && id.charAt(start - 1) == '/') {
+                while (end < id.length() && isIdCharacter(id.charAt(end))) {
+                    end++;
+                }
+            }
+            if (end > start) {
+                return id.substring(start, end);
+            }
+            from = index + 1;
         }
+        return null;
+    }
+
+    private static boolean isIdCharacter(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9'
+                || c == '_' || c == '-' || c == '.';
     }
 
     /**
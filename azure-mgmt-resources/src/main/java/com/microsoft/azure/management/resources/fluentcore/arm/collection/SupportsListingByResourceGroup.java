@@ -36,4 +36,24 @@ public interface SupportsListingByResourceGroup<T> {
      * @return the list of resources
      */
     Observable<T> listByResourceGroupAsync(String resourceGroupName);
+
+    /**
+     * Provides access to listing Azure resources in a resource group while prefetching the next pages
+     * in the background.
+     * <p>
+     * (Note this interface is not intended to be implemented by user code.)
+     *
+     * @param <T> the type of the resources listed.
+     */
+    interface WithPrefetch<T> extends SupportsListingByResourceGroup<T> {
+        /**
+         * Lists resources of the specified type in the specified resource group, fetching up to the
+         * given number of pages ahead while the list is being iterated.
+         *
+         * @param resourceGroupName the name of the resource group to list the resources from
+         * @param prefetchPages the maximum number of pages to fetch ahead, 0 to disable prefetching
+         * @return the list of resources
+         */
+        PagedList<T> listByResourceGroup(String resourceGroupName, int prefetchPages);
+    }
 }
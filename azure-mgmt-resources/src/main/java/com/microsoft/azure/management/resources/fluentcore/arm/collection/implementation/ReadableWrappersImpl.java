@@ -43,6 +43,10 @@ public abstract class ReadableWrappersImpl<
         return converter.convert(pagedList);
     }
 
+    protected PagedList<T> wrapList(PagedList<InnerT> pagedList, int prefetchPages) {
+        return converter.convert(pagedList, prefetchPages);
+    }
+
     protected PagedList<T> wrapList(List<InnerT> list) {
         return wrapList(ReadableWrappersImpl.convertToPagedList(list));
     }
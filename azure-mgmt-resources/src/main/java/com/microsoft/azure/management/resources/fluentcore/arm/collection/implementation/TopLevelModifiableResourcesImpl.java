@@ -21,6 +21,7 @@ import com.microsoft.azure.management.resources.fluentcore.collection.InnerSuppo
 import com.microsoft.azure.management.resources.fluentcore.collection.InnerSupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.collection.SupportsListing;
 import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import com.microsoft.azure.management.resources.fluentcore.utils.PagedListConverter;
 import com.microsoft.azure.management.resources.fluentcore.utils.RXMapper;
 import rx.Completable;
 import rx.Observable;
@@ -51,8 +52,8 @@ public abstract class TopLevelModifiableResourcesImpl<
         SupportsDeletingByResourceGroup,
         HasManager<ManagerT>,
         HasInner<InnerCollectionT>,
-        SupportsListing<T>,
-        SupportsListingByResourceGroup<T>,
+        SupportsListing.WithPrefetch<T>,
+        SupportsListingByResourceGroup.WithPrefetch<T>,
         SupportsBatchDeletion {
 
     protected TopLevelModifiableResourcesImpl(InnerCollectionT innerCollection, ManagerT manager) {
@@ -115,11 +116,36 @@ public abstract class TopLevelModifiableResourcesImpl<
 
     @Override
     public PagedList<T> list() {
-        return wrapList(inner().list());
+        return listConverter().convert(inner().list());
     }
 
     @Override
     public PagedList<T> listByResourceGroup(String resourceGroupName) {
-        return wrapList(inner().listByResourceGroup(resourceGroupName));
+        return listConverter().convert(inner().listByResourceGroup(resourceGroupName));
+    }
+
+    @Override
+    public PagedList<T> list(int prefetchPages) {
+        return listConverter().convert(inner().list(), prefetchPages);
+    }
+
+    @Override
+    public PagedList<T> listByResourceGroup(String resourceGroupName, int prefetchPages) {
+        return listConverter().convert(inner().listByResourceGroup(resourceGroupName), prefetchPages);
+    }
+
+    /**
+     * Creates the converter of the listed inner models to resources, shared by the listings with and without
+     * prefetching. Collections changing how listed resources are wrapped override this rather than the listings.
+     *
+     * @return the converter
+     */
+    protected PagedListConverter<InnerT, T> listConverter() {
+        return new PagedListConverter<InnerT, T>() {
+            @Override
+            public Observable<T> typeConvertAsync(InnerT inner) {
+                return Observable.just((T) wrapModel(inner));
+            }
+        };
     }
 }
@@ -11,16 +11,23 @@ import com.microsoft.azure.AzureResponseBuilder;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
 import com.microsoft.azure.management.resources.fluentcore.arm.AzureConfigurable;
 import com.microsoft.azure.management.resources.fluentcore.utils.AuxiliaryCredentialsInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.HttpTransportRegistry;
 import com.microsoft.azure.management.resources.fluentcore.utils.ProviderRegistrationInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerRateLimiter;
 import com.microsoft.azure.management.resources.fluentcore.utils.ResourceManagerThrottlingInterceptor;
+import com.microsoft.azure.management.resources.fluentcore.utils.RetryCallAdapterFactory;
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.LogLevel;
 import com.microsoft.rest.RestClient;
+import com.microsoft.rest.retry.ExponentialBackoffRetryStrategy;
+import com.microsoft.rest.retry.RetryStrategy;
 import okhttp3.Authenticator;
 import okhttp3.ConnectionPool;
 import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
+import retrofit2.Retrofit;
 
 import java.net.Proxy;
 import java.util.List;
@@ -35,12 +42,29 @@ import java.util.concurrent.TimeUnit;
  */
 public class AzureConfigurableImpl<T extends AzureConfigurable<T>>
         implements AzureConfigurable<T> {
+    // the retries of ms-rest block the thread and would multiply the attempts of the call adapter, so they are
+    // kept only for the requests the call adapter does not retry
+    private static final RetryStrategy RETRY_UNLESS_ADAPTED = new RetryStrategy("RetryUnlessAdapted", true) {
+        // the strategy of a RetryHandler created without one
+        private final RetryStrategy defaultStrategy = new ExponentialBackoffRetryStrategy(3, 1000, 10000, 10000);
+
+        @Override
+        public boolean shouldRetry(int retryCount, okhttp3.Response response) {
+            return !RetryCallAdapterFactory.adapts(response.request())
+                    && defaultStrategy.shouldRetry(retryCount, response);
+        }
+    };
+
     protected RestClient.Builder restClientBuilder;
+    private HttpTransportRegistry transportRegistry;
 
     protected AzureConfigurableImpl() {
-        this.restClientBuilder = new RestClient.Builder()
+        // throttled and transiently failing requests are retried on timers instead of blocking a thread
+        this.restClientBuilder = new RestClient.Builder(new OkHttpClient.Builder(),
+                new Retrofit.Builder().addCallAdapterFactory(new RetryCallAdapterFactory()))
             .withSerializerAdapter(new AzureJacksonAdapter())
-            .withResponseBuilderFactory(new AzureResponseBuilder.Factory());
+            .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+            .withRetryStrategy(RETRY_UNLESS_ADAPTED);
     }
 
     @SuppressWarnings("unchecked")
@@ -147,12 +171,30 @@ public class AzureConfigurableImpl<T extends AzureConfigurable<T>>
         return (T) this;
     }
 
+    @SuppressWarnings("unchecked")
+    @Override
+    public T withSharedTransport(HttpTransportRegistry registry) {
+        this.transportRegistry = registry;
+        return (T) this;
+    }
+
     protected RestClient buildRestClient(AzureTokenCredentials credentials, AzureEnvironment.Endpoint endpoint) {
+        if (transportRegistry != null) {
+            HttpTransportRegistry.Transport transport = transportRegistry
+                    .transportFor(credentials.environment().url(endpoint), credentials);
+            restClientBuilder = restClientBuilder
+                    .withConnectionPool(transport.connectionPool())
+                    .withDispatcher(transport.dispatcher());
+            if (transportRegistry.protocols() != null) {
+                restClientBuilder.withProtocols(transportRegistry.protocols());
+            }
+        }
         RestClient client =  restClientBuilder
                 .withBaseUrl(credentials.environment(), endpoint)
                 .withCredentials(credentials)
                 .withInterceptor(new ProviderRegistrationInterceptor(credentials))
-                .withInterceptor(new ResourceManagerThrottlingInterceptor())
+                .withInterceptor(new ResourceManagerThrottlingInterceptor(ResourceManagerRateLimiter.defaultLimiter(), false,
+                        credentials.domain()))
                 .build();
         if (client.httpClient().proxy() != null) {
             credentials.withProxy(client.httpClient().proxy());
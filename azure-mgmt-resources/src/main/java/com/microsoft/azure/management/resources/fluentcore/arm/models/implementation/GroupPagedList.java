@@ -9,48 +9,160 @@ package com.microsoft.azure.management.resources.fluentcore.arm.models.implement
 import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.resources.ResourceGroup;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.azure.management.resources.implementation.PageImpl;
+import rx.Notification;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.functions.Func1;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Defines a list of resources paginated across resource groups.
+ * <p>
+ * By default one resource group is listed at a time. When created with a concurrency greater than one,
+ * up to that many resource groups are listed concurrently on {@link SdkContext#getRxScheduler()} while
+ * the caller iterates, and each resource group becomes a page as soon as its listing is available.
  *
  * @param <E> the item type
  */
 public abstract class GroupPagedList<E> extends PagedList<E> {
     private Iterator<ResourceGroup> resourceGroupItr;
+    private final int maxConcurrency;
+    private final boolean preserveOrder;
+    // listings in flight, in the order of the resource groups
+    private final Deque<Observable<List<E>>> pendingGroups = new ArrayDeque<>();
+    // completed listings, in completion order
+    private final LinkedBlockingQueue<Notification<List<E>>> completedGroups = new LinkedBlockingQueue<>();
+    private int inFlightCount;
 
     /**
-     * Creates an instance from a list of resource groups.
+     * Creates an instance from a list of resource groups, listing resource groups with the concurrency
+     * configured by {@link SdkContext#setResourceGroupListingConcurrency(int)}.
      *
      * @param resourceGroupList the list of resource groups
      */
     public GroupPagedList(PagedList<ResourceGroup> resourceGroupList) {
+        this(resourceGroupList, SdkContext.getResourceGroupListingConcurrency(), true);
+    }
+
+    /**
+     * Creates an instance from a list of resource groups.
+     *
+     * @param resourceGroupList the list of resource groups
+     * @param maxConcurrency the maximum number of resource groups listed concurrently
+     * @param preserveOrder true to return the items in the order of the resource groups, false to return
+     *                      the items of each resource group as soon as its listing completes
+     */
+    public GroupPagedList(PagedList<ResourceGroup> resourceGroupList, int maxConcurrency, boolean preserveOrder) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
         this.resourceGroupItr = resourceGroupList.iterator();
+        this.maxConcurrency = maxConcurrency;
+        this.preserveOrder = preserveOrder;
         setCurrentPage(nextPage("dummy"));
     }
 
     @Override
     public Page<E> nextPage(String s) {
-        if (resourceGroupItr.hasNext()) {
-            ResourceGroup resourceGroup = resourceGroupItr.next();
-            PageImpl<E> page = new PageImpl<>();
-            page.setItems(listNextGroup(resourceGroup.name()));
-            page.setNextPageLink(s);
-            return page;
-        } else {
+        if (maxConcurrency == 1) {
+            if (resourceGroupItr.hasNext()) {
+                ResourceGroup resourceGroup = resourceGroupItr.next();
+                return page(listNextGroup(resourceGroup.name()), s);
+            } else {
+                // return an empty page without next link so that iteration will terminate
+                return page(new ArrayList<E>(), null);
+            }
+        }
+
+        startGroupListings();
+        if (inFlightCount == 0) {
             // return an empty page without next link so that iteration will terminate
-            PageImpl<E> page = new PageImpl<>();
-            page.setItems(new ArrayList<E>());
-            return page;
+            return page(new ArrayList<E>(), null);
+        }
+        List<E> items;
+        try {
+            if (preserveOrder) {
+                items = pendingGroups.poll().toBlocking().single();
+            } else {
+                Notification<List<E>> completed = completedGroups.take();
+                if (completed.isOnError()) {
+                    throw Exceptions.propagate(completed.getThrowable());
+                }
+                items = completed.getValue();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            inFlightCount--;
+        }
+        startGroupListings();
+        return page(items, s);
+    }
+
+    private void startGroupListings() {
+        while (inFlightCount < maxConcurrency && resourceGroupItr.hasNext()) {
+            final String resourceGroupName = resourceGroupItr.next().name();
+            Observable<List<E>> groupListing = Observable.fromCallable(new Callable<List<E>>() {
+                @Override
+                public List<E> call() {
+                    return listNextGroup(resourceGroupName);
+                }
+            }).subscribeOn(SdkContext.getRxScheduler());
+            if (preserveOrder) {
+                groupListing = groupListing.cache();
+                groupListing.subscribe(new Action1<List<E>>() {
+                    @Override
+                    public void call(List<E> items) {
+                    }
+                }, new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        // surfaced when the caller reaches this resource group
+                    }
+                });
+                pendingGroups.add(groupListing);
+            } else {
+                groupListing.materialize()
+                        .filter(new Func1<Notification<List<E>>, Boolean>() {
+                            @Override
+                            public Boolean call(Notification<List<E>> notification) {
+                                return !notification.isOnCompleted();
+                            }
+                        })
+                        .subscribe(new Action1<Notification<List<E>>>() {
+                            @Override
+                            public void call(Notification<List<E>> notification) {
+                                completedGroups.add(notification);
+                            }
+                        });
+            }
+            inFlightCount++;
         }
     }
 
+    private Page<E> page(List<E> items, String nextPageLink) {
+        PageImpl<E> page = new PageImpl<>();
+        page.setItems(items);
+        page.setNextPageLink(nextPageLink);
+        return page;
+    }
+
     /**
      * Override this method to implement how to list resources in a resource group.
+     * <p>
+     * When the list is created with a concurrency greater than one, this method is called concurrently
+     * for different resource groups.
      *
      * @param resourceGroupName the name of the resource group
      * @return the list of resources in this group.
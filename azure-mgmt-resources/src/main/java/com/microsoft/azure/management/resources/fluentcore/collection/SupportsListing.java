@@ -33,4 +33,22 @@ public interface SupportsListing<T> {
      * @return list of resources
      */
     Observable<T> listAsync();
+
+    /**
+     * Provides access to listing Azure resources while prefetching the next pages in the background.
+     * <p>
+     * (Note: this interface is not intended to be implemented by user code)
+     *
+     * @param <T> the fluent type of the resource
+     */
+    interface WithPrefetch<T> extends SupportsListing<T> {
+        /**
+         * Lists all the resources of the specified type in the currently selected subscription,
+         * fetching up to the given number of pages ahead while the list is being iterated.
+         *
+         * @param prefetchPages the maximum number of pages to fetch ahead, 0 to disable prefetching
+         * @return list of resources
+         */
+        PagedList<T> list(int prefetchPages);
+    }
 }
@@ -0,0 +1,321 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
+import rx.Observable;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.subscriptions.Subscriptions;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link TaskGroupScheduler} that bounds the number of tasks in flight, globally and per category of
+ * tasks, e.g. per resource type or per resource provider.
+ * <p>
+ * When a slot frees up, the waiting task with the longest chain of dependents is started first, so that
+ * the tasks on the critical path of the group are not delayed by tasks that have slack. Tasks with the
+ * same chain length start in the order they became ready.
+ * <p>
+ * A scheduler can be shared by the invocations of multiple task groups to bound their combined load.
+ */
+public class BoundedTaskGroupScheduler implements TaskGroupScheduler {
+    /**
+     * Classifies tasks by the type of resource they create or update, e.g. "VirtualMachine".
+     */
+    public static final Classifier BY_RESOURCE_TYPE = new Classifier() {
+        @Override
+        public String classify(ScheduledTask task) {
+            String name = task.worker().getClass().getSimpleName();
+            return name.endsWith("Impl") ? name.substring(0, name.length() - "Impl".length()) : name;
+        }
+    };
+
+    /**
+     * Classifies tasks by the resource provider of the resource they create or update, e.g. "network".
+     */
+    public static final Classifier BY_PROVIDER = new Classifier() {
+        @Override
+        public String classify(ScheduledTask task) {
+            Package pkg = task.worker().getClass().getPackage();
+            String name = pkg == null ? "" : pkg.getName();
+            if (name.endsWith(".implementation")) {
+                name = name.substring(0, name.length() - ".implementation".length());
+            }
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    };
+
+    private final Object lock = new Object();
+    private final AtomicInteger drainCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final TreeSet<PendingTask> pendingTasks = new TreeSet<>(new Comparator<PendingTask>() {
+        @Override
+        public int compare(PendingTask left, PendingTask right) {
+            int result = Integer.compare(right.task.criticalPathLength(), left.task.criticalPathLength());
+            return result != 0 ? result : Long.compare(left.sequence, right.sequence);
+        }
+    });
+    private final Map<String, Integer> categoryLimits = new HashMap<>();
+    private final Map<String, Integer> categoryInFlight = new HashMap<>();
+    private final int maxConcurrency;
+    private int inFlight;
+    private Classifier classifier = BY_RESOURCE_TYPE;
+    private Listener listener;
+
+    /**
+     * Creates BoundedTaskGroupScheduler.
+     *
+     * @param maxConcurrency the maximum number of tasks in flight
+     */
+    public BoundedTaskGroupScheduler(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Specifies how tasks are grouped into categories, by default {@link #BY_RESOURCE_TYPE}.
+     *
+     * @param classifier the classifier
+     * @return the scheduler
+     */
+    public BoundedTaskGroupScheduler withClassifier(Classifier classifier) {
+        this.classifier = classifier;
+        return this;
+    }
+
+    /**
+     * Specifies the maximum number of tasks of a category in flight.
+     *
+     * @param category the category, as returned by the classifier
+     * @param maxConcurrency the maximum number of tasks of the category in flight
+     * @return the scheduler
+     */
+    public BoundedTaskGroupScheduler withMaxConcurrency(String category, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be at least 1");
+        }
+        synchronized (lock) {
+            this.categoryLimits.put(category, maxConcurrency);
+        }
+        return this;
+    }
+
+    /**
+     * Specifies a listener notified when tasks are queued, started and completed.
+     *
+     * @param listener the listener
+     * @return the scheduler
+     */
+    public BoundedTaskGroupScheduler withListener(Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * @return the number of tasks in flight
+     */
+    public int inFlightCount() {
+        synchronized (lock) {
+            return this.inFlight;
+        }
+    }
+
+    /**
+     * @return the number of ready tasks waiting for a slot
+     */
+    public int pendingCount() {
+        synchronized (lock) {
+            return this.pendingTasks.size();
+        }
+    }
+
+    @Override
+    public Observable<Indexable> schedule(final ScheduledTask task, final Observable<Indexable> invocation) {
+        return Observable.unsafeCreate(new Observable.OnSubscribe<Indexable>() {
+            @Override
+            public void call(Subscriber<? super Indexable> subscriber) {
+                final PendingTask pendingTask = new PendingTask(task, classifier.classify(task),
+                        invocation, subscriber, sequence.incrementAndGet());
+                subscriber.add(Subscriptions.create(new Action0() {
+                    @Override
+                    public void call() {
+                        // a task unsubscribed before it started gives up its place in the queue
+                        synchronized (lock) {
+                            pendingTasks.remove(pendingTask);
+                        }
+                    }
+                }));
+                synchronized (lock) {
+                    pendingTasks.add(pendingTask);
+                }
+                if (listener != null) {
+                    listener.onTaskQueued(task);
+                }
+                drain();
+            }
+        });
+    }
+
+    private void drain() {
+        // only one thread starts tasks at a time, a task that completes synchronously while being
+        // started makes the draining thread loop instead of recursing
+        if (drainCount.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            PendingTask next;
+            while ((next = pollStartable()) != null) {
+                start(next);
+            }
+        } while (drainCount.decrementAndGet() != 0);
+    }
+
+    private PendingTask pollStartable() {
+        synchronized (lock) {
+            if (inFlight >= maxConcurrency) {
+                return null;
+            }
+            Iterator<PendingTask> iterator = pendingTasks.iterator();
+            while (iterator.hasNext()) {
+                PendingTask pendingTask = iterator.next();
+                if (pendingTask.subscriber.isUnsubscribed()) {
+                    iterator.remove();
+                    continue;
+                }
+                Integer limit = categoryLimits.get(pendingTask.category);
+                Integer running = categoryInFlight.get(pendingTask.category);
+                if (limit == null || running == null || running < limit) {
+                    iterator.remove();
+                    inFlight++;
+                    categoryInFlight.put(pendingTask.category, running == null ? 1 : running + 1);
+                    return pendingTask;
+                }
+            }
+            return null;
+        }
+    }
+
+    private void start(final PendingTask pendingTask) {
+        final long startedAt = System.nanoTime();
+        if (listener != null) {
+            listener.onTaskStarted(pendingTask.task,
+                    TimeUnit.NANOSECONDS.toMillis(startedAt - pendingTask.queuedAt));
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        final Throwable[] error = new Throwable[1];
+        final Action0 release = new Action0() {
+            @Override
+            public void call() {
+                if (!released.compareAndSet(false, true)) {
+                    return;
+                }
+                synchronized (lock) {
+                    inFlight--;
+                    Integer running = categoryInFlight.get(pendingTask.category);
+                    if (running == null || running <= 1) {
+                        categoryInFlight.remove(pendingTask.category);
+                    } else {
+                        categoryInFlight.put(pendingTask.category, running - 1);
+                    }
+                }
+                if (listener != null) {
+                    listener.onTaskCompleted(pendingTask.task,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt), error[0]);
+                }
+                drain();
+            }
+        };
+        // the slot is released after the subscriber has handled the completion, so that the dependents
+        // made ready by the task are queued and compete for the slot
+        pendingTask.invocation
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        error[0] = throwable;
+                    }
+                })
+                .doAfterTerminate(release)
+                .doOnUnsubscribe(release)
+                .unsafeSubscribe(pendingTask.subscriber);
+    }
+
+    /**
+     * Type classifying tasks into categories with their own concurrency limit.
+     */
+    public interface Classifier {
+        /**
+         * Gets the category of a task.
+         *
+         * @param task the task
+         * @return the category of the task
+         */
+        String classify(ScheduledTask task);
+    }
+
+    /**
+     * Type notified of the progress of the tasks run by the scheduler.
+     */
+    public interface Listener {
+        /**
+         * Called when a ready task is queued for a slot.
+         *
+         * @param task the task
+         */
+        void onTaskQueued(ScheduledTask task);
+
+        /**
+         * Called when a task is started.
+         *
+         * @param task the task
+         * @param queuedInMillis the time the task waited for a slot
+         */
+        void onTaskStarted(ScheduledTask task, long queuedInMillis);
+
+        /**
+         * Called when a task has completed.
+         *
+         * @param task the task
+         * @param durationInMillis the time the task ran
+         * @param error the error of the task, null if it succeeded
+         */
+        void onTaskCompleted(ScheduledTask task, long durationInMillis, Throwable error);
+    }
+
+    /**
+     * A task waiting for a slot.
+     */
+    private static final class PendingTask {
+        private final ScheduledTask task;
+        private final String category;
+        private final Observable<Indexable> invocation;
+        private final Subscriber<? super Indexable> subscriber;
+        private final long sequence;
+        private final long queuedAt = System.nanoTime();
+
+        private PendingTask(ScheduledTask task, String category, Observable<Indexable> invocation,
+                            Subscriber<? super Indexable> subscriber, long sequence) {
+            this.task = task;
+            this.category = category;
+            this.invocation = invocation;
+            this.subscriber = subscriber;
+            this.sequence = sequence;
+        }
+    }
+}
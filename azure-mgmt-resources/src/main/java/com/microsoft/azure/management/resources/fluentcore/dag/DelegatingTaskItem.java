@@ -0,0 +1,21 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+/**
+ * Type representing a {@link TaskItem} that delegates its work to another object, e.g. to the resource
+ * it creates or updates.
+ * <p>
+ * Schedulers and traces describe such a task by its delegate, so that tasks can be told apart by
+ * resource type or resource provider.
+ */
+public interface DelegatingTaskItem extends TaskItem {
+    /**
+     * @return the object doing the work of the task
+     */
+    Object delegate();
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+/**
+ * Type describing a ready task handed to a {@link TaskGroupScheduler}.
+ */
+public final class ScheduledTask {
+    private final String taskId;
+    private final TaskItem taskItem;
+    private final int criticalPathLength;
+
+    /**
+     * Creates ScheduledTask.
+     *
+     * @param taskId the id of the task in the group
+     * @param taskItem the task
+     * @param criticalPathLength the number of tasks in the longest chain from this task to the root task
+     */
+    ScheduledTask(String taskId, TaskItem taskItem, int criticalPathLength) {
+        this.taskId = taskId;
+        this.taskItem = taskItem;
+        this.criticalPathLength = criticalPathLength;
+    }
+
+    /**
+     * @return the id of the task in the group
+     */
+    public String taskId() {
+        return this.taskId;
+    }
+
+    /**
+     * @return the task
+     */
+    public TaskItem taskItem() {
+        return this.taskItem;
+    }
+
+    /**
+     * @return the number of tasks in the longest chain of dependents from this task to the root task of
+     * the group, including this task. Tasks with a longer chain are on the critical path of the group.
+     */
+    public int criticalPathLength() {
+        return this.criticalPathLength;
+    }
+
+    /**
+     * @return the object doing the work of the task, which is the resource for a task creating or
+     * updating a resource
+     */
+    Object worker() {
+        return workerOf(this.taskItem);
+    }
+
+    /**
+     * Gets the object doing the work of a task.
+     *
+     * @param taskItem the task
+     * @return the delegate of a {@link DelegatingTaskItem}, the task itself otherwise
+     */
+    static Object workerOf(TaskItem taskItem) {
+        if (taskItem instanceof DelegatingTaskItem) {
+            return ((DelegatingTaskItem) taskItem).delegate();
+        }
+        return taskItem;
+    }
+}
@@ -9,11 +9,14 @@ package com.microsoft.azure.management.resources.fluentcore.dag;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import rx.Completable;
 import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Action1;
 import rx.functions.Func0;
 import rx.functions.Func1;
 import rx.schedulers.Schedulers;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -70,6 +73,18 @@ public class TaskGroup
      * for post run.
      */
     protected ProxyTaskGroupWrapper proxyTaskGroupWrapper;
+    /**
+     * The scheduler of the current invocation, null if ready tasks are invoked immediately.
+     */
+    private TaskGroupScheduler scheduler;
+    /**
+     * The length of the longest chain of dependents of each task, computed when a scheduler is used.
+     */
+    private Map<String, Integer> criticalPathLengths;
+    /**
+     * The trace recording the timeline of the current invocation, null if it is not traced.
+     */
+    private TaskGroupTrace trace;
 
     /**
      * Creates TaskGroup.
@@ -282,9 +297,54 @@ public class TaskGroup
             //
             this.runBeforeGroupInvoke(skipBeforeGroupInvoke);
         }
-        // Runs the ready tasks concurrently
-        //
-        return this.invokeReadyTasksAsync(context);
+        this.scheduler = context.scheduler();
+        if (this.scheduler != null) {
+            this.criticalPathLengths = computeCriticalPathLengths();
+        }
+        this.trace = context.trace();
+        if (this.trace == null) {
+            // Runs the ready tasks concurrently
+            //
+            return this.invokeReadyTasksAsync(context);
+        }
+        final TaskGroupTrace currentTrace = this.trace;
+        final Action0 endTrace = new Action0() {
+            @Override
+            public void call() {
+                currentTrace.end();
+            }
+        };
+        currentTrace.begin();
+        return this.invokeReadyTasksAsync(context)
+                .doOnTerminate(endTrace)
+                .doOnUnsubscribe(endTrace);
+    }
+
+    /**
+     * Computes, for each task in the group, the number of tasks in the longest chain of dependents from
+     * the task to the root task.
+     *
+     * @return the chain lengths keyed by task id
+     */
+    private Map<String, Integer> computeCriticalPathLengths() {
+        Map<String, Integer> lengths = new HashMap<>();
+        for (String key : nodeTable.keySet()) {
+            computeCriticalPathLength(key, lengths);
+        }
+        return lengths;
+    }
+
+    private int computeCriticalPathLength(String key, Map<String, Integer> lengths) {
+        Integer length = lengths.get(key);
+        if (length != null) {
+            return length;
+        }
+        int longestDependentChain = 0;
+        for (String dependentKey : nodeTable.get(key).dependentKeys()) {
+            longestDependentChain = Math.max(longestDependentChain, computeCriticalPathLength(dependentKey, lengths));
+        }
+        lengths.put(key, longestDependentChain + 1);
+        return longestDependentChain + 1;
     }
 
     /**
@@ -393,6 +453,14 @@ public class TaskGroup
                     boolean ignoreCachedResult = isRootEntry(entry) || (entry.proxy() != null && isRootEntry(entry.proxy()));
 
                     Observable<Indexable> taskObservable = entry.invokeTaskAsync(ignoreCachedResult, context);
+                    if (trace != null) {
+                        taskObservable = traceTask(trace.enqueued(entry), taskObservable);
+                    }
+                    if (scheduler != null) {
+                        Integer criticalPathLength = criticalPathLengths.get(entry.key());
+                        taskObservable = scheduler.schedule(new ScheduledTask(entry.key(), entry.data(),
+                                criticalPathLength == null ? 1 : criticalPathLength), taskObservable);
+                    }
                     Func1<Indexable, Observable<Indexable>> onResult = new Func1<Indexable, Observable<Indexable>>() {
                         @Override
                         public Observable<Indexable> call(final Indexable taskResult) {
@@ -417,6 +485,41 @@ public class TaskGroup
         });
     }
 
+    /**
+     * Records the invocation of a task in its trace.
+     *
+     * @param taskTrace the trace of the task
+     * @param taskObservable the observable invoking the task upon subscription
+     * @return the observable invoking the task and recording its timeline
+     */
+    private static Observable<Indexable> traceTask(final TaskTrace taskTrace, Observable<Indexable> taskObservable) {
+        return taskObservable
+                .doOnSubscribe(new Action0() {
+                    @Override
+                    public void call() {
+                        taskTrace.started();
+                    }
+                })
+                .doOnNext(new Action1<Indexable>() {
+                    @Override
+                    public void call(Indexable indexable) {
+                        taskTrace.resultEmitted();
+                    }
+                })
+                .doOnError(new Action1<Throwable>() {
+                    @Override
+                    public void call(Throwable throwable) {
+                        taskTrace.completed(throwable);
+                    }
+                })
+                .doOnCompleted(new Action0() {
+                    @Override
+                    public void call() {
+                        taskTrace.completed(null);
+                    }
+                });
+    }
+
     /**
      * Invokes the {@link TaskItem#invokeAfterPostRunAsync(boolean)} method of an actual TaskItem
      * if the given entry holds a ProxyTaskItem.
@@ -585,6 +688,8 @@ public class TaskGroup
         private final Map<String, Object> properties;
         private final TaskGroup taskGroup;
         private TaskGroupTerminateOnErrorStrategy terminateOnErrorStrategy;
+        private TaskGroupScheduler scheduler;
+        private TaskGroupTrace trace;
 
         /**
          * Creates InvocationContext instance.
@@ -627,6 +732,45 @@ public class TaskGroup
             return this.terminateOnErrorStrategy;
         }
 
+        /**
+         * Sets the scheduler deciding when ready tasks are invoked, e.g. a {@link BoundedTaskGroupScheduler}
+         * to bound the number of tasks in flight.
+         *
+         * @param scheduler the scheduler
+         * @return the context
+         */
+        public InvocationContext withScheduler(TaskGroupScheduler scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @return the scheduler deciding when ready tasks are invoked, null if they are invoked as soon as
+         * their dependencies are resolved.
+         */
+        public TaskGroupScheduler scheduler() {
+            return this.scheduler;
+        }
+
+        /**
+         * Sets the trace recording the timeline of the tasks of the invocation.
+         *
+         * @param trace the trace
+         * @return the context
+         */
+        public InvocationContext withTrace(TaskGroupTrace trace) {
+            this.trace = trace;
+            return this;
+        }
+
+        /**
+         * @return the trace recording the timeline of the tasks of the invocation, null if the
+         * invocation is not traced.
+         */
+        public TaskGroupTrace trace() {
+            return this.trace;
+        }
+
         /**
          * Put a key-value in the context.
          *
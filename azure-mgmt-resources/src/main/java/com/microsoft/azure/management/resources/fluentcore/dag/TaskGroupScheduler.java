@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
+import rx.Observable;
+
+/**
+ * Type representing a scheduler deciding when the ready tasks of a {@link TaskGroup} are invoked.
+ * <p>
+ * Without a scheduler a task is invoked as soon as all of its dependencies are resolved. A scheduler
+ * is set for an invocation through {@link TaskGroup.InvocationContext#withScheduler(TaskGroupScheduler)}.
+ */
+public interface TaskGroupScheduler {
+    /**
+     * Schedules the invocation of a ready task.
+     *
+     * @param task the task whose dependencies are resolved
+     * @param invocation a cold observable that invokes the task upon subscription
+     * @return an observable that subscribes to the invocation when the scheduler decides to run the task,
+     * and mirrors its events
+     */
+    Observable<Indexable> schedule(ScheduledTask task, Observable<Indexable> invocation);
+}
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the timeline of the tasks of a {@link TaskGroup} invocation.
+ * <p>
+ * A trace is enabled for an invocation through {@link TaskGroup.InvocationContext#withTrace(TaskGroupTrace)};
+ * invocations without a trace record nothing. Once the invocation terminated, the trace gives the critical
+ * path of the invocation, i.e. the chain of tasks that determined its duration, summary metrics, and a
+ * Chrome trace that can be loaded in chrome://tracing or Perfetto.
+ */
+public final class TaskGroupTrace {
+    private static final Comparator<TaskTrace> BY_ENQUEUED_AT = new Comparator<TaskTrace>() {
+        @Override
+        public int compare(TaskTrace left, TaskTrace right) {
+            return Long.compare(left.enqueuedAt(), right.enqueuedAt());
+        }
+    };
+
+    // waits shorter than this are the cost of subscribing rather than a scheduler holding the task back
+    private static final long MIN_QUEUED_EVENT_IN_MICROS = 1000;
+
+    private final Map<String, TaskTrace> tasks = new ConcurrentHashMap<>();
+    private volatile long origin;
+    private volatile long completedAt = -1;
+
+    /**
+     * @return the traces of the tasks invoked, in the order their dependencies were resolved
+     */
+    public List<TaskTrace> tasks() {
+        List<TaskTrace> result = new ArrayList<>(this.tasks.values());
+        Collections.sort(result, BY_ENQUEUED_AT);
+        return result;
+    }
+
+    /**
+     * @return the duration of the invocation, up to now if it did not terminate
+     */
+    public long durationInMillis() {
+        long end = this.completedAt < 0 ? now() : this.completedAt;
+        return TimeUnit.MICROSECONDS.toMillis(end);
+    }
+
+    /**
+     * Gets the critical path of the invocation: starting from the task that completed last, each task is
+     * preceded by its dependency that completed last, which is the dependency it waited on.
+     *
+     * @return the tasks on the critical path, in invocation order
+     */
+    public List<TaskTrace> criticalPath() {
+        List<TaskTrace> path = new ArrayList<>();
+        TaskTrace current = null;
+        for (TaskTrace task : this.tasks.values()) {
+            if (current == null || task.completedAt() > current.completedAt()) {
+                current = task;
+            }
+        }
+        while (current != null) {
+            path.add(current);
+            TaskTrace blocking = null;
+            for (String dependencyId : current.dependencyIds()) {
+                TaskTrace dependency = this.tasks.get(dependencyId);
+                if (dependency != null && (blocking == null || dependency.completedAt() > blocking.completedAt())) {
+                    blocking = dependency;
+                }
+            }
+            current = blocking;
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Gets summary metrics of the invocation:
+     * <ul>
+     *     <li>taskCount, failedTaskCount: the number of tasks invoked and failed</li>
+     *     <li>durationInMillis: the duration of the invocation</li>
+     *     <li>queuedInMillis, runInMillis: the time tasks spent waiting for a scheduler and running, summed</li>
+     *     <li>maxInFlight: the maximum number of tasks running at the same time</li>
+     *     <li>criticalPathLength: the number of tasks on the critical path</li>
+     *     <li>criticalPathQueuedInMillis, criticalPathRunInMillis: the time the tasks on the critical path spent
+     *     waiting for a scheduler and running, summed</li>
+     * </ul>
+     *
+     * @return the metrics, by name
+     */
+    public Map<String, Long> metrics() {
+        long failed = 0;
+        long queued = 0;
+        long run = 0;
+        List<long[]> events = new ArrayList<>();
+        for (TaskTrace task : this.tasks.values()) {
+            if (task.error() != null) {
+                failed++;
+            }
+            queued += task.queuedInMillis();
+            run += task.durationInMillis();
+            if (task.startedAt() >= 0) {
+                events.add(new long[] {task.startedAt(), 1});
+                events.add(new long[] {task.completedAt() < 0 ? Long.MAX_VALUE : task.completedAt(), -1});
+            }
+        }
+        Collections.sort(events, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] left, long[] right) {
+                int result = Long.compare(left[0], right[0]);
+                // a task completing frees its slot before a task starting at the same time takes one
+                return result != 0 ? result : Long.compare(left[1], right[1]);
+            }
+        });
+        long inFlight = 0;
+        long maxInFlight = 0;
+        for (long[] event : events) {
+            inFlight += event[1];
+            maxInFlight = Math.max(maxInFlight, inFlight);
+        }
+        long criticalPathQueued = 0;
+        long criticalPathRun = 0;
+        List<TaskTrace> criticalPath = criticalPath();
+        for (TaskTrace task : criticalPath) {
+            criticalPathQueued += task.queuedInMillis();
+            criticalPathRun += task.durationInMillis();
+        }
+
+        Map<String, Long> metrics = new LinkedHashMap<>();
+        metrics.put("taskCount", (long) this.tasks.size());
+        metrics.put("failedTaskCount", failed);
+        metrics.put("durationInMillis", durationInMillis());
+        metrics.put("queuedInMillis", queued);
+        metrics.put("runInMillis", run);
+        metrics.put("maxInFlight", maxInFlight);
+        metrics.put("criticalPathLength", (long) criticalPath.size());
+        metrics.put("criticalPathQueuedInMillis", criticalPathQueued);
+        metrics.put("criticalPathRunInMillis", criticalPathRun);
+        return metrics;
+    }
+
+    /**
+     * Writes the trace in the Chrome trace event format. Each task is a complete event, preceded by a
+     * "queued" event if a scheduler held it back for a millisecond or more; tasks on the critical path
+     * are flagged in their arguments.
+     *
+     * @param writer the writer to write the trace to
+     * @throws IOException if the trace cannot be written
+     */
+    public void writeChromeTrace(Writer writer) throws IOException {
+        Set<String> criticalTaskIds = new HashSet<>();
+        for (TaskTrace task : criticalPath()) {
+            criticalTaskIds.add(task.taskId());
+        }
+        long end = this.completedAt < 0 ? now() : this.completedAt;
+        // tasks are laid out on lanes, a lane holds tasks that do not overlap
+        List<Long> laneEnds = new ArrayList<>();
+        JsonGenerator generator = new JsonFactory().createGenerator(writer);
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("traceEvents");
+        for (TaskTrace task : tasks()) {
+            if (task.startedAt() < 0) {
+                continue;
+            }
+            long completedAt = task.completedAt() < 0 ? end : task.completedAt();
+            int lane = 0;
+            while (lane < laneEnds.size() && laneEnds.get(lane) > task.enqueuedAt()) {
+                lane++;
+            }
+            if (lane == laneEnds.size()) {
+                laneEnds.add(completedAt);
+            } else {
+                laneEnds.set(lane, completedAt);
+            }
+            if (task.startedAt() - task.enqueuedAt() >= MIN_QUEUED_EVENT_IN_MICROS) {
+                writeEvent(generator, "queued", "queue", task.enqueuedAt(), task.startedAt() - task.enqueuedAt(), lane);
+                generator.writeObjectFieldStart("args");
+                generator.writeStringField("task", task.name());
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            writeEvent(generator, task.name(), "task", task.startedAt(), completedAt - task.startedAt(), lane);
+            generator.writeObjectFieldStart("args");
+            generator.writeStringField("taskId", task.taskId());
+            generator.writeArrayFieldStart("dependencyIds");
+            for (String dependencyId : task.dependencyIds()) {
+                generator.writeString(dependencyId);
+            }
+            generator.writeEndArray();
+            if (task.resultAt() >= 0) {
+                generator.writeNumberField("resultAt", task.resultAt());
+            }
+            if (task.error() != null) {
+                generator.writeStringField("error", String.valueOf(task.error()));
+            }
+            generator.writeBooleanField("criticalPath", criticalTaskIds.contains(task.taskId()));
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeStringField("displayTimeUnit", "ms");
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * @return the trace in the Chrome trace event format
+     * @see #writeChromeTrace(Writer)
+     */
+    public String toChromeTrace() {
+        StringWriter writer = new StringWriter();
+        try {
+            writeChromeTrace(writer);
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new IllegalStateException(e);
+        }
+        return writer.toString();
+    }
+
+    void begin() {
+        this.tasks.clear();
+        this.completedAt = -1;
+        this.origin = System.nanoTime();
+    }
+
+    TaskTrace enqueued(TaskGroupEntry<TaskItem> entry) {
+        TaskTrace task = new TaskTrace(entry.key(), entry.data(), new ArrayList<>(entry.dependencyKeys()), this.origin);
+        task.enqueued();
+        this.tasks.put(entry.key(), task);
+        return task;
+    }
+
+    void end() {
+        if (this.completedAt < 0) {
+            this.completedAt = now();
+        }
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - this.origin);
+    }
+
+    private static void writeEvent(JsonGenerator generator, String name, String category, long timestamp,
+                                   long duration, int lane) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", name);
+        generator.writeStringField("cat", category);
+        generator.writeStringField("ph", "X");
+        generator.writeNumberField("ts", timestamp);
+        generator.writeNumberField("dur", duration);
+        generator.writeNumberField("pid", 1);
+        generator.writeNumberField("tid", lane);
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+import com.microsoft.azure.management.resources.fluentcore.arm.models.HasName;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type representing the timeline of one task of a {@link TaskGroup} invocation, recorded by a
+ * {@link TaskGroupTrace}.
+ * <p>
+ * The timestamps are in microseconds since the invocation started, -1 if the task did not reach the stage.
+ */
+public final class TaskTrace {
+    private final String taskId;
+    private final String name;
+    private final List<String> dependencyIds;
+    private final long origin;
+    private volatile long enqueuedAt = -1;
+    private volatile long startedAt = -1;
+    private volatile long resultAt = -1;
+    private volatile long completedAt = -1;
+    private volatile Throwable error;
+
+    /**
+     * Creates TaskTrace.
+     *
+     * @param taskId the id of the task in the group
+     * @param taskItem the task
+     * @param dependencyIds the ids of the tasks this task depends on
+     * @param origin the {@link System#nanoTime()} at which the invocation started
+     */
+    TaskTrace(String taskId, TaskItem taskItem, List<String> dependencyIds, long origin) {
+        this.taskId = taskId;
+        this.name = nameOf(taskId, taskItem);
+        this.dependencyIds = Collections.unmodifiableList(dependencyIds);
+        this.origin = origin;
+    }
+
+    /**
+     * @return the id of the task in the group
+     */
+    public String taskId() {
+        return this.taskId;
+    }
+
+    /**
+     * @return a display name of the task, e.g. "VirtualMachine vm1"
+     */
+    public String name() {
+        return this.name;
+    }
+
+    /**
+     * @return the ids of the tasks this task depends on
+     */
+    public List<String> dependencyIds() {
+        return this.dependencyIds;
+    }
+
+    /**
+     * @return the time at which the dependencies of the task were resolved
+     */
+    public long enqueuedAt() {
+        return this.enqueuedAt;
+    }
+
+    /**
+     * @return the time at which the task was invoked, later than {@link #enqueuedAt()} if a
+     * {@link TaskGroupScheduler} held it back
+     */
+    public long startedAt() {
+        return this.startedAt;
+    }
+
+    /**
+     * @return the time at which the task emitted its result, which is the created or updated resource for a
+     * task creating or updating a resource
+     */
+    public long resultAt() {
+        return this.resultAt;
+    }
+
+    /**
+     * @return the time at which the task completed or failed
+     */
+    public long completedAt() {
+        return this.completedAt;
+    }
+
+    /**
+     * @return the error of the task, null if it succeeded or did not complete
+     */
+    public Throwable error() {
+        return this.error;
+    }
+
+    /**
+     * @return the time the task waited between the resolution of its dependencies and its invocation
+     */
+    public long queuedInMillis() {
+        return this.startedAt < 0 ? 0 : TimeUnit.MICROSECONDS.toMillis(this.startedAt - this.enqueuedAt);
+    }
+
+    /**
+     * @return the time the task ran
+     */
+    public long durationInMillis() {
+        return this.completedAt < 0 ? 0 : TimeUnit.MICROSECONDS.toMillis(this.completedAt - this.startedAt);
+    }
+
+    void enqueued() {
+        this.enqueuedAt = now();
+    }
+
+    void started() {
+        this.startedAt = now();
+    }
+
+    void resultEmitted() {
+        if (this.resultAt < 0) {
+            this.resultAt = now();
+        }
+    }
+
+    void completed(Throwable error) {
+        this.error = error;
+        this.completedAt = now();
+    }
+
+    private long now() {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - this.origin);
+    }
+
+    private static String nameOf(String taskId, TaskItem taskItem) {
+        Object worker = ScheduledTask.workerOf(taskItem);
+        if (worker instanceof HasName) {
+            String type = worker.getClass().getSimpleName();
+            if (type.endsWith("Impl")) {
+                type = type.substring(0, type.length() - "Impl".length());
+            }
+            return type + " " + ((HasName) worker).name();
+        }
+        return taskId;
+    }
+}
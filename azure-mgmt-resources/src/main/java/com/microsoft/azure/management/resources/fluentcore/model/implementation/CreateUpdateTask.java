@@ -7,6 +7,7 @@
 package com.microsoft.azure.management.resources.fluentcore.model.implementation;
 
 import com.microsoft.azure.management.resources.fluentcore.arm.Context;
+import com.microsoft.azure.management.resources.fluentcore.dag.DelegatingTaskItem;
 import com.microsoft.azure.management.resources.fluentcore.dag.TaskGroup;
 import com.microsoft.azure.management.resources.fluentcore.dag.TaskItem;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
@@ -22,7 +23,7 @@ import rx.functions.Func1;
  *
  * @param <ResourceT> the type of the resource that this task creates or update
  */
-public class CreateUpdateTask<ResourceT extends Indexable> implements TaskItem {
+public class CreateUpdateTask<ResourceT extends Indexable> implements DelegatingTaskItem {
     /**
      * the underlying instance that can create and update the resource.
      */
@@ -42,6 +43,14 @@ public class CreateUpdateTask<ResourceT extends Indexable> implements TaskItem {
         this.resourceCreatorUpdater = resourceCreatorUpdater;
     }
 
+    /**
+     * @return the resource creator and updater used by this TaskItem
+     */
+    @Override
+    public Object delegate() {
+        return this.resourceCreatorUpdater;
+    }
+
     @Override
     public ResourceT result() {
         return resource;
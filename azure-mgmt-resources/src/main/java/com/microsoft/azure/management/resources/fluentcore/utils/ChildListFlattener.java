@@ -3,30 +3,43 @@
  * Licensed under the MIT License. See License.txt in the project root for
  * license information.
  */
-package com.microsoft.azure.management.compute.implementation;
+package com.microsoft.azure.management.resources.fluentcore.utils;
 
 import com.microsoft.azure.CloudException;
 import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
 import com.microsoft.rest.RestException;
+import rx.Observable;
+import rx.Subscriber;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
 
 /**
  * ChildListFlattener that can take a paged list of parents and flatten their child lists
  * as a single lazy paged list.
+ * <p>
+ * By default the child list of a parent is loaded once the child list of the previous parent is
+ * exhausted. With a lookahead, the child lists of up to the given number of next parents are loaded
+ * on {@link SdkContext#getRxScheduler()} while the caller iterates the current one; the children
+ * are still returned in the order of the parents, and no more than the lookahead number of child
+ * lists are held ahead of the caller.
  *
  * @param <ParentT> the type of parent paged list item
  * @param <ChildT> the type of child paged list item
  */
-final class ChildListFlattener<ParentT, ChildT> {
+public final class ChildListFlattener<ParentT, ChildT> {
     private final String switchToCousin = "switchToCousin";
     private Iterator<ParentT> parentItr;
     private PagedList<ChildT> currentChildList;
     private final ChildListLoader<ParentT, ChildT> childListLoader;
+    private final int lookahead;
+    private final Queue<Observable<PagedList<ChildT>>> loadingChildLists = new ArrayDeque<>();
 
     /**
      * Interface that will be implemented by the consumer of {@link ChildListFlattener}.
@@ -37,9 +50,11 @@ final class ChildListFlattener<ParentT, ChildT> {
      * @param <T> the parent type
      * @param <U> the type of items in the child list
      */
-    interface ChildListLoader<T, U> {
+    public interface ChildListLoader<T, U> {
         /**
          * Get the child paged list associated with the given parent.
+         * <p>
+         * With a lookahead, the method is called from background threads, several parents at a time.
          *
          * @param parent the parent
          * @return child paged list associated with the parent
@@ -55,9 +70,23 @@ final class ChildListFlattener<ParentT, ChildT> {
      * @param parentList a paged list of parents
      * @param childListLoader {@link ChildListLoader} for fetching child paged list associated any parent
      */
-    ChildListFlattener(PagedList<ParentT> parentList, ChildListLoader<ParentT, ChildT> childListLoader) {
+    public ChildListFlattener(PagedList<ParentT> parentList, ChildListLoader<ParentT, ChildT> childListLoader) {
+        this(parentList, childListLoader, 0);
+    }
+
+    /**
+     * Creates ChildListFlattener loading the child lists of the next parents ahead of the caller.
+     *
+     * @param parentList a paged list of parents
+     * @param childListLoader {@link ChildListLoader} for fetching child paged list associated any parent
+     * @param lookahead the maximum number of child lists to load ahead, 0 to load each one when it is reached
+     */
+    public ChildListFlattener(PagedList<ParentT> parentList,
+                              ChildListLoader<ParentT, ChildT> childListLoader,
+                              int lookahead) {
         this.parentItr = parentList.iterator();
         this.childListLoader = childListLoader;
+        this.lookahead = Math.max(0, lookahead);
     }
 
     /**
@@ -100,8 +129,20 @@ final class ChildListFlattener<ParentT, ChildT> {
      * @throws IOException exceptions thrown from serialization/deserialization
      */
     private PagedList<ChildT> nextChildList() {
-        while (parentItr.hasNext()) {
-            PagedList<ChildT> nextChildList = childListLoader.loadList(parentItr.next());
+        if (this.lookahead == 0) {
+            while (parentItr.hasNext()) {
+                PagedList<ChildT> nextChildList = childListLoader.loadList(parentItr.next());
+                if (nextChildList.iterator().hasNext()) {
+                    return nextChildList;
+                }
+            }
+            return emptyPagedList();
+        }
+        loadAhead();
+        while (!loadingChildLists.isEmpty()) {
+            PagedList<ChildT> nextChildList = loadingChildLists.remove().toBlocking().single();
+            // replace the child list taken, before the caller starts iterating it
+            loadAhead();
             if (nextChildList.iterator().hasNext()) {
                 return nextChildList;
             }
@@ -109,6 +150,46 @@ final class ChildListFlattener<ParentT, ChildT> {
         return emptyPagedList();
     }
 
+    /**
+     * Starts loading the child lists of the next parents, up to the lookahead.
+     */
+    private void loadAhead() {
+        while (loadingChildLists.size() < this.lookahead && parentItr.hasNext()) {
+            final ParentT parent = parentItr.next();
+            Observable<PagedList<ChildT>> childList = Observable.fromCallable(new Callable<PagedList<ChildT>>() {
+                @Override
+                public PagedList<ChildT> call() {
+                    PagedList<ChildT> childList = childListLoader.loadList(parent);
+                    // skipping empty first pages loads the next pages, do it in the background as well
+                    childList.iterator().hasNext();
+                    return childList;
+                }
+            }).subscribeOn(SdkContext.getRxScheduler()).cache();
+            // start loading now, errors are surfaced when the caller reaches the child list
+            childList.subscribe(new Subscriber<PagedList<ChildT>>() {
+                @Override
+                public void onCompleted() {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onNext(PagedList<ChildT> loaded) {
+                }
+            });
+            loadingChildLists.add(childList);
+        }
+    }
+
+    /**
+     * @return true if there are parents whose child lists are not returned yet
+     */
+    private boolean hasMoreParents() {
+        return !loadingChildLists.isEmpty() || parentItr.hasNext();
+    }
+
     /**
      * Method returns a {@link Page} with the same items as in the given page, if the given
      * page is last page of the current paged child list and if there is a cousin list then
@@ -127,7 +208,7 @@ final class ChildListFlattener<ParentT, ChildT> {
                    return page.nextPageLink();
                 }
 
-                if (parentItr.hasNext()) {
+                if (hasMoreParents()) {
                     // The current child paged list has no more pages so switch to it's cousin list
                     return switchToCousin;
                 }
@@ -167,4 +248,4 @@ final class ChildListFlattener<ParentT, ChildT> {
             }
         };
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,7 @@ package com.microsoft.azure.management.resources.fluentcore.utils;
 
 import org.joda.time.DateTime;
 import rx.Observable;
+import rx.Scheduler;
 import rx.schedulers.Schedulers;
 
 import java.util.concurrent.TimeUnit;
@@ -45,4 +46,18 @@ public class DelayProvider {
     public <T> Observable<T>  delayedEmitAsync(T event, int milliseconds) {
         return Observable.just(event).delay(milliseconds, TimeUnit.MILLISECONDS, Schedulers.immediate());
     }
+
+    /**
+     * Creates an observable that emits the given item after the specified time in milliseconds, waiting on the
+     * given scheduler rather than on the current thread.
+     *
+     * @param event the event to emit
+     * @param milliseconds the delay in milliseconds
+     * @param scheduler the scheduler of the delay
+     * @param <T> the type of event
+     * @return delayed observable
+     */
+    public <T> Observable<T> delayedEmitAsync(T event, long milliseconds, Scheduler scheduler) {
+        return Observable.just(event).delay(milliseconds, TimeUnit.MILLISECONDS, scheduler);
+    }
 }
@@ -0,0 +1,298 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Protocol;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A registry of HTTP transports shared by the REST clients of the managers.
+ * <p>
+ * By default every manager authenticated with credentials builds its own OkHttp client, with its own connection
+ * pool and dispatcher, so a process using many managers and subscriptions keeps many idle connections and TLS
+ * sessions to the same host. Managers configured with the same registry share one connection pool and one
+ * dispatcher per endpoint and credentials instead; clients derived from their REST clients, e.g. for Kudu,
+ * share them as well.
+ * <p>
+ * Managers are attached to a registry with
+ * {@link com.microsoft.azure.management.resources.fluentcore.arm.AzureConfigurable#withSharedTransport}.
+ * <p>
+ * The registry does not keep the credentials alive: the transport of credentials that are no longer used is
+ * removed from the registry, and its idle connections are closed. The transports of credentials can also be
+ * removed right away with {@link #release(AzureTokenCredentials)}.
+ */
+public final class HttpTransportRegistry {
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final HttpTransportRegistry DEFAULT = new HttpTransportRegistry();
+
+    private final ConcurrentMap<Key, Transport> transports = new ConcurrentHashMap<>();
+    private final ReferenceQueue<AzureTokenCredentials> collectedCredentials = new ReferenceQueue<>();
+    private volatile int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private volatile long keepAliveMillis = DEFAULT_KEEP_ALIVE_MILLIS;
+    private volatile int maxRequests = -1;
+    private volatile int maxRequestsPerHost = -1;
+    private volatile boolean http2;
+
+    /**
+     * @return the registry shared by the whole process
+     */
+    public static HttpTransportRegistry defaultRegistry() {
+        return DEFAULT;
+    }
+
+    /**
+     * Specifies the maximum number of idle connections kept by each connection pool, 5 by default.
+     * Applies to the transports created afterwards.
+     *
+     * @param maxIdleConnections the maximum number of idle connections
+     * @param keepAlive how long an idle connection is kept
+     * @param unit the time unit of the keep alive duration
+     * @return the registry
+     */
+    public HttpTransportRegistry withConnectionPoolSize(int maxIdleConnections, long keepAlive, TimeUnit unit) {
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveMillis = unit.toMillis(keepAlive);
+        return this;
+    }
+
+    /**
+     * Specifies the maximum number of requests executed at the same time by each dispatcher, overall and per
+     * host. The dispatcher only limits clients using the HTTP client thread pool. Applies to the transports
+     * created afterwards.
+     *
+     * @param maxRequests the maximum number of concurrent requests
+     * @param maxRequestsPerHost the maximum number of concurrent requests per host
+     * @return the registry
+     */
+    public HttpTransportRegistry withMaxRequests(int maxRequests, int maxRequestsPerHost) {
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+
+    /**
+     * Specifies that the clients using the registry negotiate HTTP/2, so that concurrent requests to an endpoint
+     * are multiplexed over one connection.
+     * <p>
+     * Azure Resource Manager may start throttling earlier with a single connection than with HTTP/1.1 and a
+     * connection pool.
+     *
+     * @return the registry
+     */
+    public HttpTransportRegistry withHttp2Multiplexing() {
+        this.http2 = true;
+        return this;
+    }
+
+    /**
+     * @return the protocols the clients using the registry negotiate, null for the default protocols
+     */
+    public List<Protocol> protocols() {
+        return this.http2 ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) : null;
+    }
+
+    /**
+     * Gets the transport for an endpoint and credentials, creating it on first use.
+     *
+     * @param endpoint the base URL of the clients, e.g. "https://management.azure.com/"
+     * @param credentials the credentials of the clients, compared by identity and not kept alive by the registry;
+     *                    null for anonymous clients
+     * @return the transport
+     */
+    public Transport transportFor(String endpoint, AzureTokenCredentials credentials) {
+        removeCollectedTransports();
+        Key key = new Key(endpoint, credentials, null);
+        Transport transport = this.transports.get(key);
+        if (transport == null) {
+            Dispatcher dispatcher = new Dispatcher();
+            if (this.maxRequests > 0) {
+                dispatcher.setMaxRequests(this.maxRequests);
+            }
+            if (this.maxRequestsPerHost > 0) {
+                dispatcher.setMaxRequestsPerHost(this.maxRequestsPerHost);
+            }
+            Key registeredKey = new Key(endpoint, credentials, this.collectedCredentials);
+            Transport created = new Transport(registeredKey.endpoint,
+                    new ConnectionPool(this.maxIdleConnections, this.keepAliveMillis, TimeUnit.MILLISECONDS),
+                    dispatcher);
+            transport = this.transports.putIfAbsent(registeredKey, created);
+            if (transport == null) {
+                transport = created;
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * @return the transports created so far
+     */
+    public List<Transport> transports() {
+        removeCollectedTransports();
+        return Collections.unmodifiableList(new ArrayList<>(this.transports.values()));
+    }
+
+    /**
+     * Closes the idle connections of all transports. Clients keep using the transports and open connections
+     * again when needed.
+     */
+    public void evictIdleConnections() {
+        for (Transport transport : this.transports.values()) {
+            transport.connectionPool().evictAll();
+        }
+    }
+
+    /**
+     * Removes the transports of credentials that are no longer used, and closes their idle connections, without
+     * waiting for the credentials to be garbage collected. Clients already built on the transports keep working;
+     * clients built afterwards get new transports.
+     *
+     * @param credentials the credentials
+     */
+    public void release(AzureTokenCredentials credentials) {
+        for (Key key : this.transports.keySet()) {
+            if (!key.anonymous && key.get() == credentials) {
+                // removed the same way as the transports of collected credentials
+                key.enqueue();
+            }
+        }
+        removeCollectedTransports();
+    }
+
+    private void removeCollectedTransports() {
+        Object key;
+        while ((key = this.collectedCredentials.poll()) != null) {
+            Transport transport = this.transports.remove(key);
+            if (transport != null) {
+                transport.connectionPool().evictAll();
+            }
+        }
+    }
+
+    /**
+     * A connection pool and a dispatcher shared by the clients of an endpoint and credentials.
+     */
+    public static final class Transport {
+        private final String endpoint;
+        private final ConnectionPool connectionPool;
+        private final Dispatcher dispatcher;
+
+        private Transport(String endpoint, ConnectionPool connectionPool, Dispatcher dispatcher) {
+            this.endpoint = endpoint;
+            this.connectionPool = connectionPool;
+            this.dispatcher = dispatcher;
+        }
+
+        /**
+         * @return the endpoint of the transport
+         */
+        public String endpoint() {
+            return this.endpoint;
+        }
+
+        /**
+         * @return the shared connection pool
+         */
+        public ConnectionPool connectionPool() {
+            return this.connectionPool;
+        }
+
+        /**
+         * @return the shared dispatcher
+         */
+        public Dispatcher dispatcher() {
+            return this.dispatcher;
+        }
+
+        /**
+         * @return the number of open connections, in use or idle
+         */
+        public int connectionCount() {
+            return this.connectionPool.connectionCount();
+        }
+
+        /**
+         * @return the number of idle connections
+         */
+        public int idleConnectionCount() {
+            return this.connectionPool.idleConnectionCount();
+        }
+
+        /**
+         * @return the number of requests executing on the dispatcher
+         */
+        public int runningCallsCount() {
+            return this.dispatcher.runningCallsCount();
+        }
+
+        /**
+         * @return the number of requests waiting for the dispatcher
+         */
+        public int queuedCallsCount() {
+            return this.dispatcher.queuedCallsCount();
+        }
+
+        @Override
+        public String toString() {
+            return this.endpoint + ": " + this.connectionCount() + " connections ("
+                    + this.idleConnectionCount() + " idle), " + this.runningCallsCount() + " running, "
+                    + this.queuedCallsCount() + " queued";
+        }
+    }
+
+    /**
+     * An endpoint and credentials, the credentials compared by identity and weakly referenced.
+     */
+    private static final class Key extends WeakReference<AzureTokenCredentials> {
+        private final String endpoint;
+        private final boolean anonymous;
+        private final int hashCode;
+
+        private Key(String endpoint, AzureTokenCredentials credentials,
+                    ReferenceQueue<AzureTokenCredentials> collectedCredentials) {
+            super(credentials, collectedCredentials);
+            String normalized = endpoint.toLowerCase(Locale.ROOT);
+            this.endpoint = normalized.endsWith("/") ? normalized : normalized + "/";
+            this.anonymous = credentials == null;
+            this.hashCode = 31 * this.endpoint.hashCode() + System.identityHashCode(credentials);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            if (!this.endpoint.equals(key.endpoint) || this.anonymous != key.anonymous) {
+                return false;
+            }
+            // the key of collected credentials only equals itself
+            return this.anonymous || (this.get() != null && this.get() == key.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
@@ -11,16 +11,26 @@ import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.resources.implementation.PageImpl;
 import com.microsoft.rest.RestException;
 import rx.Observable;
+import rx.Subscriber;
+import rx.exceptions.Exceptions;
 import rx.functions.Func1;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * The base class for converting {@link PagedList} of one type of resource to
  * another, without polling down all the items in a list.
  * This converter is useful in converting inner top level resources into fluent
  * top level resources.
+ * <p>
+ * The converted list can optionally prefetch pages: while the caller iterates, up to
+ * a given number of next pages are fetched in the background and converted on
+ * {@link SdkContext#getRxScheduler()}, off the fetching thread.
  *
  * @param <U> the type of Resource to convert from
  * @param <V> the type of Resource to convert to
@@ -77,6 +87,36 @@ public abstract class PagedListConverter<U, V> {
         };
     }
 
+    /**
+     * Converts the paged list, prefetching up to the given number of pages ahead of the caller.
+     * <p>
+     * Pages are still fetched one after another since each page carries the link to the next one,
+     * but fetching the next page overlaps with converting the current one and with the caller
+     * iterating. No more than {@code prefetchPages} pages are held ahead of the caller.
+     *
+     * @param uList the resource list to convert from
+     * @param prefetchPages the maximum number of pages to fetch ahead, 0 to disable prefetching
+     * @return the converted list
+     */
+    public PagedList<V> convert(final PagedList<U> uList, int prefetchPages) {
+        if (prefetchPages <= 0 || uList == null || uList.isEmpty()) {
+            return convert(uList);
+        }
+        Page<U> uPage = uList.currentPage();
+        final PageImpl<V> vPage = new PageImpl<>();
+        vPage.setNextPageLink(uPage.nextPageLink());
+        vPage.setItems(new ArrayList<V>());
+        loadConvertedList(uPage, vPage);
+        final PagePrefetcher prefetcher = new PagePrefetcher(uList, prefetchPages);
+        prefetcher.start(vPage.nextPageLink());
+        return new PagedList<V>(vPage) {
+            @Override
+            public Page<V> nextPage(String nextPageLink) throws RestException, IOException {
+                return prefetcher.take(nextPageLink);
+            }
+        };
+    }
+
     private void loadConvertedList(final Page<U> uPage, final Page<V> vPage) {
         Observable.from(uPage.items())
                 .filter(new Func1<U, Boolean>() {
@@ -99,4 +139,144 @@ public abstract class PagedListConverter<U, V> {
                     }
                 }).toBlocking().subscribe();
     }
+
+    private Observable<Page<V>> convertPageAsync(final Page<U> uPage) {
+        return Observable.from(uPage.items())
+                .filter(new Func1<U, Boolean>() {
+                    @Override
+                    public Boolean call(U u) {
+                        return filter(u);
+                    }
+                })
+                .concatMap(new Func1<U, Observable<V>>() {
+                    @Override
+                    public Observable<V> call(U u) {
+                        return typeConvertAsync(u);
+                    }
+                })
+                .toList()
+                .map(new Func1<List<V>, Page<V>>() {
+                    @Override
+                    public Page<V> call(List<V> items) {
+                        PageImpl<V> vPage = new PageImpl<>();
+                        vPage.setNextPageLink(uPage.nextPageLink());
+                        vPage.setItems(items);
+                        return vPage;
+                    }
+                });
+    }
+
+    /**
+     * Fetches the pages of a list ahead of the caller, keeping at most a fixed number of
+     * fetched but not yet consumed pages.
+     */
+    private final class PagePrefetcher {
+        private final PagedList<U> uList;
+        private final int prefetchPages;
+        private final Map<String, Observable<Page<V>>> pages = new HashMap<>();
+        private String linkToFetch;
+        private boolean fetching;
+
+        private PagePrefetcher(PagedList<U> uList, int prefetchPages) {
+            this.uList = uList;
+            this.prefetchPages = prefetchPages;
+        }
+
+        private void start(String nextPageLink) {
+            synchronized (this) {
+                linkToFetch = nextPageLink;
+            }
+            fetchAhead();
+        }
+
+        private Page<V> take(String nextPageLink) throws RestException, IOException {
+            Observable<Page<V>> page;
+            synchronized (this) {
+                page = pages.remove(nextPageLink);
+                if (page == null && nextPageLink != null && nextPageLink.equals(linkToFetch) && !fetching) {
+                    // caller moved past the prefetched pages, continue from its position
+                    linkToFetch = null;
+                }
+            }
+            if (page == null) {
+                // the page is not prefetched (yet), fall back to fetching it on the caller thread
+                page = fetchAndConvertAsync(nextPageLink, false);
+            }
+            try {
+                return page.toBlocking().single();
+            } catch (RuntimeException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw e;
+            } finally {
+                fetchAhead();
+            }
+        }
+
+        private void fetchAhead() {
+            final Observable<Page<V>> page;
+            synchronized (this) {
+                if (fetching || linkToFetch == null || pages.size() >= prefetchPages) {
+                    return;
+                }
+                fetching = true;
+                page = fetchAndConvertAsync(linkToFetch, true).cache();
+                pages.put(linkToFetch, page);
+            }
+            // start fetching now, errors are surfaced when the caller takes the page
+            page.subscribe(new Subscriber<Page<V>>() {
+                @Override
+                public void onCompleted() {
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    synchronized (PagePrefetcher.this) {
+                        fetching = false;
+                        linkToFetch = null;
+                    }
+                }
+
+                @Override
+                public void onNext(Page<V> vPage) {
+                }
+            });
+        }
+
+        private Observable<Page<V>> fetchAndConvertAsync(final String link, final boolean prefetch) {
+            Observable<Page<U>> uPage = Observable.fromCallable(new Callable<Page<U>>() {
+                @Override
+                public Page<U> call() throws Exception {
+                    return uList.nextPage(link);
+                }
+            });
+            if (prefetch) {
+                uPage = uPage.subscribeOn(SdkContext.getRxScheduler());
+            }
+            return uPage.flatMap(new Func1<Page<U>, Observable<Page<V>>>() {
+                @Override
+                public Observable<Page<V>> call(Page<U> fetched) {
+                    if (fetched == null) {
+                        throw Exceptions.propagate(new IOException("Page is missing for link " + link));
+                    }
+                    if (prefetch) {
+                        synchronized (PagePrefetcher.this) {
+                            fetching = false;
+                            linkToFetch = fetched.nextPageLink();
+                        }
+                        fetchAhead();
+                        // convert off the fetching thread
+                        return convertPageAsync(fetched).subscribeOn(SdkContext.getRxScheduler());
+                    }
+                    synchronized (PagePrefetcher.this) {
+                        if (linkToFetch == null && !fetching && pages.isEmpty()) {
+                            linkToFetch = fetched.nextPageLink();
+                        }
+                    }
+                    return convertPageAsync(fetched);
+                }
+            });
+        }
+    }
 }
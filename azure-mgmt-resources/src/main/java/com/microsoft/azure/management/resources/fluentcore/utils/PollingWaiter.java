@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Waits for a resource to reach a state by polling it, for the states that are not covered by the long running
+ * operation of the request that changed the resource.
+ * <p>
+ * The wait between two polls starts at the initial delay and is multiplied by the backoff multiplier after each
+ * poll, up to the maximum delay; a random part of each wait, the jitter, keeps the waits of resources changed at
+ * the same time from polling in lockstep. The polls and, unless another scheduler is given, the waits run on
+ * {@link SdkContext#getRxScheduler()} through the delay provider of {@link SdkContext}, so a wait holds no thread
+ * and is skipped in playback. The timeout is measured in the time of the scheduler of the waits.
+ * Unsubscribing from the observable of a wait cancels it.
+ */
+public final class PollingWaiter {
+    private final Random random = new Random();
+    private long initialDelayInMillis = TimeUnit.SECONDS.toMillis(2);
+    private long maxDelayInMillis = TimeUnit.SECONDS.toMillis(30);
+    private double backoffMultiplier = 1.5;
+    private double jitter = 0.2;
+    private long timeoutInMillis;
+    private Scheduler scheduler;
+
+    /**
+     * Specifies the wait before the second poll.
+     *
+     * @param delay the wait after the first poll
+     * @param unit the time unit of the delay
+     * @return the waiter itself
+     */
+    public PollingWaiter withInitialDelay(long delay, TimeUnit unit) {
+        this.initialDelayInMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Specifies the maximum wait between two polls.
+     *
+     * @param delay the maximum wait
+     * @param unit the time unit of the delay
+     * @return the waiter itself
+     */
+    public PollingWaiter withMaxDelay(long delay, TimeUnit unit) {
+        this.maxDelayInMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Specifies the factor applied to the wait after each poll.
+     *
+     * @param backoffMultiplier the factor, 1 for a constant wait
+     * @return the waiter itself
+     */
+    public PollingWaiter withBackoffMultiplier(double backoffMultiplier) {
+        if (backoffMultiplier < 1) {
+            throw new IllegalArgumentException("backoffMultiplier cannot be less than 1");
+        }
+        this.backoffMultiplier = backoffMultiplier;
+        return this;
+    }
+
+    /**
+     * Specifies the random part of each wait.
+     *
+     * @param jitter the fraction of the wait that is random, between 0 and 1
+     * @return the waiter itself
+     */
+    public PollingWaiter withJitter(double jitter) {
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        }
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * Specifies how long to poll before failing the wait with a {@link TimeoutException}.
+     *
+     * @param timeout the maximum duration of the wait, 0 to wait until the state is reached
+     * @param unit the time unit of the timeout
+     * @return the waiter itself
+     */
+    public PollingWaiter withTimeout(long timeout, TimeUnit unit) {
+        this.timeoutInMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * Specifies the scheduler of the waits between polls, instead of {@link SdkContext#getRxScheduler()}.
+     *
+     * @param scheduler the scheduler
+     * @return the waiter itself
+     */
+    public PollingWaiter withScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Polls until a state is reached.
+     *
+     * @param poll the factory of the observable of a poll, emitting the current state
+     * @param isDone the predicate of the state to reach
+     * @param <T> the type of the state
+     * @return an observable emitting the first state satisfying the predicate
+     */
+    public <T> Observable<T> waitUntilAsync(final Func0<Observable<T>> poll, final Func1<? super T, Boolean> isDone) {
+        return Observable.defer(new Func0<Observable<T>>() {
+            @Override
+            public Observable<T> call() {
+                Scheduler waitScheduler = scheduler != null ? scheduler : SdkContext.getRxScheduler();
+                long deadlineInMillis = timeoutInMillis > 0
+                        ? waitScheduler.now() + timeoutInMillis
+                        : Long.MAX_VALUE;
+                return pollAsync(poll, isDone, initialDelayInMillis, deadlineInMillis, waitScheduler);
+            }
+        });
+    }
+
+    /**
+     * Creates a predicate over the inner model of a resource.
+     *
+     * @param isDone the predicate of the inner model
+     * @param <InnerT> the type of the inner model
+     * @return the predicate of the resource
+     */
+    public static <InnerT> Func1<HasInner<InnerT>, Boolean> whenInner(final Func1<? super InnerT, Boolean> isDone) {
+        return new Func1<HasInner<InnerT>, Boolean>() {
+            @Override
+            public Boolean call(HasInner<InnerT> resource) {
+                return resource != null && isDone.call(resource.inner());
+            }
+        };
+    }
+
+    private <T> Observable<T> pollAsync(final Func0<Observable<T>> poll,
+                                        final Func1<? super T, Boolean> isDone,
+                                        final long delayInMillis,
+                                        final long deadlineInMillis,
+                                        final Scheduler waitScheduler) {
+        return poll.call()
+                .subscribeOn(SdkContext.getRxScheduler())
+                .last()
+                .flatMap(new Func1<T, Observable<T>>() {
+                    @Override
+                    public Observable<T> call(T state) {
+                        if (isDone.call(state)) {
+                            return Observable.just(state);
+                        }
+                        long wait = jitteredDelayInMillis(delayInMillis);
+                        if (waitScheduler.now() + wait > deadlineInMillis) {
+                            return Observable.error(
+                                    new TimeoutException("The resource did not reach the state in time"));
+                        }
+                        final long nextDelayInMillis = Math.min(maxDelayInMillis,
+                                (long) (delayInMillis * backoffMultiplier));
+                        return SdkContext.delayedEmitAsync(state, wait, waitScheduler)
+                                .flatMap(new Func1<T, Observable<T>>() {
+                                    @Override
+                                    public Observable<T> call(T ignored) {
+                                        return pollAsync(poll, isDone, nextDelayInMillis, deadlineInMillis,
+                                                waitScheduler);
+                                    }
+                                });
+                    }
+                });
+    }
+
+    private long jitteredDelayInMillis(long delayInMillis) {
+        long capped = Math.min(delayInMillis, maxDelayInMillis);
+        return capped - (long) (random.nextDouble() * jitter * capped);
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.management.resources.Provider;
+import com.microsoft.azure.management.resources.Providers;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coordinates the registration of resource providers in subscriptions.
+ * <p>
+ * Concurrent registrations of the same provider in the same subscription share a single registration request
+ * and a single poll of the registration state; the poll waits on timers of {@link SdkContext#getRxScheduler()}.
+ * Providers known to be registered are remembered so that they are not registered again.
+ */
+final class ProviderRegistrationCoordinator {
+    private static final long DEFAULT_POLL_INTERVAL_IN_MILLIS = 5 * 1000;
+    private static final ProviderRegistrationCoordinator DEFAULT =
+            new ProviderRegistrationCoordinator(DEFAULT_POLL_INTERVAL_IN_MILLIS);
+
+    private final ConcurrentMap<String, Observable<Provider>> registrations = new ConcurrentHashMap<>();
+    private final Set<String> registered = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final long pollIntervalInMillis;
+
+    /**
+     * Creates ProviderRegistrationCoordinator.
+     *
+     * @param pollIntervalInMillis the interval between two reads of the registration state
+     */
+    ProviderRegistrationCoordinator(long pollIntervalInMillis) {
+        this.pollIntervalInMillis = pollIntervalInMillis;
+    }
+
+    /**
+     * @return the coordinator shared by default by all the provider registration interceptors in the process
+     */
+    static ProviderRegistrationCoordinator defaultCoordinator() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the key of a provider in a subscription.
+     *
+     * @param endpoint the Azure Resource Manager endpoint
+     * @param subscriptionId the subscription id
+     * @param namespace the namespace of the provider
+     * @return the key
+     */
+    static String keyOf(String endpoint, String subscriptionId, String namespace) {
+        return (endpoint + "|" + subscriptionId + "|" + namespace).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param key the key of the provider in the subscription
+     * @return true if the provider is known to be registered
+     */
+    boolean isRegistered(String key) {
+        return registered.contains(key);
+    }
+
+    /**
+     * Forgets that a provider is registered, so that the next registration goes to the service.
+     *
+     * @param key the key of the provider in the subscription
+     */
+    void forget(String key) {
+        registered.remove(key);
+    }
+
+    /**
+     * Registers a provider and waits for the registration to complete. A registration of the same provider
+     * already in progress is joined instead of started again.
+     *
+     * @param key the key of the provider in the subscription
+     * @param namespace the namespace of the provider
+     * @param providers creates the providers collection of the subscription, only called to start a registration
+     * @return an observable emitting the registered provider
+     */
+    Observable<Provider> registerAsync(final String key, final String namespace, final Func0<Providers> providers) {
+        Observable<Provider> registration = registrations.get(key);
+        if (registration != null) {
+            return registration;
+        }
+        final Observable<?>[] self = new Observable<?>[1];
+        Observable<Provider> newRegistration = Observable
+                .defer(new Func0<Observable<Provider>>() {
+                    @Override
+                    public Observable<Provider> call() {
+                        final Providers collection = providers.call();
+                        return collection.registerAsync(namespace)
+                                .flatMap(new Func1<Provider, Observable<Provider>>() {
+                                    @Override
+                                    public Observable<Provider> call(Provider provider) {
+                                        return waitForRegistrationAsync(collection, provider);
+                                    }
+                                });
+                    }
+                })
+                .last()
+                .doOnNext(new Action1<Provider>() {
+                    @Override
+                    public void call(Provider provider) {
+                        registered.add(key);
+                    }
+                })
+                .doOnTerminate(new Action0() {
+                    @Override
+                    public void call() {
+                        registrations.remove(key, self[0]);
+                    }
+                })
+                .cache();
+        self[0] = newRegistration;
+        registration = registrations.putIfAbsent(key, newRegistration);
+        return registration == null ? newRegistration : registration;
+    }
+
+    private Observable<Provider> waitForRegistrationAsync(final Providers providers, Provider provider) {
+        if (!"Unregistered".equalsIgnoreCase(provider.registrationState())
+                && !"Registering".equalsIgnoreCase(provider.registrationState())) {
+            return Observable.just(provider);
+        }
+        final String namespace = provider.namespace();
+        return Observable.timer(pollIntervalInMillis, TimeUnit.MILLISECONDS, SdkContext.getRxScheduler())
+                .flatMap(new Func1<Long, Observable<Provider>>() {
+                    @Override
+                    public Observable<Provider> call(Long ignored) {
+                        return providers.getByNameAsync(namespace);
+                    }
+                })
+                .flatMap(new Func1<Provider, Observable<Provider>>() {
+                    @Override
+                    public Observable<Provider> call(Provider polled) {
+                        return waitForRegistrationAsync(providers, polled);
+                    }
+                });
+    }
+}
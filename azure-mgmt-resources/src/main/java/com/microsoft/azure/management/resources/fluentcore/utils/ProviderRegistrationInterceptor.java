@@ -9,12 +9,15 @@ package com.microsoft.azure.management.resources.fluentcore.utils;
 import com.microsoft.azure.AzureResponseBuilder;
 import com.microsoft.azure.CloudError;
 import com.microsoft.azure.credentials.AzureTokenCredentials;
-import com.microsoft.azure.management.resources.Provider;
+import com.microsoft.azure.management.resources.Providers;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
 import com.microsoft.azure.management.resources.implementation.ResourceManager;
 import com.microsoft.azure.serializer.AzureJacksonAdapter;
 import com.microsoft.rest.RestClient;
 import okhttp3.Interceptor;
+import okhttp3.Request;
 import okhttp3.Response;
+import rx.functions.Func0;
 
 import java.io.IOException;
 import java.util.regex.Matcher;
@@ -22,9 +25,18 @@ import java.util.regex.Pattern;
 
 /**
  * An interceptor for automatic provider registration in Azure.
+ * <p>
+ * Requests failing because their resource provider is not registered in the subscription are retried once the
+ * provider is registered. Concurrent requests for the same provider share a single registration, across all the
+ * interceptors in the process.
  */
 public final class ProviderRegistrationInterceptor implements Interceptor {
+    private static final String MISSING_SUBSCRIPTION_REGISTRATION = "MissingSubscriptionRegistration";
+    private static final Pattern NAMESPACE_PATTERN = Pattern.compile(".*'(.*)'");
+    private static final AzureJacksonAdapter JACKSON_ADAPTER = new AzureJacksonAdapter();
+
     private final AzureTokenCredentials credentials;
+    private final ProviderRegistrationCoordinator coordinator;
 
     /**
      * Initialize a provider registration interceptor with a credential that's authorized
@@ -32,55 +44,82 @@ public final class ProviderRegistrationInterceptor implements Interceptor {
      * @param credentials the credential for provider registration
      */
     public ProviderRegistrationInterceptor(AzureTokenCredentials credentials) {
+        this(credentials, ProviderRegistrationCoordinator.defaultCoordinator());
+    }
+
+    ProviderRegistrationInterceptor(AzureTokenCredentials credentials, ProviderRegistrationCoordinator coordinator) {
         this.credentials = credentials;
+        this.coordinator = coordinator;
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
-        Response response = chain.proceed(chain.request());
-        if (!response.isSuccessful()) {
-            String content = Utils.getResponseBodyInString(response.body());
-
-            CloudError cloudError = null;
-            AzureJacksonAdapter jacksonAdapter = new AzureJacksonAdapter();
-            try {
-                cloudError = jacksonAdapter.deserialize(content, CloudError.class);
-            } catch (IOException e) {
-                // ignore, just skip ProviderRegistrationInterceptor
-            }
-
-            if (cloudError != null && "MissingSubscriptionRegistration".equals(cloudError.code())) {
-                Pattern pattern = Pattern.compile("/subscriptions/([\\w-]+)/", Pattern.CASE_INSENSITIVE);
-                Matcher matcher = pattern.matcher(chain.request().url().toString());
-                matcher.find();
-                RestClient.Builder restClientBuilder = new RestClient.Builder();
-                restClientBuilder.withBaseUrl("https://" + chain.request().url().host())
-                        .withCredentials(credentials)
-                        .withSerializerAdapter(jacksonAdapter)
-                        .withResponseBuilderFactory(new AzureResponseBuilder.Factory());
-                if (credentials.proxy() != null) {
-                    restClientBuilder.withProxy(credentials.proxy());
-                }
-                RestClient restClient = restClientBuilder.build();
-                ResourceManager resourceManager = ResourceManager.authenticate(restClient)
-                        .withSubscription(matcher.group(1));
-                pattern = Pattern.compile(".*'(.*)'");
-                matcher = pattern.matcher(cloudError.message());
-                matcher.find();
-                Provider provider = registerProvider(matcher.group(1), resourceManager);
-                while (provider.registrationState().equalsIgnoreCase("Unregistered")
-                        || provider.registrationState().equalsIgnoreCase("Registering")) {
-                    SdkContext.sleep(5 * 1000);
-                    provider = resourceManager.providers().getByName(provider.namespace());
+        final Request request = chain.request();
+        Response response = chain.proceed(request);
+        final String namespace = unregisteredNamespace(response);
+        if (namespace == null) {
+            return response;
+        }
+        final String subscriptionId = ResourceUtils.extractFromResourceId(request.url().encodedPath(), "subscriptions");
+        if (subscriptionId == null) {
+            return response;
+        }
+        final String endpoint = request.url().newBuilder()
+                .encodedPath("/").query(null).fragment(null).build().toString();
+        final String key = ProviderRegistrationCoordinator.keyOf(endpoint, subscriptionId, namespace);
+        boolean knownRegistered = coordinator.isRegistered(key);
+        if (!knownRegistered) {
+            coordinator.registerAsync(key, namespace, new Func0<Providers>() {
+                @Override
+                public Providers call() {
+                    return providers(endpoint, subscriptionId);
                 }
-                // Retry
-                response = chain.proceed(chain.request());
-            }
+            }).toBlocking().last();
+        }
+        // Retry
+        response.close();
+        response = chain.proceed(request);
+        if (knownRegistered && unregisteredNamespace(response) != null) {
+            // the provider was unregistered since, register it again on the next failure
+            coordinator.forget(key);
         }
         return response;
     }
 
-    private Provider registerProvider(String namespace, ResourceManager resourceManager) {
-        return resourceManager.providers().register(namespace);
+    private static String unregisteredNamespace(Response response) throws IOException {
+        if (response.isSuccessful()) {
+            return null;
+        }
+        String content = Utils.getResponseBodyInString(response.body());
+        if (content == null || !content.contains(MISSING_SUBSCRIPTION_REGISTRATION)) {
+            return null;
+        }
+        CloudError cloudError;
+        try {
+            cloudError = JACKSON_ADAPTER.deserialize(content, CloudError.class);
+        } catch (IOException e) {
+            // ignore, just skip ProviderRegistrationInterceptor
+            return null;
+        }
+        if (cloudError == null || !MISSING_SUBSCRIPTION_REGISTRATION.equals(cloudError.code())
+                || cloudError.message() == null) {
+            return null;
+        }
+        Matcher matcher = NAMESPACE_PATTERN.matcher(cloudError.message());
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private Providers providers(String endpoint, String subscriptionId) {
+        RestClient.Builder restClientBuilder = new RestClient.Builder();
+        restClientBuilder.withBaseUrl(endpoint)
+                .withCredentials(credentials)
+                .withSerializerAdapter(JACKSON_ADAPTER)
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory());
+        if (credentials.proxy() != null) {
+            restClientBuilder.withProxy(credentials.proxy());
+        }
+        return ResourceManager.authenticate(restClientBuilder.build())
+                .withSubscription(subscriptionId)
+                .providers();
     }
 }
@@ -0,0 +1,391 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
+import okhttp3.Request;
+import rx.Observable;
+import rx.functions.Action0;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A client side rate limiter for Azure Resource Manager requests.
+ * <p>
+ * The limiter keeps a lock-free token bucket per scope (a subscription or a tenant) and per
+ * operation kind (read or write). Buckets refill at the hourly Azure Resource Manager limit and are
+ * kept in sync with the "x-ms-ratelimit-remaining-*" headers returned by the service, so requests
+ * are spread out before the service starts to respond with 429. A reservation never blocks; it
+ * only returns how long the caller has to wait before sending its request.
+ */
+public final class ResourceManagerRateLimiter {
+    /**
+     * The scope used for requests that are not made against a subscription, when their tenant is not known.
+     */
+    public static final String TENANT_SCOPE = "tenant";
+
+    private static final int DEFAULT_READS_PER_HOUR = 15000;
+    private static final int DEFAULT_WRITES_PER_HOUR = 1200;
+    private static final ResourceManagerRateLimiter DEFAULT = new ResourceManagerRateLimiter();
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final int readsPerHour;
+    private final int writesPerHour;
+
+    /**
+     * Creates a rate limiter with the default Azure Resource Manager limits of 15,000 reads and
+     * 1,200 writes per hour.
+     */
+    public ResourceManagerRateLimiter() {
+        this(DEFAULT_READS_PER_HOUR, DEFAULT_WRITES_PER_HOUR);
+    }
+
+    /**
+     * Creates a rate limiter with the given hourly limits.
+     *
+     * @param readsPerHour the number of read requests allowed per hour per scope
+     * @param writesPerHour the number of write requests allowed per hour per scope
+     */
+    public ResourceManagerRateLimiter(int readsPerHour, int writesPerHour) {
+        if (readsPerHour <= 0 || writesPerHour <= 0) {
+            throw new IllegalArgumentException("Rate limits must be positive.");
+        }
+        this.readsPerHour = readsPerHour;
+        this.writesPerHour = writesPerHour;
+    }
+
+    /**
+     * @return the rate limiter shared by default by all the throttling interceptors in the process
+     */
+    public static ResourceManagerRateLimiter defaultLimiter() {
+        return DEFAULT;
+    }
+
+    /**
+     * Gets the scope of the requests made against a tenant rather than a subscription.
+     *
+     * @param tenantId the id or domain of the tenant, null if it is not known
+     * @return the scope of the tenant, {@link #TENANT_SCOPE} if the tenant is not known
+     */
+    public static String tenantScope(String tenantId) {
+        return tenantId == null ? TENANT_SCOPE : TENANT_SCOPE + "/" + tenantId.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the scope of a request: its subscription, or the scope of its tenant.
+     *
+     * @param request the request
+     * @param tenantId the id or domain of the tenant of the request, null if it is not known
+     * @return the scope of the request
+     */
+    static String scopeOf(Request request, String tenantId) {
+        String subscriptionId = ResourceUtils.extractFromResourceId(request.url().encodedPath(), "subscriptions");
+        return subscriptionId == null ? tenantScope(tenantId) : subscriptionId;
+    }
+
+    /**
+     * @param request the request
+     * @return true if Azure Resource Manager counts the request as a write request
+     */
+    static boolean isWrite(Request request) {
+        String method = request.method().toUpperCase(Locale.ROOT);
+        return !"GET".equals(method) && !"HEAD".equals(method);
+    }
+
+    /**
+     * Reserves a permit for a request in the given scope.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true if the request is a write request, false if it is a read request
+     * @return the time in milliseconds the caller needs to wait before sending the request
+     */
+    public long reserve(String scope, boolean write) {
+        return bucket(scope, write).reserve();
+    }
+
+    /**
+     * Reserves a permit for a request in the given scope, without blocking the calling thread.
+     * The returned observable emits the time waited in milliseconds once the permit is available,
+     * the wait is scheduled on {@link SdkContext#getRxScheduler()}.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true if the request is a write request, false if it is a read request
+     * @return an observable that emits when the request can be sent
+     */
+    public Observable<Long> acquireAsync(final String scope, final boolean write) {
+        return Observable.defer(new Func0<Observable<Long>>() {
+            @Override
+            public Observable<Long> call() {
+                final TokenBucket bucket = bucket(scope, write);
+                final long waitInMillis = bucket.reserve();
+                if (waitInMillis <= 0) {
+                    return Observable.just(0L);
+                }
+                bucket.waitStarted(waitInMillis);
+                final AtomicBoolean ended = new AtomicBoolean();
+                final Action0 onEnd = new Action0() {
+                    @Override
+                    public void call() {
+                        if (ended.compareAndSet(false, true)) {
+                            bucket.waitEnded();
+                        }
+                    }
+                };
+                return Observable.timer(waitInMillis, TimeUnit.MILLISECONDS, SdkContext.getRxScheduler())
+                        .map(new Func1<Long, Long>() {
+                            @Override
+                            public Long call(Long ignored) {
+                                return waitInMillis;
+                            }
+                        })
+                        .doOnTerminate(onEnd)
+                        .doOnUnsubscribe(onEnd);
+            }
+        });
+    }
+
+    /**
+     * Synchronizes the bucket of the given scope with the remaining quota reported by the service.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true if the quota is for write requests, false if it is for read requests
+     * @param remaining the remaining number of requests reported by the service
+     */
+    public void update(String scope, boolean write, long remaining) {
+        bucket(scope, write).update(remaining);
+    }
+
+    /**
+     * Notifies the limiter that the service throttled a request in the given scope. All the
+     * subsequent reservations in the scope will wait at least for the given time.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true if the throttled request is a write request, false if it is a read request
+     * @param retryAfterInMillis the time in milliseconds the service asked to wait
+     */
+    public void throttled(String scope, boolean write, long retryAfterInMillis) {
+        bucket(scope, write).throttled(retryAfterInMillis);
+    }
+
+    /**
+     * Gets the metrics of the bucket for the given scope.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true for the write bucket, false for the read bucket
+     * @return the metrics of the bucket
+     */
+    public Metrics metrics(String scope, boolean write) {
+        return bucket(scope, write).metrics();
+    }
+
+    /**
+     * @return the metrics of all the buckets, keyed by "scope|read" or "scope|write"
+     */
+    public Map<String, Metrics> metrics() {
+        Map<String, Metrics> metrics = new HashMap<>();
+        for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+            metrics.put(entry.getKey(), entry.getValue().metrics());
+        }
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * Notifies the limiter that a caller started waiting on a reservation.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true for the write bucket, false for the read bucket
+     * @param waitInMillis the time in milliseconds the caller is going to wait
+     */
+    void waitStarted(String scope, boolean write, long waitInMillis) {
+        bucket(scope, write).waitStarted(waitInMillis);
+    }
+
+    /**
+     * Notifies the limiter that a caller finished waiting on a reservation.
+     *
+     * @param scope the subscription id, or the scope of a tenant
+     * @param write true for the write bucket, false for the read bucket
+     */
+    void waitEnded(String scope, boolean write) {
+        bucket(scope, write).waitEnded();
+    }
+
+    private TokenBucket bucket(String scope, boolean write) {
+        final String key = (scope == null ? TENANT_SCOPE : scope.toLowerCase(Locale.ROOT)) + (write ? "|write" : "|read");
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            buckets.putIfAbsent(key, new TokenBucket(write ? writesPerHour : readsPerHour));
+            bucket = buckets.get(key);
+        }
+        return bucket;
+    }
+
+    /**
+     * The metrics of a single token bucket.
+     */
+    public static final class Metrics {
+        private final double availableTokens;
+        private final int queueDepth;
+        private final long waitCount;
+        private final long totalWaitInMillis;
+        private final long maxWaitInMillis;
+
+        private Metrics(double availableTokens, int queueDepth, long waitCount, long totalWaitInMillis, long maxWaitInMillis) {
+            this.availableTokens = availableTokens;
+            this.queueDepth = queueDepth;
+            this.waitCount = waitCount;
+            this.totalWaitInMillis = totalWaitInMillis;
+            this.maxWaitInMillis = maxWaitInMillis;
+        }
+
+        /**
+         * @return the number of tokens currently in the bucket, negative when requests are queued
+         */
+        public double availableTokens() {
+            return availableTokens;
+        }
+
+        /**
+         * @return the number of callers currently waiting for a permit
+         */
+        public int queueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * @return the number of requests that had to wait for a permit
+         */
+        public long waitCount() {
+            return waitCount;
+        }
+
+        /**
+         * @return the total time in milliseconds spent waiting for permits
+         */
+        public long totalWaitInMillis() {
+            return totalWaitInMillis;
+        }
+
+        /**
+         * @return the longest time in milliseconds a single request waited for a permit
+         */
+        public long maxWaitInMillis() {
+            return maxWaitInMillis;
+        }
+    }
+
+    /**
+     * A token bucket whose state is swapped atomically, so reservations never take a lock.
+     */
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double tokensPerNano;
+        private final AtomicReference<State> state;
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicLong waitCount = new AtomicLong();
+        private final AtomicLong totalWaitInMillis = new AtomicLong();
+        private final AtomicLong maxWaitInMillis = new AtomicLong();
+
+        private TokenBucket(int permitsPerHour) {
+            this.capacity = permitsPerHour;
+            this.tokensPerNano = permitsPerHour / (double) TimeUnit.HOURS.toNanos(1);
+            this.state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        private long reserve() {
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = refill(current, now) - 1;
+                if (state.compareAndSet(current, new State(tokens, now))) {
+                    if (tokens >= 0) {
+                        return 0;
+                    }
+                    return TimeUnit.NANOSECONDS.toMillis((long) Math.ceil(-tokens / tokensPerNano));
+                }
+            }
+        }
+
+        private void update(long remaining) {
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = refill(current, now);
+                // The service is the source of truth, except while callers are queued behind a throttle
+                if (tokens < 0 || tokens == remaining) {
+                    return;
+                }
+                if (state.compareAndSet(current, new State(Math.min(capacity, remaining), now))) {
+                    return;
+                }
+            }
+        }
+
+        private void throttled(long retryAfterInMillis) {
+            final double debt = -TimeUnit.MILLISECONDS.toNanos(retryAfterInMillis) * tokensPerNano;
+            while (true) {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = refill(current, now);
+                if (tokens <= debt) {
+                    return;
+                }
+                if (state.compareAndSet(current, new State(debt, now))) {
+                    return;
+                }
+            }
+        }
+
+        private void waitStarted(long waitInMillis) {
+            queueDepth.incrementAndGet();
+            waitCount.incrementAndGet();
+            totalWaitInMillis.addAndGet(waitInMillis);
+            long max = maxWaitInMillis.get();
+            while (waitInMillis > max && !maxWaitInMillis.compareAndSet(max, waitInMillis)) {
+                max = maxWaitInMillis.get();
+            }
+        }
+
+        private void waitEnded() {
+            queueDepth.decrementAndGet();
+        }
+
+        private Metrics metrics() {
+            return new Metrics(refill(state.get(), System.nanoTime()),
+                    queueDepth.get(),
+                    waitCount.get(),
+                    totalWaitInMillis.get(),
+                    maxWaitInMillis.get());
+        }
+
+        private double refill(State current, long now) {
+            return Math.min(capacity, current.tokens + (now - current.timestamp) * tokensPerNano);
+        }
+    }
+
+    private static final class State {
+        private final double tokens;
+        private final long timestamp;
+
+        private State(double tokens, long timestamp) {
+            this.tokens = tokens;
+            this.timestamp = timestamp;
+        }
+    }
+}
@@ -6,99 +6,137 @@
 
 package com.microsoft.azure.management.resources.fluentcore.utils;
 
-import com.microsoft.azure.management.resources.fluentcore.arm.ResourceUtils;
-import com.microsoft.rest.DateTimeRfc1123;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
 import okhttp3.Interceptor;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 import okio.Buffer;
 import okio.BufferedSource;
-import org.joda.time.DateTime;
-import org.joda.time.Duration;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Locale;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 /**
  * An interceptor for automatic retry when Azure Resource Manager is throttling because of too many read/write requests.
  * <p>
  * For each subscription and tenant, Azure Resource Manager limits read requests to 15,000 per hour and
  *   write requests to 1,200 per hour. These limits apply to each Azure Resource Manager instance.
+ * <p>
+ * Requests are paced by a {@link ResourceManagerRateLimiter}, which tracks the remaining quota reported by
+ *   Azure Resource Manager so that requests slow down before the service starts throttling. The quota of the
+ *   requests made against the tenant is tracked per tenant when the interceptor knows the tenant of its client.
+ * <p>
+ * Pacing and retrying block the thread executing the request. When requests are retried and paced without
+ *   blocking by a {@link RetryCallAdapterFactory}, create the interceptor with blocking disabled so that it
+ *   only keeps the rate limiter in sync with the service.
  */
 public class ResourceManagerThrottlingInterceptor implements Interceptor {
     private static final String LOGGING_HEADER = "x-ms-logging-context";
-    private static final ConcurrentMap<String, ReentrantLock> REENTRANT_LOCK_MAP = new ConcurrentHashMap<>();
+    private static final String REMAINING_SUBSCRIPTION_READS = "x-ms-ratelimit-remaining-subscription-reads";
+    private static final String REMAINING_SUBSCRIPTION_WRITES = "x-ms-ratelimit-remaining-subscription-writes";
+    private static final String REMAINING_TENANT_READS = "x-ms-ratelimit-remaining-tenant-reads";
+    private static final String REMAINING_TENANT_WRITES = "x-ms-ratelimit-remaining-tenant-writes";
+
+    private final ResourceManagerRateLimiter rateLimiter;
+    private final boolean blocking;
+    private final String tenantId;
+
+    /**
+     * Creates an interceptor that shares the default {@link ResourceManagerRateLimiter} of the process.
+     */
+    public ResourceManagerThrottlingInterceptor() {
+        this(ResourceManagerRateLimiter.defaultLimiter());
+    }
+
+    /**
+     * Creates an interceptor that shares the default {@link ResourceManagerRateLimiter} of the process, tracking
+     * the tenant quota of the tenant of the credentials.
+     *
+     * @param credentials the credentials of the client
+     */
+    public ResourceManagerThrottlingInterceptor(AzureTokenCredentials credentials) {
+        this(ResourceManagerRateLimiter.defaultLimiter(), true, credentials.domain());
+    }
+
+    /**
+     * Creates an interceptor that paces requests with the given rate limiter.
+     *
+     * @param rateLimiter the rate limiter
+     */
+    public ResourceManagerThrottlingInterceptor(ResourceManagerRateLimiter rateLimiter) {
+        this(rateLimiter, true);
+    }
+
+    /**
+     * Creates an interceptor that keeps the given rate limiter in sync with the service.
+     *
+     * @param rateLimiter the rate limiter
+     * @param blocking true to wait for the rate limiter and retry a throttled request on the calling thread,
+     *                 false to return throttled responses to a non-blocking retry layer
+     */
+    public ResourceManagerThrottlingInterceptor(ResourceManagerRateLimiter rateLimiter, boolean blocking) {
+        this(rateLimiter, blocking, null);
+    }
+
+    /**
+     * Creates an interceptor that keeps the given rate limiter in sync with the service.
+     *
+     * @param rateLimiter the rate limiter
+     * @param blocking true to wait for the rate limiter and retry a throttled request on the calling thread,
+     *                 false to return throttled responses to a non-blocking retry layer
+     * @param tenantId the id or domain of the tenant of the client, null if it is not known
+     */
+    public ResourceManagerThrottlingInterceptor(ResourceManagerRateLimiter rateLimiter, boolean blocking,
+                                                String tenantId) {
+        this.rateLimiter = rateLimiter;
+        this.blocking = blocking;
+        this.tenantId = tenantId;
+    }
+
+    /**
+     * @return the rate limiter used by this interceptor
+     */
+    public ResourceManagerRateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * @return true if the interceptor waits for the rate limiter and retries throttled requests on the calling thread
+     */
+    public boolean isBlocking() {
+        return blocking;
+    }
+
+    /**
+     * @return the id or domain of the tenant of the client, null if it is not known
+     */
+    public String tenantId() {
+        return tenantId;
+    }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
-        // Gate control
-        String subscriptionId = ResourceUtils.extractFromResourceId(chain.request().url().url().getPath(), "subscriptions");
-        if (subscriptionId == null) {
-            subscriptionId = "global";
-        }
-        final String subscriptionAndMethod = subscriptionId + "|" + chain.request().method().toLowerCase(Locale.ROOT);
-        REENTRANT_LOCK_MAP.putIfAbsent(subscriptionAndMethod, new ReentrantLock());
-        try {
-            synchronized (REENTRANT_LOCK_MAP.get(subscriptionAndMethod)) {
-                if (REENTRANT_LOCK_MAP.get(subscriptionAndMethod).isLocked()) {
-                    REENTRANT_LOCK_MAP.get(subscriptionAndMethod).wait();
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new IOException(e);
+        final String scope = ResourceManagerRateLimiter.scopeOf(chain.request(), tenantId);
+        final boolean write = ResourceManagerRateLimiter.isWrite(chain.request());
+
+        if (!blocking) {
+            Response response = chain.proceed(chain.request());
+            updateRateLimits(scope, write, response);
+            return response;
         }
+        waitForPermit(scope, write);
         Response response = chain.proceed(chain.request());
+        updateRateLimits(scope, write, response);
         if (response.code() != 429) {
             return response;
         }
 
         try {
-            synchronized (REENTRANT_LOCK_MAP.get(subscriptionAndMethod)) {
-                if (REENTRANT_LOCK_MAP.get(subscriptionAndMethod).isLocked()) {
-                    response.close();
-                    REENTRANT_LOCK_MAP.get(subscriptionAndMethod).wait();
-                    return chain.proceed(chain.request());
-                } else {
-                    REENTRANT_LOCK_MAP.get(subscriptionAndMethod).lock();
-                }
-            }
-        } catch (InterruptedException e) {
-            throw new IOException(e);
-        }
-
-        try {
-            String retryAfterHeader = response.header("Retry-After");
-            int retryAfter = 0;
-            if (retryAfterHeader != null) {
-                DateTime retryWhen = null;
-                try {
-                    retryWhen = new DateTimeRfc1123(retryAfterHeader).dateTime();
-                } catch (Exception e) { }
-                if (retryWhen == null) {
-                    retryAfter = Integer.parseInt(retryAfterHeader);
-                } else {
-                    retryAfter = new Duration(null, retryWhen).toStandardSeconds().getSeconds();
-                }
-            }
-            if (retryAfter <= 0) {
-                Pattern pattern = Pattern.compile("try again after '([0-9]*)' minutes", Pattern.CASE_INSENSITIVE);
-                Matcher matcher = pattern.matcher(content(response.body()));
-                if (matcher.find()) {
-                    retryAfter = (int) TimeUnit.MINUTES.toSeconds(Integer.parseInt(matcher.group(1)));
-                } else {
-                    pattern = Pattern.compile("try again after '([0-9]*)' seconds", Pattern.CASE_INSENSITIVE);
-                    matcher = pattern.matcher(content(response.body()));
-                    if (matcher.find()) {
-                        retryAfter = Integer.parseInt(matcher.group(1));
-                    }
-                }
+            long retryAfterInMillis = RetryPolicy.retryAfterInMillis(response.header("Retry-After"), null);
+            if (retryAfterInMillis <= 0) {
+                retryAfterInMillis = RetryPolicy.retryAfterInMillis(null, content(response.body()));
             }
+            long retryAfter = TimeUnit.MILLISECONDS.toSeconds(retryAfterInMillis);
             if (retryAfter > 0) {
                 String context = chain.request().header(LOGGING_HEADER);
                 if (context == null) {
@@ -106,18 +144,55 @@ public class ResourceManagerThrottlingInterceptor implements Interceptor {
                 }
                 LoggerFactory.getLogger(context)
                     .info("Azure Resource Manager read/write per hour limit reached. Will retry in: " + retryAfter + " seconds");
-                response.close();
-                SdkContext.sleep((int) (TimeUnit.SECONDS.toMillis(retryAfter) + 100));
+                rateLimiter.throttled(scope, write, TimeUnit.SECONDS.toMillis(retryAfter) + 100);
             }
-            return chain.proceed(chain.request());
+            response.close();
+            waitForPermit(scope, write);
+            Response retryResponse = chain.proceed(chain.request());
+            updateRateLimits(scope, write, retryResponse);
+            return retryResponse;
+        } catch (IOException e) {
+            throw e;
         } catch (Throwable t) {
             throw new IOException(t);
         } finally {
             response.close();
-            synchronized (REENTRANT_LOCK_MAP.get(subscriptionAndMethod)) {
-                REENTRANT_LOCK_MAP.get(subscriptionAndMethod).unlock();
-                REENTRANT_LOCK_MAP.get(subscriptionAndMethod).notifyAll();
-            }
+        }
+    }
+
+    private void waitForPermit(String scope, boolean write) {
+        long waitInMillis = rateLimiter.reserve(scope, write);
+        if (waitInMillis <= 0) {
+            return;
+        }
+        rateLimiter.waitStarted(scope, write, waitInMillis);
+        try {
+            SdkContext.sleep((int) Math.min(Integer.MAX_VALUE, waitInMillis));
+        } finally {
+            rateLimiter.waitEnded(scope, write);
+        }
+    }
+
+    private void updateRateLimits(String scope, boolean write, Response response) {
+        Long remaining = remaining(response, write ? REMAINING_SUBSCRIPTION_WRITES : REMAINING_SUBSCRIPTION_READS);
+        if (remaining != null) {
+            rateLimiter.update(scope, write, remaining);
+        }
+        remaining = remaining(response, write ? REMAINING_TENANT_WRITES : REMAINING_TENANT_READS);
+        if (remaining != null) {
+            rateLimiter.update(ResourceManagerRateLimiter.tenantScope(tenantId), write, remaining);
+        }
+    }
+
+    private static Long remaining(Response response, String headerName) {
+        String header = response.header(headerName);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
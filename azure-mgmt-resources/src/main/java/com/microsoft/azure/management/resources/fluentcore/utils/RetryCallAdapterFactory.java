@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import org.slf4j.LoggerFactory;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Invocation;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A Retrofit call adapter factory which paces and retries the requests of service methods returning
+ * {@code Observable<Response<T>>} without blocking any thread.
+ * <p>
+ * Before each attempt the request waits for a permit of a {@link ResourceManagerRateLimiter}. Responses
+ * selected by the {@link RetryPolicy} are dropped and the request is sent again after a jittered exponential
+ * backoff which honors "Retry-After". All the waits are timers on {@link SdkContext#getRxScheduler()}.
+ * Requests made against a tenant are paced in the scope of the tenant known to the
+ * {@link ResourceManagerThrottlingInterceptor} of the client.
+ * <p>
+ * The factory must be added to the Retrofit builder before the RxJava call adapter factory, which it delegates
+ * to. The {@link ResourceManagerThrottlingInterceptor} of the same client should be created with blocking
+ * disabled so that requests are not paced twice.
+ */
+public final class RetryCallAdapterFactory extends CallAdapter.Factory {
+    private static final String LOGGING_HEADER = "x-ms-logging-context";
+
+    private final RetryPolicy retryPolicy;
+    private final ResourceManagerRateLimiter rateLimiter;
+
+    /**
+     * Creates a factory with the default retry policy, pacing requests with the default rate limiter.
+     */
+    public RetryCallAdapterFactory() {
+        this(new RetryPolicy(), ResourceManagerRateLimiter.defaultLimiter());
+    }
+
+    /**
+     * Creates a factory.
+     *
+     * @param retryPolicy the retry policy
+     * @param rateLimiter the rate limiter pacing the requests
+     */
+    public RetryCallAdapterFactory(RetryPolicy retryPolicy, ResourceManagerRateLimiter rateLimiter) {
+        this.retryPolicy = retryPolicy;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Checks whether a request is sent by a service method of the kind this factory adapts. Such requests are
+     * retried by the factory, so the interceptors of the client should not retry them again.
+     *
+     * @param request the request
+     * @return true if the request is sent by a service method returning {@code Observable<Response<T>>}
+     */
+    public static boolean adapts(Request request) {
+        Invocation invocation = request.tag(Invocation.class);
+        return invocation != null && isAdapted(invocation.method().getGenericReturnType());
+    }
+
+    private static boolean isAdapted(Type returnType) {
+        return getRawType(returnType) == Observable.class
+                && returnType instanceof ParameterizedType
+                && getRawType(getParameterUpperBound(0, (ParameterizedType) returnType)) == Response.class;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (!isAdapted(returnType)) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        final CallAdapter<Object, Observable<Response<Object>>> delegate =
+                (CallAdapter<Object, Observable<Response<Object>>>) retrofit.nextCallAdapter(this, returnType, annotations);
+        final String tenantId = tenantIdOf(retrofit);
+        return new CallAdapter<Object, Observable<Response<Object>>>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Observable<Response<Object>> adapt(Call<Object> call) {
+                // the delegate executes a clone of the call for every subscription
+                return withRetry(call.request(), tenantId, delegate.adapt(call));
+            }
+        };
+    }
+
+    private static String tenantIdOf(Retrofit retrofit) {
+        if (retrofit.callFactory() instanceof OkHttpClient) {
+            for (Interceptor interceptor : ((OkHttpClient) retrofit.callFactory()).interceptors()) {
+                if (interceptor instanceof ResourceManagerThrottlingInterceptor) {
+                    return ((ResourceManagerThrottlingInterceptor) interceptor).tenantId();
+                }
+            }
+        }
+        return null;
+    }
+
+    private <T> Observable<Response<T>> withRetry(final Request request, final String tenantId,
+                                                  final Observable<Response<T>> attempt) {
+        final String scope = ResourceManagerRateLimiter.scopeOf(request, tenantId);
+        final boolean write = ResourceManagerRateLimiter.isWrite(request);
+        return Observable.defer(new Func0<Observable<Response<T>>>() {
+            @Override
+            public Observable<Response<T>> call() {
+                final AtomicInteger retryCount = new AtomicInteger();
+                return rateLimiter.acquireAsync(scope, write)
+                        .concatMap(new Func1<Long, Observable<Response<T>>>() {
+                            @Override
+                            public Observable<Response<T>> call(Long waited) {
+                                return attempt;
+                            }
+                        })
+                        .concatMap(new Func1<Response<T>, Observable<Response<T>>>() {
+                            @Override
+                            public Observable<Response<T>> call(Response<T> response) {
+                                if (retryCount.get() < retryPolicy.maxRetries()
+                                        && retryPolicy.shouldRetry(request.method(), response.code())) {
+                                    return Observable.error(new RetryableResponseException(response));
+                                }
+                                return Observable.just(response);
+                            }
+                        })
+                        .retryWhen(new Func1<Observable<? extends Throwable>, Observable<?>>() {
+                            @Override
+                            public Observable<?> call(Observable<? extends Throwable> errors) {
+                                return errors.flatMap(new Func1<Throwable, Observable<Long>>() {
+                                    @Override
+                                    public Observable<Long> call(Throwable throwable) {
+                                        if (!(throwable instanceof RetryableResponseException)) {
+                                            return Observable.error(throwable);
+                                        }
+                                        Response<?> response = ((RetryableResponseException) throwable).response;
+                                        long delay = retryDelay(request, scope, write, response, retryCount.incrementAndGet());
+                                        return Observable.timer(delay, TimeUnit.MILLISECONDS, SdkContext.getRxScheduler());
+                                    }
+                                });
+                            }
+                        });
+            }
+        });
+    }
+
+    private long retryDelay(Request request, String scope, boolean write, Response<?> response, int retryCount) {
+        long retryAfterInMillis = RetryPolicy.retryAfterInMillis(response.headers().get("Retry-After"), null);
+        ResponseBody errorBody = response.errorBody();
+        if (retryAfterInMillis <= 0 && response.code() == 429 && errorBody != null) {
+            try {
+                retryAfterInMillis = RetryPolicy.retryAfterInMillis(null, errorBody.string());
+            } catch (IOException e) {
+                // the wait falls back to the backoff
+            }
+        }
+        if (errorBody != null) {
+            errorBody.close();
+        }
+        if (response.code() == 429 && retryAfterInMillis > 0) {
+            rateLimiter.throttled(scope, write, retryAfterInMillis + 100);
+        }
+        long delay = retryPolicy.delayInMillis(retryCount, retryAfterInMillis);
+        String context = request.header(LOGGING_HEADER);
+        LoggerFactory.getLogger(context == null ? "" : context)
+            .info("Request failed with status code " + response.code() + ". Will retry in: " + delay + " milliseconds");
+        return delay;
+    }
+
+    /**
+     * Carries a response to be retried through the retry operator.
+     */
+    private static final class RetryableResponseException extends RuntimeException {
+        private final transient Response<?> response;
+
+        private RetryableResponseException(Response<?> response) {
+            super(null, null, false, false);
+            this.response = response;
+        }
+    }
+}
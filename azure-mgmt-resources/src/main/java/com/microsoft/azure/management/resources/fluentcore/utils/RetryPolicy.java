@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.rest.DateTimeRfc1123;
+import org.joda.time.DateTime;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The policy deciding which responses are retried by {@link RetryCallAdapterFactory}, and how long to wait
+ * before each retry.
+ * <p>
+ * Throttled requests (429) are retried for all methods. Transient failures (408, 500, 502, 503 and 504) are
+ * retried for idempotent methods only. The wait grows exponentially with a random jitter, and is never
+ * shorter than the time requested by the service through "Retry-After".
+ */
+public class RetryPolicy {
+    private static final Pattern RETRY_AFTER_MINUTES = Pattern.compile("try again after '([0-9]*)' minutes", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RETRY_AFTER_SECONDS = Pattern.compile("try again after '([0-9]*)' seconds", Pattern.CASE_INSENSITIVE);
+
+    private final Random random = new Random();
+    private int maxRetries = 5;
+    private long initialDelayInMillis = TimeUnit.SECONDS.toMillis(1);
+    private long maxDelayInMillis = TimeUnit.SECONDS.toMillis(60);
+
+    /**
+     * Specifies the maximum number of retries of a request.
+     *
+     * @param maxRetries the maximum number of retries, 0 to disable retries
+     * @return the policy itself
+     */
+    public RetryPolicy withMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries cannot be negative");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * Specifies the base of the exponential backoff.
+     *
+     * @param delay the wait before the first retry
+     * @param unit the time unit of the delay
+     * @return the policy itself
+     */
+    public RetryPolicy withInitialDelay(long delay, TimeUnit unit) {
+        this.initialDelayInMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Specifies the maximum wait computed by the exponential backoff. A longer "Retry-After" from the
+     * service is still honored.
+     *
+     * @param delay the maximum wait before a retry
+     * @param unit the time unit of the delay
+     * @return the policy itself
+     */
+    public RetryPolicy withMaxDelay(long delay, TimeUnit unit) {
+        this.maxDelayInMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * @return the maximum number of retries of a request
+     */
+    public int maxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Checks whether a response should be retried.
+     *
+     * @param method the HTTP method of the request
+     * @param statusCode the status code of the response
+     * @return true if the request should be sent again
+     */
+    public boolean shouldRetry(String method, int statusCode) {
+        if (statusCode == 429) {
+            return true;
+        }
+        switch (method.toUpperCase(Locale.ROOT)) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return statusCode == 408 || statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Computes the wait before a retry.
+     *
+     * @param retryCount the number of the retry, starting at 1
+     * @param retryAfterInMillis the wait requested by the service, or 0
+     * @return the wait in milliseconds
+     */
+    public long delayInMillis(int retryCount, long retryAfterInMillis) {
+        long backoff = initialDelayInMillis << Math.min(retryCount - 1, 30);
+        if (backoff <= 0 || backoff > maxDelayInMillis) {
+            backoff = maxDelayInMillis;
+        }
+        // half of the backoff is fixed and half is random, so that throttled clients do not retry in lockstep
+        long jittered = backoff / 2 + (long) (random.nextDouble() * (backoff - backoff / 2));
+        return Math.max(jittered, retryAfterInMillis);
+    }
+
+    /**
+     * Parses the wait requested by Azure Resource Manager, from the "Retry-After" header or from the
+     * error message.
+     *
+     * @param retryAfterHeader the value of the "Retry-After" header, or null
+     * @param content the body of the response, or null
+     * @return the wait in milliseconds, or 0 if the service did not ask for one
+     */
+    static long retryAfterInMillis(String retryAfterHeader, String content) {
+        long retryAfter = 0;
+        if (retryAfterHeader != null) {
+            DateTime retryWhen = null;
+            try {
+                retryWhen = new DateTimeRfc1123(retryAfterHeader).dateTime();
+            } catch (Exception e) { }
+            if (retryWhen == null) {
+                try {
+                    retryAfter = TimeUnit.SECONDS.toMillis(Integer.parseInt(retryAfterHeader.trim()));
+                } catch (NumberFormatException e) { }
+            } else {
+                retryAfter = retryWhen.getMillis() - DateTime.now().getMillis();
+            }
+        }
+        if (retryAfter <= 0 && content != null) {
+            Matcher matcher = RETRY_AFTER_MINUTES.matcher(content);
+            if (matcher.find()) {
+                retryAfter = TimeUnit.MINUTES.toMillis(Integer.parseInt(matcher.group(1)));
+            } else {
+                matcher = RETRY_AFTER_SECONDS.matcher(content);
+                if (matcher.find()) {
+                    retryAfter = TimeUnit.SECONDS.toMillis(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        }
+        return Math.max(0, retryAfter);
+    }
+}
@@ -22,6 +22,7 @@ public class SdkContext {
     private static DelayProvider delayProvider = new DelayProvider();
     private static Scheduler rxScheduler = Schedulers.io();
     private static FileProvider fileProvider = new FileProvider();
+    private static volatile int resourceGroupListingConcurrency = 1;
 
     /**
      * Function to override the ResourceNamerFactory.
@@ -114,6 +115,19 @@ public class SdkContext {
         return delayProvider.delayedEmitAsync(event, milliseconds);
     }
 
+    /**
+     * Wrapper delayed emission on a scheduler, based on delayProvider.
+     *
+     * @param event the event to emit
+     * @param milliseconds the delay in milliseconds
+     * @param scheduler the scheduler of the delay
+     * @param <T> the type of event
+     * @return delayed observable
+     */
+    public static <T> Observable<T> delayedEmitAsync(T event, long milliseconds, Scheduler scheduler) {
+        return delayProvider.delayedEmitAsync(event, milliseconds, scheduler);
+    }
+
     /**
      * Gets the current Rx Scheduler for the SDK framework.
      * @return current rx scheduler.
@@ -130,6 +144,28 @@ public class SdkContext {
         SdkContext.rxScheduler = rxScheduler;
     }
 
+    /**
+     * Gets the maximum number of resource groups listed concurrently by subscription wide listings
+     * that are paginated across resource groups.
+     * @return the maximum number of concurrent resource group listings.
+     */
+    public static int getResourceGroupListingConcurrency() {
+        return resourceGroupListingConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of resource groups listed concurrently by subscription wide listings
+     * that are paginated across resource groups, by default 1, i.e. one resource group at a time.
+     * Items are still returned in the order of the resource groups.
+     * @param concurrency the maximum number of concurrent resource group listings.
+     */
+    public static void setResourceGroupListingConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+        SdkContext.resourceGroupListingConcurrency = concurrency;
+    }
+
     /**
      * Sets the FileProvider for SDK framework, by default it does nothing.
      * @param fileProvider the FileProvider to override.
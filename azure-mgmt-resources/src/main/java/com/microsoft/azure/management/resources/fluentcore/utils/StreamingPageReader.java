@@ -0,0 +1,304 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.Page;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import com.microsoft.rest.RestException;
+import com.microsoft.rest.protocol.ResponseBuilder;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the items of paged list responses while the response body is parsed.
+ * <p>
+ * The generated list operations read a whole page into a string and deserialize it into a page before the first
+ * item is returned, so a large page, e.g. of resources with their properties expanded or of activity log events,
+ * is held in memory several times over. The reader parses the "value" array of a page from the response stream
+ * and emits each item as soon as it is read; the "nextLink" of the page is taken wherever it appears in the page
+ * and the next page is requested once the items of the page are consumed. The response calls should be
+ * {@code @Streaming}, otherwise Retrofit buffers the bytes of the body before the reader gets it.
+ *
+ * @param <T> the type of the items
+ */
+public final class StreamingPageReader<T> {
+    private static final String ITEMS_PROPERTY = "value";
+    private static final String NEXT_PAGE_LINK_PROPERTY = "nextLink";
+
+    private final RestClient restClient;
+    private final ObjectMapper mapper;
+    private final JavaType itemType;
+    private final Class<? extends RestException> errorType;
+
+    /**
+     * Creates StreamingPageReader.
+     *
+     * @param restClient the client the responses are received with, giving their serializer and error handling
+     * @param itemType the type of the items
+     * @param errorType the exception thrown for error responses
+     */
+    public StreamingPageReader(RestClient restClient, Type itemType, Class<? extends RestException> errorType) {
+        this.restClient = restClient;
+        Object serializer = restClient.serializerAdapter().serializer();
+        this.mapper = serializer instanceof ObjectMapper
+                ? (ObjectMapper) serializer
+                : new AzureJacksonAdapter().serializer();
+        this.itemType = this.mapper.getTypeFactory().constructType(itemType);
+        this.errorType = errorType;
+    }
+
+    /**
+     * Reads the items of all the pages of a list.
+     *
+     * @param firstPage the call for the first page
+     * @param nextPage the call for a page, given the link to it
+     * @return an observable emitting the items as they are read
+     */
+    public Observable<T> readItemsAsync(Observable<Response<ResponseBody>> firstPage,
+                                        final Func1<String, Observable<Response<ResponseBody>>> nextPage) {
+        return firstPage.concatMap(new Func1<Response<ResponseBody>, Observable<T>>() {
+            @Override
+            public Observable<T> call(Response<ResponseBody> response) {
+                final PageParser parser;
+                try {
+                    parser = open(response);
+                } catch (Throwable t) {
+                    return Observable.error(t);
+                }
+                return Observable.using(
+                        new Func0<PageParser>() {
+                            @Override
+                            public PageParser call() {
+                                return parser;
+                            }
+                        },
+                        new Func1<PageParser, Observable<T>>() {
+                            @Override
+                            public Observable<T> call(PageParser pageParser) {
+                                return Observable.from(pageParser);
+                            }
+                        },
+                        new Action1<PageParser>() {
+                            @Override
+                            public void call(PageParser pageParser) {
+                                pageParser.close();
+                            }
+                        }, true)
+                        .concatWith(Observable.defer(new Func0<Observable<T>>() {
+                            @Override
+                            public Observable<T> call() {
+                                String nextPageLink = parser.nextPageLink();
+                                if (nextPageLink == null) {
+                                    return Observable.empty();
+                                }
+                                return readItemsAsync(nextPage.call(nextPageLink), nextPage);
+                            }
+                        }));
+            }
+        });
+    }
+
+    /**
+     * Reads a list page by page. Each page is parsed from the response stream, without reading the response into
+     * a string first.
+     *
+     * @param firstPage the call for the first page
+     * @param nextPage the call for a page, given the link to it
+     * @return the paged list
+     */
+    public PagedList<T> readPagedList(Observable<Response<ResponseBody>> firstPage,
+                                      final Func1<String, Observable<Response<ResponseBody>>> nextPage) {
+        return new PagedList<T>(readPageAsync(firstPage).toBlocking().single()) {
+            @Override
+            public Page<T> nextPage(String nextPageLink) {
+                return readPageAsync(nextPage.call(nextPageLink)).toBlocking().single();
+            }
+        };
+    }
+
+    private Observable<Page<T>> readPageAsync(Observable<Response<ResponseBody>> page) {
+        return page.map(new Func1<Response<ResponseBody>, Page<T>>() {
+            @Override
+            public Page<T> call(Response<ResponseBody> response) {
+                try (PageParser parser = open(response)) {
+                    List<T> items = new ArrayList<>();
+                    while (parser.hasNext()) {
+                        items.add(parser.next());
+                    }
+                    return new ParsedPage<>(items, parser.nextPageLink());
+                } catch (IOException e) {
+                    throw Exceptions.propagate(e);
+                }
+            }
+        });
+    }
+
+    private PageParser open(Response<ResponseBody> response) throws IOException {
+        ResponseBody body = response.body();
+        if (response.code() != 200 || body == null) {
+            // the response builder throws the service error, a missing list is an error as well
+            ResponseBuilder<Object, RestException> builder = this.restClient.responseBuilderFactory()
+                    .<Object, RestException>newInstance(this.restClient.serializerAdapter());
+            if (builder instanceof AzureResponseBuilder) {
+                ((AzureResponseBuilder<Object, RestException>) builder).withThrowOnGet404(true);
+            }
+            builder.register(200, Object.class)
+                    .registerError(this.errorType)
+                    .build(response);
+            return new PageParser(null, null);
+        }
+        return new PageParser(body, this.mapper.getFactory().createParser(body.byteStream()));
+    }
+
+    /**
+     * Iterates the items of a page while parsing it.
+     */
+    private final class PageParser implements Iterator<T>, Iterable<T>, Closeable {
+        private final ResponseBody body;
+        private final JsonParser parser;
+        private boolean inItems;
+        private boolean done;
+        private boolean hasItem;
+        private T item;
+        private String nextPageLink;
+
+        private PageParser(ResponseBody body, JsonParser parser) throws IOException {
+            this.body = body;
+            this.parser = parser;
+            if (parser == null || parser.nextToken() != JsonToken.START_OBJECT) {
+                // an empty body or no page
+                this.done = true;
+            } else {
+                readProperties();
+            }
+        }
+
+        /**
+         * Reads the properties of the page up to the start of the items or the end of the page.
+         */
+        private void readProperties() throws IOException {
+            while (this.parser.nextToken() == JsonToken.FIELD_NAME) {
+                String property = this.parser.getCurrentName();
+                JsonToken value = this.parser.nextToken();
+                if (ITEMS_PROPERTY.equals(property) && value == JsonToken.START_ARRAY) {
+                    this.inItems = true;
+                    return;
+                } else if (NEXT_PAGE_LINK_PROPERTY.equals(property)) {
+                    this.nextPageLink = value == JsonToken.VALUE_NULL ? null : this.parser.getText();
+                } else {
+                    this.parser.skipChildren();
+                }
+            }
+            this.done = true;
+        }
+
+        private String nextPageLink() {
+            return this.nextPageLink;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.hasItem) {
+                return true;
+            }
+            try {
+                while (!this.done) {
+                    if (this.parser.nextToken() == JsonToken.END_ARRAY) {
+                        this.inItems = false;
+                        readProperties();
+                    } else {
+                        this.item = mapper.readValue(this.parser, itemType);
+                        this.hasItem = true;
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw Exceptions.propagate(e);
+            }
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T next = this.item;
+            this.item = null;
+            this.hasItem = false;
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return this;
+        }
+
+        @Override
+        public void close() {
+            this.done = true;
+            try {
+                if (this.parser != null) {
+                    this.parser.close();
+                }
+            } catch (IOException e) {
+                // the body is closed below
+            }
+            if (this.body != null) {
+                this.body.close();
+            }
+        }
+    }
+
+    /**
+     * A page read by the reader.
+     */
+    private static final class ParsedPage<T> implements Page<T> {
+        private final List<T> items;
+        private final String nextPageLink;
+
+        private ParsedPage(List<T> items, String nextPageLink) {
+            this.items = items;
+            this.nextPageLink = nextPageLink;
+        }
+
+        @Override
+        public String nextPageLink() {
+            return this.nextPageLink;
+        }
+
+        @Override
+        public List<T> items() {
+            return this.items;
+        }
+    }
+}
@@ -15,6 +15,7 @@ import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azure.management.resources.fluentcore.model.Indexable;
 import com.microsoft.azure.management.resources.implementation.PageImpl;
 import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
 import okhttp3.ResponseBody;
 import okio.Buffer;
 import okio.BufferedSource;
@@ -235,6 +236,32 @@ public final class Utils {
         return environment;
     }
 
+    /**
+     * Creates a builder for a client derived from the client of a manager, e.g. for a data plane sharing the
+     * connection pool of the manager.
+     * <p>
+     * {@link RestClient#newBuilder()} does not carry the {@link RetryCallAdapterFactory} of the manager client
+     * over, so the derived client paces and retries its requests on the thread executing them, as the clients
+     * built without the factory do.
+     *
+     * @param restClient the client of the manager
+     * @return the builder of the derived client
+     */
+    public static RestClient.Builder newDerivedRestClientBuilder(RestClient restClient) {
+        RestClient.Builder builder = restClient.newBuilder();
+        for (Interceptor interceptor : restClient.httpClient().interceptors()) {
+            if (interceptor instanceof ResourceManagerThrottlingInterceptor
+                    && !((ResourceManagerThrottlingInterceptor) interceptor).isBlocking()) {
+                ResourceManagerThrottlingInterceptor throttling = (ResourceManagerThrottlingInterceptor) interceptor;
+                builder.withRetryStrategy(null)
+                        .withInterceptor(new ResourceManagerThrottlingInterceptor(throttling.rateLimiter(), true,
+                                throttling.tenantId()));
+                break;
+            }
+        }
+        return builder;
+    }
+
     /**
      * A Retrofit service used to download a file.
      */
@@ -6,7 +6,6 @@
 
 package com.microsoft.azure.management.resources.implementation;
 
-import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.resources.GenericResource;
 import com.microsoft.azure.management.resources.GenericResources;
@@ -39,9 +38,11 @@ final class GenericResourcesImpl
     implements GenericResources {
 
     private PagedListConverter<GenericResourceExpandedInner, GenericResource> converter;
+    private final ResourcesStreamingClient streamingClient;
 
     GenericResourcesImpl(final ResourceManager resourceManager) {
         super(resourceManager.inner().resources(), resourceManager);
+        streamingClient = new ResourcesStreamingClient(resourceManager.inner());
         converter = new PagedListConverter<GenericResourceExpandedInner, GenericResource>() {
             @Override
             public Observable<GenericResource> typeConvertAsync(GenericResourceExpandedInner inner) {
@@ -52,23 +53,23 @@ final class GenericResourcesImpl
 
     @Override
     public PagedList<GenericResource> list() {
-        return converter.convert(this.inner().list());
+        return converter.convert(streamingClient.list(null, null, null));
     }
 
     @Override
     public PagedList<GenericResource> listByResourceGroup(String groupName) {
-        return converter.convert(this.manager().inner().resources().listByResourceGroup(groupName));
+        return converter.convert(streamingClient.listByResourceGroup(groupName, null, null, null));
     }
 
     @Override
     public PagedList<GenericResource> listByTag(String resourceGroupName, String tagName, String tagValue) {
-        return converter.convert(this.manager().inner().resources().listByResourceGroup(resourceGroupName,
+        return converter.convert(streamingClient.listByResourceGroup(resourceGroupName,
                 Utils.createOdataFilterForTags(tagName, tagValue), null, null));
     }
 
     @Override
     public Observable<GenericResource> listByTagAsync(String resourceGroupName, String tagName, String tagValue) {
-        return convert(this.manager().inner().resources().listByResourceGroupAsync(resourceGroupName,
+        return convert(streamingClient.listByResourceGroupAsync(resourceGroupName,
                 Utils.createOdataFilterForTags(tagName, tagValue), null, null));
     }
 
@@ -306,21 +307,17 @@ final class GenericResourcesImpl
 
     @Override
     public Observable<GenericResource> listAsync() {
-        return convert(this.inner().listAsync());
+        return convert(streamingClient.listAsync(null, null, null));
     }
 
     @Override
     public Observable<GenericResource> listByResourceGroupAsync(String resourceGroupName) {
-        return convert(this.manager().inner().resources().listByResourceGroupAsync(resourceGroupName));
+        return convert(streamingClient.listByResourceGroupAsync(resourceGroupName, null, null, null));
     }
 
-    private Observable<GenericResource> convert(Observable<Page<GenericResourceExpandedInner>> inners) {
-        return inners.flatMap(new Func1<Page<GenericResourceExpandedInner>, Observable<GenericResourceExpandedInner>>() {
-            @Override
-            public Observable<GenericResourceExpandedInner> call(Page<GenericResourceExpandedInner> genericResourceExpandedInnerPage) {
-                return Observable.from(genericResourceExpandedInnerPage.items());
-            }
-        }).map(new Func1<GenericResourceExpandedInner, GenericResource>() {
+    private Observable<GenericResource> convert(Observable<GenericResourceExpandedInner> inners) {
+        // the resources are emitted while the pages are parsed
+        return inners.map(new Func1<GenericResourceExpandedInner, GenericResource>() {
             @Override
             public GenericResource call(GenericResourceExpandedInner inner) {
                 return wrapModel(inner);
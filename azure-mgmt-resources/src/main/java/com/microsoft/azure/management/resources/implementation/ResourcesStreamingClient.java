@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.implementation;
+
+import com.microsoft.azure.CloudException;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.management.resources.fluentcore.utils.StreamingPageReader;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
+import retrofit2.http.Path;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
+import retrofit2.http.Url;
+import rx.Observable;
+import rx.functions.Func1;
+
+/**
+ * Lists the resources of {@link ResourcesInner} with the responses parsed while they are received,
+ * kept out of the generated client so that it survives its regeneration.
+ */
+final class ResourcesStreamingClient {
+    private final ResourcesStreamingService service;
+    private final ResourceManagementClientImpl client;
+    private final StreamingPageReader<GenericResourceExpandedInner> reader;
+
+    ResourcesStreamingClient(ResourceManagementClientImpl client) {
+        this.service = client.restClient().retrofit().create(ResourcesStreamingService.class);
+        this.client = client;
+        this.reader = new StreamingPageReader<>(client.restClient(), GenericResourceExpandedInner.class,
+                CloudException.class);
+    }
+
+    /**
+     * The list operations of Resources, with the response bodies left unbuffered.
+     */
+    interface ResourcesStreamingService {
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.resources.Resources listByResourceGroup", "x-ms-body-logging: false" })
+        @GET("subscriptions/{subscriptionId}/resourceGroups/{resourceGroupName}/resources")
+        @Streaming
+        Observable<Response<ResponseBody>> listByResourceGroup(@Path("resourceGroupName") String resourceGroupName, @Path("subscriptionId") String subscriptionId, @Query("$filter") String filter, @Query("$expand") String expand, @Query("$top") Integer top, @Query("api-version") String apiVersion, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.resources.Resources list", "x-ms-body-logging: false" })
+        @GET("subscriptions/{subscriptionId}/resources")
+        @Streaming
+        Observable<Response<ResponseBody>> list(@Path("subscriptionId") String subscriptionId, @Query("$filter") String filter, @Query("$expand") String expand, @Query("$top") Integer top, @Query("api-version") String apiVersion, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+
+        @Headers({ "Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.resources.Resources listNext", "x-ms-body-logging: false" })
+        @GET
+        @Streaming
+        Observable<Response<ResponseBody>> listNext(@Url String nextUrl, @Header("accept-language") String acceptLanguage, @Header("User-Agent") String userAgent);
+    }
+
+    /**
+     * Gets all the resources in a subscription, emitting each resource as soon as it is read from the response.
+     *
+     * @param filter the filter to apply on the operation
+     * @param expand comma-separated list of additional properties to be included in the response
+     * @param top the number of results to return per page, null for all the resources
+     * @return the observable to the resources
+     */
+    Observable<GenericResourceExpandedInner> listAsync(String filter, String expand, Integer top) {
+        return reader.readItemsAsync(listFirstPage(filter, expand, top), listNextPage());
+    }
+
+    /**
+     * Gets all the resources in a subscription, parsing each page while it is received.
+     *
+     * @param filter the filter to apply on the operation
+     * @param expand comma-separated list of additional properties to be included in the response
+     * @param top the number of results to return per page, null for all the resources
+     * @return the paged list of the resources
+     */
+    PagedList<GenericResourceExpandedInner> list(String filter, String expand, Integer top) {
+        return reader.readPagedList(listFirstPage(filter, expand, top), listNextPage());
+    }
+
+    /**
+     * Gets all the resources of a resource group, emitting each resource as soon as it is read from the response.
+     *
+     * @param resourceGroupName the resource group with the resources to get
+     * @param filter the filter to apply on the operation
+     * @param expand comma-separated list of additional properties to be included in the response
+     * @param top the number of results to return per page, null for all the resources
+     * @return the observable to the resources
+     */
+    Observable<GenericResourceExpandedInner> listByResourceGroupAsync(String resourceGroupName, String filter,
+                                                                      String expand, Integer top) {
+        return reader.readItemsAsync(listByResourceGroupFirstPage(resourceGroupName, filter, expand, top),
+                listNextPage());
+    }
+
+    /**
+     * Gets all the resources of a resource group, parsing each page while it is received.
+     *
+     * @param resourceGroupName the resource group with the resources to get
+     * @param filter the filter to apply on the operation
+     * @param expand comma-separated list of additional properties to be included in the response
+     * @param top the number of results to return per page, null for all the resources
+     * @return the paged list of the resources
+     */
+    PagedList<GenericResourceExpandedInner> listByResourceGroup(String resourceGroupName, String filter,
+                                                                String expand, Integer top) {
+        return reader.readPagedList(listByResourceGroupFirstPage(resourceGroupName, filter, expand, top),
+                listNextPage());
+    }
+
+    private Observable<Response<ResponseBody>> listFirstPage(String filter, String expand, Integer top) {
+        if (client.subscriptionId() == null) {
+            throw new IllegalArgumentException("Parameter this.client.subscriptionId() is required and cannot be null.");
+        }
+        if (client.apiVersion() == null) {
+            throw new IllegalArgumentException("Parameter this.client.apiVersion() is required and cannot be null.");
+        }
+        return service.list(client.subscriptionId(), filter, expand, top, client.apiVersion(),
+                client.acceptLanguage(), client.userAgent());
+    }
+
+    private Observable<Response<ResponseBody>> listByResourceGroupFirstPage(String resourceGroupName, String filter,
+                                                                          String expand, Integer top) {
+        if (resourceGroupName == null) {
+            throw new IllegalArgumentException("Parameter resourceGroupName is required and cannot be null.");
+        }
+        if (client.subscriptionId() == null) {
+            throw new IllegalArgumentException("Parameter this.client.subscriptionId() is required and cannot be null.");
+        }
+        if (client.apiVersion() == null) {
+            throw new IllegalArgumentException("Parameter this.client.apiVersion() is required and cannot be null.");
+        }
+        return service.listByResourceGroup(resourceGroupName, client.subscriptionId(), filter, expand, top,
+                client.apiVersion(), client.acceptLanguage(), client.userAgent());
+    }
+
+    private Func1<String, Observable<Response<ResponseBody>>> listNextPage() {
+        return new Func1<String, Observable<Response<ResponseBody>>>() {
+            @Override
+            public Observable<Response<ResponseBody>> call(String nextPageLink) {
+                return service.listNext(nextPageLink, client.acceptLanguage(), client.userAgent());
+            }
+        };
+    }
+}
@@ -10,6 +10,7 @@ import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
 import com.microsoft.azure.management.resources.fluentcore.arm.Region;
 import com.microsoft.azure.management.resources.fluentcore.arm.models.implementation.GroupPagedList;
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import com.microsoft.azure.management.resources.implementation.PageImpl;
 import com.microsoft.azure.management.resources.implementation.ResourceGroupInner;
 import com.microsoft.rest.ServiceCallback;
@@ -20,9 +21,11 @@ import rx.Observable;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class GroupPagedListTests {
     @Test
@@ -112,6 +115,54 @@ public class GroupPagedListTests {
         };
     }
 
+    @Test
+    public void canListResourceGroupsConcurrently() {
+        final PageImpl<ResourceGroup> page = new PageImpl<>();
+        List<ResourceGroup> resourceGroups = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            resourceGroups.add(resourceGroup("RG" + i));
+        }
+        page.setItems(resourceGroups);
+        PagedList<ResourceGroup> pagedResourceList = new PagedList<ResourceGroup>(page) {
+            @Override
+            public Page<ResourceGroup> nextPage(String nextLink) {
+                return null;
+            }
+        };
+
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        GroupPagedList<String> groupedResourceList = new GroupPagedList<String>(pagedResourceList, 4, true) {
+            @Override
+            public List<String> listNextGroup(String s) {
+                int current = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(current, maxInFlight.get()));
+                }
+                SdkContext.sleep(50);
+                inFlight.decrementAndGet();
+                return Arrays.asList(s + "Vm1", s + "Vm2");
+            }
+        };
+
+        List<String> items = new ArrayList<>(groupedResourceList);
+        Assert.assertEquals(40, items.size());
+        for (int i = 1; i <= 20; i++) {
+            Assert.assertEquals("RG" + i + "Vm1", items.get(2 * (i - 1)));
+            Assert.assertEquals("RG" + i + "Vm2", items.get(2 * (i - 1) + 1));
+        }
+        Assert.assertTrue(maxInFlight.get() > 1);
+        Assert.assertTrue(maxInFlight.get() <= 4);
+
+        GroupPagedList<String> unorderedResourceList = new GroupPagedList<String>(pagedResourceList, 4, false) {
+            @Override
+            public List<String> listNextGroup(String s) {
+                return Arrays.asList(s + "Vm1", s + "Vm2");
+            }
+        };
+        Assert.assertEquals(new HashSet<>(items), new HashSet<>(unorderedResourceList));
+    }
+
     private static ResourceGroup resourceGroup(final String name) {
         return new ResourceGroup() {
             @Override
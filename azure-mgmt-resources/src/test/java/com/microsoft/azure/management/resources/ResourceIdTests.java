@@ -10,6 +10,8 @@ import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.security.InvalidParameterException;
+
 /**
  * Test class to test ResourceId class.
  */
@@ -75,4 +77,45 @@ public class ResourceIdTests {
         Assert.assertEquals(resourceId.parent().parent().resourceType(), "applicationGateways");
         Assert.assertEquals(resourceId.parent().parent().fullResourceType(), "Microsoft.Network/applicationGateways");
     }
+
+    @Test
+    public void resourceIdIgnoresLeadingAndTrailingSlashes() {
+        ResourceId resourceId = ResourceId.fromString("subscriptions/123/resourceGroups/foo/providers/Microsoft.Bar/bars/bar1/bazs/baz1/");
+
+        Assert.assertEquals("baz1", resourceId.name());
+        Assert.assertEquals("bazs", resourceId.resourceType());
+        Assert.assertEquals("Microsoft.Bar/bars/bazs", resourceId.fullResourceType());
+        Assert.assertEquals("/subscriptions/123/resourceGroups/foo/providers/Microsoft.Bar/bars/bar1", resourceId.parent().id());
+        Assert.assertEquals("foo", ResourceId.fromString("/subscriptions/123/resourcegroups/foo").name());
+    }
+
+    @Test
+    public void resourceIdRejectsInvalidIds() {
+        String[] invalidIds = {
+            "",
+            "/",
+            "subscriptions/123/resourceGroups",
+            "/tenants/123/resourceGroups/foo",
+            "/subscriptions/123/groups/foo",
+            "/subscriptions/123/resourceGroups/foo/provider/Microsoft.Bar",
+            "//subscriptions/123"
+        };
+        for (String invalidId : invalidIds) {
+            try {
+                ResourceId.fromString(invalidId);
+                Assert.fail("Expected failure for " + invalidId);
+            } catch (InvalidParameterException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void resourceIdIsParsedOnce() {
+        String id = "/subscriptions/123/resourceGroups/foo/providers/Microsoft.Bar/bars/bar1";
+
+        Assert.assertSame(ResourceId.fromString(id), ResourceId.fromString(id));
+        Assert.assertSame(ResourceId.fromString(id).name(), ResourceId.fromString(id).name());
+        Assert.assertNull(ResourceId.fromString(null).name());
+    }
 }
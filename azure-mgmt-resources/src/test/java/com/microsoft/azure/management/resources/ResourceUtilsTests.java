@@ -41,6 +41,15 @@ public class ResourceUtilsTests {
         Assert.assertEquals("providers/provider1/bars/bar1", ResourceUtils.relativePathFromResourceId("subscriptions/123/resourceGroups/foo/providers/Microsoft.Bar/providers/provider1/bars/bar1"));
     }
 
+    @Test
+    public void canExtractFromId() {
+        Assert.assertEquals("dep1", ResourceUtils.extractFromResourceId("/subscriptions/123/resourceGroups/foo/providers/Microsoft.Resources/deployments/dep1/operations/op1", "deployments"));
+        Assert.assertEquals("123", ResourceUtils.extractFromResourceId("/subscriptions/123/providers/Microsoft.Compute/locations/westus/operations/abc", "subscriptions"));
+        Assert.assertEquals("bar-1.a_b", ResourceUtils.extractFromResourceId("/subscriptions/123/resourceGroups/foo/providers/Microsoft.Bar/bars/bar-1.a_b?api-version=1", "bars"));
+        Assert.assertNull(ResourceUtils.extractFromResourceId("/subscriptions/123/resourceGroups/foo", "storageAccounts"));
+        Assert.assertNull(ResourceUtils.extractFromResourceId("/subscriptions/", "subscriptions"));
+    }
+
     @Test
     public void canDownloadFile() throws Exception {
         Retrofit retrofit = new Retrofit.Builder().baseUrl("http://microsoft.com").addCallAdapterFactory(RxJavaCallAdapterFactory.create()).build();
@@ -5,8 +5,6 @@
  */
 package com.microsoft.azure.management.resources.core;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
 import okhttp3.Interceptor;
 import okhttp3.MediaType;
@@ -25,9 +23,14 @@ import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
 import java.util.zip.GZIPInputStream;
 
 /**
@@ -38,12 +41,18 @@ public class InterceptorManager {
     private final static String RECORD_FOLDER = "session-records/";
     private static final String BODY_LOGGING = "x-ms-body-logging";
 
-    private Map<String, String> textReplacementRules = new HashMap<>();
+    private volatile Map<String, String> textReplacementRules = new HashMap<>();
+    // precompiled patterns of the replacement rules, keyed by regex
+    private final Map<String, Pattern> textReplacementPatterns = new ConcurrentHashMap<>();
     // Stores a map of all the HTTP properties in a session
     // A state machine ensuring a test is always reset before another one is setup
 
     protected RecordedData recordedData;
 
+    // playback records indexed by method and url, each queue in recording order
+    private final Map<String, Queue<NetworkCallRecord>> playbackRecords = new ConcurrentHashMap<>();
+    private final AtomicInteger remainingPlaybackRecords = new AtomicInteger();
+
     private final String testName;
 
     private final TestBase.TestMode testMode;
@@ -54,7 +63,13 @@ public class InterceptorManager {
     }
 
     public void addTextReplacementRule(String regex, String replacement) {
-        textReplacementRules.put(regex, replacement);
+        textReplacementPatterns.put(regex, Pattern.compile(regex));
+        // rules can be added while requests are played back, readers always see a complete map
+        synchronized (textReplacementPatterns) {
+            Map<String, String> rules = new HashMap<>(textReplacementRules);
+            rules.put(regex, replacement);
+            textReplacementRules = rules;
+        }
     }
 
     // factory method
@@ -167,22 +182,17 @@ public class InterceptorManager {
 
         incomingUrl = removeHost(incomingUrl);
         NetworkCallRecord networkCallRecord = null;
-        synchronized (recordedData) {
-            for (Iterator<NetworkCallRecord> iterator = recordedData.getNetworkCallRecords().iterator(); iterator.hasNext(); ) {
-                NetworkCallRecord record = iterator.next();
-                if (record.Method.equalsIgnoreCase(incomingMethod) && removeHost(record.Uri).equalsIgnoreCase(incomingUrl)) {
-                    networkCallRecord = record;
-                    iterator.remove();
-                    break;
-                }
-            }
+        Queue<NetworkCallRecord> records = playbackRecords.get(playbackKey(incomingMethod, incomingUrl));
+        if (records != null) {
+            networkCallRecord = records.poll();
         }
 
         if (networkCallRecord == null) {
             System.out.println("NOT FOUND - " + incomingMethod + " " + incomingUrl);
-            System.out.println("Remaining records " + recordedData.getNetworkCallRecords().size());
+            System.out.println("Remaining records " + remainingPlaybackRecords.get());
             throw new IOException("==> Unexpected request: " + incomingMethod + " " + incomingUrl);
         }
+        remainingPlaybackRecords.decrementAndGet();
 
         int recordStatusCode = Integer.parseInt(networkCallRecord.Response.get("StatusCode"));
 
@@ -194,32 +204,22 @@ public class InterceptorManager {
 
         for (Map.Entry<String, String> pair : networkCallRecord.Response.entrySet()) {
             if (!pair.getKey().equals("StatusCode") && !pair.getKey().equals("Body") && !pair.getKey().equals("Content-Length")) {
-                String rawHeader = pair.getValue();
-                for (Map.Entry<String, String> rule : textReplacementRules.entrySet()) {
-                    if (rule.getValue() != null) {
-                        rawHeader = rawHeader.replaceAll(rule.getKey(), rule.getValue());
-                    }
-                }
-                responseBuilder.addHeader(pair.getKey(), rawHeader);
+                responseBuilder.addHeader(pair.getKey(), applyReplacementRule(pair.getValue()));
             }
         }
 
-        String rawBody = networkCallRecord.Response.get("Body");
+        String rawBody = networkCallRecord.body();
         if (rawBody != null) {
-            for (Map.Entry<String, String> rule : textReplacementRules.entrySet()) {
-                if (rule.getValue() != null) {
-                    rawBody = rawBody.replaceAll(rule.getKey(), rule.getValue());
-                }
-            }
+            byte[] body = applyReplacementRule(rawBody).getBytes(StandardCharsets.UTF_8);
 
             String rawContentType = networkCallRecord.Response.get("content-type");
             String contentType =  rawContentType == null
                     ? "application/json; charset=utf-8"
                     : rawContentType;
 
-            ResponseBody responseBody = ResponseBody.create(MediaType.parse(contentType), rawBody.getBytes());
+            ResponseBody responseBody = ResponseBody.create(MediaType.parse(contentType), body);
             responseBuilder.body(responseBody);
-            responseBuilder.addHeader("Content-Length", String.valueOf(rawBody.getBytes("UTF-8").length));
+            responseBuilder.addHeader("Content-Length", String.valueOf(body.length));
         }
 
         Response newResponce = responseBuilder.build();
@@ -272,28 +272,51 @@ public class InterceptorManager {
     }
 
     private void readDataFromFile() throws IOException {
-        File recordFile = getRecordFile(testName);
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        recordedData = mapper.readValue(recordFile, RecordedData.class);
+        // a compact recording takes precedence over the JSON one
+        File recordFile = getRecordFile(testName, SessionRecordFormat.COMPACT_EXTENSION);
+        if (!recordFile.exists()) {
+            recordFile = getRecordFile(testName, SessionRecordFormat.COMPACT_GZIP_EXTENSION);
+        }
+        if (!recordFile.exists()) {
+            recordFile = getRecordFile(testName, SessionRecordFormat.JSON_EXTENSION);
+        }
+        recordedData = SessionRecordFormat.read(recordFile);
         System.out.println("Total records " + recordedData.getNetworkCallRecords().size());
+        indexPlaybackRecords();
+    }
+
+    private void indexPlaybackRecords() {
+        for (NetworkCallRecord record : recordedData.getNetworkCallRecords()) {
+            String key = playbackKey(record.Method, removeHost(record.Uri));
+            Queue<NetworkCallRecord> records = playbackRecords.get(key);
+            if (records == null) {
+                records = new ConcurrentLinkedQueue<>();
+                playbackRecords.put(key, records);
+            }
+            records.add(record);
+        }
+        remainingPlaybackRecords.set(recordedData.getNetworkCallRecords().size());
+        // the records are served from the index from now on
+        recordedData.getNetworkCallRecords().clear();
+    }
+
+    private static String playbackKey(String method, String url) {
+        return method.toUpperCase(Locale.ROOT) + " " + url.toLowerCase(Locale.ROOT);
     }
 
     private void writeDataToFile() throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
-        File recordFile = getRecordFile(testName);
+        File recordFile = getRecordFile(testName, SessionRecordFormat.JSON_EXTENSION);
         recordFile.createNewFile();
-        mapper.writeValue(recordFile, recordedData);
+        SessionRecordFormat.write(recordedData, recordFile);
     }
 
-    private File getRecordFile(String testName) {
+    private File getRecordFile(String testName, String extension) {
         URL folderUrl = InterceptorManager.class.getClassLoader().getResource(".");
         File folderFile = new File(folderUrl.getPath() + RECORD_FOLDER);
         if (!folderFile.exists()) {
             folderFile.mkdir();
         }
-        String filePath = folderFile.getPath() + "/" + testName + ".json";
+        String filePath = folderFile.getPath() + "/" + testName + extension;
         System.out.println("==> Playback file path: " + filePath);
         return new File(filePath);
     }
@@ -301,7 +324,7 @@ public class InterceptorManager {
     private String applyReplacementRule(String text) {
         for (Map.Entry<String, String> rule : textReplacementRules.entrySet()) {
             if (rule.getValue() != null) {
-                text = text.replaceAll(rule.getKey(), rule.getValue());
+                text = textReplacementPatterns.get(rule.getKey()).matcher(text).replaceAll(rule.getValue());
             }
         }
         return text;
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.core;
+
+import com.microsoft.azure.management.resources.fluentcore.utils.SdkContext;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+
+public class InterceptorManagerTests {
+    private static final String TEST_NAME = "InterceptorManagerTests.canPlaybackIndexedRecords";
+    private static final String RESOURCE_GROUP_URL = "http://localhost:1234/subscriptions/"
+            + "00000000-0000-0000-0000-000000000000/resourcegroups/rg12345?api-version=2019-08-01";
+    private static final String MIXED_CASE_RESOURCE_GROUP_URL = "http://localhost:1234/subscriptions/"
+            + "00000000-0000-0000-0000-000000000000/resourceGroups/RG12345?api-version=2019-08-01";
+
+    private Scheduler rxScheduler;
+    private File recordFile;
+
+    @Before
+    public void setup() {
+        // creating an interceptor manager replaces the scheduler of the SDK
+        rxScheduler = SdkContext.getRxScheduler();
+    }
+
+    @After
+    public void cleanup() {
+        SdkContext.setRxScheduler(rxScheduler);
+        if (recordFile != null) {
+            recordFile.delete();
+        }
+    }
+
+    @Test
+    public void canPlaybackIndexedRecords() throws Exception {
+        RecordedData recordedData = new RecordedData();
+        recordedData.getNetworkCallRecords().add(record("GET", "{\"name\":\"first\"}"));
+        recordedData.getNetworkCallRecords().add(record("PUT", "{\"name\":\"created\"}"));
+        recordedData.getNetworkCallRecords().add(record("GET", "{\"name\":\"second\"}"));
+        recordedData.getNetworkCallRecords().add(record("GET", "{\"name\":\"third\"}"));
+        File folder = new File(InterceptorManager.class.getClassLoader().getResource(".").getPath()
+                + "session-records/");
+        folder.mkdirs();
+        recordFile = new File(folder, TEST_NAME + SessionRecordFormat.JSON_EXTENSION);
+        SessionRecordFormat.write(recordedData, recordFile);
+
+        InterceptorManager interceptorManager = InterceptorManager.create(TEST_NAME, TestBase.TestMode.PLAYBACK);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(interceptorManager.initInterceptor())
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) {
+                        // stands for the service, the interceptor replaces the response with the recorded one
+                        return new Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(200)
+                                .message("OK")
+                                .body(ResponseBody.create(MediaType.parse("application/json"), ""))
+                                .build();
+                    }
+                })
+                .build();
+
+        // the records of the same method and url are served in recording order, whatever the case of the url
+        Assert.assertEquals("{\"name\":\"first\"}", call(client, "GET", MIXED_CASE_RESOURCE_GROUP_URL));
+        Assert.assertEquals("{\"name\":\"created\"}", call(client, "PUT", RESOURCE_GROUP_URL));
+        Assert.assertEquals("{\"name\":\"second\"}", call(client, "GET", RESOURCE_GROUP_URL));
+        Assert.assertEquals("{\"name\":\"third\"}", call(client, "GET", MIXED_CASE_RESOURCE_GROUP_URL));
+        try {
+            call(client, "GET", RESOURCE_GROUP_URL);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("Unexpected request: GET"));
+        }
+    }
+
+    private static NetworkCallRecord record(String method, String body) {
+        NetworkCallRecord record = new NetworkCallRecord();
+        record.Method = method;
+        record.Uri = RESOURCE_GROUP_URL;
+        record.Response = new HashMap<>();
+        record.Response.put("StatusCode", "200");
+        record.Response.put("Body", body);
+        return record;
+    }
+
+    private static String call(OkHttpClient client, String method, String url) throws IOException {
+        RequestBody body = "GET".equals(method) ? null : RequestBody.create(MediaType.parse("application/json"), "{}");
+        Response response = client.newCall(new Request.Builder().url(url).method(method, body).build()).execute();
+        try {
+            return response.body().string();
+        } finally {
+            response.close();
+        }
+    }
+}
@@ -6,6 +6,8 @@
 
 package com.microsoft.azure.management.resources.core;
 
+import java.nio.ByteBuffer;
+import java.util.HashMap;
 import java.util.Map;
 
 public class NetworkCallRecord {
@@ -14,4 +16,35 @@ public class NetworkCallRecord {
 
     public Map<String, String> Headers;
     public Map<String, String> Response;
+
+    // the undecoded response body of a record read from a compact recording
+    private ByteBuffer body;
+
+    void setBody(ByteBuffer body) {
+        this.body = body;
+    }
+
+    boolean hasBody() {
+        return body != null || (Response != null && Response.containsKey("Body"));
+    }
+
+    /**
+     * @return the response body, decoded on demand for records read from a compact recording
+     */
+    public String body() {
+        if (body != null) {
+            return SessionRecordFormat.decode(body, 0, body.limit());
+        }
+        return Response == null ? null : Response.get("Body");
+    }
+
+    void materializeBody() {
+        if (body != null) {
+            if (Response == null) {
+                Response = new HashMap<>();
+            }
+            Response.put("Body", body());
+            body = null;
+        }
+    }
 }
@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.core;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes session records.
+ * <p>
+ * Besides the readable JSON format, recordings can be stored in a compact format: a length-prefixed
+ * binary layout, optionally gzip compressed. Response bodies of a compact recording are not decoded
+ * when the recording is loaded; an uncompressed recording is memory mapped and a body is only decoded
+ * when its record is played back.
+ * <p>
+ * The format is chosen by the file extension, see {@link #JSON_EXTENSION}, {@link #COMPACT_EXTENSION} and
+ * {@link #COMPACT_GZIP_EXTENSION}. Run {@link #main(String[])} to convert recordings between formats.
+ */
+public final class SessionRecordFormat {
+    public static final String JSON_EXTENSION = ".json";
+    public static final String COMPACT_EXTENSION = ".rec";
+    public static final String COMPACT_GZIP_EXTENSION = ".rec.gz";
+
+    private static final int MAGIC = 0x415A5243;    // "AZRC"
+    private static final int VERSION = 1;
+    private static final String BODY = "Body";
+
+    private SessionRecordFormat() {
+    }
+
+    /**
+     * Reads a recording in the format given by the file extension.
+     *
+     * @param file the recording file
+     * @return the recorded data
+     * @throws IOException if the file cannot be read
+     */
+    public static RecordedData read(File file) throws IOException {
+        if (file.getName().endsWith(COMPACT_GZIP_EXTENSION)) {
+            // the recording is inflated straight into a buffer of the size stated by the gzip trailer
+            byte[] content = new byte[uncompressedSize(file)];
+            try (DataInputStream inputStream = new DataInputStream(
+                    new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)), 64 * 1024))) {
+                inputStream.readFully(content);
+                if (inputStream.read() != -1) {
+                    throw new IOException("Compact session record is larger than its gzip trailer states: " + file);
+                }
+            }
+            return readCompact(ByteBuffer.wrap(content));
+        } else if (file.getName().endsWith(COMPACT_EXTENSION)) {
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+                // the mapping stays valid after the file is closed
+                return readCompact(randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length()));
+            }
+        } else {
+            return readJson(file);
+        }
+    }
+
+    /**
+     * Writes a recording in the format given by the file extension.
+     *
+     * @param recordedData the recorded data
+     * @param file the recording file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(RecordedData recordedData, File file) throws IOException {
+        if (file.getName().endsWith(COMPACT_GZIP_EXTENSION)) {
+            try (OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(file), 64 * 1024)) {
+                writeCompact(recordedData, outputStream);
+            }
+        } else if (file.getName().endsWith(COMPACT_EXTENSION)) {
+            try (OutputStream outputStream = new FileOutputStream(file)) {
+                writeCompact(recordedData, outputStream);
+            }
+        } else {
+            for (NetworkCallRecord record : recordedData.getNetworkCallRecords()) {
+                record.materializeBody();
+            }
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.enable(SerializationFeature.INDENT_OUTPUT);
+            mapper.writeValue(file, recordedData);
+        }
+    }
+
+    /**
+     * Converts a recording from one format to another.
+     *
+     * @param args the source file and the target file, each in the format given by its extension
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: SessionRecordFormat <source> <target>");
+            System.out.println("Formats by extension: " + JSON_EXTENSION + ", " + COMPACT_EXTENSION + ", " + COMPACT_GZIP_EXTENSION);
+            return;
+        }
+        File source = new File(args[0]);
+        File target = new File(args[1]);
+        RecordedData recordedData = read(source);
+        write(recordedData, target);
+        System.out.println(String.format("Converted %d records: %s (%d bytes) -> %s (%d bytes)",
+                recordedData.getNetworkCallRecords().size(), source, source.length(), target, target.length()));
+    }
+
+    private static RecordedData readJson(File file) throws IOException {
+        // records are bound one at a time instead of building a tree of the whole recording
+        ObjectMapper mapper = new ObjectMapper();
+        RecordedData recordedData = new RecordedData();
+        try (JsonParser parser = mapper.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object in " + file);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("networkCallRecords".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        recordedData.getNetworkCallRecords().add(parser.readValueAs(NetworkCallRecord.class));
+                    }
+                } else if ("variables".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        recordedData.getVariables().add(parser.getValueAsString());
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return recordedData;
+    }
+
+    private static int uncompressedSize(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            if (randomAccessFile.length() < 4) {
+                throw new IOException("Not a gzip compressed session record: " + file);
+            }
+            // the last 4 bytes of a gzip member hold the uncompressed size, little endian
+            randomAccessFile.seek(randomAccessFile.length() - 4);
+            byte[] trailer = new byte[4];
+            randomAccessFile.readFully(trailer);
+            int size = ByteBuffer.wrap(trailer).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            if (size < 0) {
+                throw new IOException("Compact session record is too large to be loaded: " + file);
+            }
+            return size;
+        }
+    }
+
+    private static RecordedData readCompact(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a compact session record");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported compact session record version " + version);
+        }
+        RecordedData recordedData = new RecordedData();
+        int variableCount = buffer.getInt();
+        for (int i = 0; i < variableCount; i++) {
+            recordedData.getVariables().add(readString(buffer));
+        }
+        int recordCount = buffer.getInt();
+        for (int i = 0; i < recordCount; i++) {
+            NetworkCallRecord record = new NetworkCallRecord();
+            record.Method = readString(buffer);
+            record.Uri = readString(buffer);
+            record.Headers = readMap(buffer);
+            record.Response = readMap(buffer);
+            int bodyLength = buffer.getInt();
+            if (bodyLength >= 0) {
+                ByteBuffer body = buffer.slice();
+                body.limit(bodyLength);
+                record.setBody(body);
+                buffer.position(buffer.position() + bodyLength);
+            }
+            recordedData.getNetworkCallRecords().add(record);
+        }
+        return recordedData;
+    }
+
+    private static void writeCompact(RecordedData recordedData, OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(recordedData.getVariables().size());
+        for (String variable : recordedData.getVariables()) {
+            writeString(output, variable);
+        }
+        output.writeInt(recordedData.getNetworkCallRecords().size());
+        for (NetworkCallRecord record : recordedData.getNetworkCallRecords()) {
+            writeString(output, record.Method);
+            writeString(output, record.Uri);
+            writeMap(output, record.Headers);
+            String body = null;
+            Map<String, String> response = record.Response;
+            if (response != null && response.containsKey(BODY)) {
+                response = new HashMap<>(response);
+                body = response.remove(BODY);
+            } else if (record.hasBody()) {
+                body = record.body();
+            }
+            writeMap(output, response);
+            writeString(output, body);
+        }
+        output.flush();
+    }
+
+    private static Map<String, String> readMap(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(readString(buffer), readString(buffer));
+        }
+        return map;
+    }
+
+    private static void writeMap(DataOutputStream output, Map<String, String> map) throws IOException {
+        if (map == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(output, entry.getKey());
+            writeString(output, entry.getValue());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = decode(buffer, buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    static String decode(ByteBuffer buffer, int position, int length) {
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(position);
+        slice.limit(position + length);
+        return StandardCharsets.UTF_8.decode(slice).toString();
+    }
+}
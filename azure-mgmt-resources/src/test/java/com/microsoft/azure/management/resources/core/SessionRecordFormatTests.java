@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.core;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.HashMap;
+
+public class SessionRecordFormatTests {
+
+    @Test
+    public void canConvertBetweenFormats() throws Exception {
+        RecordedData recordedData = new RecordedData();
+        recordedData.getVariables().add("rg12345");
+        NetworkCallRecord record = new NetworkCallRecord();
+        record.Method = "PUT";
+        record.Uri = "http://localhost:1234/subscriptions/00000000-0000-0000-0000-000000000000/resourcegroups/rg12345?api-version=2019-08-01";
+        record.Headers = new HashMap<>();
+        record.Headers.put("Content-Type", "application/json; charset=utf-8");
+        record.Response = new HashMap<>();
+        record.Response.put("StatusCode", "201");
+        record.Response.put("Body", "{\"name\":\"rg12345\",\"location\":\"westus\",\"tags\":{\"k\":\"é中\"}}");
+        recordedData.getNetworkCallRecords().add(record);
+        NetworkCallRecord noBody = new NetworkCallRecord();
+        noBody.Method = "DELETE";
+        noBody.Uri = record.Uri;
+        noBody.Response = new HashMap<>();
+        noBody.Response.put("StatusCode", "202");
+        recordedData.getNetworkCallRecords().add(noBody);
+
+        File json = File.createTempFile("session", SessionRecordFormat.JSON_EXTENSION);
+        File compact = File.createTempFile("session", SessionRecordFormat.COMPACT_EXTENSION);
+        File compactGzip = File.createTempFile("session", SessionRecordFormat.COMPACT_GZIP_EXTENSION);
+        File roundTrip = File.createTempFile("session", SessionRecordFormat.JSON_EXTENSION);
+        json.deleteOnExit();
+        compact.deleteOnExit();
+        compactGzip.deleteOnExit();
+        roundTrip.deleteOnExit();
+
+        SessionRecordFormat.write(recordedData, json);
+        SessionRecordFormat.main(new String[] { json.getPath(), compact.getPath() });
+        SessionRecordFormat.main(new String[] { compact.getPath(), compactGzip.getPath() });
+        SessionRecordFormat.main(new String[] { compactGzip.getPath(), roundTrip.getPath() });
+
+        for (File file : new File[] { compact, compactGzip, roundTrip }) {
+            RecordedData read = SessionRecordFormat.read(file);
+            Assert.assertEquals(1, read.getVariables().size());
+            Assert.assertEquals("rg12345", read.getVariables().getFirst());
+            Assert.assertEquals(2, read.getNetworkCallRecords().size());
+
+            NetworkCallRecord first = read.getNetworkCallRecords().get(0);
+            Assert.assertEquals(record.Method, first.Method);
+            Assert.assertEquals(record.Uri, first.Uri);
+            Assert.assertEquals(record.Headers, first.Headers);
+            Assert.assertEquals("201", first.Response.get("StatusCode"));
+            Assert.assertEquals(record.Response.get("Body"), first.body());
+
+            NetworkCallRecord second = read.getNetworkCallRecords().get(1);
+            Assert.assertNull(second.Headers);
+            Assert.assertNull(second.body());
+        }
+        Assert.assertTrue(compactGzip.length() < json.length());
+    }
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BoundedTaskGroupSchedulerTests {
+    @Test
+    public void canBoundTasksInFlight() {
+        /**
+         *   [A]--->[B]--->[C]--->[ROOT]<---[D]
+         *                          ^
+         *                 [E]------|
+         *                 [F]------|
+         */
+        PastaImpl pastaA = new PastaImpl("A", 100);
+        PastaImpl pastaB = new PastaImpl("B", 100);
+        PastaImpl pastaC = new PastaImpl("C", 100);
+        PastaImpl pastaRoot = new PastaImpl("ROOT", 100);
+        pastaB.withInstantPasta(pastaA);
+        pastaC.withInstantPasta(pastaB);
+        pastaRoot.withInstantPasta(pastaC);
+        pastaRoot.withInstantPasta(new PastaImpl("D", 100));
+        pastaRoot.withInstantPasta(new PastaImpl("E", 100));
+        pastaRoot.withInstantPasta(new PastaImpl("F", 100));
+
+        RecordingListener listener = new RecordingListener();
+        BoundedTaskGroupScheduler scheduler = new BoundedTaskGroupScheduler(2).withListener(listener);
+        listener.scheduler = scheduler;
+        TaskGroup taskGroup = pastaRoot.taskGroup();
+        taskGroup.invokeAsync(taskGroup.newInvocationContext().withScheduler(scheduler))
+                .toBlocking().last();
+
+        Assert.assertEquals(7, listener.started.size());
+        Assert.assertEquals(2, listener.maxInFlight);
+        Assert.assertEquals(0, scheduler.inFlightCount());
+        Assert.assertEquals(0, scheduler.pendingCount());
+        Assert.assertEquals("ROOT", listener.started.get(6));
+    }
+
+    @Test
+    public void canStartCriticalPathFirst() {
+        /**
+         *   [A]--->[B]--->[C]--->[ROOT]<---[D]
+         *                          ^
+         *                 [E]------|
+         */
+        PastaImpl pastaA = new PastaImpl("A", 50);
+        PastaImpl pastaB = new PastaImpl("B", 50);
+        PastaImpl pastaC = new PastaImpl("C", 50);
+        PastaImpl pastaRoot = new PastaImpl("ROOT", 50);
+        pastaB.withInstantPasta(pastaA);
+        pastaC.withInstantPasta(pastaB);
+        pastaRoot.withInstantPasta(new PastaImpl("D", 50));
+        pastaRoot.withInstantPasta(new PastaImpl("E", 50));
+        pastaRoot.withInstantPasta(pastaC);
+
+        RecordingListener listener = new RecordingListener();
+        BoundedTaskGroupScheduler scheduler = new BoundedTaskGroupScheduler(1).withListener(listener);
+        listener.scheduler = scheduler;
+        TaskGroup taskGroup = pastaRoot.taskGroup();
+        taskGroup.invokeAsync(taskGroup.newInvocationContext().withScheduler(scheduler))
+                .toBlocking().last();
+
+        Assert.assertEquals(1, listener.maxInFlight);
+        // the first ready task takes the free slot, after that A and B, which have the longest chains of
+        // dependents, run before the short branches D and E
+        Assert.assertTrue(listener.started.indexOf("A") <= 1);
+        Assert.assertTrue(listener.started.indexOf("B") <= 2);
+        Assert.assertEquals("ROOT", listener.started.get(5));
+    }
+
+    @Test
+    public void canBoundTasksInFlightPerCategory() {
+        PastaImpl pastaRoot = new PastaImpl("ROOT", 50);
+        for (int i = 0; i < 6; i++) {
+            pastaRoot.withInstantPasta(new PastaImpl("P" + i, 50));
+        }
+
+        RecordingListener listener = new RecordingListener();
+        BoundedTaskGroupScheduler scheduler = new BoundedTaskGroupScheduler(10)
+                .withMaxConcurrency("Pasta", 2)
+                .withListener(listener);
+        listener.scheduler = scheduler;
+        TaskGroup taskGroup = pastaRoot.taskGroup();
+        taskGroup.invokeAsync(taskGroup.newInvocationContext().withScheduler(scheduler))
+                .toBlocking().last();
+
+        Assert.assertEquals(7, listener.started.size());
+        Assert.assertEquals(2, listener.maxInFlight);
+    }
+
+    private static class RecordingListener implements BoundedTaskGroupScheduler.Listener {
+        private final List<String> started = Collections.synchronizedList(new ArrayList<String>());
+        private BoundedTaskGroupScheduler scheduler;
+        private int maxInFlight;
+
+        @Override
+        public void onTaskQueued(ScheduledTask task) {
+        }
+
+        @Override
+        public synchronized void onTaskStarted(ScheduledTask task, long queuedInMillis) {
+            started.add(((IPasta) task.worker()).name());
+            maxInFlight = Math.max(maxInFlight, scheduler.inFlightCount());
+        }
+
+        @Override
+        public void onTaskCompleted(ScheduledTask task, long durationInMillis, Throwable error) {
+        }
+    }
+}
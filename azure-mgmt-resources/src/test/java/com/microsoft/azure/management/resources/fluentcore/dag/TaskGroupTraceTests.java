@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.dag;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class TaskGroupTraceTests {
+    @Test
+    public void canTraceCriticalPath() throws Exception {
+        /**
+         *   [C]--->[A]--->[ROOT]
+         *                   ^
+         *          [B]------|
+         */
+        PastaImpl pastaC = new PastaImpl("C", 200);
+        PastaImpl pastaA = new PastaImpl("A", 200);
+        PastaImpl pastaB = new PastaImpl("B", 50);
+        PastaImpl pastaRoot = new PastaImpl("ROOT", 50);
+        pastaA.withInstantPasta(pastaC);
+        pastaRoot.withInstantPasta(pastaA);
+        pastaRoot.withInstantPasta(pastaB);
+
+        TaskGroupTrace trace = new TaskGroupTrace();
+        TaskGroup taskGroup = pastaRoot.taskGroup();
+        taskGroup.invokeAsync(taskGroup.newInvocationContext().withTrace(trace))
+                .toBlocking().last();
+
+        Assert.assertEquals(4, trace.tasks().size());
+        for (TaskTrace task : trace.tasks()) {
+            Assert.assertTrue(task.enqueuedAt() >= 0);
+            Assert.assertTrue(task.startedAt() >= task.enqueuedAt());
+            Assert.assertTrue(task.resultAt() >= task.startedAt());
+            Assert.assertTrue(task.completedAt() >= task.resultAt());
+            Assert.assertNull(task.error());
+        }
+
+        List<String> criticalPath = new ArrayList<>();
+        for (TaskTrace task : trace.criticalPath()) {
+            criticalPath.add(task.name());
+        }
+        Assert.assertEquals("[Pasta C, Pasta A, Pasta ROOT]", criticalPath.toString());
+
+        Map<String, Long> metrics = trace.metrics();
+        Assert.assertEquals(4L, (long) metrics.get("taskCount"));
+        Assert.assertEquals(0L, (long) metrics.get("failedTaskCount"));
+        Assert.assertEquals(3L, (long) metrics.get("criticalPathLength"));
+        Assert.assertEquals(2L, (long) metrics.get("maxInFlight"));
+        Assert.assertTrue(metrics.get("durationInMillis") >= 450);
+
+        JsonNode chromeTrace = new ObjectMapper().readTree(trace.toChromeTrace());
+        int taskEvents = 0;
+        for (JsonNode event : chromeTrace.get("traceEvents")) {
+            Assert.assertEquals("X", event.get("ph").asText());
+            if (!"task".equals(event.get("cat").asText())) {
+                continue;
+            }
+            taskEvents++;
+            Assert.assertEquals(!event.get("name").asText().equals("Pasta B"),
+                    event.get("args").get("criticalPath").asBoolean());
+        }
+        Assert.assertEquals(4, taskEvents);
+    }
+
+    @Test
+    public void canTraceQueuedTasks() {
+        PastaImpl pastaRoot = new PastaImpl("ROOT", 50);
+        for (int i = 0; i < 3; i++) {
+            pastaRoot.withInstantPasta(new PastaImpl("P" + i, 100));
+        }
+
+        TaskGroupTrace trace = new TaskGroupTrace();
+        TaskGroup taskGroup = pastaRoot.taskGroup();
+        taskGroup.invokeAsync(taskGroup.newInvocationContext()
+                .withScheduler(new BoundedTaskGroupScheduler(1))
+                .withTrace(trace))
+                .toBlocking().last();
+
+        Map<String, Long> metrics = trace.metrics();
+        Assert.assertEquals(4L, (long) metrics.get("taskCount"));
+        Assert.assertEquals(1L, (long) metrics.get("maxInFlight"));
+        // the second and third tasks waited for the first one, the third one for the second one too
+        Assert.assertTrue(metrics.get("queuedInMillis") >= 250);
+    }
+}
@@ -4,7 +4,7 @@
  * license information.
  */
 
-package com.microsoft.azure.management.compute.implementation;
+package com.microsoft.azure.management.resources.fluentcore.utils;
 
 import com.microsoft.azure.Page;
 import com.microsoft.azure.PagedList;
@@ -15,6 +15,7 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ChildListFlattenerTests {
 
@@ -50,6 +51,79 @@ public class ChildListFlattenerTests {
         Assert.assertEquals(6, (int) flattenedList.get(5));
     }
 
+    @Test
+    public void testFlattenerWithLookahead() throws Exception {
+        final int parentCount = 20;
+        final int lookahead = 4;
+        List<Integer> parents = new ArrayList<>();
+        for (int i = 0; i < parentCount; i++) {
+            parents.add(i);
+        }
+        final PagedList<Integer> parentList = new PagedList<Integer>(listPage(parents)) {
+            @Override
+            public Page<Integer> nextPage(String nextPageLink) throws RestException, IOException {
+                return null;
+            }
+        };
+        final AtomicInteger loading = new AtomicInteger();
+        final AtomicInteger maxLoading = new AtomicInteger();
+        ChildListFlattener<Integer, Integer> flattener = new ChildListFlattener<>(parentList,
+                new ChildListFlattener.ChildListLoader<Integer, Integer>() {
+                    @Override
+                    public PagedList<Integer> loadList(final Integer parent) {
+                        int current = loading.incrementAndGet();
+                        synchronized (maxLoading) {
+                            maxLoading.set(Math.max(maxLoading.get(), current));
+                        }
+                        try {
+                            Thread.sleep(20);
+                        } catch (InterruptedException e) {
+                            throw new RuntimeException(e);
+                        } finally {
+                            loading.decrementAndGet();
+                        }
+                        // every third parent has no children
+                        List<Integer> children = new ArrayList<>();
+                        if (parent % 3 != 0) {
+                            children.add(parent * 10);
+                            children.add(parent * 10 + 1);
+                        }
+                        return new PagedList<Integer>(listPage(children)) {
+                            @Override
+                            public Page<Integer> nextPage(String nextPageLink) throws RestException, IOException {
+                                return null;
+                            }
+                        };
+                    }
+                }, lookahead);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int parent = 0; parent < parentCount; parent++) {
+            if (parent % 3 != 0) {
+                expected.add(parent * 10);
+                expected.add(parent * 10 + 1);
+            }
+        }
+        List<Integer> flattenedList = new ArrayList<>(flattener.flatten());
+        Assert.assertEquals(expected, flattenedList);
+        Assert.assertTrue(maxLoading.get() > 1);
+        Assert.assertTrue(maxLoading.get() <= lookahead);
+    }
+
+    private static Page<Integer> listPage(final List<Integer> items) {
+        return new Page<Integer>() {
+            @Override
+            public String nextPageLink() {
+                return null;
+            }
+
+            @Override
+            public List<Integer> items() {
+                return items;
+            }
+        };
+    }
+
     private class EmptyPage implements Page<Integer> {
         @Override
         public String nextPageLink() {
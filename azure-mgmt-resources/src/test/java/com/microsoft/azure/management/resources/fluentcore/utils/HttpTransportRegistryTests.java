@@ -0,0 +1,104 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.resources.implementation.ResourceManager;
+import com.microsoft.rest.RestClient;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+public class HttpTransportRegistryTests {
+    private static final String ENDPOINT = "http://localhost:8767/";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(8767);
+
+    @Test
+    public void canShareTransportAcrossManagers() {
+        stubFor(get(urlPathMatching("/subscriptions/[0-9-]+/resourcegroups")).willReturn(okJson("{\"value\":[]}")));
+        HttpTransportRegistry registry = new HttpTransportRegistry();
+        AzureTokenCredentials credentials = credentials();
+
+        for (int i = 0; i < 4; i++) {
+            ResourceManager manager = ResourceManager.configure()
+                    .withSharedTransport(registry)
+                    .authenticate(credentials)
+                    .withSubscription("00000000-0000-0000-0000-00000000000" + i);
+            Assert.assertEquals(0, manager.resourceGroups().list().size());
+        }
+
+        Assert.assertEquals(1, registry.transports().size());
+        HttpTransportRegistry.Transport transport = registry.transports().get(0);
+        Assert.assertEquals(ENDPOINT, transport.endpoint());
+        // the requests of all managers went over one connection
+        Assert.assertEquals(1, transport.connectionCount());
+        verify(4, getRequestedFor(urlPathMatching("/subscriptions/[0-9-]+/resourcegroups")));
+
+        // clients derived from a manager client, e.g. for Kudu, share the transport
+        RestClient restClient = ResourceManager.configure()
+                .withSharedTransport(registry)
+                .authenticate(credentials)
+                .withSubscription("00000000-0000-0000-0000-000000000000")
+                .inner().restClient();
+        RestClient derived = restClient.newBuilder().withBaseUrl("https://contoso.scm.azurewebsites.net/").build();
+        Assert.assertSame(transport.connectionPool(), derived.httpClient().connectionPool());
+        Assert.assertSame(transport.dispatcher(), derived.httpClient().dispatcher());
+
+        registry.evictIdleConnections();
+        Assert.assertEquals(0, transport.idleConnectionCount());
+    }
+
+    @Test
+    public void canSeparateTransportsByCredentials() {
+        HttpTransportRegistry registry = new HttpTransportRegistry().withHttp2Multiplexing();
+        RestClient first = ResourceManager.configure().withSharedTransport(registry).authenticate(credentials())
+                .withSubscription("00000000-0000-0000-0000-000000000000").inner().restClient();
+        RestClient second = ResourceManager.configure().withSharedTransport(registry).authenticate(credentials())
+                .withSubscription("00000000-0000-0000-0000-000000000000").inner().restClient();
+
+        Assert.assertEquals(2, registry.transports().size());
+        Assert.assertNotSame(first.httpClient().connectionPool(), second.httpClient().connectionPool());
+        Assert.assertEquals(registry.protocols(), first.httpClient().protocols());
+    }
+
+    @Test
+    public void canRemoveTransportsOfReleasedCredentials() {
+        HttpTransportRegistry registry = new HttpTransportRegistry();
+        AzureTokenCredentials kept = credentials();
+        AzureTokenCredentials released = credentials();
+        HttpTransportRegistry.Transport keptTransport = registry.transportFor(ENDPOINT, kept);
+        HttpTransportRegistry.Transport releasedTransport = registry.transportFor(ENDPOINT, released);
+        registry.transportFor("https://contoso.scm.azurewebsites.net/", released);
+        registry.transportFor(ENDPOINT, null);
+        Assert.assertEquals(4, registry.transports().size());
+
+        registry.release(released);
+        Assert.assertEquals(2, registry.transports().size());
+        Assert.assertSame(keptTransport, registry.transportFor(ENDPOINT, kept));
+        Assert.assertNotSame(releasedTransport, registry.transportFor(ENDPOINT, released));
+    }
+
+    private static AzureTokenCredentials credentials() {
+        Map<String, String> endpoints = new HashMap<>(AzureEnvironment.AZURE.endpoints());
+        endpoints.put("resourceManagerEndpointUrl", ENDPOINT);
+        return new AzureTokenCredentials(new AzureEnvironment(endpoints), null) {
+            @Override
+            public String getToken(String resource) {
+                return "token";
+            }
+        };
+    }
+}
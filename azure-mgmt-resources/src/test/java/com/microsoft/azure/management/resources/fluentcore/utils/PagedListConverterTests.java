@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.Page;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.management.resources.implementation.PageImpl;
+import org.junit.Assert;
+import org.junit.Test;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PagedListConverterTests {
+    private static final int PAGE_COUNT = 6;
+
+    @Test
+    public void canConvertWithPrefetch() throws Exception {
+        final AtomicInteger lastFetchedPage = new AtomicInteger();
+        PagedList<Integer> converted = new PagedListConverter<String, Integer>() {
+            @Override
+            public Observable<Integer> typeConvertAsync(String s) {
+                return Observable.just(Integer.parseInt(s));
+            }
+        }.convert(pagedList(lastFetchedPage), 2);
+
+        // the list holds page 1, pages ahead of it are fetched in the background, but no more than requested
+        Thread.sleep(500);
+        Assert.assertEquals(3, lastFetchedPage.get());
+
+        List<Integer> items = new ArrayList<>();
+        for (Integer item : converted) {
+            items.add(item);
+        }
+        Assert.assertEquals(PAGE_COUNT * 2, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Assert.assertEquals(i, (int) items.get(i));
+        }
+        Assert.assertEquals(PAGE_COUNT - 1, lastFetchedPage.get());
+    }
+
+    @Test
+    public void canConvertWithoutPrefetch() throws Exception {
+        final AtomicInteger lastFetchedPage = new AtomicInteger();
+        PagedList<Integer> converted = new PagedListConverter<String, Integer>() {
+            @Override
+            public Observable<Integer> typeConvertAsync(String s) {
+                return Observable.just(Integer.parseInt(s));
+            }
+        }.convert(pagedList(lastFetchedPage), 0);
+
+        Thread.sleep(500);
+        Assert.assertEquals(1, lastFetchedPage.get());
+        Assert.assertEquals(PAGE_COUNT * 2, converted.size());
+        Assert.assertEquals(PAGE_COUNT - 1, lastFetchedPage.get());
+    }
+
+    private static PagedList<String> pagedList(final AtomicInteger lastFetchedPage) {
+        return new PagedList<String>(page(0)) {
+            @Override
+            public Page<String> nextPage(String nextPageLink) {
+                int index = Integer.parseInt(nextPageLink);
+                synchronized (lastFetchedPage) {
+                    lastFetchedPage.set(Math.max(index, lastFetchedPage.get()));
+                }
+                return page(index);
+            }
+        };
+    }
+
+    private static Page<String> page(int index) {
+        PageImpl<String> page = new PageImpl<>();
+        page.setItems(Arrays.asList(String.valueOf(index * 2), String.valueOf(index * 2 + 1)));
+        page.setNextPageLink(index + 1 < PAGE_COUNT ? String.valueOf(index + 1) : null);
+        return page;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.management.resources.fluentcore.model.HasInner;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action1;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.schedulers.TestScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PollingWaiterTests {
+    private Scheduler rxScheduler;
+
+    @Before
+    public void setup() {
+        // poll on the thread advancing the test scheduler
+        rxScheduler = SdkContext.getRxScheduler();
+        SdkContext.setRxScheduler(Schedulers.immediate());
+    }
+
+    @After
+    public void cleanup() {
+        SdkContext.setRxScheduler(rxScheduler);
+    }
+
+    @Test
+    public void canWaitWithBackoff() {
+        final AtomicInteger polls = new AtomicInteger();
+        TestScheduler scheduler = new TestScheduler();
+        PollingWaiter waiter = new PollingWaiter()
+                .withInitialDelay(1, TimeUnit.SECONDS)
+                .withMaxDelay(4, TimeUnit.SECONDS)
+                .withBackoffMultiplier(2)
+                .withJitter(0)
+                .withScheduler(scheduler);
+
+        final List<Resource> states = new ArrayList<>();
+        waiter.waitUntilAsync(new Func0<Observable<Resource>>() {
+            @Override
+            public Observable<Resource> call() {
+                int poll = polls.incrementAndGet();
+                return Observable.just(new Resource(poll == 5 ? "Succeeded" : "Creating"));
+            }
+        }, PollingWaiter.whenInner(new Func1<String, Boolean>() {
+            @Override
+            public Boolean call(String state) {
+                return "Succeeded".equals(state);
+            }
+        })).subscribe(new Action1<Resource>() {
+            @Override
+            public void call(Resource resource) {
+                states.add(resource);
+            }
+        });
+
+        // the waits after the polls are 1, 2, 4 and 4 seconds
+        Assert.assertEquals(1, polls.get());
+        scheduler.advanceTimeBy(999, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(1, polls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(2, polls.get());
+        scheduler.advanceTimeBy(2, TimeUnit.SECONDS);
+        Assert.assertEquals(3, polls.get());
+        scheduler.advanceTimeBy(4, TimeUnit.SECONDS);
+        Assert.assertEquals(4, polls.get());
+        scheduler.advanceTimeBy(3999, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(4, polls.get());
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(5, polls.get());
+
+        Assert.assertEquals(1, states.size());
+        Assert.assertEquals("Succeeded", states.get(0).inner());
+    }
+
+    @Test
+    public void canCancelWait() {
+        final AtomicInteger polls = new AtomicInteger();
+        TestScheduler scheduler = new TestScheduler();
+        PollingWaiter waiter = new PollingWaiter()
+                .withInitialDelay(1, TimeUnit.SECONDS)
+                .withScheduler(scheduler);
+
+        Subscription subscription = waiter.waitUntilAsync(new Func0<Observable<Resource>>() {
+            @Override
+            public Observable<Resource> call() {
+                polls.incrementAndGet();
+                return Observable.just(new Resource("Creating"));
+            }
+        }, PollingWaiter.whenInner(new Func1<String, Boolean>() {
+            @Override
+            public Boolean call(String state) {
+                return false;
+            }
+        })).subscribe();
+
+        Assert.assertEquals(1, polls.get());
+        subscription.unsubscribe();
+        scheduler.advanceTimeBy(1, TimeUnit.MINUTES);
+        Assert.assertEquals(1, polls.get());
+    }
+
+    @Test
+    public void canTimeOut() {
+        PollingWaiter waiter = new PollingWaiter()
+                .withInitialDelay(10, TimeUnit.MILLISECONDS)
+                .withTimeout(50, TimeUnit.MILLISECONDS);
+        try {
+            waiter.waitUntilAsync(new Func0<Observable<String>>() {
+                @Override
+                public Observable<String> call() {
+                    return Observable.just("Creating");
+                }
+            }, new Func1<String, Boolean>() {
+                @Override
+                public Boolean call(String state) {
+                    return false;
+                }
+            }).toBlocking().single();
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    private static class Resource implements HasInner<String> {
+        private final String state;
+
+        Resource(String state) {
+            this.state = state;
+        }
+
+        @Override
+        public String inner() {
+            return state;
+        }
+    }
+}
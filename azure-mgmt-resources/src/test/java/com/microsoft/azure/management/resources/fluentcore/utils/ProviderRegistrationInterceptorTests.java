@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
+import retrofit2.http.PUT;
+import retrofit2.http.Path;
+import rx.Observable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+
+public class ProviderRegistrationInterceptorTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String NAMESPACE = "Microsoft.Test";
+    private static final String REGISTERED = "Registered";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(8766);
+
+    @Test
+    public void canShareProviderRegistration() throws Exception {
+        stubFor(put(urlMatching("/subscriptions/[0-9-]+/resourcegroups/[a-z0-9]+"))
+                .inScenario("registration").whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(409).withBody("{\"error\":{\"code\":\"MissingSubscriptionRegistration\","
+                        + "\"message\":\"The subscription is not registered to use namespace '" + NAMESPACE + "'.\"}}")));
+        stubFor(put(urlMatching("/subscriptions/[0-9-]+/resourcegroups/[a-z0-9]+"))
+                .inScenario("registration").whenScenarioStateIs(REGISTERED)
+                .willReturn(okJson("{}")));
+        stubFor(post(urlPathEqualTo("/subscriptions/" + SUBSCRIPTION_ID + "/providers/" + NAMESPACE + "/register"))
+                .willReturn(okJson(providerJson("Registering"))));
+        stubFor(get(urlPathEqualTo("/subscriptions/" + SUBSCRIPTION_ID + "/providers/" + NAMESPACE))
+                .inScenario("registration")
+                .willReturn(okJson(providerJson(REGISTERED)))
+                .willSetStateTo(REGISTERED));
+
+        ProviderRegistrationCoordinator coordinator = new ProviderRegistrationCoordinator(10);
+        final ResourceGroupsService service = service(coordinator);
+
+        final List<Integer> codes = Collections.synchronizedList(new ArrayList<Integer>());
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        for (int i = 0; i < 10; i++) {
+            final String resourceGroupName = "rg" + i;
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    codes.add(service.createOrUpdate(resourceGroupName, SUBSCRIPTION_ID).toBlocking().single().code());
+                }
+            });
+        }
+        pool.shutdown();
+        Assert.assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        Assert.assertEquals(Collections.nCopies(10, 200), codes);
+        verify(1, postRequestedFor(urlPathEqualTo("/subscriptions/" + SUBSCRIPTION_ID + "/providers/" + NAMESPACE + "/register")));
+        Assert.assertTrue(coordinator.isRegistered(ProviderRegistrationCoordinator.keyOf(
+                "http://localhost:8766/", SUBSCRIPTION_ID, NAMESPACE)));
+    }
+
+    @Test
+    public void canPassThroughOtherFailures() {
+        stubFor(put(urlMatching("/subscriptions/[0-9-]+/resourcegroups/[a-z0-9]+"))
+                .willReturn(aResponse().withStatus(409).withBody("{\"error\":{\"code\":\"Conflict\",\"message\":\"'rg'\"}}")));
+
+        Response<ResponseBody> response = service(new ProviderRegistrationCoordinator(10))
+                .createOrUpdate("rg", SUBSCRIPTION_ID).toBlocking().single();
+
+        Assert.assertEquals(409, response.code());
+        verify(1, putRequestedFor(urlMatching("/subscriptions/[0-9-]+/resourcegroups/rg")));
+        verify(0, postRequestedFor(anyUrl()));
+    }
+
+    private static ResourceGroupsService service(ProviderRegistrationCoordinator coordinator) {
+        AzureTokenCredentials credentials = new AzureTokenCredentials(AzureEnvironment.AZURE, null) {
+            @Override
+            public String getToken(String resource) {
+                return "token";
+            }
+        };
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new ProviderRegistrationInterceptor(credentials, coordinator))
+                .build();
+        return new Retrofit.Builder()
+                .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
+                .client(client)
+                .baseUrl("http://localhost:8766/")
+                .build()
+                .create(ResourceGroupsService.class);
+    }
+
+    private static String providerJson(String registrationState) {
+        return "{\"id\":\"/subscriptions/" + SUBSCRIPTION_ID + "/providers/" + NAMESPACE + "\",\"namespace\":\""
+                + NAMESPACE + "\",\"registrationState\":\"" + registrationState + "\",\"resourceTypes\":[]}";
+    }
+
+    interface ResourceGroupsService {
+        @PUT("subscriptions/{subscriptionId}/resourcegroups/{resourceGroupName}")
+        Observable<Response<ResponseBody>> createOrUpdate(@Path("resourceGroupName") String resourceGroupName, @Path("subscriptionId") String subscriptionId);
+    }
+}
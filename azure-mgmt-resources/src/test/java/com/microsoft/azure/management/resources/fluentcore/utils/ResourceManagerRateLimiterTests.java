@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResourceManagerRateLimiterTests {
+    private static final String SUBSCRIPTION = "00000000-0000-0000-0000-000000000000";
+
+    @Test
+    public void canReserveWithoutWaitingWhenQuotaIsAvailable() {
+        ResourceManagerRateLimiter limiter = new ResourceManagerRateLimiter();
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(0, limiter.reserve(SUBSCRIPTION, false));
+            Assert.assertEquals(0, limiter.reserve(SUBSCRIPTION, true));
+        }
+    }
+
+    @Test
+    public void canSlowDownWhenRemainingQuotaIsLow() {
+        // 3600 writes per hour is one write per second
+        ResourceManagerRateLimiter limiter = new ResourceManagerRateLimiter(3600, 3600);
+        limiter.update(SUBSCRIPTION, true, 1);
+        Assert.assertEquals(0, limiter.reserve(SUBSCRIPTION, true));
+        long firstWait = limiter.reserve(SUBSCRIPTION, true);
+        long secondWait = limiter.reserve(SUBSCRIPTION, true);
+        Assert.assertTrue(firstWait > 0 && firstWait <= 1000);
+        Assert.assertTrue(secondWait > firstWait && secondWait <= 2000);
+        // reads are tracked in their own bucket
+        Assert.assertEquals(0, limiter.reserve(SUBSCRIPTION, false));
+    }
+
+    @Test
+    public void canHoldBackAllRequestsAfterThrottle() {
+        ResourceManagerRateLimiter limiter = new ResourceManagerRateLimiter();
+        limiter.throttled(SUBSCRIPTION, false, 5000);
+        Assert.assertTrue(limiter.reserve(SUBSCRIPTION, false) >= 5000);
+        Assert.assertTrue(limiter.reserve(SUBSCRIPTION, false) >= 5000);
+        // other scopes are not affected
+        Assert.assertEquals(0, limiter.reserve(ResourceManagerRateLimiter.TENANT_SCOPE, false));
+        // the service reporting quota does not release requests queued behind a throttle
+        limiter.update(SUBSCRIPTION, false, 100);
+        Assert.assertTrue(limiter.reserve(SUBSCRIPTION, false) >= 5000);
+    }
+
+    @Test
+    public void canReportMetrics() {
+        ResourceManagerRateLimiter limiter = new ResourceManagerRateLimiter(3600, 3600);
+        limiter.update(SUBSCRIPTION, false, 0);
+        long waited = limiter.acquireAsync(SUBSCRIPTION, false).toBlocking().single();
+        Assert.assertTrue(waited > 0);
+
+        ResourceManagerRateLimiter.Metrics metrics = limiter.metrics(SUBSCRIPTION, false);
+        Assert.assertEquals(0, metrics.queueDepth());
+        Assert.assertEquals(1, metrics.waitCount());
+        Assert.assertEquals(waited, metrics.totalWaitInMillis());
+        Assert.assertEquals(waited, metrics.maxWaitInMillis());
+        Assert.assertEquals(1, limiter.metrics().size());
+    }
+}
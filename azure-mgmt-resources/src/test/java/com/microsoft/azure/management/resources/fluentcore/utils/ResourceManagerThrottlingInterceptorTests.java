@@ -9,7 +9,11 @@ package com.microsoft.azure.management.resources.fluentcore.utils;
 import com.github.tomakehurst.wiremock.junit.WireMockRule;
 import com.microsoft.rest.LogLevel;
 import com.microsoft.rest.interceptors.LoggingInterceptor;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
 import okhttp3.ResponseBody;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -80,6 +84,34 @@ public class ResourceManagerThrottlingInterceptorTests {
         Assert.assertTrue(getCompleteTime[0] < putCompleteTime[0]);
     }
 
+    @Test
+    public void canTrackTenantQuotaPerTenant() throws Exception {
+        // 3600 reads per hour is one read per second
+        ResourceManagerRateLimiter limiter = new ResourceManagerRateLimiter(3600, 3600);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new ResourceManagerThrottlingInterceptor(limiter, true, "tenant1"))
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public okhttp3.Response intercept(Chain chain) {
+                        return new okhttp3.Response.Builder()
+                                .request(chain.request())
+                                .protocol(Protocol.HTTP_1_1)
+                                .code(200)
+                                .message("OK")
+                                .header("x-ms-ratelimit-remaining-tenant-reads", "0")
+                                .body(ResponseBody.create(MediaType.parse("application/json"), "{}"))
+                                .build();
+                    }
+                })
+                .build();
+        client.newCall(new Request.Builder().url("http://localhost/subscriptions").build()).execute().close();
+
+        // the other tenant and the requests of an unknown tenant keep their quota
+        Assert.assertTrue(limiter.reserve(ResourceManagerRateLimiter.tenantScope("TENANT1"), false) > 0);
+        Assert.assertEquals(0, limiter.reserve(ResourceManagerRateLimiter.tenantScope("tenant2"), false));
+        Assert.assertEquals(0, limiter.reserve(ResourceManagerRateLimiter.TENANT_SCOPE, false));
+    }
+
     interface ResourceGroupsService {
         @Headers({"Content-Type: application/json; charset=utf-8", "x-ms-logging-context: com.microsoft.azure.management.resources.ResourceGroups createOrUpdate"})
         @PUT("subscriptions/{subscriptionId}/resourcegroups/{resourceGroupName}")
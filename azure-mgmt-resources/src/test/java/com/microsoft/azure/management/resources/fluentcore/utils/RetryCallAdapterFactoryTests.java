@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.microsoft.azure.AzureEnvironment;
+import com.microsoft.azure.credentials.AzureTokenCredentials;
+import com.microsoft.azure.management.resources.implementation.ResourceManager;
+import com.microsoft.rest.RestClient;
+import okhttp3.OkHttpClient;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+import retrofit2.http.Path;
+import rx.Observable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.ok;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlMatching;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
+
+public class RetryCallAdapterFactoryTests {
+    private static final String ZERO_SUBSCRIPTION = "00000000-0000-0000-0000-000000000000";
+    private static final String ENDPOINT = "http://localhost:8766/";
+    private static final String RESOURCE_GROUP_URL = "/subscriptions/[0-9-]+/resourcegroups/[a-z0-9]+";
+
+    @Rule
+    public WireMockRule wireMockRule = new WireMockRule(8766);
+
+    @Test
+    public void canRetryTransientFailureWithBackoff() {
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).inScenario("transient")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).inScenario("transient")
+                .whenScenarioStateIs("recovered")
+                .willReturn(ok()));
+
+        Response<ResponseBody> response = service(new RetryPolicy().withInitialDelay(10, TimeUnit.MILLISECONDS))
+                .get("rg", ZERO_SUBSCRIPTION).toBlocking().single();
+
+        Assert.assertEquals(200, response.code());
+        verify(2, getRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+    }
+
+    @Test
+    public void canRetryThrottledRequestAfterRetryAfter() {
+        stubFor(put(urlMatching(RESOURCE_GROUP_URL)).inScenario("throttled")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1"))
+                .willSetStateTo("accepted"));
+        stubFor(put(urlMatching(RESOURCE_GROUP_URL)).inScenario("throttled")
+                .whenScenarioStateIs("accepted")
+                .willReturn(ok()));
+
+        long start = System.currentTimeMillis();
+        Response<ResponseBody> response = service(new RetryPolicy().withInitialDelay(10, TimeUnit.MILLISECONDS))
+                .createOrUpdate("rg", ZERO_SUBSCRIPTION).toBlocking().single();
+
+        Assert.assertEquals(200, response.code());
+        Assert.assertTrue(System.currentTimeMillis() - start >= 1000);
+        verify(2, putRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+    }
+
+    @Test
+    public void canReturnLastResponseWhenRetriesAreExhausted() {
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).willReturn(aResponse().withStatus(500)));
+        stubFor(post(urlMatching(RESOURCE_GROUP_URL)).willReturn(aResponse().withStatus(500)));
+
+        RetryPolicy retryPolicy = new RetryPolicy().withMaxRetries(2).withInitialDelay(10, TimeUnit.MILLISECONDS);
+        Assert.assertEquals(500, service(retryPolicy).get("rg", ZERO_SUBSCRIPTION).toBlocking().single().code());
+        verify(3, getRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+
+        // not idempotent, a transient failure is not retried
+        Assert.assertEquals(500, service(retryPolicy).export("rg", ZERO_SUBSCRIPTION).toBlocking().single().code());
+        verify(1, postRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+    }
+
+    @Test
+    public void canRetryOnlyInCallAdapterOfManagerClient() {
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).inScenario("transient")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).inScenario("transient")
+                .whenScenarioStateIs("recovered")
+                .willReturn(ok()));
+        stubFor(post(urlMatching(RESOURCE_GROUP_URL)).willReturn(aResponse().withStatus(500)));
+
+        ResourceGroupsService service = managerRestClient().retrofit().create(ResourceGroupsService.class);
+        Assert.assertEquals(200, service.get("rg", ZERO_SUBSCRIPTION).toBlocking().single().code());
+        verify(2, getRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+
+        // not retried by the call adapter, and not by ms-rest either
+        Assert.assertEquals(500, service.export("rg", ZERO_SUBSCRIPTION).toBlocking().single().code());
+        verify(1, postRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+    }
+
+    @Test
+    public void canRetryRequestNotAdaptedInManagerClient() {
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).inScenario("transient")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(503))
+                .willSetStateTo("recovered"));
+        stubFor(get(urlMatching(RESOURCE_GROUP_URL)).inScenario("transient")
+                .whenScenarioStateIs("recovered")
+                .willReturn(ok()));
+
+        // the body alone is not adapted by the call adapter, so ms-rest still retries it
+        ResourceGroupsService service = managerRestClient().retrofit().create(ResourceGroupsService.class);
+        service.getBody("rg", ZERO_SUBSCRIPTION).toBlocking().single().close();
+        verify(2, getRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+    }
+
+    @Test
+    public void canRetryThrottledRequestOfDerivedClient() {
+        stubFor(put(urlMatching(RESOURCE_GROUP_URL)).inScenario("throttled")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willReturn(aResponse().withStatus(429).withHeader("Retry-After", "1"))
+                .willSetStateTo("accepted"));
+        stubFor(put(urlMatching(RESOURCE_GROUP_URL)).inScenario("throttled")
+                .whenScenarioStateIs("accepted")
+                .willReturn(ok()));
+
+        RestClient derived = Utils.newDerivedRestClientBuilder(managerRestClient())
+                .withBaseUrl(ENDPOINT)
+                .build();
+        Response<ResponseBody> response = derived.retrofit().create(ResourceGroupsService.class)
+                .createOrUpdate("rg", ZERO_SUBSCRIPTION).toBlocking().single();
+
+        Assert.assertEquals(200, response.code());
+        verify(2, putRequestedFor(urlMatching(RESOURCE_GROUP_URL)));
+    }
+
+    private static RestClient managerRestClient() {
+        Map<String, String> endpoints = new HashMap<>(AzureEnvironment.AZURE.endpoints());
+        endpoints.put("resourceManagerEndpointUrl", ENDPOINT);
+        AzureTokenCredentials credentials = new AzureTokenCredentials(new AzureEnvironment(endpoints), null) {
+            @Override
+            public String getToken(String resource) {
+                return "token";
+            }
+        };
+        return ResourceManager.configure()
+                .authenticate(credentials)
+                .withSubscription(ZERO_SUBSCRIPTION)
+                .inner().restClient();
+    }
+
+    private ResourceGroupsService service(RetryPolicy retryPolicy) {
+        Retrofit retrofit = new Retrofit.Builder()
+                .addCallAdapterFactory(new RetryCallAdapterFactory(retryPolicy, new ResourceManagerRateLimiter()))
+                .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
+                .client(new OkHttpClient())
+                .baseUrl(ENDPOINT)
+                .build();
+        return retrofit.create(ResourceGroupsService.class);
+    }
+
+    private interface ResourceGroupsService {
+        @PUT("subscriptions/{subscriptionId}/resourcegroups/{resourceGroupName}")
+        Observable<Response<ResponseBody>> createOrUpdate(@Path("resourceGroupName") String resourceGroupName, @Path("subscriptionId") String subscriptionId);
+
+        @GET("subscriptions/{subscriptionId}/resourcegroups/{resourceGroupName}")
+        Observable<Response<ResponseBody>> get(@Path("resourceGroupName") String resourceGroupName, @Path("subscriptionId") String subscriptionId);
+
+        @GET("subscriptions/{subscriptionId}/resourcegroups/{resourceGroupName}")
+        Observable<ResponseBody> getBody(@Path("resourceGroupName") String resourceGroupName, @Path("subscriptionId") String subscriptionId);
+
+        @POST("subscriptions/{subscriptionId}/resourcegroups/{resourceGroupName}")
+        Observable<Response<ResponseBody>> export(@Path("resourceGroupName") String resourceGroupName, @Path("subscriptionId") String subscriptionId);
+    }
+}
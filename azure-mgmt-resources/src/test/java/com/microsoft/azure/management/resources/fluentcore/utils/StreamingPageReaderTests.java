@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for
+ * license information.
+ */
+
+package com.microsoft.azure.management.resources.fluentcore.utils;
+
+import com.microsoft.azure.AzureResponseBuilder;
+import com.microsoft.azure.CloudException;
+import com.microsoft.azure.PagedList;
+import com.microsoft.azure.management.resources.GenericResource;
+import com.microsoft.azure.management.resources.implementation.ResourceManager;
+import com.microsoft.azure.serializer.AzureJacksonAdapter;
+import com.microsoft.rest.RestClient;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class StreamingPageReaderTests {
+    private static final String SUBSCRIPTION_ID = "00000000-0000-0000-0000-000000000000";
+    private static final String RESOURCES_URL = "https://management.azure.com/subscriptions/" + SUBSCRIPTION_ID
+            + "/resources";
+
+    @Test
+    public void canReadItemsOfAllPages() {
+        FakePages pages = new FakePages();
+        // the next link may come before or after the items, other properties are skipped
+        pages.put("/resources", "{\"nextLink\":\"" + RESOURCES_URL + "?page=2\",\"value\":["
+                + resourceJson("vm1") + "," + resourceJson("vm2") + "],\"count\":{\"type\":\"Total\",\"value\":5}}");
+        pages.put("page=2", "{\"value\":[" + resourceJson("vm3") + "],\"nextLink\":\"" + RESOURCES_URL + "?page=3\"}");
+        pages.put("page=3", "{\"value\":[],\"nextLink\":\"" + RESOURCES_URL + "?page=4\"}");
+        pages.put("page=4", "{\"value\":[" + resourceJson("vm4") + "," + resourceJson("vm5") + "],\"nextLink\":null}");
+        ResourceManager manager = manager(pages);
+
+        final List<String> names = new ArrayList<>();
+        for (GenericResource resource : manager.genericResources().listAsync().toBlocking().toIterable()) {
+            names.add(resource.name());
+        }
+        Assert.assertEquals("[vm1, vm2, vm3, vm4, vm5]", names.toString());
+        Assert.assertEquals(4, pages.requestCount);
+
+        // only the first page is read until the first item is taken
+        pages.requestCount = 0;
+        GenericResource first = manager.genericResources().listAsync().toBlocking().first();
+        Assert.assertEquals("vm1", first.name());
+        Assert.assertEquals("Microsoft.Compute/virtualMachines", first.inner().type());
+        Assert.assertEquals(1, pages.requestCount);
+
+        PagedList<GenericResource> resources = manager.genericResources().list();
+        Assert.assertEquals(5, resources.size());
+        Assert.assertEquals("vm5", resources.get(4).name());
+        Assert.assertEquals(5, manager.genericResources().listAsync().count().toBlocking().single().intValue());
+    }
+
+    @Test
+    public void canReadEmptyList() {
+        FakePages pages = new FakePages();
+        pages.put("/resources", "{\"value\":[]}");
+        ResourceManager manager = manager(pages);
+
+        Assert.assertTrue(manager.genericResources().listAsync().toList().toBlocking().single().isEmpty());
+        Assert.assertTrue(manager.genericResources().list().isEmpty());
+    }
+
+    @Test
+    public void canReportErrorResponse() {
+        FakePages pages = new FakePages();
+        ResourceManager manager = manager(pages);
+
+        try {
+            manager.genericResources().listByResourceGroupAsync("rg").toBlocking().last();
+            Assert.fail();
+        } catch (CloudException e) {
+            Assert.assertEquals("ResourceGroupNotFound", e.body().code());
+        }
+        try {
+            manager.genericResources().listByResourceGroup("rg");
+            Assert.fail();
+        } catch (CloudException e) {
+            Assert.assertEquals(404, e.response().code());
+        }
+    }
+
+    private static ResourceManager manager(FakePages pages) {
+        RestClient restClient = new RestClient.Builder()
+                .withBaseUrl("https://management.azure.com/")
+                .withSerializerAdapter(new AzureJacksonAdapter())
+                .withResponseBuilderFactory(new AzureResponseBuilder.Factory())
+                .withInterceptor(pages)
+                .build();
+        return ResourceManager.authenticate(restClient).withSubscription(SUBSCRIPTION_ID);
+    }
+
+    private static String resourceJson(String name) {
+        return "{\"id\":\"/subscriptions/" + SUBSCRIPTION_ID + "/resourceGroups/rg/providers/"
+                + "Microsoft.Compute/virtualMachines/" + name + "\",\"name\":\"" + name
+                + "\",\"type\":\"Microsoft.Compute/virtualMachines\",\"location\":\"westus\","
+                + "\"properties\":{\"hardwareProfile\":{\"vmSize\":\"Standard_D2s_v3\"}}}";
+    }
+
+    /**
+     * Serves the pages of a list, matched by the end of the request URL.
+     */
+    private static class FakePages implements Interceptor {
+        private final Map<String, String> pages = new HashMap<>();
+        private int requestCount;
+
+        void put(String urlSuffix, String json) {
+            pages.put(urlSuffix, json);
+        }
+
+        @Override
+        public synchronized Response intercept(Chain chain) throws IOException {
+            Request request = chain.request();
+            requestCount++;
+            String query = request.url().query();
+            String key = query != null && query.startsWith("page=") ? query : request.url().encodedPath()
+                    .substring(request.url().encodedPath().lastIndexOf('/'));
+            String json = pages.get(key);
+            int code = json == null ? 404 : 200;
+            if (json == null) {
+                json = "{\"error\":{\"code\":\"ResourceGroupNotFound\",\"message\":\"not found\"}}";
+            }
+            return new Response.Builder()
+                    .request(request)
+                    .protocol(Protocol.HTTP_1_1)
+                    .code(code)
+                    .message(String.valueOf(code))
+                    .body(ResponseBody.create(MediaType.parse("application/json"), json))
+                    .build();
+        }
+    }
+}